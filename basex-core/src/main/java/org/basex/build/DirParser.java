@@ -4,13 +4,17 @@ import static org.basex.core.Text.*;
 
 import java.io.*;
 import java.util.*;
+import java.util.concurrent.*;
 import java.util.regex.*;
 import java.util.zip.*;
 
 import org.basex.core.*;
 import org.basex.core.MainOptions.MainParser;
+import org.basex.data.*;
 import org.basex.io.*;
 import org.basex.io.in.*;
+import org.basex.io.serial.*;
+import org.basex.query.value.node.*;
 import org.basex.util.*;
 import org.basex.util.list.*;
 
@@ -18,6 +22,9 @@ import org.basex.util.list.*;
  * This class recursively scans files and directories and parses all
  * relevant files.
  *
+ * If {@link MainOptions#PARSETHREADS} is greater than 1, files are parsed in parallel into
+ * main-memory instances, which are then added to the builder in document order.
+ *
  * @author BaseX Team 2005-20, BSD License
  * @author Christian Gruen
  */
@@ -45,6 +52,10 @@ public final class DirParser extends Parser {
   private final boolean rawParser;
   /** Archive name. */
   private final boolean archiveName;
+  /** Number of parsing threads. */
+  private final int threads;
+  /** Documents that are parsed in parallel, in document order. */
+  private final ArrayDeque<Parsed> queue = new ArrayDeque<>();
 
   /** Last source. */
   private IO lastSrc;
@@ -52,6 +63,16 @@ public final class DirParser extends Parser {
   private Parser parser;
   /** Resource counter. */
   private int resources;
+  /** Thread pool ({@code null} if files are parsed sequentially). */
+  private ExecutorService pool;
+  /** Serializer for adding documents that have been parsed in parallel. */
+  private BuilderSerializer serializer;
+  /** Number of documents that have been parsed in parallel. */
+  private int docs;
+  /** Size of the documents that have been parsed in parallel. */
+  private long size;
+  /** Parsing time (ns). */
+  private long time;
 
   /**
    * Constructor.
@@ -75,6 +96,7 @@ public final class DirParser extends Parser {
     addRaw = options.get(MainOptions.ADDRAW);
     dtd = options.get(MainOptions.DTD);
     rawParser = options.get(MainOptions.PARSER) == MainParser.RAW;
+    threads = Math.max(1, options.get(MainOptions.PARSETHREADS));
     filter = !isDir && !source.isArchive() ? null :
       Pattern.compile(IOFile.regex(options.get(MainOptions.CREATEFILTER)));
   }
@@ -83,7 +105,25 @@ public final class DirParser extends Parser {
   public void parse(final Builder build) throws IOException {
     build.meta.inputsize = 0;
     build.meta.original = original;
-    parse(build, source);
+    if(threads == 1) {
+      parse(build, source);
+      return;
+    }
+
+    final Performance perf = new Performance();
+    pool = Executors.newFixedThreadPool(threads);
+    serializer = new BuilderSerializer(build);
+    try {
+      parse(build, source);
+      while(!queue.isEmpty()) add(build);
+    } finally {
+      pool.shutdownNow();
+      pool = null;
+      serializer = null;
+      queue.clear();
+    }
+    time = perf.ns();
+    size = build.meta.inputsize;
   }
 
   /**
@@ -179,6 +219,9 @@ public final class DirParser extends Parser {
     if(include ? rawParser : addRaw) {
       // store input in raw format if raw parser was chosen, or if file was included otherwise
       builder.binary(targ + name, source);
+    } else if(include && pool != null) {
+      // parse input in parallel
+      submit(builder, name, targ);
     } else if(include) {
       // store input as XML
       boolean ok = true;
@@ -216,9 +259,66 @@ public final class DirParser extends Parser {
     if(Prop.debug && (++resources & 0x3FF) == 0) Util.err(";");
   }
 
+  /**
+   * Submits the current source for being parsed in parallel.
+   * @param builder builder instance
+   * @param name name of the source
+   * @param targ target path
+   * @throws IOException I/O exception
+   */
+  private void submit(final Builder builder, final String name, final String targ)
+      throws IOException {
+
+    // cache contents of streamed input (archive entries)
+    IO in = source;
+    if(!(in instanceof IOFile || in instanceof IOContent)) {
+      in = new IOContent(source.read());
+      in.name(name);
+    }
+    final IO input = in;
+    queue.add(new Parsed(source.path(), pool.submit(() ->
+      MemBuilder.build("", Parser.singleParser(input, options, targ)))));
+
+    // limit number of cached documents
+    if(queue.size() > threads << 2) add(builder);
+  }
+
+  /**
+   * Adds the first document that has been parsed in parallel to the builder.
+   * @param builder builder instance
+   * @throws IOException I/O exception
+   */
+  private void add(final Builder builder) throws IOException {
+    final Parsed parsed = queue.poll();
+    final MemData data;
+    try {
+      data = parsed.future.get();
+    } catch(final InterruptedException ex) {
+      throw new IOException(ex);
+    } catch(final ExecutionException ex) {
+      final Throwable th = ex.getCause();
+      if(th instanceof RuntimeException) throw (RuntimeException) th;
+      if(th instanceof Error) throw (Error) th;
+      if(!skipCorrupt) throw th instanceof IOException ? (IOException) th : new IOException(th);
+      Util.debug(th);
+      skipped.add(parsed.path);
+      return;
+    }
+    builder.checkStop();
+    final IntList pres = data.resources.docs();
+    final int ps = pres.size();
+    for(int p = 0; p < ps; p++) serializer.serialize(new DBNode(data, pres.get(p)));
+    docs++;
+  }
+
   @Override
   public String info() {
     final TokenBuilder tb = new TokenBuilder();
+    if(docs > 0) {
+      final double sec = Math.max(1, time) / 1000000000d;
+      tb.addExt(PARSED_X_X_X_X_X, docs, Performance.format(size), threads, (long) (docs / sec),
+          Performance.format((long) (size / sec))).add(NL);
+    }
     if(!skipped.isEmpty()) {
       tb.add(SKIPPED).add(COL).add(NL);
       final int s = skipped.size();
@@ -249,4 +349,24 @@ public final class DirParser extends Parser {
   public void close() throws IOException {
     if(parser != null) parser.close();
   }
+
+  /**
+   * Document that is parsed in parallel.
+   */
+  private static final class Parsed {
+    /** Path to the input. */
+    private final String path;
+    /** Parsed document. */
+    private final Future<MemData> future;
+
+    /**
+     * Constructor.
+     * @param path path to the input
+     * @param future parsed document
+     */
+    private Parsed(final String path, final Future<MemData> future) {
+      this.path = path;
+      this.future = future;
+    }
+  }
 }
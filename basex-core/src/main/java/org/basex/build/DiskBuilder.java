@@ -70,8 +70,8 @@ public final class DiskBuilder extends Builder {
     try {
       try {
         tout = new DataOutput(new TableOutput(meta, DATATBL));
-        xout = new DataOutput(meta.dbFile(DATATXT), bs);
-        vout = new DataOutput(meta.dbFile(DATAATV), bs);
+        xout = heap(DATATXT, bs);
+        vout = heap(DATAATV, bs);
         sout = new DataOutput(meta.dbFile(DATATMP), bs);
         parse();
       } finally {
@@ -153,6 +153,19 @@ public final class DiskBuilder extends Builder {
     ++ssize;
   }
 
+  /**
+   * Creates the output for a heap file with texts or attribute values.
+   * @param name name of the file
+   * @param bs buffer size
+   * @return output stream
+   * @throws IOException I/O exception
+   */
+  private DataOutput heap(final String name, final int bs) throws IOException {
+    final IOFile file = meta.dbFile(name);
+    return meta.blockcompress ? new DataOutput(new BlockOutput(file, meta.dbFile(name + 'd'))) :
+      new DataOutput(file, bs);
+  }
+
   /**
    * Calculates the text offset and writes the text value.
    * @param value value to be inlined
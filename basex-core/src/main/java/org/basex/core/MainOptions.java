@@ -35,6 +35,8 @@ public final class MainOptions extends Options {
   public static final BooleanOption SKIPCORRUPT = new BooleanOption("SKIPCORRUPT", false);
   /** Flag for adding remaining files as raw files. */
   public static final BooleanOption ADDRAW = new BooleanOption("ADDRAW", false);
+  /** Number of threads for parsing files in parallel. */
+  public static final NumberOption PARSETHREADS = new NumberOption("PARSETHREADS", 1);
   /** Define CSV parser options. */
   public static final OptionsOption<CsvParserOptions> CSVPARSER =
       new OptionsOption<>("CSVPARSER", new CsvParserOptions());
@@ -81,6 +83,14 @@ public final class MainOptions extends Options {
   public static final BooleanOption TOKENINDEX = new BooleanOption("TOKENINDEX", false);
   /** Flag for creating a full-text index. */
   public static final BooleanOption FTINDEX = new BooleanOption("FTINDEX", false);
+  /** Flag for indexing the numeric values of the text and attribute index keys. */
+  public static final BooleanOption NUMINDEX = new BooleanOption("NUMINDEX", false);
+  /** Flag for indexing the date, dateTime and time values of the text and attribute index keys. */
+  public static final BooleanOption DATEINDEX = new BooleanOption("DATEINDEX", false);
+  /** Flag for creating Bloom filters for the keys of the text, attribute and token index. */
+  public static final BooleanOption BLOOMFILTER = new BooleanOption("BLOOMFILTER", false);
+  /** Composite index: elements and attributes to index. */
+  public static final StringOption COMPOSITEINDEX = new StringOption("COMPOSITEINDEX", "");
 
   /** Text index: names to include. */
   public static final StringOption TEXTINCLUDE = new StringOption("TEXTINCLUDE", "");
@@ -101,6 +111,16 @@ public final class MainOptions extends Options {
   public static final BooleanOption AUTOOPTIMIZE = new BooleanOption("AUTOOPTIMIZE", false);
   /** Index split size. */
   public static final NumberOption SPLITSIZE = new NumberOption("SPLITSIZE", 0);
+  /** Number of threads for building index structures. */
+  public static final NumberOption INDEXTHREADS = new NumberOption("INDEXTHREADS", 1);
+  /** Flag for memory-mapped reads of table, texts and attribute values. */
+  public static final BooleanOption MMAP = new BooleanOption("MMAP", false);
+  /** Flag for logging updates in a write-ahead log. */
+  public static final BooleanOption WAL = new BooleanOption("WAL", false);
+  /** Flag for storing texts and attribute values in compressed blocks. */
+  public static final BooleanOption BLOCKCOMPRESS = new BooleanOption("BLOCKCOMPRESS", false);
+  /** Flag for creating columns with the numeric values of text and attribute paths. */
+  public static final BooleanOption COLUMNS = new BooleanOption("COLUMNS", false);
 
   // Full-Text
 
@@ -145,6 +165,10 @@ public final class MainOptions extends Options {
   public static final BooleanOption ENFORCEINDEX = new BooleanOption("ENFORCEINDEX", false);
   /** Deep node copies. */
   public static final BooleanOption COPYNODE = new BooleanOption("COPYNODE", true);
+  /** Maximum number of tuples that are sorted in main memory (0: no limit). */
+  public static final NumberOption SORTLIMIT = new NumberOption("SORTLIMIT", 0);
+  /** Maximum number of groups that are built in main memory (0: no limit). */
+  public static final NumberOption GROUPLIMIT = new NumberOption("GROUPLIMIT", 0);
 
   // Serialize
 
@@ -166,6 +190,8 @@ public final class MainOptions extends Options {
 
   /** Flushes the database after each update. */
   public static final BooleanOption AUTOFLUSH = new BooleanOption("AUTOFLUSH", true);
+  /** Delay for flushing updates in the background (ms; 0: flush synchronously). */
+  public static final NumberOption FLUSHDELAY = new NumberOption("FLUSHDELAY", 0);
   /** Writes original files back after updates. */
   public static final BooleanOption WRITEBACK = new BooleanOption("WRITEBACK", false);
   /** Maximum number of index occurrences to print. */
@@ -3,6 +3,7 @@ package org.basex.core;
 import java.util.*;
 
 import org.basex.io.*;
+import org.basex.io.random.*;
 import org.basex.util.*;
 import org.basex.util.options.*;
 
@@ -33,6 +34,10 @@ public final class StaticOptions extends Options {
   public static final BooleanOption FAIRLOCK = new BooleanOption("FAIRLOCK", false);
   /** Timeout (seconds) for remembering result of asynchronous queries. */
   public static final NumberOption CACHETIMEOUT = new NumberOption("CACHETIMEOUT", 3600);
+  /** Size (megabytes) of the page cache shared by all opened databases. */
+  public static final NumberOption PAGECACHE = new NumberOption("PAGECACHE", 32);
+  /** Maximum number of cached result items of read-only queries (0: disabled). */
+  public static final NumberOption QUERYCACHE = new NumberOption("QUERYCACHE", 0);
 
   /** Comment: written to options file. */
   public static final Comment C_CLIENT = new Comment("Client/Server Architecture");
@@ -127,6 +132,7 @@ public final class StaticOptions extends Options {
     Prop.language = get(LANG);
     Prop.langkeys = get(LANGKEYS);
     Prop.debug = get(DEBUG);
+    PageCache.get().size(get(PAGECACHE));
     final String ph = get(PROXYHOST);
     if(!ph.isEmpty()) {
       Prop.setSystem("http.proxyHost", ph);
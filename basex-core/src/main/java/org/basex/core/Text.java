@@ -151,6 +151,8 @@ public interface Text {
   /** Command keyword. */
   String S_ALL = "ALL";
   /** Command keyword. */
+  String S_ONLINE = "ONLINE";
+  /** Command keyword. */
   String S_TO = "TO";
   /** Command keyword. */
   String S_QUERY = "query";
@@ -177,6 +179,49 @@ public interface Text {
   String LI_SIZE = LI + "Size: ";
   /** Index info. */
   String LI_ENTRIES = LI + "Entries: ";
+  /** Index info. */
+  String LI_BLOOM_FILTER = LI + "Bloom Filter: ";
+  /** Info on composite index. */
+  String LI_COMPOSITE_INDEX = LI + "Composite Index: ";
+
+  /** Page cache info. */
+  String PAGE_CACHE = "Page Cache";
+  /** Query cache info. */
+  String QUERY_CACHE = "Query Cache";
+  /** Page cache info. */
+  String LI_HITS = LI + "Hits: ";
+  /** Page cache info. */
+  String LI_MISSES = LI + "Misses: ";
+  /** Page cache info. */
+  String LI_EVICTIONS = LI + "Evictions: ";
+
+  /** Write-behind info. */
+  String WRITE_BEHIND = "Write-Behind";
+  /** Write-behind info. */
+  String LI_BATCHES = LI + "Batches: ";
+  /** Write-behind info. */
+  String LI_FLUSHES = LI + "Flushes: ";
+  /** Write-behind info. */
+  String LI_UPDATES = LI + "Updates: ";
+  /** Write-behind info. */
+  String LI_LATENCY = LI + "Latency: ";
+
+  /** Write-ahead log info. */
+  String WRITE_AHEAD_LOG = "Write-Ahead Log";
+  /** Write-ahead log info. */
+  String LI_COMMITS = LI + "Commits: ";
+  /** Write-ahead log info. */
+  String LI_CHECKPOINTS = LI + "Checkpoints: ";
+
+  /** Block compression info. */
+  String BLOCK_COMPRESSION = "Block Compression";
+  /** Block compression info. */
+  String LI_TEXTS = LI + "Texts: ";
+  /** Block compression info. */
+  String LI_ATTRIBUTE_VALUES = LI + "Attribute Values: ";
+
+  /** Locking info. */
+  String LOCK_WAITS = "Lock Waits";
 
   /** Index info. */
   String HASH = "Hash";
@@ -367,7 +412,7 @@ public interface Text {
   };
   /** Command help. */
   String[] HELPOPTIMIZE = {
-    '(' + S_ALL + ')', lang("c_optimize1"), lang("c_optimize2", S_ALL)
+    '(' + S_ALL + " (" + S_ONLINE + "))", lang("c_optimize1"), lang("c_optimize2", S_ALL)
   };
 
   /** Command help. */
@@ -564,6 +609,8 @@ public interface Text {
   String SKIPPED = lang("skipped");
   /** Info on skipped corrupt files. */
   String MORE_SKIPPED_X = lang("more_skipped_%");
+  /** Info on parallel parsing. */
+  String PARSED_X_X_X_X_X = "Parsed: % document(s), % with % threads (% documents/s, %/s)";
   /** Missing database name. */
   String ENTER_DB_NAME = lang("enter_db_name");
   /** No tokenizer found. */
@@ -801,6 +848,10 @@ public interface Text {
   String WRITES = lang("writes");
   /** "Time". */
   String TIME = lang("time");
+  /** "Waited". */
+  String WAITED = lang("waited");
+  /** "Progress". */
+  String PROGRESS = lang("progress");
   /** External Variables. */
   String EXTERNAL_VARIABLES = lang("external_variables");
 
@@ -252,6 +252,11 @@ public abstract class AQuery extends Command {
     }
   }
 
+  @Override
+  public boolean snapshots() {
+    return true;
+  }
+
   @Override
   public void build(final CmdBuilder cb) {
     cb.init().add(0);
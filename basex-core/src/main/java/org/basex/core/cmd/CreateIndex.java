@@ -3,6 +3,8 @@ package org.basex.core.cmd;
 import static org.basex.core.Text.*;
 
 import java.io.*;
+import java.util.*;
+import java.util.concurrent.*;
 
 import org.basex.core.*;
 import org.basex.core.parse.*;
@@ -60,6 +62,7 @@ public final class CreateIndex extends ACreate {
     }
     data.meta.names(type, options);
     data.meta.splitsize = options.get(MainOptions.SPLITSIZE);
+    data.meta.indexthreads = options.get(MainOptions.INDEXTHREADS);
 
     return update(data, new Code() {
       @Override
@@ -82,17 +85,60 @@ public final class CreateIndex extends ACreate {
    * @throws IOException I/O exception
    */
   static void create(final Data data, final ACreate cmd) throws IOException {
-    if(data.meta.createtext) create(IndexType.TEXT, data, cmd);
-    if(data.meta.createattr) create(IndexType.ATTRIBUTE, data, cmd);
-    if(data.meta.createtoken) create(IndexType.TOKEN, data, cmd);
-    if(data.meta.createft) create(IndexType.FULLTEXT, data, cmd);
+    final ArrayList<IndexType> types = new ArrayList<>();
+    if(data.meta.createtext) types.add(IndexType.TEXT);
+    if(data.meta.createattr) types.add(IndexType.ATTRIBUTE);
+    if(data.meta.createtoken) types.add(IndexType.TOKEN);
+    if(data.meta.createft) types.add(IndexType.FULLTEXT);
+    create(types, data, cmd);
+    if(data.meta.columns) data.paths.columns(true);
+  }
+
+  /**
+   * Builds the specified indexes. If {@link MainOptions#INDEXTHREADS} is greater than 1,
+   * the indexes of a disk-based database are built in parallel.
+   * @param types indexes to be built
+   * @param data data reference
+   * @param cmd calling command (can be {@code null})
+   * @throws IOException I/O exception
+   */
+  static void create(final ArrayList<IndexType> types, final Data data, final ACreate cmd)
+      throws IOException {
+
+    if(types.size() < 2 || data.meta.indexthreads < 2 || data.inMemory()) {
+      for(final IndexType type : types) create(type, data, cmd);
+      return;
+    }
+
+    for(final IndexType type : types) DropIndex.drop(type, data);
+    final ExecutorService pool = Executors.newFixedThreadPool(types.size());
+    try {
+      final ArrayList<Callable<Void>> tasks = new ArrayList<>();
+      for(final IndexType type : types) {
+        tasks.add(() -> {
+          create(type, data, cmd);
+          return null;
+        });
+      }
+      // wait until all indexes have been built
+      for(final Future<Void> future : pool.invokeAll(tasks)) future.get();
+    } catch(final InterruptedException ex) {
+      throw new IOException(ex);
+    } catch(final ExecutionException ex) {
+      final Throwable th = ex.getCause();
+      if(th instanceof RuntimeException) throw (RuntimeException) th;
+      if(th instanceof Error) throw (Error) th;
+      throw th instanceof IOException ? (IOException) th : new IOException(th);
+    } finally {
+      pool.shutdownNow();
+    }
   }
 
   /**
    * Builds the specified index.
    * @param type index to be built
    * @param data data reference
-   * @param cmd calling command
+   * @param cmd calling command (can be {@code null})
    * @throws IOException I/O exception
    */
   static void create(final IndexType type, final Data data, final ACreate cmd) throws IOException {
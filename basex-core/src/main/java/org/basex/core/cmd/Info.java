@@ -51,6 +51,7 @@ public final class Info extends AInfo {
       final StaticOptions sopts = context.soptions;
       tb.add(NL + GLOBAL_OPTIONS + COL + NL);
       for(final Option<?> o : sopts) info(tb, o.name(), sopts.get(o));
+      if(context.cache.capacity() != 0) tb.add(NL).add(context.cache.info());
     }
 
     final MainOptions opts = context.options;
@@ -1,5 +1,6 @@
 package org.basex.core.cmd;
 
+import static org.basex.core.Text.*;
 import static org.basex.util.Strings.*;
 
 import java.io.*;
@@ -8,6 +9,7 @@ import org.basex.core.locks.*;
 import org.basex.core.parse.*;
 import org.basex.core.parse.Commands.*;
 import org.basex.data.*;
+import org.basex.io.random.*;
 
 /**
  * Evaluates the 'info storage' command and returns the table representation
@@ -39,6 +41,21 @@ public final class InfoStorage extends AInfo {
     }
     dp.add(start, end);
     out.print(dp.finish());
+    if(first.isEmpty() && !data.inMemory()) {
+      out.print(NL);
+      out.print(PageCache.get().info());
+      out.print(NL);
+      out.print(Flusher.get().info());
+      final Journal journal = data.meta.journal;
+      if(journal != null) {
+        out.print(NL);
+        out.print(journal.info());
+      }
+      if(data.meta.blockcompress) {
+        out.print(NL);
+        out.print(((DiskData) data).info());
+      }
+    }
     return true;
   }
 
@@ -41,11 +41,13 @@ public final class JobsList extends Command {
     table.header.add(STATE);
     table.header.add(USER);
     table.header.add(DURATION);
+    table.header.add(PROGRESS);
     table.header.add(START);
     table.header.add(END);
     table.header.add(INTERVAL);
     table.header.add(READS);
     table.header.add(WRITES);
+    table.header.add(WAITED);
     table.header.add(TIME);
 
     final JobPool jobs = context.jobs;
@@ -100,11 +102,17 @@ public final class JobsList extends Command {
     tl.add(job.state.toString().toLowerCase(Locale.ENGLISH));
     tl.add(jc.context.clientName());
     tl.add(ms >= 0 ? DTDur.get(ms).string(null) : EMPTY);
+    // progress of the currently running (sub)job
+    final int progress = job.state == JobState.RUNNING ? (int) (job.active().progressInfo() * 100) :
+      0;
+    tl.add(progress > 0 ? token(progress + "%") : EMPTY);
     tl.add(jt != null ? dateTime(jt.start) : EMPTY);
     tl.add(jt != null && jt.end != Long.MAX_VALUE ? dateTime(jt.end) : EMPTY);
     tl.add(jt != null && jt.interval != 0 ? DTDur.get(jt.interval).string(null) : EMPTY);
     tl.add(jc.locks.reads.toString());
     tl.add(jc.locks.writes.toString());
+    final long wait = jc.locks.wait;
+    tl.add(wait >= 0 ? new DTDur(BigDecimal.valueOf(wait / 1000, 6)).string(null) : EMPTY);
     tl.add(dateTime(jc.time));
     if(max != 0) tl.add(chop(normalize(token(jc.toString())), max));
     return tl;
@@ -3,12 +3,14 @@ package org.basex.core.cmd;
 import static org.basex.core.Text.*;
 
 import java.io.*;
+import java.util.*;
 
 import org.basex.core.*;
 import org.basex.core.users.*;
 import org.basex.data.*;
 import org.basex.index.*;
 import org.basex.index.stats.*;
+import org.basex.index.value.*;
 import org.basex.util.list.*;
 
 /**
@@ -47,6 +49,39 @@ public final class Optimize extends ACreate {
           data.meta.autooptimize = autooptimize;
           data.meta.dirty = true;
         }
+        // reassign memory-mapping flag (will be considered when database is reopened)
+        final boolean mmap = options.get(MainOptions.MMAP);
+        if(mmap != data.meta.mmap) {
+          data.meta.mmap = mmap;
+          data.meta.dirty = true;
+        }
+        // reassign write-ahead logging flag (will be considered when database is reopened)
+        final boolean wal = options.get(MainOptions.WAL);
+        if(wal != data.meta.wal) {
+          data.meta.wal = wal;
+          data.meta.dirty = true;
+        }
+        // reassign columns flag
+        final boolean columns = options.get(MainOptions.COLUMNS);
+        if(columns != data.meta.columns) {
+          data.meta.columns = columns;
+          data.meta.dirty = true;
+        }
+        // reassign numeric and date index flags
+        final boolean numindex = options.get(MainOptions.NUMINDEX);
+        final boolean dateindex = options.get(MainOptions.DATEINDEX);
+        final boolean bloomfilter = options.get(MainOptions.BLOOMFILTER);
+        final String compositeindex = options.get(MainOptions.COMPOSITEINDEX);
+        if(numindex != data.meta.numindex || dateindex != data.meta.dateindex ||
+            bloomfilter != data.meta.bloomfilter ||
+            !compositeindex.equals(data.meta.compositeindex)) {
+          data.meta.numindex = numindex;
+          data.meta.dateindex = dateindex;
+          data.meta.bloomfilter = bloomfilter;
+          data.meta.compositeindex = compositeindex;
+          data.meta.dirty = true;
+        }
+        data.meta.indexthreads = options.get(MainOptions.INDEXTHREADS);
         optimize(data, Optimize.this);
         return info(DB_OPTIMIZED_X, meta.name, jc().performance);
       }
@@ -107,7 +142,8 @@ public final class Optimize extends ACreate {
 
     // initialize structural indexes
     final MetaData meta = data.meta;
-    if(!meta.uptodate) {
+    final boolean uptodate = meta.uptodate;
+    if(!uptodate) {
       data.paths.init();
       data.elemNames.init();
       data.attrNames.init();
@@ -157,28 +193,73 @@ public final class Optimize extends ACreate {
     }
 
     // rebuild value indexes
-    optimize(IndexType.TEXT, data, meta.createtext, enforceText, cmd);
-    optimize(IndexType.ATTRIBUTE, data, meta.createattr, enforceAttr, cmd);
-    optimize(IndexType.TOKEN, data, meta.createtoken, enforceToken, cmd);
-    optimize(IndexType.FULLTEXT, data, meta.createft, enforceFt, cmd);
+    final ArrayList<IndexType> types = new ArrayList<>();
+    optimize(IndexType.TEXT, data, meta.createtext, enforceText, types);
+    optimize(IndexType.ATTRIBUTE, data, meta.createattr, enforceAttr, types);
+    optimize(IndexType.TOKEN, data, meta.createtoken, enforceToken, types);
+    optimize(IndexType.FULLTEXT, data, meta.createft, enforceFt, types);
+    CreateIndex.create(types, data, cmd);
+
+    // create or drop columns
+    final boolean columns = meta.columns;
+    if(!data.inMemory() &&
+        (columns != meta.dbFile(DataText.DATACOL).exists() || columns && !uptodate)) {
+      data.paths.columns(columns);
+    }
+
+    // create or drop numeric and temporal index trees, Bloom filters and composite index
+    trees(IndexType.TEXT, data, uptodate);
+    trees(IndexType.ATTRIBUTE, data, uptodate);
+    trees(IndexType.TOKEN, data, uptodate);
+  }
+
+  /**
+   * Creates or drops the B+-trees with the numeric and temporal values, the Bloom filter and
+   * the composite index of the specified value index.
+   * @param type index type
+   * @param data data reference
+   * @param uptodate indicates if the index structures were up-to-date before optimization
+   * @throws IOException I/O exception
+   */
+  private static void trees(final IndexType type, final Data data, final boolean uptodate)
+      throws IOException {
+
+    final MetaData meta = data.meta;
+    if(data.inMemory() || !meta.index(type)) return;
+    // incrementally updated indexes: rebuild trees, as positions of index keys may have changed
+    final DiskValues index = (DiskValues) data.index(type);
+    final boolean rebuild = !uptodate && meta.updindex;
+    final boolean bloomfilter = meta.bloomfilter;
+    if(bloomfilter != index.bloom() || bloomfilter && rebuild) index.bloom(bloomfilter);
+    if(type == IndexType.TOKEN) return;
+    final boolean numindex = meta.numindex, dateindex = meta.dateindex;
+    if(numindex != index.numbers() || numindex && rebuild) index.numbers(numindex);
+    if(dateindex != index.dates() || dateindex && rebuild) index.dates(dateindex);
+    if(type != IndexType.ATTRIBUTE) return;
+    // composite index: rebuild if declarations have changed
+    final boolean composite = !meta.compositeindex.isEmpty();
+    if(composite != index.composites() || composite && (rebuild || !index.composite())) {
+      index.composites(composite);
+    }
   }
 
   /**
-   * Creates or deletes the specified index if the old and new state is different.
+   * Deletes the specified index, or adds it to the indexes to be created,
+   * if the old and new state is different.
    * @param type index type
    * @param data data reference
    * @param create new flag
    * @param enforce enforce operation
-   * @param cmd calling command instance
+   * @param types indexes to be created
    * @throws IOException I/O exception
    */
   private static void optimize(final IndexType type, final Data data, final boolean create,
-      final boolean enforce, final Optimize cmd) throws IOException {
+      final boolean enforce, final ArrayList<IndexType> types) throws IOException {
 
     // check if flags have changed
     if(create == data.meta.index(type) && !enforce) return;
     // create or drop index
-    if(create) CreateIndex.create(type, data, cmd);
+    if(create) types.add(type);
     else DropIndex.drop(type, data);
   }
 
@@ -196,9 +277,11 @@ public final class Optimize extends ACreate {
 
     if(data.meta.updindex) {
       data.idmap = new IdPreMap(md.lastid);
-      if(data.meta.textindex) optimize(IndexType.TEXT, data, true, true, null);
-      if(data.meta.attrindex) optimize(IndexType.ATTRIBUTE, data, true, true, null);
-      if(data.meta.tokenindex) optimize(IndexType.TOKEN, data, true, true, null);
+      final ArrayList<IndexType> types = new ArrayList<>();
+      if(data.meta.textindex) types.add(IndexType.TEXT);
+      if(data.meta.attrindex) types.add(IndexType.ATTRIBUTE);
+      if(data.meta.tokenindex) types.add(IndexType.TOKEN);
+      CreateIndex.create(types, data, null);
     }
   }
 }
@@ -6,6 +6,7 @@ import java.io.*;
 
 import org.basex.build.*;
 import org.basex.core.*;
+import org.basex.core.locks.*;
 import org.basex.core.parse.*;
 import org.basex.core.parse.Commands.*;
 import org.basex.core.users.*;
@@ -14,6 +15,7 @@ import org.basex.io.*;
 import org.basex.io.serial.*;
 import org.basex.query.value.item.*;
 import org.basex.query.value.node.*;
+import org.basex.util.*;
 import org.basex.util.list.*;
 
 /**
@@ -21,21 +23,57 @@ import org.basex.util.list.*;
  * the currently opened database. This effectively eliminates all fragmentation
  * and can lead to significant space savings after updates.
  *
+ * In the online mode, the database is rebuilt into a shadow database while it can still be read
+ * by other jobs. The database will only be locked exclusively to swap the database files.
+ *
  * @author BaseX Team 2005-20, BSD License
  * @author Leo Woerteler
  */
 public final class OptimizeAll extends ACreate {
+  /** Online mode. */
+  private final boolean online;
+
   /**
    * Default constructor.
    */
   public OptimizeAll() {
+    this(false);
+  }
+
+  /**
+   * Constructor.
+   * @param online online mode: rebuild database while it can still be read
+   */
+  public OptimizeAll(final boolean online) {
     super(Perm.WRITE, true);
+    this.online = online;
   }
 
   @Override
   protected boolean run() {
     final Data data = context.data();
-    if(!update(data, new Code() {
+    if(online && !data.inMemory()) {
+      try {
+        if(!online((DiskData) data)) return false;
+      } catch(final IOException ex) {
+        return error(Util.message(ex));
+      }
+    } else if(!optimize(data)) {
+      return false;
+    }
+
+    final Open open = new Open(data.meta.name);
+    return open.run(context) ? info(DB_OPTIMIZED_X, data.meta.name, jc().performance) :
+      error(open.info());
+  }
+
+  /**
+   * Optimizes the locked database.
+   * @param data data reference
+   * @return success flag
+   */
+  private boolean optimize(final Data data) {
+    return update(data, new Code() {
       @Override
       boolean run() throws IOException {
         try {
@@ -45,11 +83,47 @@ public final class OptimizeAll extends ACreate {
           context.closeDB();
         }
       }
-    })) return false;
+    });
+  }
 
-    final Open open = new Open(data.meta.name);
-    return open.run(context) ? info(DB_OPTIMIZED_X, data.meta.name, jc().performance) :
-      error(open.info());
+  /**
+   * Rebuilds the database into a shadow database, acquires an exclusive lock and swaps the
+   * database files. If the database has been updated in the meantime, it will be optimized
+   * again while it is locked.
+   * @param data disk data
+   * @return success flag
+   * @throws IOException I/O Exception
+   */
+  private boolean online(final DiskData data) throws IOException {
+    final String name = data.meta.name;
+    final StaticOptions sopts = context.soptions;
+    final int updates = data.updates();
+    final String tmpName = rebuild(data, options, sopts, this);
+    boolean swap = false;
+    try {
+      // lock database exclusively: wait for running readers, check if database is still opened
+      context.locking.upgrade();
+      if(context.datas.pins(name) > 1) throw new BaseXException(DB_PINNED_X, name);
+      swap = data.updates() == updates;
+    } finally {
+      if(!swap) DropDB.drop(tmpName, sopts);
+    }
+
+    // database has been updated in the meantime: optimize locked database
+    if(!swap) return optimize(data);
+    try {
+      swap(data, tmpName, context);
+    } finally {
+      context.closeDB();
+    }
+    return true;
+  }
+
+  @Override
+  public void addLocks() {
+    // online mode: write lock will be acquired after the database has been rebuilt
+    if(online) jc().locks.reads.add(Locking.CONTEXT);
+    else super.addLocks();
   }
 
   @Override
@@ -65,7 +139,7 @@ public final class OptimizeAll extends ACreate {
 
   @Override
   public void build(final CmdBuilder cb) {
-    cb.init(Cmd.OPTIMIZE + " " + S_ALL);
+    cb.init(Cmd.OPTIMIZE + " " + S_ALL + (online ? " " + S_ONLINE : ""));
   }
 
   /**
@@ -84,12 +158,28 @@ public final class OptimizeAll extends ACreate {
     if(data.inMemory()) throw new BaseXException(NO_MAINMEM);
 
     final DiskData odata = (DiskData) data;
-    final MetaData ometa = odata.meta;
 
     // check if database is also pinned by other users
-    final String name = ometa.name;
+    final String name = odata.meta.name;
     if(context.datas.pins(name) > 1) throw new BaseXException(DB_PINNED_X, name);
 
+    final String tmpName = rebuild(odata, options, context.soptions, cmd);
+    swap(odata, tmpName, context);
+  }
+
+  /**
+   * Creates a temporary database with identical contents and index structures.
+   * @param odata disk data
+   * @param options main options
+   * @param sopts static options
+   * @param cmd command reference or {@code null}
+   * @return name of the temporary database
+   * @throws IOException I/O Exception
+   */
+  private static String rebuild(final DiskData odata, final MainOptions options,
+      final StaticOptions sopts, final OptimizeAll cmd) throws IOException {
+
+    final MetaData ometa = odata.meta;
     // adopt original index options
     options.set(MainOptions.TEXTINDEX, ometa.textindex);
     options.set(MainOptions.ATTRINDEX, ometa.attrindex);
@@ -110,8 +200,7 @@ public final class OptimizeAll extends ACreate {
     options.set(MainOptions.MAXCATS, ometa.maxcats);
 
     // build database and index structures
-    final StaticOptions sopts = context.soptions;
-    final String tmpName = sopts.createRandomDb(name);
+    final String tmpName = sopts.createRandomDb(ometa.name);
     final DBParser parser = new DBParser(odata, options);
     final DiskBuilder builder = new DiskBuilder(tmpName, parser, sopts, options);
     if(cmd != null) cmd.pushJob(builder);
@@ -123,7 +212,6 @@ public final class OptimizeAll extends ACreate {
     } finally {
       if(cmd != null) cmd.popJob();
     }
-    Close.close(odata, context);
 
     // adopt original meta data, create new index structures
     final MetaData nmeta = ndata.meta;
@@ -139,15 +227,32 @@ public final class OptimizeAll extends ACreate {
       CreateIndex.create(ndata, cmd);
     } catch(final Throwable th) {
       // index creation failed: delete temporary database
+      ndata.close();
       DropDB.drop(tmpName, sopts);
       throw th;
-    } finally {
-      ndata.close();
     }
+    ndata.close();
+    return tmpName;
+  }
+
+  /**
+   * Closes the database, replaces it with the temporary database and moves the binary files.
+   * @param odata disk data
+   * @param tmpName name of the temporary database
+   * @param context database context
+   * @throws IOException I/O Exception
+   */
+  private static void swap(final DiskData odata, final String tmpName, final Context context)
+      throws IOException {
+
+    final MetaData ometa = odata.meta;
+    final String name = ometa.name;
+    final StaticOptions sopts = context.soptions;
+    Close.close(odata, context);
 
     // move binary files
     final IOFile bin = ometa.binaryDir();
-    if(bin.exists()) bin.rename(nmeta.binaryDir());
+    if(bin.exists()) bin.rename(new IOFile(sopts.dbPath(tmpName), IO.RAW));
 
     // drop old database, rename temporary database
     if(!DropDB.drop(name, sopts)) throw new BaseXException(DB_NOT_DROPPED_X, name);
@@ -145,6 +145,16 @@ public abstract class Job {
     jc.locks.writes.addGlobal();
   }
 
+  /**
+   * Indicates if databases that are currently updated can be read from snapshots instead of
+   * waiting for read locks. Must only return {@code true} if all databases are accessed via
+   * query resources.
+   * @return result of check
+   */
+  public boolean snapshots() {
+    return false;
+  }
+
   /**
    * Returns short progress information.
    * Can be overwritten to give more specific feedback.
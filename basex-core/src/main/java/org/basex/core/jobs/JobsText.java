@@ -17,6 +17,8 @@ public interface JobsText {
   byte[] ID = token("id");
   /** Running. */
   byte[] DURATION = token("duration");
+  /** Progress. */
+  byte[] PROGRESS = token("progress");
   /** Type. */
   byte[] TYPE = token("type");
   /** State. */
@@ -33,6 +35,8 @@ public interface JobsText {
   byte[] READS = token("reads");
   /** Write locks. */
   byte[] WRITES = token("writes");
+  /** Time spent for acquiring locks. */
+  byte[] WAITED = token("waited");
   /** Time of registering. */
   byte[] TIME = token("time");
 }
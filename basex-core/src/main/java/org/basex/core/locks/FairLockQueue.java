@@ -21,26 +21,30 @@ public final class FairLockQueue extends LockQueue {
   }
 
   @Override
-  public synchronized void acquire(final Long id, final boolean read, final boolean write)
+  public void acquire(final Long id, final boolean read, final boolean write)
       throws InterruptedException {
 
-    // add job id to queue and wait
-    if(jobs >= parallel) {
-      queue.add(id);
-
-      // loop until job is placed first
-      do {
-        wait();
-      } while(!id.equals(queue.peek()));
+    if(start()) return;
 
-      // remove job from queue
-      queue.remove(id);
+    synchronized(this) {
+      // add job id to queue and wait
+      queue.add(id);
+      queued++;
+      try {
+        // loop until job is placed first
+        while(!id.equals(queue.peek()) || !increment()) wait();
+      } finally {
+        // remove job from queue
+        queue.remove(id);
+        queued--;
+      }
+      // allow next queued job to resume
+      if(queued != 0) notifyAll();
     }
-    jobs++;
   }
 
   @Override
   public synchronized String toString() {
-    return "Jobs: " + jobs + ", queue: " + queue;
+    return "Jobs: " + jobs() + ", queue: " + queue;
   }
 }
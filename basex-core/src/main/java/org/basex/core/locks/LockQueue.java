@@ -1,7 +1,11 @@
 package org.basex.core.locks;
 
+import java.util.concurrent.atomic.*;
+
 /**
  * Lock queue.
+ * Jobs are started without synchronization as long as the maximum number of parallel jobs
+ * has not been reached and no other jobs are queued.
  *
  * @author BaseX Team 2005-20, BSD License
  * @author Christian Gruen
@@ -10,7 +14,9 @@ public abstract class LockQueue {
   /** Maximum number of parallel jobs. */
   protected final int parallel;
   /** Number of currently running jobs. */
-  protected int jobs;
+  private final AtomicInteger jobs = new AtomicInteger();
+  /** Number of queued jobs (only changed while holding the monitor). */
+  protected volatile int queued;
 
   /**
    * Constructor.
@@ -32,8 +38,46 @@ public abstract class LockQueue {
   /**
    * Notifies other jobs that a job has been completed.
    */
-  public synchronized void release() {
-    notifyAll();
-    jobs--;
+  public void release() {
+    jobs.decrementAndGet();
+    if(queued != 0) {
+      synchronized(this) {
+        notifyAll();
+      }
+    }
+  }
+
+  /**
+   * Tries to start a job without queuing it.
+   * @return success flag
+   */
+  protected final boolean start() {
+    return queued == 0 && increment();
+  }
+
+  /**
+   * Registers a running job if the maximum number of parallel jobs has not been reached.
+   * @return success flag
+   */
+  protected final boolean increment() {
+    for(int j; (j = jobs.get()) < parallel;) {
+      if(jobs.compareAndSet(j, j + 1)) return true;
+    }
+    return false;
+  }
+
+  /**
+   * Registers a running job that does not count towards the limit of parallel jobs.
+   */
+  protected final void run() {
+    jobs.incrementAndGet();
+  }
+
+  /**
+   * Returns the number of running jobs.
+   * @return number of jobs
+   */
+  protected final int jobs() {
+    return jobs.get();
   }
 }
@@ -0,0 +1,64 @@
+package org.basex.core.locks;
+
+import java.util.concurrent.atomic.*;
+
+import org.basex.util.*;
+
+/**
+ * Wait times for acquiring a single lock.
+ * Values are updated without synchronization.
+ *
+ * @author BaseX Team 2005-20, BSD License
+ * @author Christian Gruen
+ */
+final class LockStats {
+  /** Upper bounds of the histogram buckets (ns); the last bucket has no upper bound. */
+  private static final long[] BOUNDS = { 100000L, 1000000L, 10000000L, 100000000L, 1000000000L };
+  /** Labels of the histogram buckets. */
+  private static final String[] LABELS = {
+    "<0.1 ms", "<1 ms", "<10 ms", "<100 ms", "<1 s", ">=1 s"
+  };
+
+  /** Histogram: number of waits per bucket. */
+  private final AtomicLongArray buckets = new AtomicLongArray(LABELS.length);
+  /** Total wait time (ns). */
+  private final AtomicLong total = new AtomicLong();
+  /** Maximum wait time (ns). */
+  private final AtomicLong max = new AtomicLong();
+
+  /**
+   * Adds a wait time.
+   * @param nano wait time (ns)
+   */
+  void add(final long nano) {
+    int b = 0;
+    final int bl = BOUNDS.length;
+    while(b < bl && nano >= BOUNDS[b]) b++;
+    buckets.incrementAndGet(b);
+    total.addAndGet(nano);
+    max.accumulateAndGet(nano, Math::max);
+  }
+
+  /**
+   * Adds information on the wait times.
+   * @param tb token builder
+   */
+  void info(final TokenBuilder tb) {
+    long count = 0;
+    final int bl = buckets.length();
+    final long[] counts = new long[bl];
+    for(int b = 0; b < bl; b++) {
+      counts[b] = buckets.get(b);
+      count += counts[b];
+    }
+    tb.addLong(count).add(" x, avg: ");
+    tb.add(Performance.getTime(count == 0 ? 0 : total.get() / count, 1));
+    tb.add(", max: ").add(Performance.getTime(max.get(), 1));
+    String sep = " | ";
+    for(int b = 0; b < bl; b++) {
+      if(counts[b] == 0) continue;
+      tb.add(sep).add(LABELS[b]).add(": ").addLong(counts[b]);
+      sep = ", ";
+    }
+  }
+}
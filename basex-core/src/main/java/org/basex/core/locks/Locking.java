@@ -1,10 +1,11 @@
 package org.basex.core.locks;
 
-import static org.basex.util.Prop.*;
+import static org.basex.core.Text.*;
 import static org.basex.util.Token.*;
 
 import java.util.*;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
 import java.util.concurrent.locks.*;
 
 import org.basex.core.*;
@@ -21,6 +22,19 @@ import org.basex.util.list.*;
  *
  * This class prevents locking deadlocks by sorting all strings.
  *
+ * No global monitor is entered if the lock sets of concurrent jobs are disjoint or read-only:
+ * local locks are stored in a concurrent map, and the counters of local writers and global readers
+ * are updated atomically. The wait times for acquiring locks are recorded per lock string.
+ *
+ * Queries do not wait for read locks on databases that are currently updated: if possible,
+ * the last committed state of a database is read from a snapshot (see
+ * {@link org.basex.data.DiskData#snapshot()}). Snapshots are created after all other locks have
+ * been acquired. If a snapshot cannot be created, all locks will be released and acquired again.
+ *
+ * Each lock string has a version, which changes whenever a job with a write lock on this string,
+ * or a job with a global write lock, has been completed. Versions can be used to check if cached
+ * data is still up-to-date.
+ *
  * Locks can only be released by the same thread which acquired it.
  *
  * Locking methods are not synchronized to each other. The user must make sure not to call them in
@@ -49,6 +63,11 @@ public final class Locking {
   /** Special lock identifier for repository commands. */
   public static final String REPO = PREFIX + "REPO";
 
+  /** Pseudo lock string for recording the time spent in the lock queue. */
+  private static final String QUEUE = "(queue)";
+  /** Pseudo lock string for recording the time spent for acquiring the global lock. */
+  private static final String GLOBAL = "(global)";
+
   /** Fair ordering policy; prevents starvation, but reduces parallelism. */
   private final boolean fair;
 
@@ -60,14 +79,20 @@ public final class Locking {
   /** Global lock: exclusive lock for global writes, shared lock otherwise. */
   private final ReentrantReadWriteLock globalLocks;
   /** Stores one lock for each lock string. */
-  private final Map<String, LocalReadWriteLock> localLocks = new HashMap<>();
+  private final ConcurrentMap<String, LocalReadWriteLock> localLocks = new ConcurrentHashMap<>();
   /** Lock object for queuing local writes and global reads. */
   private final Object globalLock = new Object();
+  /** Wait times, indexed by lock strings. */
+  private final ConcurrentMap<String, LockStats> stats = new ConcurrentHashMap<>();
+  /** Number of completed local writes, indexed by lock strings. */
+  private final ConcurrentMap<String, Long> versions = new ConcurrentHashMap<>();
+  /** Number of completed global writes. */
+  private final AtomicLong version = new AtomicLong();
 
-  /** Number of running local writers. */
-  private int localWriters;
-  /** Number of running global readers. */
-  private int globalReaders;
+  /** Number of running local writers (lower 32 bits) and global readers (upper 32 bits). */
+  private final AtomicLong running = new AtomicLong();
+  /** Number of jobs waiting for local writers or global readers (changed via monitor). */
+  private volatile int waiting;
 
   /**
    * Constructor.
@@ -93,7 +118,17 @@ public final class Locking {
     final Locks locks = job.jc().locks;
     locks.finish(ctx);
     try {
+      // databases that are currently updated: skip read locks
+      final boolean pinned = job.snapshots() && locks.pin(ctx, string -> {
+        final LocalReadWriteLock lock = localLocks.get(string);
+        return lock != null && lock.isWriteLocked();
+      });
       acquire(locks);
+      if(pinned && !locks.snapshots()) {
+        // snapshots could not be created: acquire all locks
+        release();
+        acquire(locks);
+      }
     } catch(final InterruptedException ex) {
       throw Util.notExpected("Thread was interrupted: %", ex);
     }
@@ -114,33 +149,55 @@ public final class Locking {
     // queue job if the job limit has been reached
     final LockList reads = locks.reads, writes = locks.writes;
     final boolean write = writes.locking(), read = reads.locking(), lock = read || write;
+    final long start = System.nanoTime();
     queue.acquire(id, read, write);
+    long time = start;
 
     // apply exclusive lock (global write), or shared lock otherwise
-    if(lock) (writes.global() ? globalLocks.writeLock() : globalLocks.readLock()).lock();
-
-    synchronized(globalLock) {
+    if(lock) {
+      time = stats(QUEUE, time);
+      (writes.global() ? globalLocks.writeLock() : globalLocks.readLock()).lock();
       // local write locks: wait for completion of global readers
-      if(writes.local()) {
-        while(globalReaders > 0) globalLock.wait();
-        localWriters++;
-      }
+      final boolean local = writes.local();
+      if(local) enter(false, true);
       // global read lock: wait for completion of local writers (excluding the current job)
-      if(reads.global()) {
-        while(localWriters > 1 || localWriters == 1 && !writes.local()) globalLock.wait();
-        globalReaders++;
-      }
+      if(reads.global()) enter(true, local);
+      time = stats(GLOBAL, time);
     }
 
     // assign locks in sorted order (to ensure that write locks will be assigned first)
     int w = 0, r = 0;
     final int rs = reads.size(), ws = writes.size();
     while(r < rs || w < ws) {
+      final String string;
       if(w < ws && (r == rs || writes.get(w).compareTo(reads.get(r)) <= 0)) {
-        pin(writes.get(w++)).writeLock().lock();
+        string = writes.get(w++);
+        pin(string).writeLock().lock();
       } else {
-        pin(reads.get(r++)).readLock().lock();
+        string = reads.get(r++);
+        if(locks.skip(string)) continue;
+        pin(string).readLock().lock();
       }
+      time = stats(string, time);
+    }
+    locks.wait = time - start;
+  }
+
+  /**
+   * Converts the read locks of the current job to write locks.
+   * All locks will be released and acquired again: other jobs may be executed in between.
+   */
+  public void upgrade() {
+    final Locks locks = locked.get(Thread.currentThread().getId());
+    if(locks == null || !locks.reads.locking()) return;
+    release();
+    locks.writes.add(locks.reads);
+    locks.writes.finish(null);
+    locks.reads.reset();
+    try {
+      acquire(locks);
+    } catch(final InterruptedException ex) {
+      throw Util.notExpected("Thread was interrupted: %", ex);
     }
   }
 
@@ -153,31 +210,42 @@ public final class Locking {
     final LockList reads = locks.reads, writes = locks.writes;
     final boolean lock = reads.locking() || writes.locking();
 
-    // release all local locks
-    for(final String string : reads) unpin(string).readLock().unlock();
-    for(final String string : writes) unpin(string).writeLock().unlock();
+    // update versions before other jobs can access the written resources
+    if(writes.global()) version.incrementAndGet();
+    for(final String string : writes) versions.merge(string, 1L, Long::sum);
 
-    // allow next global reader to resume
-    synchronized(globalLock) {
-      if(reads.global()) {
-        globalReaders--;
-        globalLock.notifyAll();
-      }
+    // release all local locks (unlock before unpinning; a new lock may be created after removal)
+    for(final String string : reads) {
+      if(locks.skip(string)) continue;
+      localLocks.get(string).readLock().unlock();
+      unpin(string);
+    }
+    for(final String string : writes) {
+      localLocks.get(string).writeLock().unlock();
+      unpin(string);
     }
 
     // allow next local writer to resume
-    synchronized(globalLock) {
-      if(writes.local()) {
-        localWriters--;
-        globalLock.notifyAll();
-      }
-    }
+    if(reads.global()) exit(true);
+    // allow next global reader to resume
+    if(writes.local()) exit(false);
 
     // release exclusive lock (global write), or shared lock otherwise
     if(lock) (writes.global() ? globalLocks.writeLock() : globalLocks.readLock()).unlock();
 
     // allow next queued job to resume
     queue.release();
+    // release snapshots of updated databases
+    locks.release();
+  }
+
+  /**
+   * Returns the version of a lock string.
+   * @param string lock string
+   * @return version
+   */
+  public long version(final String string) {
+    return version.get() + versions.getOrDefault(string, 0L);
   }
 
   /**
@@ -186,27 +254,94 @@ public final class Locking {
    * @return lock
    */
   private LocalReadWriteLock pin(final String string) {
-    synchronized(localLocks) {
-      final LocalReadWriteLock lock = localLocks.computeIfAbsent(string,
-          k -> new LocalReadWriteLock(fair));
-      lock.pin();
-      return lock;
-    }
+    return localLocks.compute(string, (k, lock) -> {
+      final LocalReadWriteLock l = lock != null ? lock : new LocalReadWriteLock(fair);
+      l.pin();
+      return l;
+    });
   }
 
   /**
    * Unpins a lock string. Removes a lock if pin count is zero.
    * @param string lock string
-   * @return lock
    */
-  private LocalReadWriteLock unpin(final String string) {
-    synchronized(localLocks) {
-      final LocalReadWriteLock lock = localLocks.get(string);
-      if(lock.unpin()) localLocks.remove(string);
-      return lock;
+  private void unpin(final String string) {
+    localLocks.computeIfPresent(string, (k, lock) -> lock.unpin() ? null : lock);
+  }
+
+  /**
+   * Registers a local writer or a global reader. Waits until all global readers or
+   * (other) local writers have been completed.
+   * @param reader global reader
+   * @param writer local writer (if a global reader is registered: job is also a local writer)
+   * @throws InterruptedException interrupted exception
+   */
+  private void enter(final boolean reader, final boolean writer) throws InterruptedException {
+    if(tryEnter(reader, writer)) return;
+    synchronized(globalLock) {
+      waiting++;
+      try {
+        while(!tryEnter(reader, writer)) globalLock.wait();
+      } finally {
+        waiting--;
+      }
     }
   }
 
+  /**
+   * Tries to register a local writer or a global reader.
+   * @param reader global reader
+   * @param writer local writer
+   * @return success flag
+   */
+  private boolean tryEnter(final boolean reader, final boolean writer) {
+    while(true) {
+      final long r = running.get();
+      if(reader ? (int) r != (writer ? 1 : 0) : r >>> 32 != 0) return false;
+      if(running.compareAndSet(r, r + (reader ? 1L << 32 : 1))) return true;
+    }
+  }
+
+  /**
+   * Unregisters a local writer or a global reader and notifies waiting jobs.
+   * @param reader global reader
+   */
+  private void exit(final boolean reader) {
+    running.addAndGet(reader ? -(1L << 32) : -1);
+    if(waiting != 0) {
+      synchronized(globalLock) {
+        globalLock.notifyAll();
+      }
+    }
+  }
+
+  /**
+   * Records the wait time for a lock.
+   * @param string lock string
+   * @param start start time (ns)
+   * @return current time (ns)
+   */
+  private long stats(final String string, final long start) {
+    final long time = System.nanoTime();
+    LockStats ls = stats.get(string);
+    if(ls == null) ls = stats.computeIfAbsent(string, k -> new LockStats());
+    ls.add(time - start);
+    return time;
+  }
+
+  /**
+   * Returns information on the wait times for acquiring locks.
+   * @return info string
+   */
+  public byte[] info() {
+    final TokenBuilder tb = new TokenBuilder().add(LOCK_WAITS).add(COL);
+    for(final String string : new TreeSet<>(stats.keySet())) {
+      tb.add(NL).add(LI).add(string).add(COLS);
+      stats.get(string).info(tb);
+    }
+    return tb.finish();
+  }
+
   /**
    * Returns query lock keys.
    * @param string string with lock keys
@@ -228,10 +363,8 @@ public final class Locking {
     final String in = "| ";
     sb.append(in).append(queue).append(NL);
     sb.append(in).append("Held locks by object:").append(NL);
-    synchronized(localLocks) {
-      localLocks.forEach((key, value) ->
-        sb.append(in).append(in).append(key).append(" -> ").append(value).append(NL));
-    }
+    localLocks.forEach((key, value) ->
+      sb.append(in).append(in).append(key).append(" -> ").append(value).append(NL));
     sb.append(in).append("Held locks by job:").append(NL);
     locked.forEach((key, value) ->
       sb.append(in).append(in).append(key).append(" -> ").append(value).append(NL));
@@ -1,7 +1,11 @@
 package org.basex.core.locks;
 
+import java.util.*;
+import java.util.function.*;
+
 import org.basex.core.*;
 import org.basex.data.*;
+import org.basex.util.*;
 
 /**
  * Read and write locks of a single job.
@@ -14,6 +18,15 @@ public final class Locks {
   public final LockList reads = new LockList();
   /** Write locks. */
   public final LockList writes = new LockList();
+  /** Time spent for acquiring the locks (ns; {@code -1} if locks have not been acquired yet). */
+  public volatile long wait = -1;
+
+  /** Pinned databases that are read from snapshots, indexed by lock strings. */
+  private final HashMap<String, DiskData> databases = new HashMap<>();
+  /** Snapshots of the pinned databases. */
+  private final HashMap<String, DiskData> snapshots = new HashMap<>();
+  /** Opened databases (assigned if databases have been pinned). */
+  private Datas datas;
 
   /**
    * Finalizes locks. Replaces context references with current database, sorts entries,
@@ -34,6 +47,88 @@ public final class Locks {
     reads.remove(writes);
   }
 
+  /**
+   * Returns the snapshot of a database that is read without read lock.
+   * @param name name of the database
+   * @return snapshot, or {@code null} if the database is not read from a snapshot
+   */
+  public synchronized Data snapshot(final String name) {
+    for(final Map.Entry<String, DiskData> entry : snapshots.entrySet()) {
+      final String db = entry.getKey();
+      if(Prop.CASE ? db.equals(name) : db.equalsIgnoreCase(name)) return entry.getValue();
+    }
+    return null;
+  }
+
+  /**
+   * Indicates if databases are read from snapshots.
+   * @return result of check
+   */
+  public synchronized boolean pinned() {
+    return !snapshots.isEmpty();
+  }
+
+  /**
+   * Pins databases that are currently updated and that will be read from snapshots.
+   * Databases without write-ahead log and the database opened in the context are ignored.
+   * @param ctx database context
+   * @param updated checks if a lock string is currently locked by a writer
+   * @return {@code true} if databases have been pinned
+   */
+  synchronized boolean pin(final Context ctx, final Predicate<String> updated) {
+    if(reads.global()) return false;
+    final Data data = ctx.data();
+    for(final String string : reads) {
+      if(!updated.test(string) || data != null && data.meta.name.equals(string)) continue;
+      final Data db = ctx.datas.pin(string);
+      if(db instanceof DiskData && db.meta.journal != null) {
+        databases.put(string, (DiskData) db);
+      } else if(db != null) {
+        ctx.datas.unpin(db);
+      }
+    }
+    datas = ctx.datas;
+    return !databases.isEmpty();
+  }
+
+  /**
+   * Indicates if the specified lock string will be skipped, as its database is read from a
+   * snapshot.
+   * @param string lock string
+   * @return result of check
+   */
+  synchronized boolean skip(final String string) {
+    return databases.containsKey(string);
+  }
+
+  /**
+   * Creates snapshots of all pinned databases.
+   * If a snapshot cannot be created, the existing snapshots will be released.
+   * @return success flag
+   */
+  synchronized boolean snapshots() {
+    for(final Map.Entry<String, DiskData> entry : databases.entrySet()) {
+      final DiskData snapshot = entry.getValue().snapshot();
+      if(snapshot == null) {
+        for(final String string : snapshots.keySet()) databases.get(string).release();
+        snapshots.clear();
+        return false;
+      }
+      snapshots.put(entry.getKey(), snapshot);
+    }
+    return true;
+  }
+
+  /**
+   * Releases all snapshots and unpins the databases.
+   */
+  synchronized void release() {
+    for(final String string : snapshots.keySet()) databases.get(string).release();
+    for(final DiskData data : databases.values()) datas.unpin(data);
+    snapshots.clear();
+    databases.clear();
+  }
+
   @Override
   public String toString() {
     return "Reads: " + reads + ", Writes: " + writes;
@@ -23,28 +23,36 @@ public final class NonfairLockQueue extends LockQueue {
   }
 
   @Override
-  public synchronized void acquire(final Long id, final boolean read, final boolean write)
+  public void acquire(final Long id, final boolean read, final boolean write)
       throws InterruptedException {
 
-    // only wait if job is locking
-    if(jobs >= parallel && (read || write)) {
+    // only queue job if it is locking
+    if(!read && !write) {
+      run();
+      return;
+    }
+    if(start()) return;
+
+    synchronized(this) {
       // add job id to queue and wait
       final Queue<Long> queue = write ? writers : readers;
       queue.add(id);
-
-      // loop until job is placed first (prefer readers)
-      do {
-        wait();
-      } while(jobs >= parallel || write && !readers.isEmpty() || !id.equals(queue.peek()));
-
-      // remove job from queue
-      queue.remove(id);
+      queued++;
+      try {
+        // loop until job is placed first (prefer readers)
+        while(write && !readers.isEmpty() || !id.equals(queue.peek()) || !increment()) wait();
+      } finally {
+        // remove job from queue
+        queue.remove(id);
+        queued--;
+      }
+      // allow next queued job to resume
+      if(queued != 0) notifyAll();
     }
-    jobs++;
   }
 
   @Override
   public synchronized String toString() {
-    return "Jobs: " + jobs + ", queued readers: " + readers + ", queued writers: " + writers;
+    return "Jobs: " + jobs() + ", queued readers: " + readers + ", queued writers: " + writers;
   }
 }
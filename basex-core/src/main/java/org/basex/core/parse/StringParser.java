@@ -142,7 +142,7 @@ final class StringParser extends CommandParser {
           case NULL:
             return new Optimize();
           case ALL:
-            return new OptimizeAll();
+            return new OptimizeAll(key(S_ONLINE, null));
         }
         break;
       case EXPORT:
@@ -136,8 +136,8 @@ final class XMLParser extends CommandParser {
       return new Open(value(root, NAME), value(root, PATH));
     if(e.equals(OPTIMIZE) && check(root))
       return new Optimize();
-    if(e.equals(OPTIMIZE_ALL) && check(root))
-      return new OptimizeAll();
+    if(e.equals(OPTIMIZE_ALL) && check(root, ONLINE + '?'))
+      return new OptimizeAll(Strings.toBoolean(value(root, ONLINE)));
     if(e.equals(PASSWORD) && check(root, '#' + PASSWORD + '?'))
       return new Password(password(root));
     if(e.equals(QUIT) && check(root))
@@ -544,18 +544,23 @@ public abstract class Data {
       } else {
         // update element name
         final IntList pres = new IntList();
-        // update text index
-        if(meta.updindex && meta.textindex) {
+        // update text and full-text index
+        final boolean txt = meta.updindex && meta.textindex, ft = meta.updindex && meta.ftindex;
+        if(txt || ft) {
           final int last = pre + size;
           for(int curr = pre + attSize(pre, kind); curr < last; curr += size(curr, kind(curr))) {
             if(kind(curr) == TEXT) pres.add(curr);
           }
-          textIndex.delete(new ValueCache(pres, IndexType.TEXT, this));
+          if(txt) textIndex.delete(new ValueCache(pres, IndexType.TEXT, this));
+          if(ft) ftIndex.delete(new ValueCache(pres, IndexType.FULLTEXT, this));
         }
         table.write1(pre, 3, uriId);
         final int nameId = elemNames.put(name);
         table.write2(nsPre, 1, (nsFlag || nsFlag(nsPre) ? 1 << 15 : 0) | nameId);
-        if(!pres.isEmpty()) textIndex.add(new ValueCache(pres, IndexType.TEXT, this));
+        if(!pres.isEmpty()) {
+          if(txt) textIndex.add(new ValueCache(pres, IndexType.TEXT, this));
+          if(ft) ftIndex.add(new ValueCache(pres, IndexType.FULLTEXT, this));
+        }
       }
     }
   }
@@ -1080,6 +1085,7 @@ public abstract class Data {
       if(meta.textindex) textIndex.delete(new ValueCache(pre, size, IndexType.TEXT, this));
       if(meta.attrindex) attrIndex.delete(new ValueCache(pre, size, IndexType.ATTRIBUTE, this));
       if(meta.tokenindex) tokenIndex.delete(new ValueCache(pre, size, IndexType.TOKEN, this));
+      if(meta.ftindex) ftIndex.delete(new ValueCache(pre, size, IndexType.FULLTEXT, this));
       if(id != -1) idmap.delete(pre, id, -size);
     }
   }
@@ -1098,6 +1104,7 @@ public abstract class Data {
       if(meta.textindex) textIndex.add(new ValueCache(pre, size, IndexType.TEXT, this));
       if(meta.attrindex) attrIndex.add(new ValueCache(pre, size, IndexType.ATTRIBUTE, this));
       if(meta.tokenindex) tokenIndex.add(new ValueCache(pre, size, IndexType.TOKEN, this));
+      if(meta.ftindex) ftIndex.add(new ValueCache(pre, size, IndexType.FULLTEXT, this));
     }
   }
 
@@ -14,7 +14,9 @@ public interface DataText {
   /** Database version; older version cannot open these instances. */
   String STORAGE = "9.0.1";
   /** Index version; older version cannot open indexes of these instances. */
-  String ISTORAGE = "8.6";
+  String ISTORAGE = "9.4";
+  /** Version of the full-text index; older full-text indexes need to be rebuilt. */
+  String FTSTORAGE = "9.4";
 
   /** Database version. */
   String DBSTR = "STORAGE";
@@ -34,6 +36,22 @@ public interface DataText {
   String DBUPDIDX = "UPDINDEX";
   /** Automatic optimization. */
   String DBAUTOOPT = "AUTOOPT";
+  /** Memory-mapped reads. */
+  String DBMMAP = "MMAP";
+  /** Write-ahead log. */
+  String DBWAL = "WAL";
+  /** Compressed blocks. */
+  String DBBLKCMP = "BLOCKCOMPRESS";
+  /** Columns. */
+  String DBCOLS = "COLUMNS";
+  /** Numeric index. */
+  String DBNUMIDX = "NUMINDEX";
+  /** Date index. */
+  String DBDATIDX = "DATEINDEX";
+  /** Bloom filters. */
+  String DBBLOOM = "BLOOMFILTER";
+  /** Composite index. */
+  String DBCMPIDX = "COMPOSITEINDEX";
   /** Text index. */
   String DBTXTIDX = "TXTINDEX";
   /** Attribute index. */
@@ -114,6 +132,10 @@ public interface DataText {
   String DATAPTH = "pth";
   /** Database - ID-PRE mapping. */
   String DATAIDP = "idp";
+  /** Database - Write-ahead log. */
+  String DATAWAL = "wal";
+  /** Database - Columns with numeric values. */
+  String DATACOL = "col";
 
   // XML SERIALIZATION ============================================================================
 
@@ -47,6 +47,11 @@ import org.basex.util.*;
  *   - NOT COMPRESSED: return external text unchanged
  * </pre>
  *
+ * If updates are logged ({@link MainOptions#WAL}), the database files reflect the last committed
+ * state while a database is updated. In this case, read-only snapshots of the database can be
+ * created, which are read by queries instead of waiting for the completion of an update
+ * (see {@link #snapshot()}).
+ *
  * @author BaseX Team 2005-20, BSD License
  * @author Christian Gruen
  * @author Tim Petrowsky
@@ -56,6 +61,27 @@ public final class DiskData extends Data {
   private DataAccess texts;
   /** Values access file. */
   private DataAccess values;
+  /** Number of committed updates that have not been flushed yet (see {@link Flusher}). */
+  private int pending;
+  /** Indicates if the database is currently updated. */
+  private boolean updating;
+  /** Indicates if the changes of the last update have not been flushed yet. */
+  private boolean unflushed;
+
+  /** Opened database ({@code null} if this instance is no snapshot). */
+  private final DiskData live;
+  /** Snapshot of the last committed state ({@code null} if no snapshot is read). */
+  private DiskData snapshot;
+  /** Number of jobs that read the snapshot. */
+  private int readers;
+  /** Indicates if changes have been committed after the snapshot has been created. */
+  private boolean outdated;
+  /** Indicates if snapshots have been requested. */
+  private boolean shared;
+  /** Indicates if index files are rebuilt or dropped by the current update. */
+  private boolean indexing;
+  /** Number of updates since the database has been opened. */
+  private int updates;
 
   /**
    * Default constructor, called from {@link Open#open}.
@@ -63,8 +89,21 @@ public final class DiskData extends Data {
    * @throws IOException I/O Exception
    */
   public DiskData(final MetaData meta) throws IOException {
+    this(meta, null);
+  }
+
+  /**
+   * Constructor.
+   * @param meta meta data
+   * @param live opened database ({@code null} if this instance is no snapshot)
+   * @throws IOException I/O Exception
+   */
+  private DiskData(final MetaData meta, final DiskData live) throws IOException {
     super(meta);
+    this.live = live;
 
+    // restore committed changes of a database that has not been closed properly
+    if(live == null) Journal.recover(meta);
     try(DataInput in = new DataInput(meta.dbFile(DATAINF))) {
       meta.read(in);
       while(true) {
@@ -114,6 +153,7 @@ public final class DiskData extends Data {
     this.nspaces = nspaces;
     paths.data(this);
     if(meta.updindex) idmap = new IdPreMap(meta.lastid);
+    live = null;
     init();
   }
 
@@ -122,9 +162,23 @@ public final class DiskData extends Data {
    * @throws IOException I/O exception
    */
   private void init() throws IOException {
-    table = new TableDiskAccess(meta, false);
-    texts = new DataAccess(meta.dbFile(DATATXT));
-    values = new DataAccess(meta.dbFile(DATAATV));
+    // snapshots read the database files, which are locked by the opened database
+    meta.journal = meta.wal && live == null ? new Journal(meta) : null;
+    table = new TableDiskAccess(meta, false, live == null);
+    texts = heap(DATATXT);
+    values = heap(DATAATV);
+  }
+
+  /**
+   * Opens a heap file for texts or attribute values.
+   * @param name name of the file
+   * @return file access
+   * @throws IOException I/O exception
+   */
+  private DataAccess heap(final String name) throws IOException {
+    final IOFile file = meta.dbFile(name);
+    return meta.blockcompress ? new DataAccess(file, meta.dbFile(name + 'd'), meta.journal) :
+      new DataAccess(file, meta.mmap, meta.journal);
   }
 
   /**
@@ -134,7 +188,7 @@ public final class DiskData extends Data {
   private void write() throws IOException {
     if(!meta.dirty) return;
 
-    try(DataOutput out = new DataOutput(meta.dbFile(DATAINF))) {
+    try(DataOutput out = meta.output(DATAINF)) {
       meta.write(out);
       out.writeToken(token(DBTAGS));
       elemNames.write(out);
@@ -148,7 +202,7 @@ public final class DiskData extends Data {
       resources.write(out);
       out.write(0);
     }
-    if(meta.updindex) idmap.write(meta.dbFile(DATAIDP));
+    if(meta.updindex) idmap.write(meta.output(DATAIDP));
     meta.dirty = false;
   }
 
@@ -165,9 +219,16 @@ public final class DiskData extends Data {
       close(IndexType.ATTRIBUTE);
       close(IndexType.TOKEN);
       close(IndexType.FULLTEXT);
+      // write logged changes to the database files
+      if(meta.journal != null) meta.journal.close();
     } catch(final IOException ex) {
       Util.stack(ex);
     }
+    // all pending changes have been written
+    if(pending > 0) {
+      pending = 0;
+      removeUpdateFile();
+    }
   }
 
   /**
@@ -187,6 +248,7 @@ public final class DiskData extends Data {
   public void createIndex(final IndexType type, final Command cmd) throws IOException {
     // close existing index
     close(type);
+    checkpoint();
     final IndexBuilder ib;
     switch(type) {
       case TEXT: case ATTRIBUTE: case TOKEN: ib = new DiskValuesBuilder(this, type); break;
@@ -204,10 +266,79 @@ public final class DiskData extends Data {
   @Override
   public void dropIndex(final IndexType type) throws BaseXException {
     close(type);
+    try {
+      checkpoint();
+    } catch(final IOException ex) {
+      throw new BaseXException(ex);
+    }
     final Index index = index(type);
     if(index != null && !index.drop()) throw new BaseXException(INDEX_NOT_DROPPED_X, type);
   }
 
+  /**
+   * Writes logged changes to the database files.
+   * Must be called before index files are created or deleted. Waits until the current snapshot
+   * has been released; no new snapshots will be created until the update is finished.
+   * Synchronized, as indexes may be created in parallel.
+   * @throws IOException I/O exception
+   */
+  private synchronized void checkpoint() throws IOException {
+    if(meta.journal != null) {
+      indexing = true;
+      try {
+        while(snapshot != null) wait();
+      } catch(final InterruptedException ex) {
+        throw Util.notExpected("Thread was interrupted: %", ex);
+      }
+      flush(true);
+      meta.journal.checkpoint();
+    }
+  }
+
+  /**
+   * Returns a read-only snapshot of the last committed state of the database, which can be read
+   * while the database is updated. Snapshots are only available if updates are logged
+   * ({@link MainOptions#WAL}): logged changes will not be written to the database files
+   * as long as a snapshot is read. Each snapshot must be released via {@link #release()}.
+   * @return snapshot, or {@code null} if no snapshot can be created
+   */
+  public synchronized DiskData snapshot() {
+    final Journal journal = meta.journal;
+    if(closed || journal == null || indexing || unflushed) return null;
+    // committed changes will be written to the database files before each update
+    shared = true;
+    if(snapshot == null) {
+      try {
+        if(!updating) {
+          writeBehind();
+          journal.checkpoint();
+        }
+        // database files must reflect the last committed state
+        if(pending > 0 || !journal.checkpointed()) return null;
+        snapshot = new DiskData(meta.snapshot(), this);
+        outdated = false;
+      } catch(final IOException ex) {
+        Util.debug(ex);
+        return null;
+      }
+    } else if(outdated) {
+      return null;
+    }
+    readers++;
+    return snapshot;
+  }
+
+  /**
+   * Releases a snapshot. The snapshot will be closed if it is not read anymore.
+   */
+  public synchronized void release() {
+    if(--readers == 0) {
+      snapshot.close();
+      snapshot = null;
+      notifyAll();
+    }
+  }
+
   /**
    * Assigns the specified index.
    * @param type index to be opened
@@ -225,32 +356,88 @@ public final class DiskData extends Data {
   }
 
   @Override
-  public void startUpdate(final MainOptions opts) throws BaseXException {
+  public synchronized void startUpdate(final MainOptions opts) throws BaseXException {
     if(!table.lock(true)) throw new BaseXException(DB_PINNED_X, meta.name);
-    if(opts.get(MainOptions.AUTOFLUSH)) {
+    // snapshots have been requested: write committed changes to the database files
+    if(shared && snapshot == null) {
+      try {
+        writeBehind();
+        meta.journal.checkpoint();
+      } catch(final IOException ex) {
+        throw new BaseXException(ex);
+      }
+    }
+    // if changes of previous updates are pending, the existing updating file will be kept.
+    // no updating file is created if incomplete updates can be recovered from the log
+    if(opts.get(MainOptions.AUTOFLUSH) && pending == 0 && meta.journal == null) {
       final IOFile upd = meta.updateFile();
       if(upd.exists()) throw new BaseXException(DB_UPDATED_X, meta.name);
       if(!upd.touch()) throw Util.notExpected("%: could not create lock file.", meta.name);
     }
+    updating = true;
+    updates++;
+  }
+
+  /**
+   * Returns the number of updates since the database has been opened.
+   * Can be used to check if a database has been changed in the meantime.
+   * @return number of updates
+   */
+  public synchronized int updates() {
+    return updates;
   }
 
   @Override
   public synchronized void finishUpdate(final MainOptions opts) {
     // OPTIMIZE ALL / db:optimize(..., true) will close the database before this function is called
     if(closed) return;
+    updating = false;
+    indexing = false;
+    // changes will be visible to new readers: current snapshot must not be read anymore
+    outdated = true;
 
-    // remove updating file
     final boolean auto = opts.get(MainOptions.AUTOFLUSH);
-    if(auto) {
-      final IOFile upd = meta.updateFile();
-      if(!upd.exists()) throw Util.notExpected("%: lock file does not exist.", meta.name);
-      if(!upd.delete()) throw Util.notExpected("%: could not delete lock file.", meta.name);
+    final int delay = opts.get(MainOptions.FLUSHDELAY);
+    if(auto && delay > 0) {
+      // write changes in the background; keep updating file until they have been flushed
+      if(pending++ == 0) Flusher.get().schedule(this, delay);
+    } else {
+      flush(auto);
+      unflushed = !auto;
+      // remove updating file
+      if(auto) {
+        pending = 0;
+        removeUpdateFile();
+      }
     }
-
-    flush(auto);
     if(!table.lock(false)) throw Util.notExpected("Database '%': could not unlock.", meta.name);
   }
 
+  /**
+   * Writes the changes of committed updates to disk and removes the updating file.
+   * Called by the {@link Flusher}.
+   * @return number of flushed updates, or {@code -1} if the database is currently updated
+   */
+  synchronized int writeBehind() {
+    if(updating) return -1;
+    final int p = pending;
+    if(closed || p == 0) return 0;
+    flush(true);
+    pending = 0;
+    removeUpdateFile();
+    return p;
+  }
+
+  /**
+   * Removes the updating file.
+   */
+  private void removeUpdateFile() {
+    if(meta.journal != null) return;
+    final IOFile upd = meta.updateFile();
+    if(!upd.exists()) throw Util.notExpected("%: lock file does not exist.", meta.name);
+    if(!upd.delete()) throw Util.notExpected("%: could not delete lock file.", meta.name);
+  }
+
   @Override
   public synchronized void flush(final boolean all) {
     try {
@@ -261,12 +448,31 @@ public final class DiskData extends Data {
         values.flush();
         if(textIndex != null) textIndex.flush();
         if(attrIndex != null) attrIndex.flush();
+        if(tokenIndex != null) tokenIndex.flush();
+        if(ftIndex != null) ftIndex.flush();
+        // no checkpoint will be performed as long as a snapshot is read
+        if(meta.journal != null) meta.journal.commit(snapshot == null);
+        unflushed = false;
       }
     } catch(final IOException ex) {
       Util.stack(ex);
     }
   }
 
+  /**
+   * Returns information on the compressed texts and attribute values.
+   * @return info
+   */
+  public synchronized byte[] info() {
+    final TokenBuilder tb = new TokenBuilder();
+    tb.add(BLOCK_COMPRESSION).add(NL);
+    tb.add(LI_TEXTS);
+    texts.info(tb);
+    tb.add(NL).add(LI_ATTRIBUTE_VALUES);
+    values.info(tb);
+    return tb.add(NL).finish();
+  }
+
   @Override
   public byte[] text(final int pre, final boolean text) {
     final long value = textRef(pre);
@@ -291,9 +497,10 @@ public final class DiskData extends Data {
     if(Inline.inlined(value)) return Inline.unpackLength(value);
 
     final DataAccess da = text ? texts : values;
-    final int l = da.readNum(value & Compress.COMPRESS - 1);
+    final long pos = value & Compress.COMPRESS - 1;
+    final int l = da.readNum(pos);
     // if text is compressed, read number of compressed bytes
-    return Compress.compressed(value) ? da.readNum() : l;
+    return Compress.compressed(value) ? da.readNum(pos + Num.length(l)) : l;
   }
 
   /**
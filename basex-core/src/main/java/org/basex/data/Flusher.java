@@ -0,0 +1,136 @@
+package org.basex.data;
+
+import static org.basex.core.Text.*;
+
+import java.util.*;
+
+import org.basex.core.*;
+import org.basex.util.*;
+
+/**
+ * This class writes the changes of committed updates to disk in the background
+ * (see {@link MainOptions#FLUSHDELAY}).
+ *
+ * The first committed update starts a group commit window. All databases that are updated
+ * within this window are flushed in a single batch when it expires, and successive updates of
+ * the same database are coalesced into a single flush.
+ *
+ * @author BaseX Team 2005-20, BSD License
+ * @author Christian Gruen
+ */
+public final class Flusher {
+  /** Singleton instance. */
+  private static final Flusher INSTANCE = new Flusher();
+
+  /** Databases with pending changes. */
+  private final Set<DiskData> pending = new LinkedHashSet<>();
+  /** Timer (will be created when it is requested for the first time). */
+  private Timer timer;
+  /** Indicates if a batch has been scheduled. */
+  private boolean scheduled;
+  /** Delay of the current window (ms). */
+  private int delay;
+
+  /** Number of batches. */
+  private long batches;
+  /** Number of flushed databases. */
+  private long flushes;
+  /** Number of flushed updates. */
+  private long updates;
+  /** Total flush time (ns). */
+  private long time;
+  /** Maximum flush time of a batch (ns). */
+  private long max;
+
+  /**
+   * Private constructor.
+   */
+  private Flusher() { }
+
+  /**
+   * Returns the singleton instance.
+   * @return instance
+   */
+  public static Flusher get() {
+    return INSTANCE;
+  }
+
+  /**
+   * Schedules a flush for the specified database.
+   * @param data data reference
+   * @param ms delay of the group commit window (ms)
+   */
+  synchronized void schedule(final DiskData data, final int ms) {
+    pending.add(data);
+    if(scheduled) return;
+
+    if(timer == null) timer = new Timer(true);
+    scheduled = true;
+    delay = ms;
+    timer.schedule(new TimerTask() {
+      @Override
+      public void run() {
+        flush();
+      }
+    }, ms);
+  }
+
+  /**
+   * Returns information on the flushed batches.
+   * @return info string
+   */
+  public synchronized byte[] info() {
+    final TokenBuilder tb = new TokenBuilder();
+    tb.add(WRITE_BEHIND).add(NL);
+    tb.add(LI_BATCHES).addLong(batches).add(NL);
+    tb.add(LI_FLUSHES).addLong(flushes).add(NL);
+    tb.add(LI_UPDATES).addLong(updates).add(NL);
+    if(batches != 0) {
+      tb.add(LI_LATENCY).add(Performance.getTime(time, (int) Math.min(Integer.MAX_VALUE,
+          batches))).add(", max: ").add(Performance.getTime(max, 1)).add(NL);
+    }
+    return tb.finish();
+  }
+
+  /**
+   * Flushes all pending databases.
+   */
+  private void flush() {
+    final DiskData[] datas;
+    final int ms;
+    synchronized(this) {
+      datas = pending.toArray(new DiskData[0]);
+      pending.clear();
+      scheduled = false;
+      ms = delay;
+    }
+
+    final long start = System.nanoTime();
+    int fl = 0, upd = 0;
+    for(final DiskData data : datas) {
+      try {
+        final int u = data.writeBehind();
+        if(u == -1) {
+          // database is currently updated: flush it with the next batch
+          schedule(data, ms);
+        } else if(u > 0) {
+          fl++;
+          upd += u;
+        }
+      } catch(final Throwable ex) {
+        // errors must not cancel the timer, as all later flushes would be rejected
+        Util.stack(ex);
+      }
+    }
+
+    if(fl == 0) return;
+    final long nano = System.nanoTime() - start;
+    synchronized(this) {
+      batches++;
+      flushes += fl;
+      updates += upd;
+      time += nano;
+      max = Math.max(max, nano);
+    }
+  }
+}
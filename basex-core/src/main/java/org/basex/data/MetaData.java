@@ -13,6 +13,7 @@ import org.basex.index.*;
 import org.basex.io.*;
 import org.basex.io.in.DataInput;
 import org.basex.io.out.DataOutput;
+import org.basex.io.random.*;
 import org.basex.util.*;
 import org.basex.util.ft.*;
 import org.basex.util.list.*;
@@ -52,6 +53,22 @@ public final class MetaData {
   public boolean updindex;
   /** Flag for automatic index updating. */
   public boolean autooptimize;
+  /** Flag for memory-mapped reads. */
+  public boolean mmap;
+  /** Flag for write-ahead logging. */
+  public boolean wal;
+  /** Flag for texts and attribute values stored in compressed blocks. */
+  public boolean blockcompress;
+  /** Flag for columns with the numeric values of text and attribute paths. */
+  public boolean columns;
+  /** Flag for indexing the numeric values of the text and attribute index keys. */
+  public boolean numindex;
+  /** Flag for indexing the date, dateTime and time values of the text and attribute index keys. */
+  public boolean dateindex;
+  /** Flag for creating Bloom filters for the keys of the text, attribute and token index. */
+  public boolean bloomfilter;
+  /** Composite index: elements and attributes to index. */
+  public String compositeindex;
 
   /** Indicates if the text index is to be recreated. */
   public boolean createtext;
@@ -85,6 +102,8 @@ public final class MetaData {
   public int maxlen;
   /** Split size for creating indexes. */
   public int splitsize;
+  /** Number of threads for creating indexes (not stored in the database). */
+  public int indexthreads;
 
   /** Language of full-text search index. */
   public Language language;
@@ -95,6 +114,8 @@ public final class MetaData {
   public boolean corrupt;
   /** Dirty flag. */
   public boolean dirty;
+  /** Write-ahead log of an opened database ({@code null} if updates are written directly). */
+  public Journal journal;
 
   /** Number of nodes. */
   public int size;
@@ -140,6 +161,14 @@ public final class MetaData {
     casesens = options.get(MainOptions.CASESENS);
     updindex = options.get(MainOptions.UPDINDEX);
     autooptimize = options.get(MainOptions.AUTOOPTIMIZE);
+    mmap = options.get(MainOptions.MMAP);
+    wal = options.get(MainOptions.WAL);
+    blockcompress = options.get(MainOptions.BLOCKCOMPRESS);
+    columns = options.get(MainOptions.COLUMNS);
+    numindex = options.get(MainOptions.NUMINDEX);
+    dateindex = options.get(MainOptions.DATEINDEX);
+    bloomfilter = options.get(MainOptions.BLOOMFILTER);
+    compositeindex = options.get(MainOptions.COMPOSITEINDEX);
     maxlen = options.get(MainOptions.MAXLEN);
     maxcats = options.get(MainOptions.MAXCATS);
     stopwords = options.get(MainOptions.STOPWORDS);
@@ -149,6 +178,7 @@ public final class MetaData {
     tokeninclude = options.get(MainOptions.TOKENINCLUDE);
     ftinclude = options.get(MainOptions.FTINCLUDE);
     splitsize = options.get(MainOptions.SPLITSIZE);
+    indexthreads = options.get(MainOptions.INDEXTHREADS);
   }
 
   // STATIC METHODS ===============================================================================
@@ -265,6 +295,18 @@ public final class MetaData {
     return file(dir, filename);
   }
 
+  /**
+   * Returns an output stream for the specified database file.
+   * If a write-ahead log is used, the file will be written to the log.
+   * @param filename filename
+   * @return output stream
+   * @throws IOException I/O exception
+   */
+  public DataOutput output(final String filename) throws IOException {
+    final IOFile file = dbFile(filename);
+    return journal != null ? journal.output(file.name()) : new DataOutput(file);
+  }
+
   /**
    * Returns the binary directory.
    * @return binary directory, or {@code null} if this is a main-memory database
@@ -281,6 +323,15 @@ public final class MetaData {
     return dbFile(DATAUPD);
   }
 
+  /**
+   * Creates meta data for a snapshot of the database (see {@link DiskData#snapshot()}).
+   * All properties will be assigned when the meta data is read from disk.
+   * @return meta data
+   */
+  MetaData snapshot() {
+    return new MetaData(name, dir, new MainOptions(false));
+  }
+
   /**
    * Returns a reference to the specified binary file.
    * @param path internal file path
@@ -383,6 +434,8 @@ public final class MetaData {
    */
   void read(final DataInput in) throws IOException {
     String storage = "", istorage = "";
+    // the storage format of existing databases does not depend on the current options
+    blockcompress = false;
     while(true) {
       final String k = Token.string(in.readToken());
       if(k.isEmpty()) break;
@@ -403,6 +456,14 @@ public final class MetaData {
         case DBFTDC:     diacritics = toBoolean(v); break;
         case DBUPDIDX:   updindex = toBoolean(v); break;
         case DBAUTOOPT:  autooptimize = toBoolean(v); break;
+        case DBMMAP:     mmap = toBoolean(v); break;
+        case DBWAL:      wal = toBoolean(v); break;
+        case DBBLKCMP:   blockcompress = toBoolean(v); break;
+        case DBCOLS:     columns = toBoolean(v); break;
+        case DBNUMIDX:   numindex = toBoolean(v); break;
+        case DBDATIDX:   dateindex = toBoolean(v); break;
+        case DBBLOOM:    bloomfilter = toBoolean(v); break;
+        case DBCMPIDX:   compositeindex = v; break;
         case DBTXTIDX:   textindex = toBoolean(v); break;
         case DBATVIDX:   attrindex = toBoolean(v); break;
         case DBTOKIDX:   tokenindex = toBoolean(v); break;
@@ -428,6 +489,11 @@ public final class MetaData {
     // check version of database indexes
     oldindex = !istorage.equals(ISTORAGE) &&
         new Version(istorage).compareTo(new Version(ISTORAGE)) > 0;
+    // full-text indexes of older versions are stored in a different format and will be ignored
+    if(ftindex && new Version(istorage).compareTo(new Version(FTSTORAGE)) < 0) {
+      ftindex = false;
+      oldindex = true;
+    }
     corrupt = dbFile(DATAUPD).exists();
   }
 
@@ -446,6 +512,14 @@ public final class MetaData {
     writeInfo(out, DBSIZE,     size);
     writeInfo(out, DBUPDIDX,   updindex);
     writeInfo(out, DBAUTOOPT,  autooptimize);
+    writeInfo(out, DBMMAP,     mmap);
+    writeInfo(out, DBWAL,      wal);
+    writeInfo(out, DBBLKCMP,   blockcompress);
+    writeInfo(out, DBCOLS,     columns);
+    writeInfo(out, DBNUMIDX,   numindex);
+    writeInfo(out, DBDATIDX,   dateindex);
+    writeInfo(out, DBBLOOM,    bloomfilter);
+    writeInfo(out, DBCMPIDX,   compositeindex);
     writeInfo(out, DBTXTIDX,   textindex);
     writeInfo(out, DBATVIDX,   attrindex);
     writeInfo(out, DBTOKIDX,   tokenindex);
@@ -483,8 +557,8 @@ public final class MetaData {
       textindex = false;
       attrindex = false;
       tokenindex = false;
+      ftindex = false;
     }
-    ftindex = false;
   }
 
   /**
@@ -140,6 +140,46 @@ public enum MetaProp {
     public Boolean value(final MetaData meta) { return meta.autooptimize; }
   },
   /** Property. */
+  MMAP(true) {
+    @Override
+    public Boolean value(final MetaData meta) { return meta.mmap; }
+  },
+  /** Property. */
+  WAL(true) {
+    @Override
+    public Boolean value(final MetaData meta) { return meta.wal; }
+  },
+  /** Property. */
+  BLOCKCOMPRESS(true) {
+    @Override
+    public Boolean value(final MetaData meta) { return meta.blockcompress; }
+  },
+  /** Property. */
+  COLUMNS(true) {
+    @Override
+    public Boolean value(final MetaData meta) { return meta.columns; }
+  },
+  /** Property. */
+  NUMINDEX(true) {
+    @Override
+    public Boolean value(final MetaData meta) { return meta.numindex; }
+  },
+  /** Property. */
+  DATEINDEX(true) {
+    @Override
+    public Boolean value(final MetaData meta) { return meta.dateindex; }
+  },
+  /** Property. */
+  BLOOMFILTER(true) {
+    @Override
+    public Boolean value(final MetaData meta) { return meta.bloomfilter; }
+  },
+  /** Property. */
+  COMPOSITEINDEX(true) {
+    @Override
+    public String value(final MetaData meta) { return meta.compositeindex; }
+  },
+  /** Property. */
   MAXCATS(true) {
     @Override
     public Integer value(final MetaData meta) { return meta.maxcats; }
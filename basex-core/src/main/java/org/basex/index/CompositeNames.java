@@ -0,0 +1,132 @@
+package org.basex.index;
+
+import static org.basex.util.Token.*;
+
+import java.util.*;
+import java.util.regex.*;
+
+import org.basex.util.*;
+import org.basex.util.list.*;
+
+/**
+ * Declarations of composite index keys ({@link org.basex.core.MainOptions#COMPOSITEINDEX}).
+ * A declaration consists of an element name and the names of at least two of its attributes,
+ * which will be concatenated to a single key: {@code item[@type][@region]}.
+ * Multiple declarations are separated by commas.
+ *
+ * @author BaseX Team 2005-20, BSD License
+ * @author Christian Gruen
+ */
+public final class CompositeNames {
+  /** Pattern for a single declaration. */
+  private static final Pattern DECLARATION =
+      Pattern.compile("^([^\\[\\s]+)\\s*((\\[\\s*@[^\\]]+\\]\\s*)+)$");
+  /** Pattern for a single attribute name. */
+  private static final Pattern ATTRIBUTE = Pattern.compile("\\[\\s*@([^\\]\\s]+)\\s*\\]");
+  /** Separator of the attribute values of a key. */
+  private static final byte SEPARATOR = 0;
+  /** Representation of a missing attribute (never occurs in UTF-8 encoded strings). */
+  private static final byte MISSING = (byte) 0xFF;
+
+  /** Element names. */
+  private final TokenList elements = new TokenList();
+  /** Attribute names. */
+  private final ArrayList<byte[][]> attributes = new ArrayList<>();
+
+  /**
+   * Constructor.
+   * @param declarations declarations
+   */
+  public CompositeNames(final String declarations) {
+    for(final String entry : declarations.split(",")) {
+      final String decl = entry.trim();
+      if(decl.isEmpty()) continue;
+
+      final Matcher dm = DECLARATION.matcher(decl);
+      final TokenList names = new TokenList();
+      if(dm.find() && XMLToken.isNCName(token(dm.group(1)))) {
+        final Matcher am = ATTRIBUTE.matcher(dm.group(2));
+        while(am.find()) {
+          final byte[] name = token(am.group(1));
+          if(!XMLToken.isNCName(name) || names.contains(name)) {
+            names.reset();
+            break;
+          }
+          names.add(name);
+        }
+      }
+      if(names.size() < 2) {
+        Util.debug("Composite index declaration is invalid: %", decl);
+        continue;
+      }
+      elements.add(dm.group(1));
+      attributes.add(names.finish());
+    }
+  }
+
+  /**
+   * Checks if no declarations exist.
+   * @return result of check
+   */
+  public boolean isEmpty() {
+    return elements.isEmpty();
+  }
+
+  /**
+   * Returns the number of declarations.
+   * @return number of declarations
+   */
+  public int size() {
+    return elements.size();
+  }
+
+  /**
+   * Returns the element name of a declaration.
+   * @param decl offset of the declaration
+   * @return element name
+   */
+  public byte[] element(final int decl) {
+    return elements.get(decl);
+  }
+
+  /**
+   * Returns the attribute names of a declaration.
+   * @param decl offset of the declaration
+   * @return attribute names
+   */
+  public byte[][] attributes(final int decl) {
+    return attributes.get(decl);
+  }
+
+  /**
+   * Returns a key for the specified attribute values. If fewer values are specified than
+   * attributes are declared, the key will be a prefix of all keys with the same leading values.
+   * @param decl offset of the declaration
+   * @param values attribute values (entries can be {@code null} if attributes are missing)
+   * @return key
+   */
+  public byte[] key(final int decl, final byte[]... values) {
+    final int vl = values.length;
+    final ByteList key = new ByteList();
+    for(int v = 0; v < vl; v++) {
+      if(v > 0) key.add(SEPARATOR);
+      final byte[] value = values[v];
+      if(value != null) key.add(value);
+      else key.add(MISSING);
+    }
+    if(vl < attributes(decl).length) key.add(SEPARATOR);
+    return key.finish();
+  }
+
+  @Override
+  public String toString() {
+    final StringBuilder sb = new StringBuilder();
+    final int es = elements.size();
+    for(int e = 0; e < es; e++) {
+      if(e > 0) sb.append(',');
+      sb.append(string(elements.get(e)));
+      for(final byte[] name : attributes.get(e)) sb.append("[@").append(string(name)).append(']');
+    }
+    return sb.toString();
+  }
+}
@@ -65,12 +65,12 @@ public class IdPreMap {
   }
 
   /**
-   * Write the map to the specified file.
-   * @param file file to write to
+   * Write the map to the specified output stream.
+   * @param output output stream (will be closed)
    * @throws IOException I/O error while writing to the file
    */
-  public final void write(final IOFile file) throws IOException {
-    try(DataOutput out = new DataOutput(file)) {
+  public final void write(final DataOutput output) throws IOException {
+    try(DataOutput out = output) {
       out.writeNum(baseid);
       out.writeNum(rows);
       out.writeNums(pres);
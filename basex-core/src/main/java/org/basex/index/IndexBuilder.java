@@ -3,6 +3,10 @@ package org.basex.index;
 import static org.basex.core.Text.*;
 
 import java.io.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+import java.util.function.*;
 
 import org.basex.core.*;
 import org.basex.core.jobs.*;
@@ -14,6 +18,9 @@ import org.basex.util.*;
  * This interface defines the functions which are needed for building
  * new index structures.
  *
+ * If {@link MainOptions#INDEXTHREADS} is greater than 1, the pre values can be split into
+ * partitions, which are indexed in parallel (see {@link #partitions(BiFunction)}).
+ *
  * @author BaseX Team 2005-20, BSD License
  * @author Christian Gruen
  */
@@ -29,6 +36,8 @@ public abstract class IndexBuilder extends Job {
   protected final IndexType type;
   /** Text node flag. */
   protected final boolean text;
+  /** Number of threads for building the index. */
+  protected final int threads;
 
   /** Number of index operations to perform before writing a partial index to disk. */
   private final int splitSize;
@@ -46,6 +55,8 @@ public abstract class IndexBuilder extends Job {
   protected int splits;
   /** Threshold for freeing memory when estimating main memory consumption. */
   private int gcCount;
+  /** Number of pre values that have been processed by partitions. */
+  private final AtomicInteger processed = new AtomicInteger();
 
   /**
    * Constructor.
@@ -59,6 +70,7 @@ public abstract class IndexBuilder extends Job {
     size = data.meta.size;
     includeNames = new IndexNames(type, data);
     text = type == IndexType.TEXT || type == IndexType.FULLTEXT;
+    threads = data.inMemory() ? 1 : Math.max(1, data.meta.indexthreads);
 
     // run garbage collection if memory maximum is already reached
     if(Performance.memory() >= maxMem) clean();
@@ -86,7 +98,47 @@ public abstract class IndexBuilder extends Job {
    * @return result of check
    */
   protected final boolean indexEntry() {
-    return data.kind(pre) == (text ? Data.TEXT : Data.ATTR) && includeNames.contains(pre, text);
+    return indexEntry(pre);
+  }
+
+  /**
+   * Checks if the specified entry should be indexed.
+   * @param p pre value
+   * @return result of check
+   */
+  protected final boolean indexEntry(final int p) {
+    return data.kind(p) == (text ? Data.TEXT : Data.ATTR) && includeNames.contains(p, text);
+  }
+
+  /**
+   * Indexes all pre values in parallel. The pre values are split into partitions, which are
+   * indexed by separate threads. Each partition writes its entries to one or more partial index
+   * structures, which need to be merged afterwards.
+   * @param partition function for creating a partition for a range of pre values
+   * @throws IOException I/O Exception
+   */
+  protected final void partitions(final BiFunction<Integer, Integer, Partition> partition)
+      throws IOException {
+
+    final int chunk = (size / threads | 0x0FFF) + 1;
+    final ArrayList<Partition> list = new ArrayList<>();
+    for(int s = 0; s < size; s += chunk) list.add(partition.apply(s, Math.min(size, s + chunk)));
+    if(list.isEmpty()) return;
+
+    final ExecutorService pool = Executors.newFixedThreadPool(list.size());
+    try {
+      // wait until all partitions have been processed, as their files may be dropped afterwards
+      for(final Future<Partition> future : pool.invokeAll(list)) count += future.get().count;
+    } catch(final InterruptedException ex) {
+      throw new IOException(ex);
+    } catch(final ExecutionException ex) {
+      final Throwable th = ex.getCause();
+      if(th instanceof RuntimeException) throw (RuntimeException) th;
+      if(th instanceof Error) throw (Error) th;
+      throw th instanceof IOException ? (IOException) th : new IOException(th);
+    } finally {
+      pool.shutdownNow();
+    }
   }
 
   /**
@@ -103,20 +155,34 @@ public abstract class IndexBuilder extends Job {
     } else {
       // if not, estimate how much main memory is left
       split = Performance.memory() >= maxMem;
-      // stop operation if index splitting degenerates
-      int gc = gcCount;
-      if(split) {
-        if(gc >= 0) throw new BaseXException(OUT_OF_MEM + H_OUT_OF_MEM);
-        gc = 30;
-      } else {
-        gc = Math.max(-1, gc - 1);
-      }
-      gcCount = gc;
+      gcCount = gcCount(split, gcCount);
     }
     if(split && Prop.debug) Util.err("|");
     return split;
   }
 
+  /**
+   * Returns the new threshold for freeing memory.
+   * @param split split flag
+   * @param gc current threshold
+   * @return new threshold
+   * @throws IOException I/O Exception
+   */
+  private static int gcCount(final boolean split, final int gc) throws IOException {
+    // stop operation if index splitting degenerates
+    if(!split) return Math.max(-1, gc - 1);
+    if(gc >= 0) throw new BaseXException(OUT_OF_MEM + H_OUT_OF_MEM);
+    return 30;
+  }
+
+  /**
+   * Returns the number of the next partial index structure.
+   * @return split number
+   */
+  protected final synchronized int split() {
+    return splits++;
+  }
+
   /**
    * Performs memory cleanup after writing partial memory if necessary.
    */
@@ -130,10 +196,13 @@ public abstract class IndexBuilder extends Job {
   protected final void finishIndex() {
     if(!Prop.debug) return;
 
+    final long ns = Math.max(1, perf.ns());
     final StringBuilder sb = new StringBuilder();
     sb.append(' ').append((count / 10000) / 100.0d).append(" M operations, ");
-    sb.append(perf).append(" (").append(Performance.getMemory()).append(").");
-    if(splits > 1 && splitSize <= 0) {
+    sb.append(Performance.getTime(ns, 1)).append(", ").append(threads).append(" thread(s), ");
+    sb.append(count * 1000000000L / ns).append(" operations/s");
+    sb.append(" (").append(Performance.getMemory()).append(").");
+    if(splits > 1 && splitSize <= 0 && threads == 1) {
       sb.append(" Recommended ").append(MainOptions.SPLITSIZE.name()).append(": ");
       sb.append((int) Math.ceil(((double) count / splits) / splitFactor())).append('.');
     }
@@ -160,7 +229,8 @@ public abstract class IndexBuilder extends Job {
 
   @Override
   public final double progressInfo() {
-    return pre / (size + (splits > 0 ? size / 50.0d : 0.0d));
+    return Math.max(pre, Math.min(size, processed.get())) /
+        (size + (splits > 0 ? size / 50.0d : 0.0d));
   }
 
   @Override
@@ -173,4 +243,92 @@ public abstract class IndexBuilder extends Job {
       default: throw Util.notExpected();
     }
   }
+
+  /**
+   * Range of pre values that is indexed by a separate thread.
+   */
+  protected abstract class Partition implements Callable<Partition> {
+    /** First pre value. */
+    protected final int start;
+    /** Pre value after the last pre value. */
+    protected final int end;
+    /** Number of partial index structures written by this partition. */
+    protected int splits;
+    /** Number of index operations. */
+    protected long count;
+    /** Number of index operations that have been written to disk. */
+    private long written;
+    /** Threshold for freeing memory when estimating main memory consumption. */
+    private int gcCount;
+
+    /**
+     * Constructor.
+     * @param start first pre value
+     * @param end pre value after the last pre value
+     */
+    protected Partition(final int start, final int end) {
+      this.start = start;
+      this.end = end;
+    }
+
+    @Override
+    public final Partition call() throws IOException {
+      for(int p = start; p < end; p++) {
+        if((p & 0x0FFF) == 0) {
+          checkStop();
+          processed.addAndGet(0x1000);
+          if(count > written && splitRequired()) {
+            write();
+            clean();
+          }
+        }
+        if(indexEntry(p)) index(p);
+      }
+      write();
+      return this;
+    }
+
+    /**
+     * Indexes the entry with the specified pre value.
+     * @param pre pre value
+     * @throws IOException I/O Exception
+     */
+    protected abstract void index(int pre) throws IOException;
+
+    /**
+     * Writes the current index structures to a partial index.
+     * @param split number of the partial index structure
+     * @throws IOException I/O Exception
+     */
+    protected abstract void write(int split) throws IOException;
+
+    /**
+     * Writes the current index structures to disk if they are not empty.
+     * @throws IOException I/O Exception
+     */
+    private void write() throws IOException {
+      if(count == written) return;
+      write(split());
+      written = count;
+      splits++;
+    }
+
+    /**
+     * Decides whether the in-memory structures of this partition must be flushed to disk.
+     * The split size is shared by all partitions.
+     * @return true if structures shall be flushed to disk
+     * @throws IOException I/O Exception
+     */
+    private boolean splitRequired() throws IOException {
+      final boolean split;
+      if(splitSize > 0) {
+        split = count - written >= Math.max(1, splitSize / threads);
+      } else {
+        split = Performance.memory() >= maxMem;
+        gcCount = gcCount(split, gcCount);
+      }
+      if(split && Prop.debug) Util.err("|");
+      return split;
+    }
+  }
 }
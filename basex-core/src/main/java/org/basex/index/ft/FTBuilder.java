@@ -23,6 +23,8 @@ import org.basex.util.list.*;
 public final class FTBuilder extends IndexBuilder {
   /** Value trees. */
   private final FTIndexTrees tree;
+  /** Full-text options. */
+  private final FTOpt fto;
   /** Word parser. */
   private final FTLexer lexer;
   /** Number of indexed tokens. */
@@ -38,13 +40,7 @@ public final class FTBuilder extends IndexBuilder {
     final MetaData meta = data.meta;
     tree = new FTIndexTrees(data.meta.maxlen);
 
-    final FTOpt fto = new FTOpt();
-    fto.set(FTFlag.DC, meta.diacritics);
-    fto.set(FTFlag.ST, meta.stemming);
-    fto.cs = meta.casesens ? FTCase.SENSITIVE : FTCase.INSENSITIVE;
-    fto.sw = new StopWords(data, meta.stopwords);
-    fto.ln = data.meta.language;
-
+    fto = options(meta, new StopWords(data, meta.stopwords));
     if(!Tokenizer.supportFor(fto.ln))
       throw new BaseXException(NO_TOKENIZER_X, fto.ln);
     if(meta.stemming && !Stemmer.supportFor(fto.ln))
@@ -53,37 +49,63 @@ public final class FTBuilder extends IndexBuilder {
     lexer = new FTLexer(fto);
   }
 
+  /**
+   * Returns the full-text options of a database.
+   * @param meta meta data
+   * @param sw stop words
+   * @return full-text options
+   */
+  static FTOpt options(final MetaData meta, final StopWords sw) {
+    final FTOpt opt = new FTOpt();
+    opt.set(FTFlag.DC, meta.diacritics);
+    opt.set(FTFlag.ST, meta.stemming);
+    opt.cs = meta.casesens ? FTCase.SENSITIVE : FTCase.INSENSITIVE;
+    opt.sw = sw;
+    opt.ln = meta.language;
+    return opt;
+  }
+
   @Override
   public FTIndex build() throws IOException {
     Util.debug(detailedInfo());
 
     try {
-      for(pre = 0; pre < size; ++pre) {
-        if((pre & 0x0FFF) == 0) check();
-        if(!indexEntry()) continue;
-
-        // current lexer position
-        final StopWords sw = lexer.ftOpt().sw;
-        lexer.init(data.text(pre, true));
-        int pos = -1;
-        while(lexer.hasNext()) {
-          final byte[] token = lexer.nextToken();
-          ++pos;
-          // skip too long and stopword tokens
-          if(token.length <= data.meta.maxlen && !sw.contains(token)) {
-            // check if main memory is exhausted
-            if((ntok++ & 0xFFFF) == 0 && splitRequired()) {
-              writeIndex(true);
-              clean();
+      // with incremental updates, ids are indexed
+      final boolean updindex = data.meta.updindex;
+      if(threads > 1) {
+        // index partitions in parallel, merge partial indexes
+        partitions(FTPartition::new);
+        if(splits == 0) writeIndex(tree, DATAFTX, 0, false);
+        else merge();
+      } else {
+        for(pre = 0; pre < size; ++pre) {
+          if((pre & 0x0FFF) == 0) check();
+          if(!indexEntry()) continue;
+
+          // current lexer position
+          final StopWords sw = lexer.ftOpt().sw;
+          lexer.init(data.text(pre, true));
+          int pos = -1;
+          while(lexer.hasNext()) {
+            final byte[] token = lexer.nextToken();
+            ++pos;
+            // skip too long and stopword tokens
+            if(token.length <= data.meta.maxlen && !sw.contains(token)) {
+              // check if main memory is exhausted
+              if((ntok++ & 0xFFFF) == 0 && splitRequired()) {
+                writeIndex(true);
+                clean();
+              }
+              tree.index(token, updindex ? data.id(pre) : pre, pos, splits);
+              count++;
             }
-            tree.index(token, pre, pos, splits);
-            count++;
           }
         }
-      }
 
-      // finalize partial or all index structures
-      write(splits > 0);
+        // finalize partial or all index structures
+        writeIndex(splits > 0);
+        if(splits > 1) merge();
+      }
 
       finishIndex();
       return new FTIndex(data);
@@ -96,15 +118,10 @@ public final class FTBuilder extends IndexBuilder {
   }
 
   /**
-   * Writes the index data to disk.
-   * @param partial write partial index
+   * Merges the partial indexes.
    * @throws IOException I/O exception
    */
-  private void write(final boolean partial) throws IOException {
-    writeIndex(partial);
-    if(!partial) return;
-
-    // merges temporary index files
+  private void merge() throws IOException {
     try(DataOutput outX = new DataOutput(data.meta.dbFile(DATAFTX + 'x'));
         DataOutput outY = new DataOutput(data.meta.dbFile(DATAFTX + 'y'));
         DataOutput outZ = new DataOutput(data.meta.dbFile(DATAFTX + 'z'))) {
@@ -158,7 +175,7 @@ public final class FTBuilder extends IndexBuilder {
    * @param lp last offset
    * @throws IOException I/O exception
    */
-  private static void writeInd(final DataOutput outX, final IntList il, final int ls, final int lp)
+  static void writeInd(final DataOutput outX, final IntList il, final int ls, final int lp)
       throws IOException {
 
     final int is = il.size();
@@ -177,7 +194,21 @@ public final class FTBuilder extends IndexBuilder {
    * @throws IOException I/O exception
    */
   private void writeIndex(final boolean partial) throws IOException {
-    final String name = DATAFTX + (partial ? splits : "");
+    writeIndex(tree, DATAFTX + (partial ? splits : ""), splits, partial);
+    // increase split counter
+    splits++;
+  }
+
+  /**
+   * Writes index trees to disk.
+   * @param tree index trees
+   * @param name name of the index files
+   * @param index number of index structures that have already been written by the trees
+   * @param partial partial flag
+   * @throws IOException I/O exception
+   */
+  private void writeIndex(final FTIndexTrees tree, final String name, final int index,
+      final boolean partial) throws IOException {
     try(DataOutput outX = new DataOutput(data.meta.dbFile(name + 'x'));
         DataOutput outY = new DataOutput(data.meta.dbFile(name + 'y'));
         DataOutput outZ = new DataOutput(data.meta.dbFile(name + 'z'))) {
@@ -186,7 +217,7 @@ public final class FTBuilder extends IndexBuilder {
       tree.init();
       long dr = 0;
       int tr = 0, j = 0;
-      while(tree.more(splits)) {
+      while(tree.more(index)) {
         final FTIndexTree t = tree.nextTree();
         t.next();
         final byte[] key = t.nextTok();
@@ -203,7 +234,11 @@ public final class FTBuilder extends IndexBuilder {
         // write full-text data size (number of pre values)
         outY.write4(t.nextNumPre());
         // write compressed pre and pos arrays
-        writeFTData(outZ, t.nextPres(), t.nextPoss());
+        if(partial) {
+          writeFTData(outZ, t.nextPres(), t.nextPoss());
+        } else {
+          FTPostings.write(outZ, nums(t.nextPres()), nums(t.nextPoss()));
+        }
 
         dr = outZ.size();
         tr = (int) outY.size();
@@ -211,9 +246,6 @@ public final class FTBuilder extends IndexBuilder {
       writeInd(outX, ind, ++j, tr);
     }
     tree.initFT();
-
-    // increase split counter
-    splits++;
   }
 
   /**
@@ -227,26 +259,38 @@ public final class FTBuilder extends IndexBuilder {
   private static int merge(final DataOutput out, final IntList il, final FTList[] list)
       throws IOException {
 
-    final ByteList tbp = new ByteList().add(new byte[4]), tbo = new ByteList().add(new byte[4]);
-    // merge full-text data of all sorted lists with the same token
-    int s = 0;
+    // partial indexes may have been written in parallel: order lists by their first pre values
     final int is = il.size();
-    for(int j = 0; j < is; ++j) {
-      final int m = il.get(j);
-      for(final int p : list[m].prv) tbp.add(Num.num(p));
-      for(final int p : list[m].pov) tbo.add(Num.num(p));
-      s += list[m].size;
-      list[m].next();
+    final int[] ms = il.toArray();
+    for(int j = 1; j < is; ++j) {
+      final int m = ms[j];
+      int k = j;
+      for(; k > 0 && list[ms[k - 1]].prv[0] > list[m].prv[0]; --k) ms[k] = ms[k - 1];
+      ms[k] = m;
     }
-    // write compressed pre and pos arrays
-    final byte[] pr = tbp.finish();
-    Num.size(pr, pr.length);
-    final byte[] po = tbo.finish();
-    Num.size(po, po.length);
 
+    // merge full-text data of all sorted lists with the same token
+    final IntList pres = new IntList(), poss = new IntList();
+    for(final int m : ms) {
+      pres.add(list[m].prv);
+      poss.add(list[m].pov);
+      list[m].next();
+    }
     // write full-text data
-    writeFTData(out, pr, po);
-    return s;
+    FTPostings.write(out, pres, poss);
+    return pres.size();
+  }
+
+  /**
+   * Returns the values of a compressed array.
+   * @param array compressed values, prefixed by the size of the array
+   * @return values
+   */
+  private static IntList nums(final byte[] array) {
+    final IntList list = new IntList();
+    final int s = Num.size(array);
+    for(int a = 4; a < s; a += Num.length(array, a)) list.add(Num.get(array, a));
+    return list;
   }
 
   /**
@@ -281,4 +325,44 @@ public final class FTBuilder extends IndexBuilder {
     }
     return false;
   }
+
+  /**
+   * Partition of the pre values, which is indexed by a separate thread.
+   */
+  private final class FTPartition extends Partition {
+    /** Value trees. */
+    private final FTIndexTrees trees = new FTIndexTrees(data.meta.maxlen);
+    /** Word parser. */
+    private final FTLexer lex = new FTLexer(fto);
+
+    /**
+     * Constructor.
+     * @param start first pre value
+     * @param end pre value after the last pre value
+     */
+    private FTPartition(final int start, final int end) {
+      super(start, end);
+    }
+
+    @Override
+    protected void index(final int pre) {
+      final StopWords sw = fto.sw;
+      lex.init(data.text(pre, true));
+      int pos = -1;
+      while(lex.hasNext()) {
+        final byte[] token = lex.nextToken();
+        ++pos;
+        // skip too long and stopword tokens
+        if(token.length <= data.meta.maxlen && !sw.contains(token)) {
+          trees.index(token, data.meta.updindex ? data.id(pre) : pre, pos, splits);
+          count++;
+        }
+      }
+    }
+
+    @Override
+    protected void write(final int split) throws IOException {
+      writeIndex(trees, DATAFTX + split, splits, true);
+    }
+  }
 }
@@ -0,0 +1,176 @@
+package org.basex.index.ft;
+
+import java.io.*;
+
+import org.basex.io.in.DataInput;
+import org.basex.io.out.DataOutput;
+import org.basex.util.hash.*;
+import org.basex.util.list.*;
+
+/**
+ * This class contains the incremental changes of an updatable full-text index
+ * (see {@link org.basex.core.MainOptions#UPDINDEX}): the postings of added texts, and the ids of
+ * nodes whose postings in the index files are obsolete.
+ *
+ * @author BaseX Team 2005-20, BSD License
+ * @author Christian Gruen
+ */
+final class FTDelta {
+  /** Postings of added tokens (ids and positions, alternating). */
+  private final TokenObjMap<IntList> postings = new TokenObjMap<>();
+  /** Ids of nodes whose postings in the index files have been deleted. */
+  private IntSet deleted = new IntSet();
+  /** Number of added postings. */
+  private int size;
+  /** Dirty flag. */
+  boolean dirty;
+
+  /**
+   * Default constructor.
+   */
+  FTDelta() { }
+
+  /**
+   * Constructor, reading the changes from disk.
+   * @param in input stream
+   * @throws IOException I/O exception
+   */
+  FTDelta(final DataInput in) throws IOException {
+    for(int d = in.readNum(); --d >= 0;) deleted.add(in.readNum());
+    for(int t = in.readNum(); --t >= 0;) {
+      final byte[] token = in.readToken();
+      final int n = in.readNum() << 1;
+      final IntList list = new IntList(n);
+      for(int i = 0; i < n; i++) list.add(in.readNum());
+      postings.put(token, list);
+      size += n >> 1;
+    }
+  }
+
+  /**
+   * Adds a posting.
+   * @param token token
+   * @param id id of the text node
+   * @param pos position of the token
+   */
+  void add(final byte[] token, final int id, final int pos) {
+    IntList list = postings.get(token);
+    if(list == null) {
+      list = new IntList(2);
+      postings.put(token, list);
+    }
+    list.add(id).add(pos);
+    size++;
+    dirty = true;
+  }
+
+  /**
+   * Deletes the postings of the specified nodes.
+   * @param ids ids of text nodes
+   */
+  void delete(final IntSet ids) {
+    if(ids.isEmpty()) return;
+    for(final int id : ids.toArray()) deleted.add(id);
+    // remove added postings
+    if(size > 0) {
+      for(final IntList list : postings.values()) {
+        final int ls = list.size();
+        int l = 0;
+        for(int i = 0; i < ls; i += 2) {
+          final int id = list.get(i);
+          if(ids.contains(id)) continue;
+          list.set(l++, id);
+          list.set(l++, list.get(i + 1));
+        }
+        size -= ls - l >> 1;
+        list.size(l);
+      }
+    }
+    dirty = true;
+  }
+
+  /**
+   * Checks if the postings of the specified node in the index files have been deleted.
+   * @param id id of the text node
+   * @return result of check
+   */
+  boolean deleted(final int id) {
+    return deleted.contains(id);
+  }
+
+  /**
+   * Adds the postings of a token to the specified lists.
+   * @param token token
+   * @param ids ids
+   * @param poss positions
+   */
+  void postings(final byte[] token, final IntList ids, final IntList poss) {
+    final IntList list = postings.get(token);
+    if(list == null) return;
+    final int ls = list.size();
+    for(int i = 0; i < ls; i += 2) {
+      ids.add(list.get(i));
+      poss.add(list.get(i + 1));
+    }
+  }
+
+  /**
+   * Returns the number of postings of a token.
+   * @param token token
+   * @return number of postings
+   */
+  int size(final byte[] token) {
+    final IntList list = postings.get(token);
+    return list == null ? 0 : list.size() >> 1;
+  }
+
+  /**
+   * Returns the tokens of the added postings.
+   * @return tokens
+   */
+  TokenList tokens() {
+    final TokenList tokens = new TokenList(postings.size());
+    for(final byte[] token : postings) {
+      if(size(token) > 0) tokens.add(token);
+    }
+    return tokens;
+  }
+
+  /**
+   * Returns the number of changes.
+   * @return number of added postings and deleted nodes
+   */
+  int size() {
+    return size + deleted.size();
+  }
+
+  /**
+   * Removes all changes after they have been merged into the index files.
+   */
+  void clear() {
+    postings.clear();
+    deleted = new IntSet();
+    size = 0;
+    dirty = true;
+  }
+
+  /**
+   * Writes the changes to disk.
+   * @param out output stream
+   * @throws IOException I/O exception
+   */
+  void write(final DataOutput out) throws IOException {
+    out.writeNum(deleted.size());
+    for(final int id : deleted.toArray()) out.writeNum(id);
+    final TokenList tokens = tokens();
+    out.writeNum(tokens.size());
+    for(final byte[] token : tokens) {
+      final IntList list = postings.get(token);
+      final int ls = list.size();
+      out.writeToken(token);
+      out.writeNum(ls >> 1);
+      for(int i = 0; i < ls; i++) out.writeNum(list.get(i));
+    }
+    dirty = false;
+  }
+}
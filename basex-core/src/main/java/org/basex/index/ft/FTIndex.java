@@ -6,6 +6,7 @@ import static org.basex.util.Token.*;
 import static org.basex.util.ft.FTFlag.*;
 
 import java.io.*;
+import java.util.*;
 
 import org.basex.core.*;
 import org.basex.data.*;
@@ -13,6 +14,9 @@ import org.basex.index.*;
 import org.basex.index.query.*;
 import org.basex.index.stats.*;
 import org.basex.index.value.*;
+import org.basex.io.*;
+import org.basex.io.in.DataInput;
+import org.basex.io.out.DataOutput;
 import org.basex.io.random.*;
 import org.basex.query.expr.ft.*;
 import org.basex.query.util.ft.*;
@@ -42,35 +46,49 @@ import org.basex.util.similarity.*;
  * {@code z} is the pointer on the data entries of the token [long]
  * {@code s} is the number of pre values, saved in data [int]
  * </li>
- * <li>File <b>z</b> contains the {@code id/pos} references.
+ * <li>File <b>z</b> contains the {@code pre/pos} references.
  *   The values are ordered, but not distinct:
- *   {@code pre1/pos1, pre2/pos2, pre3/pos3, ...} [{@link Num}]</li>
+ *   {@code pre1/pos1, pre2/pos2, pre3/pos3, ...} [{@link Num}].
+ *   They are stored in blocks, which are preceded by a skip table
+ *   (see {@link FTPostings}).</li>
  * </ul>
  *
+ * <p>If {@link MainOptions#UPDINDEX} is enabled, ids are stored instead of pre values, and the
+ * index is updated incrementally: the postings of added texts and the ids of deleted texts are
+ * kept in main memory (see {@link FTDelta}) and written to file <b>d</b> when the database is
+ * flushed. If the number of changes exceeds a threshold, they are merged into the index files.</p>
+ *
  * @author BaseX Team 2005-20, BSD License
  * @author Christian Gruen
  */
 public final class FTIndex extends ValueIndex {
   /** Minimum fixed size for each token entry. */
   private static final int ENTRY = 9;
+  /** Minimum number of changes that will be merged into the index files. */
+  private static final int MERGE = 1 << 12;
 
   /** Cached texts. Increases used memory, but speeds up repeated queries. */
-  private final IntObjMap<byte[]> ctext = new IntObjMap<>();
+  private IntObjMap<byte[]> ctext = new IntObjMap<>();
   /** Levenshtein reference. */
   private final Levenshtein ls = new Levenshtein();
 
   /** Index storing each unique token length and pointer
    * on the first token with this length. */
-  private final DataAccess dataX;
+  private DataAccess dataX;
   /** Index storing each token, its data size and pointer on the data. */
-  private final DataAccess dataY;
+  private DataAccess dataY;
   /** Storing pre and pos values for each token. */
-  private final DataAccess dataZ;
+  private DataAccess dataZ;
 
   /** Cache for number of hits and data reference per token. */
-  private final IndexCache cache = new IndexCache();
+  private IndexCache cache = new IndexCache();
   /** Token positions. */
-  private final int[] positions;
+  private int[] positions;
+
+  /** Incremental changes ({@code null} if the index is not updatable). */
+  private final FTDelta delta;
+  /** Word parser for updates (lazy instantiation). */
+  private FTLexer lexer;
 
   /**
    * Constructor, initializing the index structure.
@@ -79,6 +97,26 @@ public final class FTIndex extends ValueIndex {
    */
   public FTIndex(final Data data) throws IOException {
     super(data, IndexType.FULLTEXT);
+    open();
+
+    // read incremental changes
+    final IOFile file = data.meta.dbFile(DATAFTX + 'd');
+    if(!data.meta.updindex) {
+      delta = null;
+    } else if(file.exists()) {
+      try(DataInput in = new DataInput(file)) {
+        delta = new FTDelta(in);
+      }
+    } else {
+      delta = new FTDelta();
+    }
+  }
+
+  /**
+   * Opens the index files.
+   * @throws IOException I/O Exception
+   */
+  private void open() throws IOException {
     // cache token length index
     dataX = new DataAccess(data.meta.dbFile(DATAFTX + 'x'));
     dataY = new DataAccess(data.meta.dbFile(DATAFTX + 'y'));
@@ -101,7 +139,7 @@ public final class FTIndex extends ValueIndex {
     // estimate costs for queries which stretch over multiple index entries
     final FTOpt opt = ((FTLexer) search).ftOpt();
     return IndexCosts.get(opt.is(FZ) || opt.is(WC) ? Math.max(1, data.meta.size >> 4) :
-      entry(token).size);
+      entry(token).size + (delta != null ? delta.size(token) : 0));
   }
 
   @Override
@@ -125,8 +163,14 @@ public final class FTIndex extends ValueIndex {
 
     // return cached or new result
     final IndexEntry entry = entry(token);
+    if(delta != null) {
+      final IntList ids = new IntList(), poss = new IntList();
+      if(entry.size > 0) read(entry.offset, entry.size, ids, poss);
+      delta.postings(token, ids, poss);
+      return iter(ids, poss, token);
+    }
     if(entry.size > 0) {
-      return iter(entry.offset, entry.size, dataZ, token);
+      return iter(entry.offset, entry.size, token);
     }
 
     // no results
@@ -253,6 +297,14 @@ public final class FTIndex extends ValueIndex {
 
   @Override
   public synchronized void close() {
+    flush();
+    closeFiles();
+  }
+
+  /**
+   * Closes the index files.
+   */
+  private void closeFiles() {
     dataX.close();
     dataY.close();
     dataZ.close();
@@ -350,6 +402,8 @@ public final class FTIndex extends ValueIndex {
    */
   private IndexIterator fuzzy(final byte[] token, final int k) {
     FTIndexIterator iter = FTIndexIterator.FTEMPTY;
+    final IntList ids = new IntList(), poss = new IntList();
+    ls.reset();
     final int tokl = token.length, pl = positions.length, e = Math.min(pl - 1, tokl + k);
     int s = Math.max(1, tokl - k) - 1;
     while(++s <= e) {
@@ -358,13 +412,42 @@ public final class FTIndex extends ValueIndex {
       int t = s + 1, r = -1;
       while(t < pl && r == -1) r = positions[t++];
       while(p < r) {
-        if(ls.similar(dataY.readBytes(p, s), token, k)) {
-          iter = FTIndexIterator.union(iter(pointer(p, s), size(p, s), dataZ, token), iter);
+        final byte[] entry = dataY.readBytes(p, s);
+        final int f = ls.prefix(entry, token, k);
+        if(f == -1) {
+          if(delta != null) read(pointer(p, s), size(p, s), ids, poss);
+          else iter = FTIndexIterator.union(iter(pointer(p, s), size(p, s), token), iter);
         }
         p += s + ENTRY;
+        // skip entries starting with a prefix that cannot be extended to a similar token
+        if(f > 0 && f < s) p = skip(Arrays.copyOf(entry, f), p, r, s);
       }
     }
-    return iter;
+    if(delta == null) return iter;
+
+    for(final byte[] entry : delta.tokens()) {
+      if(ls.similar(entry, token, k)) delta.postings(entry, ids, poss);
+    }
+    return iter(ids, poss, token);
+  }
+
+  /**
+   * Returns the position of the first entry that does not start with the specified prefix.
+   * @param prefix prefix
+   * @param start start position
+   * @param end end position
+   * @param ti entry length
+   * @return position
+   */
+  private int skip(final byte[] prefix, final int start, final int end, final int ti) {
+    final int tl = ti + ENTRY, pl = prefix.length;
+    int s = 0, e = (end - start) / tl;
+    while(s < e) {
+      final int m = s + e >>> 1;
+      if(eq(dataY.readBytes(start + m * tl, pl), prefix)) s = m + 1;
+      else e = m;
+    }
+    return start + s * tl;
   }
 
   /**
@@ -388,37 +471,117 @@ public final class FTIndex extends ValueIndex {
       while(start < end) {
         final byte[] t = dataY.readBytes(start, p);
         if(!startsWith(t, prefix)) break;
-        if(wc.match(t)) {
-          dataZ.cursor(pointer(start, p));
-          final int s = size(start, p);
-          for(int d = 0; d < s; d++) {
-            pr.add(dataZ.readNum());
-            ps.add(dataZ.readNum());
-          }
-        }
+        if(wc.match(t)) read(pointer(start, p), size(start, p), pr, ps);
         start += p + ENTRY;
       }
     }
-    return iter(new FTCache(pr, ps), token);
+    if(delta == null) return iter(new FTCache(pr, ps), token);
+
+    for(final byte[] t : delta.tokens()) {
+      if(startsWith(t, prefix) && wc.match(t)) delta.postings(t, pr, ps);
+    }
+    return iter(pr, ps, token);
+  }
+
+  /**
+   * Reads the postings of an index entry. Postings of deleted nodes are skipped.
+   * @param offset offset of the posting list
+   * @param size number of entries
+   * @param values pre values or ids
+   * @param poss positions
+   */
+  private void read(final long offset, final int size, final IntList values, final IntList poss) {
+    if(delta == null) {
+      FTPostings.read(dataZ, offset, size, values, poss);
+    } else {
+      final FTPostings postings = new FTPostings(dataZ, offset, size);
+      while(postings.next()) {
+        if(delta.deleted(postings.pre)) continue;
+        values.add(postings.pre);
+        poss.add(postings.pos);
+      }
+    }
+  }
+
+  /**
+   * Returns an iterator for the postings of an updatable index.
+   * @param ids ids
+   * @param poss positions
+   * @param token index token
+   * @return iterator
+   */
+  private FTIndexIterator iter(final IntList ids, final IntList poss, final byte[] token) {
+    if(ids.isEmpty()) return FTIndexIterator.FTEMPTY;
+    final int is = ids.size();
+    final IntList pres = new IntList(is);
+    for(int i = 0; i < is; i++) pres.add(data.pre(ids.get(i)));
+    return iter(new FTCache(pres, poss), token);
   }
 
   /**
    * Returns an iterator for an index entry.
+   * Entries are decoded on demand; the skip table is used to advance to a given pre value.
    * @param off offset on entries
-   * @param size number of id/pos entries
-   * @param da data source
+   * @param size number of pre/pos entries
    * @param token index token
    * @return iterator
    */
-  private static FTIndexIterator iter(final long off, final int size, final DataAccess da,
-      final byte[] token) {
-    da.cursor(off);
-    final IntList pr = new IntList(size), ps = new IntList(size);
-    for(int c = 0; c < size; c++) {
-      pr.add(da.readNum());
-      ps.add(da.readNum());
-    }
-    return iter(new FTCache(pr, ps), token);
+  private FTIndexIterator iter(final long off, final int size, final byte[] token) {
+    final FTPostings postings = new FTPostings(dataZ, off, size);
+    return new FTIndexIterator() {
+      final FTMatches all = new FTMatches();
+      boolean more = postings.next();
+      int pos, pre;
+
+      @Override
+      public boolean more() {
+        synchronized(FTIndex.this) {
+          if(!more) return false;
+          all.reset(pos);
+          pre = postings.pre;
+          do {
+            all.or(postings.pos);
+          } while((more = postings.next()) && postings.pre == pre);
+          return true;
+        }
+      }
+
+      @Override
+      public boolean advance(final int target) {
+        synchronized(FTIndex.this) {
+          if(more && postings.pre < target) {
+            postings.skip(target);
+            while((more = postings.next()) && postings.pre < target);
+          }
+        }
+        return more();
+      }
+
+      @Override
+      public FTMatches matches() {
+        return all;
+      }
+
+      @Override
+      public int pre() {
+        return pre;
+      }
+
+      @Override
+      public void pos(final int p) {
+        pos = p;
+      }
+
+      @Override
+      public int size() {
+        return size;
+      }
+
+      @Override
+      public String toString() {
+        return Strings.concat(token, '(', size, "x)");
+      }
+    };
   }
 
   /**
@@ -500,15 +663,135 @@ public final class FTIndex extends ValueIndex {
   }
 
   @Override
-  public void add(final ValueCache values) {
-    throw Util.notExpected();
+  public synchronized void add(final ValueCache values) {
+    final FTLexer lex = lexer();
+    final StopWords sw = lex.ftOpt().sw;
+    final TokenList tokens = new TokenList();
+    final IntList poss = new IntList();
+    for(final byte[] text : values) {
+      // tokenize text
+      tokens.reset();
+      poss.reset();
+      lex.init(text);
+      for(int pos = 0; lex.hasNext(); pos++) {
+        final byte[] token = lex.nextToken();
+        // skip too long and stopword tokens
+        if(token.length <= data.meta.maxlen && !sw.contains(token)) {
+          tokens.add(token);
+          poss.add(pos);
+        }
+      }
+      // add postings for all nodes with the same text
+      final IntList ids = values.ids(text);
+      final int is = ids.size(), ts = tokens.size();
+      for(int i = 0; i < is; i++) {
+        for(int t = 0; t < ts; t++) delta.add(tokens.get(t), ids.get(i), poss.get(t));
+      }
+    }
   }
 
   @Override
-  public void delete(final ValueCache values) {
-    throw Util.notExpected();
+  public synchronized void delete(final ValueCache values) {
+    final IntSet ids = new IntSet();
+    for(final byte[] text : values) {
+      final IntList list = values.ids(text);
+      final int ls = list.size();
+      for(int l = 0; l < ls; l++) ids.add(list.get(l));
+    }
+    delta.delete(ids);
   }
 
   @Override
-  public void flush() { }
+  public synchronized void flush() {
+    if(delta == null || !delta.dirty) return;
+    try {
+      // merge changes into the index files (skipped if updates are logged)
+      if(data.meta.journal == null && delta.size() >= Math.max(MERGE, dataZ.length() >> 4)) {
+        merge();
+      }
+      try(DataOutput out = data.meta.output(DATAFTX + 'd')) {
+        delta.write(out);
+      }
+    } catch(final IOException ex) {
+      Util.stack(ex);
+    }
+  }
+
+  /**
+   * Returns the word parser for updates.
+   * @return word parser
+   */
+  private FTLexer lexer() {
+    if(lexer == null) {
+      final StopWords sw = new StopWords();
+      sw.compile(data);
+      lexer = new FTLexer(FTBuilder.options(data.meta, sw));
+    }
+    return lexer;
+  }
+
+  /**
+   * Merges the incremental changes into the index files.
+   * @throws IOException I/O exception
+   */
+  private void merge() throws IOException {
+    // added tokens, sorted by length and lexicographically (see FTBuilder)
+    final byte[][] tokens = delta.tokens().finish();
+    Arrays.sort(tokens, (t1, t2) -> t1.length != t2.length ? t1.length - t2.length :
+      diff(t1, t2));
+
+    final String name = DATAFTX + 'm';
+    try(DataOutput outX = new DataOutput(data.meta.dbFile(name + 'x'));
+        DataOutput outY = new DataOutput(data.meta.dbFile(name + 'y'));
+        DataOutput outZ = new DataOutput(data.meta.dbFile(name + 'z'))) {
+
+      final IntList ind = new IntList(), ids = new IntList(), poss = new IntList();
+      final int pl = positions.length, tl = tokens.length;
+      int t = 0, j = 0;
+      for(int l = 0; l < pl - 1; l++) {
+        // range of the index entries with the current token length
+        int e = positions[l], end = -1;
+        for(int c = l + 1; e != -1 && end == -1; c++) end = positions[c];
+        while(true) {
+          final byte[] it = e < end ? dataY.readBytes(e, l) : null;
+          final byte[] at = t < tl && tokens[t].length == l ? tokens[t] : null;
+          if(it == null && at == null) break;
+
+          // merge postings of the next token
+          final int d = it == null ? 1 : at == null ? -1 : diff(it, at);
+          ids.reset();
+          poss.reset();
+          if(d <= 0) {
+            read(pointer(e, l), size(e, l), ids, poss);
+            e += l + ENTRY;
+          }
+          if(d >= 0) delta.postings(tokens[t++], ids, poss);
+          if(ids.isEmpty()) continue;
+
+          if(j < l) {
+            j = l;
+            ind.add(j);
+            ind.add((int) outY.size());
+          }
+          outY.writeBytes(d <= 0 ? it : at);
+          outY.write5(outZ.size());
+          outY.write4(ids.size());
+          FTPostings.write(outZ, ids, poss);
+        }
+      }
+      FTBuilder.writeInd(outX, ind, ++j, (int) outY.size());
+    }
+
+    // replace index files
+    closeFiles();
+    for(final char c : new char[] { 'x', 'y', 'z' }) {
+      final IOFile source = data.meta.dbFile(name + c), target = data.meta.dbFile(DATAFTX + c);
+      target.delete();
+      if(!source.rename(target)) throw new BaseXException(FILE_NOT_RENAMED_X, source);
+    }
+    open();
+    cache = new IndexCache();
+    ctext = new IntObjMap<>();
+    delta.clear();
+  }
 }
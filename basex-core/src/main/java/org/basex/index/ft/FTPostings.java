@@ -0,0 +1,189 @@
+package org.basex.index.ft;
+
+import java.io.*;
+import java.util.*;
+
+import org.basex.io.out.DataOutput;
+import org.basex.io.random.*;
+import org.basex.util.*;
+import org.basex.util.list.*;
+
+/**
+ * This class reads and writes the posting lists of the full-text index.
+ *
+ * <p>The {@code pre/pos} pairs of a token are stored in blocks of {@link #BLOCK} entries.
+ * Pre values are stored as differences to the preceding pre value, and positions are
+ * stored as they are (both compressed via {@link Num}).
+ * If a list consists of more than one block, it is preceded by a skip table:
+ * for each block except the first, the table contains the first pre value of the block
+ * and the byte length of the preceding block. Structure:
+ * {@code [pre1 len0, pre2 len1, ...] [block0] [block1] ...}</p>
+ *
+ * <p>The skip table allows iterators to jump to the block that may contain a given pre value
+ * (see {@link #skip(int)}).</p>
+ *
+ * @author BaseX Team 2005-20, BSD License
+ * @author Christian Gruen
+ */
+final class FTPostings {
+  /** Number of entries per block. */
+  static final int BLOCK = 128;
+
+  /** Data access. */
+  private final DataAccess da;
+  /** Number of entries. */
+  private final int size;
+  /** First pre values of the blocks (the first block excluded). */
+  private final int[] firsts;
+  /** Offsets of the blocks (the first block excluded). */
+  private final long[] offsets;
+
+  /** Offset of the next entry. */
+  private long offset;
+  /** Number of read entries. */
+  private int index;
+  /** Current pre value. */
+  int pre;
+  /** Current position. */
+  int pos;
+
+  /**
+   * Constructor, reading the skip table.
+   * <p><em>Important:</em> The caller must ensure that the data access is not used in parallel.
+   * </p>
+   * @param da data access
+   * @param offset offset of the posting list
+   * @param size number of entries
+   */
+  FTPostings(final DataAccess da, final long offset, final int size) {
+    this.da = da;
+    this.size = size;
+
+    final int bl = (size - 1) / BLOCK;
+    firsts = new int[bl];
+    offsets = new long[bl];
+    da.cursor(offset);
+    final int[] lengths = new int[bl];
+    for(int b = 0; b < bl; b++) {
+      firsts[b] = da.readNum();
+      lengths[b] = da.readNum();
+    }
+    long off = da.cursor();
+    this.offset = off;
+    for(int b = 0; b < bl; b++) {
+      off += lengths[b];
+      offsets[b] = off;
+    }
+  }
+
+  /**
+   * Reads the next entry.
+   * <p><em>Important:</em> The caller must ensure that the data access is not used in parallel.
+   * </p>
+   * @return {@code false} if all entries have been read
+   */
+  boolean next() {
+    if(index == size) return false;
+    da.cursor(offset);
+    pre += da.readNum();
+    pos = da.readNum();
+    offset = da.cursor();
+    index++;
+    return true;
+  }
+
+  /**
+   * Jumps to the last block that starts with a pre value smaller than the specified value,
+   * provided that it is located after the next entry.
+   * <p><em>Important:</em> The caller must ensure that the data access is not used in parallel.
+   * </p>
+   * @param target target pre value
+   */
+  void skip(final int target) {
+    final int bl = firsts.length;
+    // table index of the block that follows the block of the next entry
+    int b = index / BLOCK;
+    if(b >= bl || firsts[b] >= target) return;
+    while(b + 1 < bl && firsts[b + 1] < target) b++;
+
+    // the first difference of a block refers to the last pre value of the preceding block
+    offset = offsets[b];
+    index = (b + 1) * BLOCK;
+    da.cursor(offset);
+    pre = firsts[b] - da.readNum();
+  }
+
+  /**
+   * Reads all entries of a posting list.
+   * <p><em>Important:</em> The caller must ensure that the data access is not used in parallel.
+   * </p>
+   * @param da data access
+   * @param offset offset of the posting list
+   * @param size number of entries
+   * @param pres pre values
+   * @param poss positions
+   */
+  static void read(final DataAccess da, final long offset, final int size, final IntList pres,
+      final IntList poss) {
+    final FTPostings postings = new FTPostings(da, offset, size);
+    while(postings.next()) {
+      pres.add(postings.pre);
+      poss.add(postings.pos);
+    }
+  }
+
+  /**
+   * Writes a posting list. Entries will be sorted if the values are ids
+   * (see {@link org.basex.core.MainOptions#UPDINDEX}) and not in ascending order.
+   * @param out output stream
+   * @param pres pre values or ids
+   * @param poss positions
+   * @throws IOException I/O exception
+   */
+  static void write(final DataOutput out, final IntList pres, final IntList poss)
+      throws IOException {
+
+    sort(pres, poss);
+    // skip table: first pre values of the blocks and byte lengths of the preceding blocks
+    final int size = pres.size();
+    for(int i = 0, last = 0, length = 0; i < size; i++) {
+      final int pre = pres.get(i), pos = poss.get(i);
+      if(i > 0 && i % BLOCK == 0) {
+        out.writeNum(pre);
+        out.writeNum(length);
+        length = 0;
+      }
+      length += Num.length(pre - last) + Num.length(pos);
+      last = pre;
+    }
+    // blocks
+    for(int i = 0, last = 0; i < size; i++) {
+      final int pre = pres.get(i);
+      out.writeNum(pre - last);
+      out.writeNum(poss.get(i));
+      last = pre;
+    }
+  }
+
+  /**
+   * Sorts the entries of a posting list by their values and positions.
+   * @param values values (pre values or ids)
+   * @param poss positions
+   */
+  static void sort(final IntList values, final IntList poss) {
+    final int size = values.size();
+    int i = 0;
+    while(++i < size && values.get(i - 1) <= values.get(i));
+    if(i >= size) return;
+
+    final long[] entries = new long[size];
+    for(int e = 0; e < size; e++) entries[e] = (long) values.get(e) << 32 | poss.get(e);
+    Arrays.sort(entries);
+    values.reset();
+    poss.reset();
+    for(final long entry : entries) {
+      values.add((int) (entry >>> 32));
+      poss.add((int) entry);
+    }
+  }
+}
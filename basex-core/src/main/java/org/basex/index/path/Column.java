@@ -0,0 +1,64 @@
+package org.basex.index.path;
+
+import java.util.*;
+
+/**
+ * This class stores the numeric values of all text or attribute nodes of a path
+ * ({@link org.basex.core.MainOptions#COLUMNS}). The values are sorted by their pre values.
+ *
+ * @author BaseX Team 2005-20, BSD License
+ * @author Christian Gruen
+ */
+public final class Column {
+  /** Pre values (sorted). */
+  final int[] pres;
+  /** Numeric values. */
+  final double[] values;
+
+  /**
+   * Constructor.
+   * @param pres pre values (sorted)
+   * @param values numeric values
+   */
+  Column(final int[] pres, final double[] values) {
+    this.pres = pres;
+    this.values = values;
+  }
+
+  /**
+   * Returns the number of values.
+   * @return number of values
+   */
+  public int size() {
+    return pres.length;
+  }
+
+  /**
+   * Returns the index of the first entry with a pre value that is equal to or greater than
+   * the specified value.
+   * @param pre pre value
+   * @return index
+   */
+  public int index(final int pre) {
+    final int i = Arrays.binarySearch(pres, pre);
+    return i < 0 ? -i - 1 : i;
+  }
+
+  /**
+   * Returns the pre value of the specified entry.
+   * @param index index of entry
+   * @return pre value
+   */
+  public int pre(final int index) {
+    return pres[index];
+  }
+
+  /**
+   * Returns the numeric value of the specified entry.
+   * @param index index of entry
+   * @return value
+   */
+  public double value(final int index) {
+    return values[index];
+  }
+}
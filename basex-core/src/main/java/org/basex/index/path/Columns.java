@@ -0,0 +1,132 @@
+package org.basex.index.path;
+
+import static org.basex.data.DataText.*;
+
+import java.io.*;
+import java.util.*;
+
+import org.basex.data.*;
+import org.basex.index.stats.*;
+import org.basex.io.*;
+import org.basex.io.in.DataInput;
+import org.basex.io.out.DataOutput;
+import org.basex.util.*;
+import org.basex.util.list.*;
+
+/**
+ * This class creates and reads the columns with the numeric values of text and attribute paths
+ * ({@link org.basex.core.MainOptions#COLUMNS}).
+ *
+ * Columns are created for all text and attribute nodes of the path index with numeric values.
+ * The file starts with the number of columns. For each column, the position of its path node
+ * in the path index (in document order), the pre values (stored as distances) and the
+ * numeric values are stored.
+ *
+ * @author BaseX Team 2005-20, BSD License
+ * @author Christian Gruen
+ */
+final class Columns {
+  /** Private constructor. */
+  private Columns() { }
+
+  /**
+   * Creates the columns for the specified path nodes.
+   * @param data data reference
+   * @param nodes path nodes in document order
+   * @throws IOException I/O exception
+   */
+  static void create(final Data data, final ArrayList<PathNode> nodes) throws IOException {
+    // assign candidates: text and attribute nodes with numeric values
+    final int ns = nodes.size();
+    final IntList[] pres = new IntList[ns];
+    final DoubleList[] values = new DoubleList[ns];
+    final HashMap<PathNode, Integer> map = new HashMap<>();
+    for(int n = 0; n < ns; n++) {
+      final PathNode node = nodes.get(n);
+      if((node.kind == Data.TEXT || node.kind == Data.ATTR) &&
+          StatsType.isNumeric(node.stats.type)) {
+        pres[n] = new IntList();
+        values[n] = new DoubleList();
+        map.put(node, n);
+      }
+    }
+
+    // traverse database and assign values to the path nodes
+    final IntList pars = new IntList();
+    final ArrayList<PathNode> stack = new ArrayList<>();
+    final int size = data.meta.size;
+    for(int pre = 0; pre < size && !map.isEmpty(); pre++) {
+      final int kind = data.kind(pre), par = data.parent(pre, kind);
+      while(!pars.isEmpty() && pars.peek() > par) {
+        pars.pop();
+        stack.remove(stack.size() - 1);
+      }
+      if(kind == Data.DOC) {
+        pars.push(pre);
+        stack.add(nodes.get(0));
+        continue;
+      }
+
+      final int name = kind == Data.ELEM || kind == Data.ATTR ? data.nameId(pre) : 0;
+      final PathNode node = stack.get(stack.size() - 1).child(name, kind);
+      if(node == null) throw Util.notExpected("Path index is out of date.");
+      if(kind == Data.ELEM) {
+        pars.push(pre);
+        stack.add(node);
+      } else {
+        final Integer n = map.get(node);
+        if(n == null) continue;
+        final double value = Token.toDouble(data.text(pre, kind == Data.TEXT));
+        if(Double.isNaN(value)) {
+          // value cannot be converted to a number: skip column
+          map.remove(node);
+          pres[n] = null;
+          values[n] = null;
+        } else {
+          pres[n].add(pre);
+          values[n].add(value);
+        }
+      }
+    }
+
+    try(DataOutput out = new DataOutput(data.meta.dbFile(DATACOL))) {
+      out.writeNum(map.size());
+      for(int n = 0; n < ns; n++) {
+        if(pres[n] == null) continue;
+        out.writeNum(n);
+        out.writeDiffs(pres[n]);
+        final int vs = values[n].size();
+        final long[] bits = new long[vs];
+        for(int v = 0; v < vs; v++) bits[v] = Double.doubleToRawLongBits(values[n].get(v));
+        out.writeLongs(bits);
+      }
+    }
+  }
+
+  /**
+   * Reads the columns of the specified path nodes.
+   * @param data data reference
+   * @param nodes path nodes in document order
+   * @return columns, indexed by the positions of the path nodes
+   * @throws IOException I/O exception
+   */
+  static Column[] read(final Data data, final ArrayList<PathNode> nodes) throws IOException {
+    final int ns = nodes.size();
+    final Column[] columns = new Column[ns];
+    final IOFile file = data.meta.dbFile(DATACOL);
+    if(file.exists()) {
+      try(DataInput in = new DataInput(file)) {
+        for(int c = in.readNum(); c > 0; c--) {
+          final int n = in.readNum();
+          final int[] pres = in.readDiffs().finish();
+          final long[] bits = in.readLongs(in.readNum());
+          final int vs = bits.length;
+          final double[] values = new double[vs];
+          for(int v = 0; v < vs; v++) values[v] = Double.longBitsToDouble(bits[v]);
+          if(n < ns) columns[n] = new Column(pres, values);
+        }
+      }
+    }
+    return columns;
+  }
+}
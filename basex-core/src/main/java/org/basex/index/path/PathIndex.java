@@ -1,5 +1,6 @@
 package org.basex.index.path;
 
+import static org.basex.data.DataText.*;
 import static org.basex.util.Token.*;
 
 import java.io.*;
@@ -30,6 +31,9 @@ public final class PathIndex implements Index {
   private Data data;
   /** Root node. */
   private PathNode root;
+  /** Columns with numeric values, indexed by the positions of the path nodes in document order
+   *  ({@code null} if not loaded yet). */
+  private Column[] columns;
 
   /**
    * Constructor.
@@ -84,6 +88,7 @@ public final class PathIndex implements Index {
     root = new PathNode();
     stack.clear();
     stack.add(root);
+    columns = null;
   }
 
   @Override
@@ -238,6 +243,55 @@ public final class PathIndex implements Index {
     return tl;
   }
 
+  // Columns ======================================================================================
+
+  /**
+   * Creates or drops the columns with the numeric values of text and attribute nodes.
+   * Columns are only available for disk-based databases.
+   * @param create create or drop columns
+   * @throws IOException I/O exception
+   */
+  public synchronized void columns(final boolean create) throws IOException {
+    columns = null;
+    if(data.inMemory()) return;
+    if(create) Columns.create(data, nodes());
+    else data.meta.dbFile(DATACOL).delete();
+  }
+
+  /**
+   * Returns the column with the numeric values of the specified text or attribute node.
+   * Called by the query optimizer.
+   * @param node path node
+   * @return column or {@code null} if no column is available
+   */
+  public synchronized Column column(final PathNode node) {
+    // columns will be invalid after updates
+    final MetaData meta = data.meta;
+    if(!meta.columns || !meta.uptodate || data.inMemory()) return null;
+
+    final ArrayList<PathNode> nodes = nodes();
+    if(columns == null) {
+      try {
+        columns = Columns.read(data, nodes);
+      } catch(final IOException ex) {
+        Util.debug(ex);
+        columns = new Column[nodes.size()];
+      }
+    }
+    final int n = nodes.indexOf(node);
+    return n == -1 ? null : columns[n];
+  }
+
+  /**
+   * Returns all path nodes in document order.
+   * @return nodes
+   */
+  private ArrayList<PathNode> nodes() {
+    final ArrayList<PathNode> nodes = new ArrayList<>();
+    root.addDesc(nodes);
+    return nodes;
+  }
+
   // Info =========================================================================================
 
   @Override
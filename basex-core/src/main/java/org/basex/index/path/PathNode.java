@@ -102,6 +102,19 @@ public final class PathNode {
     return child;
   }
 
+  /**
+   * Returns the child with the specified name and kind.
+   * @param id name id ({@code 0} for nodes other than elements and attributes)
+   * @param knd node kind
+   * @return child node or {@code null}
+   */
+  PathNode child(final int id, final int knd) {
+    for(final PathNode child : children) {
+      if(child.kind == knd && child.name == id) return child;
+    }
+    return null;
+  }
+
   /**
    * Indexes a value.
    * @param value value (can be {@code null})
@@ -0,0 +1,41 @@
+package org.basex.index.query;
+
+import org.basex.index.*;
+
+/**
+ * This class stores a key for accessing the composite index of the attribute index
+ * (see {@link CompositeNames}).
+ *
+ * @author BaseX Team 2005-20, BSD License
+ * @author Christian Gruen
+ */
+public final class CompositeKey implements IndexSearch {
+  /** Offset of the declaration. */
+  public final int decl;
+  /** Key. */
+  public final byte[] key;
+  /** Prefix flag (the key contains the leading values of the declared attributes). */
+  public final boolean prefix;
+
+  /**
+   * Constructor.
+   * @param names declarations
+   * @param decl offset of the declaration
+   * @param values attribute values
+   */
+  public CompositeKey(final CompositeNames names, final int decl, final byte[]... values) {
+    this.decl = decl;
+    key = names.key(decl, values);
+    prefix = values.length < names.attributes(decl).length;
+  }
+
+  @Override
+  public IndexType type() {
+    return IndexType.ATTRIBUTE;
+  }
+
+  @Override
+  public byte[] token() {
+    return key;
+  }
+}
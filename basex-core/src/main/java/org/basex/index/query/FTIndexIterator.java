@@ -55,6 +55,17 @@ public abstract class FTIndexIterator implements IndexIterator {
         return next != null;
       }
 
+      @Override
+      public boolean advance(final int pre) {
+        if(diff <= 0) ii1 = i1.advance(pre) ? i1 : null;
+        else if(ii1 != null && ii1.pre() < pre) ii1 = i1.advance(pre) ? i1 : null;
+        if(diff >= 0) ii2 = i2.advance(pre) ? i2 : null;
+        else if(ii2 != null && ii2.pre() < pre) ii2 = i2.advance(pre) ? i2 : null;
+        diff = ii1 != null ? ii2 != null ? ii1.pre() - ii2.pre() : -1 : 1;
+        next = diff <= 0 ? ii1 : ii2;
+        return next != null;
+      }
+
       @Override
       public FTMatches matches() {
         final FTMatches all = next.matches();
@@ -97,28 +108,44 @@ public abstract class FTIndexIterator implements IndexIterator {
       final int dis) {
 
     return new FTIndexIterator() {
-      private FTIndexIterator ii1, ii2;
       private FTMatches all;
 
       @Override
       public boolean more() {
-        int d = 0;
+        return i1.more() && i2.more() && next();
+      }
+
+      @Override
+      public boolean advance(final int pre) {
+        return i1.advance(pre) && i2.advance(pre) && next();
+      }
+
+      /**
+       * Leapfrogs to the next pre value shared by both iterators.
+       * @return result of check
+       */
+      private boolean next() {
         while(true) {
-          if(d <= 0) ii1 = i1.more() ? i1 : null;
-          if(d >= 0) ii2 = i2.more() ? i2 : null;
-          if(ii1 == null || ii2 == null) return false;
-          d = ii1.pre() - ii2.pre();
-          if(d != 0) continue;
-          all = ii1.matches();
-          final FTMatches all2 = ii2.matches();
+          // skip entries of the iterator with the smaller pre value
+          final int p1 = i1.pre(), p2 = i2.pre();
+          if(p1 < p2) {
+            if(!i1.advance(p2)) return false;
+            continue;
+          }
+          if(p2 < p1) {
+            if(!i2.advance(p1)) return false;
+            continue;
+          }
+          all = i1.matches();
+          final FTMatches all2 = i2.matches();
           if(dis == 0) {
             for(final FTMatch m1 : all) {
               for(final FTMatch m2 : all2) m1.add(m2);
             }
             return true;
-          } else if(all.phrase(all2, dis)) {
-            return true;
           }
+          if(all.phrase(all2, dis)) return true;
+          if(!i1.more() || !i2.more()) return false;
         }
       }
 
@@ -129,7 +156,7 @@ public abstract class FTIndexIterator implements IndexIterator {
 
       @Override
       public int pre() {
-        return ii1.pre();
+        return i1.pre();
       }
 
       @Override
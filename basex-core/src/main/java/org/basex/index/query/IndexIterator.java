@@ -34,4 +34,19 @@ public interface IndexIterator {
    * @return result approximate number of results
    */
   int size();
+
+  /**
+   * Skips all results with pre values smaller than the specified value.
+   * Results are returned in ascending order. As with {@link #more()}, the current result
+   * will always be skipped. Implementations can overwrite this method to skip results
+   * without decoding them.
+   * @param pre pre value
+   * @return {@code true} if a result with an equal or larger pre value was found
+   */
+  default boolean advance(final int pre) {
+    while(more()) {
+      if(pre() >= pre) return true;
+    }
+    return false;
+  }
 }
@@ -0,0 +1,81 @@
+package org.basex.index.query;
+
+import org.basex.index.*;
+import org.basex.query.*;
+import org.basex.query.value.item.*;
+import org.basex.util.*;
+
+/**
+ * This class stores a date, dateTime or time range for index access.
+ *
+ * @author BaseX Team 2005-20, BSD License
+ * @author Christian Gruen
+ */
+public final class TemporalRange implements IndexSearch {
+  /** Index type. */
+  private final IndexType type;
+  /** Minimum value (can be {@code null} if {@link #max} is assigned). */
+  public final ADate min;
+  /** Include minimum value. */
+  public final boolean mni;
+  /** Maximum value (can be {@code null} if {@link #min} is assigned). */
+  public final ADate max;
+  /** Include maximum value. */
+  public final boolean mxi;
+  /** Normalized minimum (seconds since the epoch, inclusive). */
+  public final double from;
+  /** Normalized maximum (seconds since the epoch, inclusive). */
+  public final double to;
+
+  /**
+   * Constructor.
+   * @param type index type
+   * @param min minimum value (can be {@code null} if {@code max} is assigned)
+   * @param mni include minimum value
+   * @param max maximum value (can be {@code null} if {@code min} is assigned)
+   * @param mxi include maximum value
+   */
+  public TemporalRange(final IndexType type, final ADate min, final boolean mni, final ADate max,
+      final boolean mxi) {
+    this.type = type;
+    this.min = min;
+    this.mni = mni;
+    this.max = max;
+    this.mxi = mxi;
+    from = min != null ? min.epochSeconds() : Double.NEGATIVE_INFINITY;
+    to = max != null ? max.epochSeconds() : Double.POSITIVE_INFINITY;
+  }
+
+  /**
+   * Checks if the specified value is within the range.
+   * @param value value
+   * @return result of check
+   */
+  public boolean contains(final byte[] value) {
+    final ADate date = ADate.get(value);
+    if(date == null || date.type != (min != null ? min : max).type) return false;
+    try {
+      if(min != null) {
+        final int d = min.diff(date, null, null);
+        if(mni ? d > 0 : d >= 0) return false;
+      }
+      if(max != null) {
+        final int d = max.diff(date, null, null);
+        if(mxi ? d < 0 : d <= 0) return false;
+      }
+      return true;
+    } catch(final QueryException ex) {
+      throw Util.notExpected(ex);
+    }
+  }
+
+  @Override
+  public IndexType type() {
+    return type;
+  }
+
+  @Override
+  public byte[] token() {
+    return Token.EMPTY;
+  }
+}
@@ -70,7 +70,7 @@ final class Docs {
       // retrieve paths (must be called before file is opened for writing!)
       final TokenList paths = paths();
       // write paths
-      try(DataOutput doc = new DataOutput(data.meta.dbFile(DATAPTH))) {
+      try(DataOutput doc = data.meta.output(DATAPTH)) {
         doc.writeNum(paths.size());
         for(final byte[] path : paths) doc.writeToken(path);
       }
@@ -72,7 +72,7 @@ public final class Stats {
   public void write(final DataOutput out) throws IOException {
     // finalize statistics: switch to category type if map with distinct values exists
     if(values != null) {
-      if(values.isEmpty()) {
+      if(values.isEmpty() || isTemporal(type)) {
         values = null;
       } else if(!isCategory(type)) {
         type = type == INTEGER ? INTEGER_CATEGORY :
@@ -97,8 +97,9 @@ public final class Stats {
 
   /**
    * Adds a value. All values are first treated as integer values. If a value cannot be converted
-   * to an integer, it is treated as double value. If conversion fails again, it is handled as
-   * string category. Next, all values are cached. As soon as their number exceeds a maximum,
+   * to an integer, it is treated as double value. If conversion fails again, and if no other
+   * values have been added yet, it is checked if the value is a date, dateTime or time value.
+   * Otherwise, it is handled as string category. Next, all values are cached. As soon as their number exceeds a maximum,
    * the cached values are skipped, and contents are treated as arbitrary strings.
    * @param value value to be added
    * @param meta meta data
@@ -126,11 +127,14 @@ public final class Stats {
       if(t == DOUBLE) {
         final double d = toDouble(value);
         if(Double.isNaN(d)) {
-          t = STRING;
+          // first value: check if value is temporal
+          t = type == NONE ? temporal(value) : STRING;
         } else {
           if(min > d) min = d;
           if(max < d) max = d;
         }
+      } else if(isTemporal(t) && temporal(value) != t) {
+        t = STRING;
       }
     }
     type = t;
@@ -1,5 +1,8 @@
 package org.basex.index.stats;
 
+import org.basex.query.value.item.*;
+import org.basex.query.value.type.*;
+
 /**
  * Value types, used for index statistics and query optimizations.
  *
@@ -24,6 +27,12 @@ public final class StatsType {
   public static final byte INTEGER_CATEGORY = 5;
   /** All distinct values are of type double. */
   public static final byte DOUBLE_CATEGORY = 6;
+  /** All values are of type date. */
+  public static final byte DATE = 7;
+  /** All values are of type dateTime. */
+  public static final byte DATETIME = 8;
+  /** All values are of type time. */
+  public static final byte TIME = 9;
 
   /**
    * Indicates if no data exists.
@@ -62,12 +71,33 @@ public final class StatsType {
   }
 
   /**
-   * Indicates if the specified type is a string.
+   * Indicates if the specified type is a string. Temporal values are strings as well.
    * @param type type
    * @return result of check
    */
   public static boolean isString(final int type) {
-    return type == STRING || type == STRING_CATEGORY;
+    return type == STRING || type == STRING_CATEGORY || isTemporal(type);
+  }
+
+  /**
+   * Indicates if the specified type is a date, dateTime or time.
+   * @param type type
+   * @return result of check
+   */
+  public static boolean isTemporal(final int type) {
+    return type == DATE || type == DATETIME || type == TIME;
+  }
+
+  /**
+   * Returns the temporal type of the specified value.
+   * @param value value
+   * @return temporal type, or {@link #STRING} if the value is no date, dateTime or time
+   */
+  public static byte temporal(final byte[] value) {
+    final ADate date = ADate.get(value);
+    if(date == null) return STRING;
+    final Type type = date.type;
+    return type == AtomType.DAT ? DATE : type == AtomType.DTM ? DATETIME : TIME;
   }
 
   /**
@@ -85,7 +115,7 @@ public final class StatsType {
    * @return string
    */
   public static String toString(final int type) {
-    return isInteger(type) ? "integer" : isDouble(type) ? "double" : isString(type) ? "string" :
-      "none";
+    return isInteger(type) ? "integer" : isDouble(type) ? "double" : type == DATE ? "date" :
+      type == DATETIME ? "dateTime" : type == TIME ? "time" : isString(type) ? "string" : "none";
   }
 }
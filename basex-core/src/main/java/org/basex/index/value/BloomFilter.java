@@ -0,0 +1,199 @@
+package org.basex.index.value;
+
+import java.io.*;
+import java.util.concurrent.atomic.*;
+
+import org.basex.data.*;
+import org.basex.io.*;
+import org.basex.io.in.DataInput;
+import org.basex.io.out.DataOutput;
+
+/**
+ * <p>This class provides a Bloom filter for the keys of a value index
+ * ({@link org.basex.core.MainOptions#BLOOMFILTER}). It is consulted before the binary search
+ * in the index: if a key is definitely not contained in the index, no disk access is required.
+ * The filter is stored in the {@code DATATXT/ATV/TOK + 'b'} file.</p>
+ *
+ * <p>The filter uses {@link #BITS} bits per key and {@link #HASHES} hash functions, which
+ * results in a false positive rate of less than 1%. The bit positions are computed from
+ * a single 64-bit hash value via double hashing. If the index is updated incrementally,
+ * new keys are added to the filter. Bits of deleted keys are not reset, so the filter will only
+ * be compacted if the index is rebuilt.</p>
+ *
+ * @author BaseX Team 2005-20, BSD License
+ * @author Christian Gruen
+ */
+final class BloomFilter {
+  /** Number of bits per key. */
+  private static final int BITS = 10;
+  /** Number of hash functions. */
+  private static final int HASHES = 7;
+  /** Minimum number of keys. */
+  private static final int MIN = 1 << 10;
+
+  /** Name of the filter file. */
+  private final String name;
+  /** Bits. */
+  private final long[] bits;
+  /** Number of bits. */
+  private final long size;
+  /** Number of lookups. */
+  private final AtomicLong lookups = new AtomicLong();
+  /** Number of lookups that were answered by the filter. */
+  private final AtomicLong negatives = new AtomicLong();
+  /** Dirty flag. */
+  private boolean dirty;
+
+  /**
+   * Constructor.
+   * @param name name of the filter file
+   * @param bits bits
+   */
+  private BloomFilter(final String name, final long[] bits) {
+    this.name = name;
+    this.bits = bits;
+    size = bits.length * 64L;
+  }
+
+  /**
+   * Opens the filter of an index.
+   * @param meta meta data
+   * @param pref file prefix of the index
+   * @return filter, or {@code null} if no filter exists
+   * @throws IOException I/O exception
+   */
+  static BloomFilter open(final MetaData meta, final String pref) throws IOException {
+    final IOFile file = meta.dbFile(pref + 'b');
+    if(!file.exists()) return null;
+    try(DataInput in = new DataInput(file)) {
+      return new BloomFilter(pref + 'b', in.readLongs(in.readNum()));
+    }
+  }
+
+  /**
+   * Creates a filter for the specified index.
+   * <p><em>Important:</em> This method is NOT thread-safe.</p>
+   * @param index value index
+   * @return filter
+   * @throws IOException I/O exception
+   */
+  static BloomFilter create(final DiskValues index) throws IOException {
+    // reserve space for new keys if the index is updated incrementally
+    final int entries = index.size();
+    final long keys = Math.max(MIN, index.data.meta.updindex ? entries * 2L : entries);
+    final BloomFilter filter = new BloomFilter(DiskValues.fileSuffix(index.type) + 'b',
+        new long[(int) Math.min(Integer.MAX_VALUE - 8, (keys * BITS + 63) >>> 6)]);
+    for(int k = 0; k < entries; k++) {
+      index.idxl.readNum(index.idxr.read5(k * 5L));
+      filter.add(index.key(index.idxl.readNum()));
+    }
+    try(DataOutput out = new DataOutput(index.data.meta.dbFile(filter.name))) {
+      out.writeLongs(filter.bits);
+    }
+    filter.dirty = false;
+    return filter;
+  }
+
+  /**
+   * Drops the filter of the specified index.
+   * @param index value index
+   */
+  static void drop(final DiskValues index) {
+    index.data.meta.dbFile(DiskValues.fileSuffix(index.type) + 'b').delete();
+  }
+
+  /**
+   * Adds a key.
+   * @param key key
+   */
+  void add(final byte[] key) {
+    final long hash = hash(key);
+    final int h1 = (int) hash, h2 = (int) (hash >>> 32);
+    for(int h = 0; h < HASHES; h++) {
+      final long bit = ((h1 + h * h2) & 0x7FFFFFFFL) % size;
+      bits[(int) (bit >>> 6)] |= 1L << bit;
+    }
+    dirty = true;
+  }
+
+  /**
+   * Checks if the specified key may be contained in the index.
+   * <p><em>Important:</em> This method is thread-safe.</p>
+   * @param key key
+   * @return {@code false} if the key is definitely not contained in the index
+   */
+  boolean contains(final byte[] key) {
+    lookups.incrementAndGet();
+    final long hash = hash(key);
+    final int h1 = (int) hash, h2 = (int) (hash >>> 32);
+    for(int h = 0; h < HASHES; h++) {
+      final long bit = ((h1 + h * h2) & 0x7FFFFFFFL) % size;
+      if((bits[(int) (bit >>> 6)] & 1L << bit) == 0) {
+        negatives.incrementAndGet();
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Writes the filter to disk. Changes will be logged if updates are logged.
+   * @param meta meta data
+   * @throws IOException I/O exception
+   */
+  void write(final MetaData meta) throws IOException {
+    try(DataOutput out = meta.output(name)) {
+      out.writeLongs(bits);
+    }
+    dirty = false;
+  }
+
+  /**
+   * Indicates if the filter has been changed.
+   * @return result of check
+   */
+  boolean dirty() {
+    return dirty;
+  }
+
+  /**
+   * Returns the size of the filter.
+   * @return size in bytes
+   */
+  long length() {
+    return bits.length * 8L;
+  }
+
+  /**
+   * Returns the number of lookups.
+   * @return number of lookups
+   */
+  long lookups() {
+    return lookups.get();
+  }
+
+  /**
+   * Returns the number of lookups that were answered by the filter.
+   * @return number of lookups
+   */
+  long negatives() {
+    return negatives.get();
+  }
+
+  /**
+   * Computes a 64-bit hash value for the specified key (FNV-1a, followed by a finalization step).
+   * @param key key
+   * @return hash value
+   */
+  private static long hash(final byte[] key) {
+    long h = 0xCBF29CE484222325L;
+    for(final byte b : key) {
+      h ^= b & 0xFF;
+      h *= 0x100000001B3L;
+    }
+    h ^= h >>> 33;
+    h *= 0xFF51AFD7ED558CCDL;
+    h ^= h >>> 33;
+    return h;
+  }
+}
@@ -0,0 +1,367 @@
+package org.basex.index.value;
+
+import static org.basex.util.Token.*;
+
+import java.io.*;
+import java.util.*;
+
+import org.basex.data.*;
+import org.basex.index.*;
+import org.basex.index.query.*;
+import org.basex.io.*;
+import org.basex.io.out.DataOutput;
+import org.basex.io.random.*;
+import org.basex.util.hash.*;
+import org.basex.util.list.*;
+
+/**
+ * <p>This class provides a composite index for elements with multiple attributes
+ * ({@link org.basex.core.MainOptions#COMPOSITEINDEX}). The attribute values of an element are
+ * concatenated to a single key (see {@link CompositeNames#key(int, byte[]...)}), which allows
+ * for answering equality comparisons on all attributes with a single lookup. As the keys are
+ * sorted, comparisons on leading attributes can be answered via prefix scans.
+ * Elements are indexed if they have the first declared attribute.
+ * The index is stored in the {@code DATAATV + 'c'} file:</p>
+ * <ul>
+ * <li> The file starts with the entries of all keys: the key, the number of pre values, and
+ *   the pre values (stored as differences to the preceding value in the {@link Num} format).</li>
+ * <li> A reference table follows, which contains the 5-byte offset and the 4-byte total number of
+ *   pre values of all preceding entries for each key, and an additional entry that marks the
+ *   end of the last entry.</li>
+ * <li> The directory contains the indexed declarations, the number of declarations, and the
+ *   offset of the first key and the number of keys of each declaration.</li>
+ * <li> The file ends with the 5-byte offsets of the reference table and the directory.</li>
+ * </ul>
+ *
+ * <p>The index contains pre values. It will be invalid after updates.</p>
+ *
+ * @author BaseX Team 2005-20, BSD License
+ * @author Christian Gruen
+ */
+final class CompositeIndex {
+  /** Size of a reference table entry. */
+  private static final int REF = 9;
+
+  /** Index file. */
+  private final DataAccess da;
+  /** Indexed declarations. */
+  final String names;
+  /** Offset of the reference table. */
+  private final long refs;
+  /** Offsets of the first keys of the declarations. */
+  private final int[] firsts;
+  /** Number of keys of the declarations. */
+  private final int[] sizes;
+
+  /**
+   * Constructor, opening an existing index.
+   * @param file index file
+   * @throws IOException I/O exception
+   */
+  private CompositeIndex(final IOFile file) throws IOException {
+    da = new DataAccess(file);
+    final long length = da.length();
+    refs = da.read5(length - 10);
+    da.cursor(da.read5(length - 5));
+    names = string(da.readToken());
+    final int ds = da.readNum();
+    firsts = new int[ds];
+    sizes = new int[ds];
+    for(int d = 0; d < ds; d++) {
+      firsts[d] = da.readNum();
+      sizes[d] = da.readNum();
+    }
+  }
+
+  /**
+   * Opens the composite index of the specified index.
+   * @param index value index
+   * @return index, or {@code null} if no index exists
+   * @throws IOException I/O exception
+   */
+  static CompositeIndex open(final DiskValues index) throws IOException {
+    final IOFile file = file(index);
+    return file.exists() ? new CompositeIndex(file) : null;
+  }
+
+  /**
+   * Creates a composite index for the declarations of the database.
+   * <p><em>Important:</em> This method is NOT thread-safe.</p>
+   * @param index value index
+   * @throws IOException I/O exception
+   */
+  static void create(final DiskValues index) throws IOException {
+    final Data data = index.data;
+    final String decls = data.meta.compositeindex;
+    final CompositeNames names = new CompositeNames(decls);
+
+    // collect the keys of all declarations
+    final int ds = names.size();
+    final ArrayList<TokenObjMap<IntList>> maps = new ArrayList<>(ds);
+    for(int d = 0; d < ds; d++) maps.add(new TokenObjMap<>());
+    final int[] elems = elems(data, names);
+    final int[][] atts = atts(data, names);
+    final int size = data.meta.size;
+    for(int pre = 0; pre < size; pre++) {
+      if(data.kind(pre) != Data.ELEM) continue;
+      final int id = data.nameId(pre);
+      for(int d = 0; d < ds; d++) {
+        if(elems[d] != id) continue;
+        final byte[][] values = values(data, pre, atts[d]);
+        if(values == null) continue;
+        final byte[] key = names.key(d, values);
+        final TokenObjMap<IntList> map = maps.get(d);
+        IntList pres = map.get(key);
+        if(pres == null) {
+          pres = new IntList(1);
+          map.put(key, pres);
+        }
+        pres.add(pre);
+      }
+    }
+
+    try(DataOutput out = new DataOutput(file(index))) {
+      // entries
+      final LongList offsets = new LongList();
+      final IntList totals = new IntList();
+      final int[] firsts = new int[ds], sizes = new int[ds];
+      int total = 0;
+      for(int d = 0; d < ds; d++) {
+        final TokenObjMap<IntList> map = maps.get(d);
+        final TokenList keys = new TokenList(map.size());
+        for(final byte[] key : map) keys.add(key);
+        firsts[d] = offsets.size();
+        sizes[d] = keys.size();
+        for(final byte[] key : keys.sort()) {
+          final IntList pres = map.get(key);
+          offsets.add(out.size());
+          totals.add(total);
+          out.writeToken(key);
+          out.writeDiffs(pres);
+          total += pres.size();
+        }
+      }
+      // reference table
+      final long refs = out.size();
+      offsets.add(refs);
+      totals.add(total);
+      final int os = offsets.size();
+      for(int o = 0; o < os; o++) {
+        out.write5(offsets.get(o));
+        out.write4(totals.get(o));
+      }
+      // directory
+      final long dir = out.size();
+      out.writeToken(token(decls));
+      out.writeNum(ds);
+      for(int d = 0; d < ds; d++) {
+        out.writeNum(firsts[d]);
+        out.writeNum(sizes[d]);
+      }
+      out.write5(refs);
+      out.write5(dir);
+    }
+  }
+
+  /**
+   * Drops the composite index of the specified index.
+   * @param index value index
+   */
+  static void drop(final DiskValues index) {
+    file(index).delete();
+  }
+
+  /**
+   * Returns the number of pre values for the specified key.
+   * @param search composite key
+   * @return number of pre values
+   */
+  synchronized int count(final CompositeKey search) {
+    final long range = range(search);
+    return total((int) (range >>> 32)) - total((int) range);
+  }
+
+  /**
+   * Returns the sorted pre values for the specified key.
+   * @param search composite key
+   * @return pre values
+   */
+  synchronized IntList pres(final CompositeKey search) {
+    final long range = range(search);
+    final int start = (int) range, end = (int) (range >>> 32);
+    final IntList pres = new IntList(total(end) - total(start));
+    for(int k = start; k < end; k++) {
+      da.cursor(da.read5(refs + (long) k * REF));
+      da.readToken();
+      final int count = da.readNum();
+      for(int c = 0, pre = 0; c < count; c++) {
+        pre += da.readNum();
+        pres.add(pre);
+      }
+    }
+    return pres.sort();
+  }
+
+  /**
+   * Returns the size of the index file.
+   * @return size in bytes
+   */
+  long length() {
+    return da.length();
+  }
+
+  /**
+   * Closes the index file.
+   */
+  synchronized void close() {
+    da.close();
+  }
+
+  /**
+   * Returns the sorted pre values of all elements that match the specified key by scanning
+   * the database. This method is called if the index is invalid.
+   * @param data data reference
+   * @param search composite key
+   * @return pre values
+   */
+  static IntList scan(final Data data, final CompositeKey search) {
+    final CompositeNames names = new CompositeNames(data.meta.compositeindex);
+    final IntList pres = new IntList();
+    final int d = search.decl;
+    if(d >= names.size()) return pres;
+
+    final int elem = elems(data, names)[d];
+    final int[] atts = atts(data, names)[d];
+    final byte[] key = search.key;
+    final int size = data.meta.size;
+    for(int pre = 0; pre < size; pre++) {
+      if(data.kind(pre) != Data.ELEM || data.nameId(pre) != elem) continue;
+      final byte[][] values = values(data, pre, atts);
+      if(values == null) continue;
+      final byte[] k = names.key(d, values);
+      if(search.prefix ? startsWith(k, key) : eq(k, key)) pres.add(pre);
+    }
+    return pres;
+  }
+
+  /**
+   * Returns the name ids of the declared elements.
+   * @param data data reference
+   * @param names declarations
+   * @return name ids ({@code 0} if a name does not occur in the database)
+   */
+  private static int[] elems(final Data data, final CompositeNames names) {
+    final int ds = names.size();
+    final int[] elems = new int[ds];
+    for(int d = 0; d < ds; d++) elems[d] = data.elemNames.id(names.element(d));
+    return elems;
+  }
+
+  /**
+   * Returns the name ids of the declared attributes.
+   * @param data data reference
+   * @param names declarations
+   * @return name ids ({@code 0} if a name does not occur in the database)
+   */
+  private static int[][] atts(final Data data, final CompositeNames names) {
+    final int ds = names.size();
+    final int[][] atts = new int[ds][];
+    for(int d = 0; d < ds; d++) {
+      final byte[][] attributes = names.attributes(d);
+      final int al = attributes.length;
+      atts[d] = new int[al];
+      for(int a = 0; a < al; a++) atts[d][a] = data.attrNames.id(attributes[a]);
+    }
+    return atts;
+  }
+
+  /**
+   * Returns the values of the declared attributes of an element.
+   * @param data data reference
+   * @param pre pre value of the element
+   * @param atts name ids of the declared attributes
+   * @return values (entries are {@code null} for missing attributes), or {@code null} if the
+   *   first attribute is missing
+   */
+  static byte[][] values(final Data data, final int pre, final int[] atts) {
+    final int al = atts.length;
+    byte[][] values = null;
+    final int last = pre + data.attSize(pre, Data.ELEM);
+    for(int p = pre + 1; p < last; p++) {
+      final int id = data.nameId(p);
+      for(int a = 0; a < al; a++) {
+        if(atts[a] != id) continue;
+        if(values == null) values = new byte[al][];
+        values[a] = data.text(p, false);
+      }
+    }
+    return values != null && values[0] != null ? values : null;
+  }
+
+  /**
+   * Returns the range of the keys that match the specified key.
+   * @param search composite key
+   * @return offsets of the first key (lower 32 bits) and the key after the last key
+   */
+  private long range(final CompositeKey search) {
+    final int d = search.decl;
+    if(d >= firsts.length) return 0;
+    final byte[] key = search.key;
+    final int first = firsts[d], last = first + sizes[d];
+    final int start = find(key, first, last);
+    final int end;
+    if(search.prefix) {
+      // keys with the specified prefix: the prefix ends with a separator, which is incremented
+      final byte[] next = key.clone();
+      next[next.length - 1]++;
+      end = find(next, start, last);
+    } else {
+      end = start < last && eq(key(start), key) ? start + 1 : start;
+    }
+    return (long) end << 32 | start;
+  }
+
+  /**
+   * Returns the offset of the first key that is equal to or greater than the specified key.
+   * @param key key
+   * @param first first key (inclusive)
+   * @param last last key (exclusive)
+   * @return offset
+   */
+  private int find(final byte[] key, final int first, final int last) {
+    int l = first, h = last;
+    while(l < h) {
+      final int m = l + h >>> 1;
+      if(diff(key(m), key) < 0) l = m + 1;
+      else h = m;
+    }
+    return l;
+  }
+
+  /**
+   * Returns the key with the specified offset.
+   * @param k offset of the key
+   * @return key
+   */
+  private byte[] key(final int k) {
+    return da.readToken(da.read5(refs + (long) k * REF));
+  }
+
+  /**
+   * Returns the total number of pre values of all keys before the specified key.
+   * @param k offset of the key
+   * @return number of pre values
+   */
+  private int total(final int k) {
+    return da.read4(refs + (long) k * REF + 5);
+  }
+
+  /**
+   * Returns the index file of the specified index.
+   * @param index value index
+   * @return file
+   */
+  private static IOFile file(final DiskValues index) {
+    return index.data.meta.dbFile(DiskValues.fileSuffix(index.type) + 'c');
+  }
+}
@@ -36,6 +36,14 @@ public class DiskValues extends ValueIndex {
   final IntObjMap<byte[]> ctext = new IntObjMap<>();
   /** Number of current index entries. */
   final AtomicInteger size = new AtomicInteger();
+  /** Numeric values of the index keys (can be {@code null}). */
+  private NumericTree numbers;
+  /** Temporal values of the index keys (can be {@code null}). */
+  private NumericTree dates;
+  /** Bloom filter for the index keys (can be {@code null}). */
+  BloomFilter bloom;
+  /** Composite index (can be {@code null}). */
+  private CompositeIndex composite;
 
   /** Synchronization object. */
   private final Object monitor = new Object();
@@ -49,6 +57,11 @@ public class DiskValues extends ValueIndex {
   public DiskValues(final Data data, final IndexType type)
       throws IOException {
     this(data, type, fileSuffix(type));
+    if(type != IndexType.TOKEN) {
+      numbers = NumericTree.open(this, false);
+      dates = NumericTree.open(this, true);
+    }
+    if(type == IndexType.ATTRIBUTE) composite = CompositeIndex.open(this);
   }
 
   /**
@@ -60,9 +73,10 @@ public class DiskValues extends ValueIndex {
    */
   DiskValues(final Data data, final IndexType type, final String pref) throws IOException {
     super(data, type);
-    idxl = new DataAccess(data.meta.dbFile(pref + 'l'));
-    idxr = new DataAccess(data.meta.dbFile(pref + 'r'));
+    idxl = new DataAccess(data.meta.dbFile(pref + 'l'), data.meta.journal);
+    idxr = new DataAccess(data.meta.dbFile(pref + 'r'), data.meta.journal);
     size.set(idxl.read4());
+    bloom = BloomFilter.open(data.meta, pref);
   }
 
   @Override
@@ -75,6 +89,15 @@ public class DiskValues extends ValueIndex {
     synchronized(monitor) {
       final long l = idxl.length() + idxr.length();
       tb.add(LI_SIZE).add(Performance.format(l)).add(NL);
+      if(bloom != null) {
+        tb.add(LI_BLOOM_FILTER).add(Performance.format(bloom.length())).add(", ");
+        tb.add(bloom.lookups()).add(" lookups, ").add(bloom.negatives()).add(" skipped");
+        tb.add(NL);
+      }
+      if(composite != null) {
+        tb.add(LI_COMPOSITE_INDEX).add(composite.names).add(", ");
+        tb.add(Performance.format(composite.length())).add(NL);
+      }
       final int entries = size();
       for(int index = 0; index < entries; index++) {
         final long pos = idxr.read5(index * 5L);
@@ -93,6 +116,17 @@ public class DiskValues extends ValueIndex {
 
   @Override
   public final IndexCosts costs(final IndexSearch search) {
+    if(search instanceof CompositeKey) {
+      return composite() ? IndexCosts.get(composite.count((CompositeKey) search)) : null;
+    }
+    if(search instanceof NumericRange && numeric()) {
+      final NumericRange nr = (NumericRange) search;
+      return IndexCosts.get(numbers.count(nr.min, nr.max));
+    }
+    if(search instanceof TemporalRange) {
+      final TemporalRange tr = (TemporalRange) search;
+      return temporal() ? IndexCosts.get(dates.count(tr.from, tr.to)) : null;
+    }
     return IndexCosts.get(
       search instanceof StringRange ? Math.max(1, data.meta.size / 10) :
       search instanceof NumericRange ? Math.max(1, data.meta.size / 3) :
@@ -106,6 +140,11 @@ public class DiskValues extends ValueIndex {
       pres = idRange((StringRange) search);
     } else if(search instanceof NumericRange) {
       pres = idRange((NumericRange) search);
+    } else if(search instanceof TemporalRange) {
+      pres = idRange((TemporalRange) search);
+    } else if(search instanceof CompositeKey) {
+      final CompositeKey ck = (CompositeKey) search;
+      pres = composite() ? composite.pres(ck) : CompositeIndex.scan(data, ck);
     } else {
       final IndexEntry ie = entry(search.token());
       pres = pres(ie.size, ie.offset);
@@ -113,13 +152,25 @@ public class DiskValues extends ValueIndex {
 
     return new IndexIterator() {
       final int s = pres.size();
-      int p;
+      int p = -1;
       @Override
-      public boolean more() { return p < s; }
+      public boolean more() { return ++p < s; }
       @Override
-      public int pre() { return pres.get(p++); }
+      public int pre() { return pres.get(p); }
       @Override
       public int size() { return s; }
+      @Override
+      public boolean advance(final int pre) {
+        // binary search in the remaining sorted pre values
+        int l = p + 1, h = s;
+        while(l < h) {
+          final int m = l + h >>> 1;
+          if(pres.get(m) < pre) l = m + 1;
+          else h = m;
+        }
+        p = l;
+        return p < s;
+      }
     };
   }
 
@@ -133,9 +184,125 @@ public class DiskValues extends ValueIndex {
     synchronized(monitor) {
       idxl.close();
       idxr.close();
+      if(numbers != null) numbers.close();
+      if(dates != null) dates.close();
+      if(composite != null) composite.close();
+      writeBloom();
+    }
+  }
+
+  /**
+   * Creates or drops the B+-tree with the numeric values of the index keys.
+   * @param create create or drop tree
+   * @throws IOException I/O exception
+   */
+  public final void numbers(final boolean create) throws IOException {
+    synchronized(monitor) {
+      numbers = tree(numbers, create, false);
+    }
+  }
+
+  /**
+   * Creates or drops the B+-tree with the date, dateTime and time values of the index keys.
+   * @param create create or drop tree
+   * @throws IOException I/O exception
+   */
+  public final void dates(final boolean create) throws IOException {
+    synchronized(monitor) {
+      dates = tree(dates, create, true);
+    }
+  }
+
+  /**
+   * Creates or drops the Bloom filter for the index keys.
+   * @param create create or drop filter
+   * @throws IOException I/O exception
+   */
+  public final void bloom(final boolean create) throws IOException {
+    synchronized(monitor) {
+      BloomFilter.drop(this);
+      bloom = create ? BloomFilter.create(this) : null;
     }
   }
 
+  /**
+   * Creates or drops the composite index.
+   * @param create create or drop index
+   * @throws IOException I/O exception
+   */
+  public final void composites(final boolean create) throws IOException {
+    synchronized(monitor) {
+      if(composite != null) composite.close();
+      CompositeIndex.drop(this);
+      composite = null;
+      if(create) {
+        CompositeIndex.create(this);
+        composite = CompositeIndex.open(this);
+      }
+    }
+  }
+
+  /**
+   * Indicates if a composite index exists.
+   * @return result of check
+   */
+  public final boolean composites() {
+    return composite != null;
+  }
+
+  /**
+   * Indicates if composite keys can be looked up in the composite index. The index will be
+   * invalid after updates, or if the declarations of the database have been changed.
+   * @return result of check
+   */
+  public final boolean composite() {
+    return composite != null && data.meta.uptodate &&
+        composite.names.equals(data.meta.compositeindex);
+  }
+
+  /**
+   * Indicates if a Bloom filter for the index keys exists.
+   * @return result of check
+   */
+  public final boolean bloom() {
+    return bloom != null;
+  }
+
+  /**
+   * Indicates if a B+-tree with the numeric values of the index keys exists.
+   * @return result of check
+   */
+  public final boolean numbers() {
+    return numbers != null;
+  }
+
+  /**
+   * Indicates if numeric range queries can be answered by the B+-tree with the numeric values
+   * of the index keys. The tree will be invalid after updates.
+   * @return result of check
+   */
+  public final boolean numeric() {
+    return numbers != null && data.meta.uptodate;
+  }
+
+  /**
+   * Indicates if a B+-tree with the temporal values of the index keys exists.
+   * @return result of check
+   */
+  public final boolean dates() {
+    return dates != null;
+  }
+
+  /**
+   * Indicates if temporal range queries can be answered by the B+-tree with the temporal values
+   * of the index keys. The tree will be invalid after updates, or if values without timezone
+   * were normalized with a different implicit timezone.
+   * @return result of check
+   */
+  public final boolean temporal() {
+    return dates != null && data.meta.uptodate && dates.valid();
+  }
+
   @Override
   public void add(final ValueCache values) {
     throw Util.notExpected();
@@ -158,6 +325,7 @@ public class DiskValues extends ValueIndex {
   public final void flush() {
     idxl.flush();
     idxr.flush();
+    writeBloom();
   }
 
   /**
@@ -214,6 +382,8 @@ public class DiskValues extends ValueIndex {
     final IndexEntry entry = cache.get(token);
     if(entry != null) return entry;
 
+    // skip binary search if the key is definitely not contained in the index
+    if(bloom != null && !bloom.contains(token)) return new IndexEntry(token, 0, 0);
     final long index = get(token);
     if(index < 0) return new IndexEntry(token, 0, 0);
 
@@ -429,6 +599,23 @@ public class DiskValues extends ValueIndex {
    * @return results
    */
   private IntList idRange(final NumericRange tok) {
+    if(numeric()) {
+      // B+-tree: seek first key, scan keys in ascending order
+      final IntList pres = new IntList();
+      final IntList keys = numbers.keys(tok.min, tok.max, null);
+      synchronized(monitor) {
+        final int ks = keys.size();
+        for(int k = 0; k < ks; k++) {
+          final int count = idxl.readNum(idxr.read5(keys.get(k) * 5L));
+          for(int c = 0, id = 0; c < count; c++) {
+            id += idxl.readNum();
+            pres.add(pre(id));
+          }
+        }
+      }
+      return pres.sort();
+    }
+
     // check if min and max are positive integers with the same number of digits
     final double min = tok.min, max = tok.max;
     final int len = max > 0 && (long) max == max ? token(max).length : 0;
@@ -461,12 +648,93 @@ public class DiskValues extends ValueIndex {
     return pres.sort();
   }
 
+  /**
+   * Performs a date, dateTime or time range query.
+   * <p><em>Important:</em> This method is thread-safe.</p>
+   * @param tok index term
+   * @return results
+   */
+  private IntList idRange(final TemporalRange tok) {
+    final IntList pres = new IntList();
+    final boolean text = type == IndexType.TEXT;
+    if(temporal()) {
+      // B+-tree: seek first key, scan keys in ascending order
+      final DoubleList values = new DoubleList();
+      final IntList keys = dates.keys(tok.from, tok.to, values);
+      synchronized(monitor) {
+        final int ks = keys.size();
+        for(int k = 0; k < ks; k++) {
+          final int count = idxl.readNum(idxr.read5(keys.get(k) * 5L));
+          int id = idxl.readNum();
+          // normalized values on the boundaries: compare exact values
+          final double value = values.get(k);
+          if((value == tok.from || value == tok.to) && !tok.contains(data.text(pre(id), text))) {
+            continue;
+          }
+          pres.add(pre(id));
+          for(int c = 1; c < count; c++) {
+            id += idxl.readNum();
+            pres.add(pre(id));
+          }
+        }
+      }
+    } else {
+      // no valid tree: parse and compare all keys
+      synchronized(monitor) {
+        final int entries = size();
+        for(int index = 0; index < entries; ++index) {
+          final int count = idxl.readNum(idxr.read5(index * 5L));
+          int id = idxl.readNum();
+          if(!tok.contains(data.text(pre(id), text))) continue;
+          pres.add(pre(id));
+          for(int c = 1; c < count; c++) {
+            id += idxl.readNum();
+            pres.add(pre(id));
+          }
+        }
+      }
+    }
+    return pres.sort();
+  }
+
+  /**
+   * Writes the Bloom filter if it has been changed.
+   */
+  private void writeBloom() {
+    if(bloom != null && bloom.dirty()) {
+      try {
+        bloom.write(data.meta);
+      } catch(final IOException ex) {
+        Util.stack(ex);
+      }
+    }
+  }
+
+  /**
+   * Creates or drops a B+-tree.
+   * @param tree existing tree (can be {@code null})
+   * @param create create or drop tree
+   * @param temporal temporal or numeric tree
+   * @return new tree or {@code null}
+   * @throws IOException I/O exception
+   */
+  private NumericTree tree(final NumericTree tree, final boolean create, final boolean temporal)
+      throws IOException {
+    if(tree != null) tree.close();
+    if(!create) {
+      NumericTree.drop(this, temporal);
+      return null;
+    }
+    NumericTree.create(this, temporal);
+    return NumericTree.open(this, temporal);
+  }
+
   /**
    * Returns the specified key, considering tokenization.
    * @param id id of key
    * @return key token
    */
-  private byte[] key(final int id) {
+  final byte[] key(final int id) {
     final byte[] text = data.text(pre(id), type == IndexType.TEXT);
     return type == IndexType.TOKEN ? distinctTokens(text)[idxl.readNum()] : text;
   }
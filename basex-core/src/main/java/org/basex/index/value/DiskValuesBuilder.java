@@ -26,6 +26,18 @@ import org.basex.util.list.*;
  *   structure. Instead, they can be found by following the id references to
  *   the main table.
  * </li>
+ * <li> {@code DATATXT/ATV + 'n'}: contains the numeric values of the keys in a B+-tree
+ *   (see {@link NumericTree}). The file is only created if
+ *   {@link org.basex.core.MainOptions#NUMINDEX} is enabled.</li>
+ * <li> {@code DATATXT/ATV + 'd'}: contains the normalized date, dateTime and time values of the
+ *   keys in a B+-tree. The file is only created if
+ *   {@link org.basex.core.MainOptions#DATEINDEX} is enabled.</li>
+ * <li> {@code DATATXT/ATV/TOK + 'b'}: contains a Bloom filter for the keys
+ *   (see {@link BloomFilter}). The file is only created if
+ *   {@link org.basex.core.MainOptions#BLOOMFILTER} is enabled.</li>
+ * <li> {@code DATAATV + 'c'}: contains the composite keys of elements with multiple attributes
+ *   (see {@link CompositeIndex}). The file is only created if
+ *   {@link org.basex.core.MainOptions#COMPOSITEINDEX} is assigned.</li>
  * </ul>
  *
  * @author BaseX Team 2005-20, BSD License
@@ -50,33 +62,38 @@ public final class DiskValuesBuilder extends ValuesBuilder {
     Util.debug(detailedInfo());
 
     try {
-      final boolean updindex = data.meta.updindex;
-      for(pre = 0; pre < size; ++pre) {
-        if((pre & 0x0FFF) == 0) check();
-        if(indexEntry()) {
-          final int id = updindex ? data.id(pre) : pre;
-          if(tokenize) {
-            int pos = 0;
-            for(final byte[] token : distinctTokens(data.text(pre, text))) {
-              index.add(token, id, pos++);
-              count++;
-            }
-          } else if(data.textLen(pre, text) <= data.meta.maxlen) {
-            index.add(data.text(pre, text), id, 0);
-            count++;
-          }
+      if(threads > 1) {
+        // index partitions in parallel, merge partial indexes
+        index = null;
+        partitions(ValuesPartition::new);
+        if(splits == 0) writeIndex(new IndexTree(type), DiskValues.fileSuffix(type), false);
+        else merge();
+      } else {
+        for(pre = 0; pre < size; ++pre) {
+          if((pre & 0x0FFF) == 0) check();
+          if(indexEntry()) count += index(index, pre);
         }
-      }
 
-      writeIndex(splits > 0);
-      if(splits > 1) {
-        index = null;
-        clean();
-        merge();
+        writeIndex(splits > 0);
+        if(splits > 1) {
+          index = null;
+          clean();
+          merge();
+        }
       }
 
       finishIndex();
-      return updindex ? new UpdatableDiskValues(data, type) : new DiskValues(data, type);
+      final DiskValues values = data.meta.updindex ? new UpdatableDiskValues(data, type) :
+        new DiskValues(data, type);
+      if(!tokenize) {
+        if(data.meta.numindex) values.numbers(true);
+        if(data.meta.dateindex) values.dates(true);
+      }
+      if(data.meta.bloomfilter) values.bloom(true);
+      if(type == IndexType.ATTRIBUTE && !data.meta.compositeindex.isEmpty()) {
+        values.composites(true);
+      }
+      return values;
 
     } catch(final Throwable th) {
       // drop index files
@@ -85,6 +102,23 @@ public final class DiskValuesBuilder extends ValuesBuilder {
     }
   }
 
+  /**
+   * Indexes the entry with the specified pre value.
+   * @param tree index tree
+   * @param p pre value
+   * @return number of index operations
+   */
+  private int index(final IndexTree tree, final int p) {
+    final int id = data.meta.updindex ? data.id(p) : p;
+    int c = 0;
+    if(tokenize) {
+      for(final byte[] token : distinctTokens(data.text(p, text))) tree.add(token, id, c++);
+    } else if(data.textLen(p, text) <= data.meta.maxlen) {
+      tree.add(data.text(p, text), id, c++);
+    }
+    return c;
+  }
+
   @Override
   protected void check() throws IOException {
     super.check();
@@ -168,8 +202,21 @@ public final class DiskValuesBuilder extends ValuesBuilder {
    * @throws IOException I/O exception
    */
   private void writeIndex(final boolean partial) throws IOException {
+    writeIndex(index, DiskValues.fileSuffix(type) + (partial ? splits : ""), partial);
+    // increase split counter
+    splits++;
+  }
+
+  /**
+   * Writes an index tree to disk.
+   * @param index index tree
+   * @param name name of the index files
+   * @param partial partial flag
+   * @throws IOException I/O exception
+   */
+  private void writeIndex(final IndexTree index, final String name, final boolean partial)
+      throws IOException {
     // write id arrays and references
-    final String name = DiskValues.fileSuffix(type) + (partial ? splits : "");
     try(DataOutput outL = new DataOutput(data.meta.dbFile(name + 'l'));
         DataOutput outR = new DataOutput(data.meta.dbFile(name + 'r'))) {
       outL.write4(index.size());
@@ -206,8 +253,6 @@ public final class DiskValuesBuilder extends ValuesBuilder {
         while(index.more()) outT.writeToken(index.keys.get(index.next()));
       }
     }
-    // increase split counter
-    splits++;
   }
 
   /**
@@ -243,4 +288,32 @@ public final class DiskValuesBuilder extends ValuesBuilder {
     id.reset();
     if(pos != null) pos.reset();
   }
+
+  /**
+   * Partition of the pre values, which is indexed by a separate thread.
+   */
+  private final class ValuesPartition extends Partition {
+    /** Temporary value tree. */
+    private IndexTree tree = new IndexTree(type);
+
+    /**
+     * Constructor.
+     * @param start first pre value
+     * @param end pre value after the last pre value
+     */
+    private ValuesPartition(final int start, final int end) {
+      super(start, end);
+    }
+
+    @Override
+    protected void index(final int pre) {
+      count += DiskValuesBuilder.this.index(tree, pre);
+    }
+
+    @Override
+    protected void write(final int split) throws IOException {
+      writeIndex(tree, DiskValues.fileSuffix(type) + split, true);
+      tree = new IndexTree(type);
+    }
+  }
 }
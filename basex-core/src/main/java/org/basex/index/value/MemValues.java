@@ -63,11 +63,11 @@ public final class MemValues extends ValueIndex {
     }
 
     return new IndexIterator() {
-      int p;
+      int p = -1;
       @Override
-      public boolean more() { return p < len; }
+      public boolean more() { return ++p < len; }
       @Override
-      public int pre() { return pres[p++]; }
+      public int pre() { return pres[p]; }
       @Override
       public int size() { return len; }
     };
@@ -0,0 +1,300 @@
+package org.basex.index.value;
+
+import java.io.*;
+
+import org.basex.data.*;
+import org.basex.index.*;
+import org.basex.io.*;
+import org.basex.io.out.DataOutput;
+import org.basex.io.random.*;
+import org.basex.query.value.item.*;
+import org.basex.util.*;
+import org.basex.util.list.*;
+
+/**
+ * <p>This class provides a B+-tree with the numeric values of the keys of a text or attribute
+ * index. It allows range queries with logarithmic seeks and sequential leaf scans.
+ * Two kinds of trees exist:</p>
+ * <ul>
+ * <li> Numeric trees ({@link org.basex.core.MainOptions#NUMINDEX}) contain the double values
+ *   of the keys and are stored in the {@code DATATXT/ATV + 'n'} file.</li>
+ * <li> Temporal trees ({@link org.basex.core.MainOptions#DATEINDEX}) contain the date, dateTime
+ *   and time values of the keys, which are normalized to seconds since the epoch
+ *   (see {@link ADate#epochSeconds()}). They are stored in the {@code DATATXT/ATV + 'd'}
+ *   file.</li>
+ * </ul>
+ *
+ * <p>The tree is static. Child nodes are addressed implicitly, so no pointers need to be
+ * stored:</p>
+ * <ul>
+ * <li> The file starts with the number of leaf entries, the total number of ids, and the offset
+ *   of the implicit timezone that was used to normalize values without timezone
+ *   ({@link Integer#MIN_VALUE} if no such values exist) (4 bytes each).</li>
+ * <li> The inner levels follow, starting with the root node. A level contains the smallest
+ *   value of each node of the next lower level, stored as 8-byte double values. Each inner
+ *   node has {@link #FANOUT} children.</li>
+ * <li> The leaf level contains all entries in ascending order, each consisting of the 8-byte
+ *   numeric value and the 4-byte position of the key in the reference file of the index.
+ *   Each leaf node stores {@link #LEAF} entries.</li>
+ * </ul>
+ * <p>Keys that cannot be converted to numbers are skipped.</p>
+ *
+ * @author BaseX Team 2005-20, BSD License
+ * @author Christian Gruen
+ */
+final class NumericTree {
+  /** Number of children of an inner node. */
+  private static final int FANOUT = IO.BLOCKSIZE / 8;
+  /** Number of entries of a leaf node. */
+  private static final int LEAF = IO.BLOCKSIZE / 12;
+  /** Size of the header. */
+  private static final int HEADER = 12;
+
+  /** Tree file. */
+  private final DataAccess da;
+  /** Number of leaf entries. */
+  private final int size;
+  /** Total number of ids. */
+  private final int ids;
+  /** Implicit timezone offset used for normalizing values ({@link Integer#MIN_VALUE}: none). */
+  private final int zone;
+  /** Number of values of the inner levels, starting with the root. */
+  private final int[] levels;
+  /** Offsets to the inner levels and the leaf level. */
+  private final long[] offsets;
+
+  /**
+   * Constructor, opening an existing tree.
+   * @param file tree file
+   * @throws IOException I/O exception
+   */
+  private NumericTree(final IOFile file) throws IOException {
+    da = new DataAccess(file);
+    size = da.read4(0);
+    ids = da.read4(4);
+    zone = da.read4(8);
+    levels = levels(size);
+    final int ls = levels.length;
+    offsets = new long[ls + 1];
+    long off = HEADER;
+    for(int l = 0; l < ls; l++) {
+      offsets[l] = off;
+      off += levels[l] * 8L;
+    }
+    offsets[ls] = off;
+  }
+
+  /**
+   * Opens a tree of the specified index.
+   * @param index value index
+   * @param temporal temporal or numeric tree
+   * @return tree, or {@code null} if no tree exists
+   * @throws IOException I/O exception
+   */
+  static NumericTree open(final DiskValues index, final boolean temporal) throws IOException {
+    final IOFile file = file(index, temporal);
+    return file.exists() ? new NumericTree(file) : null;
+  }
+
+  /**
+   * Creates a tree for the specified index.
+   * <p><em>Important:</em> This method is NOT thread-safe.</p>
+   * @param index value index
+   * @param temporal temporal or numeric tree
+   * @throws IOException I/O exception
+   */
+  static void create(final DiskValues index, final boolean temporal) throws IOException {
+    final Data data = index.data;
+    final boolean text = index.type == IndexType.TEXT;
+
+    // collect numeric values of all keys
+    final DoubleList values = new DoubleList();
+    final IntList keys = new IntList();
+    long ids = 0;
+    boolean local = false;
+    final int entries = index.size();
+    for(int k = 0; k < entries; k++) {
+      final int count = index.idxl.readNum(index.idxr.read5(k * 5L));
+      final int pre = index.pre(index.idxl.readNum());
+      final double value;
+      if(temporal) {
+        final ADate date = ADate.get(data.text(pre, text));
+        if(date == null) continue;
+        value = date.epochSeconds();
+        if(!date.hasTz()) local = true;
+      } else {
+        value = data.textDbl(pre, text);
+      }
+      if(Double.isNaN(value)) continue;
+      // normalize negative zero
+      values.add(value + 0.0);
+      keys.add(k);
+      ids += count;
+    }
+
+    // sort entries by their values
+    final double[] vals = values.finish();
+    final int[] order = Array.createOrder(vals, true);
+    final int size = vals.length;
+    final int[] levels = levels(size);
+
+    try(DataOutput out = new DataOutput(file(index, temporal))) {
+      out.write4(size);
+      out.write4((int) Math.min(Integer.MAX_VALUE, ids));
+      out.write4(local ? ADate.implicitZone() : Integer.MIN_VALUE);
+      // inner levels: smallest values of the nodes of the next lower level
+      final int ls = levels.length;
+      for(int l = 0; l < ls; l++) {
+        long step = LEAF;
+        for(int s = l + 1; s < ls; s++) step *= FANOUT;
+        for(int v = 0; v < levels[l]; v++) writeDouble(out, vals[(int) (v * step)]);
+      }
+      // leaf level
+      for(int v = 0; v < size; v++) {
+        writeDouble(out, vals[v]);
+        out.write4(keys.get(order[v]));
+      }
+    }
+  }
+
+  /**
+   * Drops a tree of the specified index.
+   * @param index value index
+   * @param temporal temporal or numeric tree
+   */
+  static void drop(final DiskValues index, final boolean temporal) {
+    file(index, temporal).delete();
+  }
+
+  /**
+   * Indicates if the tree is valid for the current implicit timezone.
+   * @return result of check
+   */
+  boolean valid() {
+    return zone == Integer.MIN_VALUE || zone == ADate.implicitZone();
+  }
+
+  /**
+   * Returns the positions of all keys whose numeric values are within the specified range.
+   * @param min minimum (inclusive)
+   * @param max maximum (inclusive)
+   * @param values list for the numeric values of the returned keys (can be {@code null})
+   * @return key positions
+   */
+  synchronized IntList keys(final double min, final double max, final DoubleList values) {
+    final IntList keys = new IntList();
+    final long leaves = offsets[levels.length];
+    for(int e = entry(min); e < size; e++) {
+      final long pos = leaves + e * 12L;
+      final double value = readDouble(pos);
+      if(value > max) break;
+      keys.add(da.read4(pos + 8));
+      if(values != null) values.add(value);
+    }
+    return keys;
+  }
+
+  /**
+   * Estimates the number of ids whose numeric values are within the specified range.
+   * @param min minimum (inclusive)
+   * @param max maximum (inclusive)
+   * @return estimated number of ids
+   */
+  synchronized int count(final double min, final double max) {
+    if(size == 0 || min > max) return 0;
+    final long entries = entry(Math.nextUp(max)) - entry(min);
+    return (int) Math.min(Integer.MAX_VALUE, (entries * ids + size - 1) / size);
+  }
+
+  /**
+   * Closes the tree file.
+   */
+  synchronized void close() {
+    da.close();
+  }
+
+  /**
+   * Returns the position of the first leaf entry that is equal to or larger than the specified
+   * value.
+   * @param value value
+   * @return position, or number of entries if all values are smaller
+   */
+  private int entry(final double value) {
+    // descend inner levels: choose last node with a smallest value that is smaller than the value
+    final int ls = levels.length;
+    int node = 0;
+    for(int l = 0; l < ls; l++) {
+      final int start = node * FANOUT, end = Math.min(start + FANOUT, levels[l]);
+      int lo = start + 1, hi = end - 1;
+      node = start;
+      while(lo <= hi) {
+        final int m = lo + hi >>> 1;
+        if(readDouble(offsets[l] + m * 8L) < value) {
+          node = m;
+          lo = m + 1;
+        } else {
+          hi = m - 1;
+        }
+      }
+    }
+    // leaf level: find first entry that is equal to or larger than the value
+    final long leaves = offsets[ls];
+    int lo = node * LEAF, hi = Math.min(lo + LEAF, size) - 1;
+    while(lo <= hi) {
+      final int m = lo + hi >>> 1;
+      if(readDouble(leaves + m * 12L) < value) lo = m + 1;
+      else hi = m - 1;
+    }
+    return lo;
+  }
+
+  /**
+   * Reads a double value.
+   * @param pos file offset
+   * @return value
+   */
+  private double readDouble(final long pos) {
+    return Double.longBitsToDouble((long) da.read4(pos) << 32 | da.read4(pos + 4) & 0xFFFFFFFFL);
+  }
+
+  /**
+   * Writes a double value.
+   * @param out output stream
+   * @param value value
+   * @throws IOException I/O exception
+   */
+  private static void writeDouble(final DataOutput out, final double value) throws IOException {
+    final long bits = Double.doubleToRawLongBits(value);
+    out.write4((int) (bits >>> 32));
+    out.write4((int) bits);
+  }
+
+  /**
+   * Returns the number of values of the inner levels, starting with the root.
+   * @param size number of leaf entries
+   * @return level sizes (empty if a single leaf node suffices)
+   */
+  private static int[] levels(final int size) {
+    final IntList list = new IntList();
+    // number of leaf nodes
+    int nodes = (size + LEAF - 1) / LEAF;
+    while(nodes > 1) {
+      list.add(nodes);
+      nodes = (nodes + FANOUT - 1) / FANOUT;
+    }
+    final int ls = list.size();
+    final int[] levels = new int[ls];
+    for(int l = 0; l < ls; l++) levels[l] = list.get(ls - 1 - l);
+    return levels;
+  }
+
+  /**
+   * Returns a tree file of the specified index.
+   * @param index value index
+   * @param temporal temporal or numeric tree
+   * @return file
+   */
+  private static IOFile file(final DiskValues index, final boolean temporal) {
+    return index.data.meta.dbFile(DiskValues.fileSuffix(index.type) + (temporal ? 'd' : 'n'));
+  }
+}
@@ -83,6 +83,7 @@ public final class UpdatableDiskValues extends DiskValues {
       }
       // add the new key and its ids
       writeIds(key, values.ids(key), values.pos(key), newIndex--);
+      if(bloom != null) bloom.add(key);
     }
     size(sz + ns);
   }
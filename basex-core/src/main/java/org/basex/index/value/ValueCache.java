@@ -54,7 +54,7 @@ public final class ValueCache implements Iterable<byte[]> {
     pos = type == IndexType.TOKEN ? new ArrayList<>() : null;
 
     final IndexNames in = new IndexNames(type, data);
-    final boolean text = type == IndexType.TEXT;
+    final boolean text = type == IndexType.TEXT || type == IndexType.FULLTEXT;
     final int pl = pres.size(), kind = text ? Data.TEXT : Data.ATTR;
     for(int p = 0; p < pl; p++) {
       final int pre = pres.get(p);
@@ -64,6 +64,9 @@ public final class ValueCache implements Iterable<byte[]> {
           for(final byte[] token : distinctTokens(data.text(pre, false))) {
             addId(token, pre, ps++, data);
           }
+        } else if(type == IndexType.FULLTEXT) {
+          // texts will be tokenized by the full-text index
+          addId(data.text(pre, true), pre, 0, data);
         } else if(data.textLen(pre, text) <= data.meta.maxlen) {
           addId(data.text(pre, text), pre, 0, data);
         }
@@ -129,7 +132,7 @@ public final class ValueCache implements Iterable<byte[]> {
    * @param key key
    * @return id list
    */
-  IntList ids(final byte[] key) {
+  public IntList ids(final byte[] key) {
     return ids.get(keys.id(key) - 1);
   }
 
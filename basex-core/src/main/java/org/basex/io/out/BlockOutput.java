@@ -0,0 +1,135 @@
+package org.basex.io.out;
+
+import java.io.*;
+import java.util.*;
+import java.util.zip.*;
+
+import org.basex.core.*;
+import org.basex.io.*;
+import org.basex.util.list.*;
+
+/**
+ * This class writes a heap file (texts, attribute values) in compressed blocks
+ * ({@link MainOptions#BLOCKCOMPRESS}).
+ *
+ * The written bytes are divided into blocks of {@link #SIZE} bytes, which are compressed
+ * independently and appended to the data file. The directory file starts with the
+ * uncompressed file length (5 bytes), followed by the position (5 bytes) and compressed
+ * size (4 bytes) of each block. A block with a compressed size of {@code 0} contains zero bytes.
+ *
+ * @author BaseX Team 2005-20, BSD License
+ * @author Christian Gruen
+ */
+public final class BlockOutput extends OutputStream {
+  /** Number of bits of the block size. */
+  public static final int POWER = 16;
+  /** Size of an uncompressed block. */
+  public static final int SIZE = 1 << POWER;
+  /** Size of the directory header. */
+  public static final int HEADER = 5;
+  /** Size of a directory entry. */
+  public static final int ENTRY = 9;
+
+  /** Uncompressed block. */
+  private final byte[] block = new byte[SIZE];
+  /** Compressor. */
+  private final Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+  /** Data output. */
+  private final OutputStream out;
+  /** Directory file. */
+  private final IOFile directory;
+  /** Positions of the compressed blocks. */
+  private final LongList positions = new LongList();
+  /** Sizes of the compressed blocks. */
+  private final IntList sizes = new IntList();
+
+  /** Compressed block. */
+  private byte[] packed = new byte[SIZE];
+  /** Position in the current block. */
+  private int pos;
+  /** Size of the data file. */
+  private long size;
+
+  /**
+   * Constructor.
+   * @param file data file
+   * @param directory directory file
+   * @throws IOException I/O exception
+   */
+  public BlockOutput(final IOFile file, final IOFile directory) throws IOException {
+    out = new BufferOutput(file.outputStream(), IO.BLOCKSIZE << 4);
+    this.directory = directory;
+  }
+
+  @Override
+  public void write(final int b) throws IOException {
+    block[pos++] = (byte) b;
+    if(pos == SIZE) writeBlock();
+  }
+
+  @Override
+  public void write(final byte[] bytes, final int off, final int len) throws IOException {
+    for(int o = off, l = len; l > 0;) {
+      final int n = Math.min(l, SIZE - pos);
+      System.arraycopy(bytes, o, block, pos, n);
+      pos += n;
+      o += n;
+      l -= n;
+      if(pos == SIZE) writeBlock();
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    final long length = (long) positions.size() * SIZE + pos;
+    if(pos > 0) writeBlock();
+    out.close();
+    deflater.end();
+
+    try(DataOutput dir = new DataOutput(directory)) {
+      dir.write5(length);
+      final int bs = positions.size();
+      for(int b = 0; b < bs; b++) {
+        dir.write5(positions.get(b));
+        dir.write4(sizes.get(b));
+      }
+    }
+  }
+
+  /**
+   * Compresses a block.
+   * @param deflater compressor
+   * @param block uncompressed block
+   * @param len number of bytes to be compressed
+   * @param packed array for the compressed bytes (will be resized if too small)
+   * @return array with the compressed bytes; their number can be requested via
+   *   {@link Deflater#getBytesWritten()}
+   */
+  public static byte[] compress(final Deflater deflater, final byte[] block, final int len,
+      final byte[] packed) {
+    deflater.reset();
+    deflater.setInput(block, 0, len);
+    deflater.finish();
+    byte[] pckd = packed;
+    int n = 0;
+    while(!deflater.finished()) {
+      if(n == pckd.length) pckd = Arrays.copyOf(pckd, n << 1);
+      n += deflater.deflate(pckd, n, pckd.length - n);
+    }
+    return pckd;
+  }
+
+  /**
+   * Compresses and writes the current block.
+   * @throws IOException I/O exception
+   */
+  private void writeBlock() throws IOException {
+    packed = compress(deflater, block, pos, packed);
+    final int n = (int) deflater.getBytesWritten();
+    out.write(packed, 0, n);
+    positions.add(size);
+    sizes.add(n);
+    size += n;
+    pos = 0;
+  }
+}
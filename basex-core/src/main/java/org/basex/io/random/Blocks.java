@@ -0,0 +1,185 @@
+package org.basex.io.random;
+
+import static org.basex.io.out.BlockOutput.*;
+
+import java.io.*;
+import java.util.*;
+import java.util.zip.*;
+
+import org.basex.io.*;
+import org.basex.io.out.*;
+import org.basex.util.*;
+
+/**
+ * Read and write access to a heap file that is stored in compressed blocks
+ * (see {@link BlockOutput} for the file format).
+ *
+ * Blocks are decompressed on demand, and the most recently decompressed blocks are cached.
+ * Changed blocks are kept in main memory until the file is flushed. They will then be
+ * compressed again and appended to the data file; the space of the old block versions will be
+ * reclaimed when the database is optimized.
+ *
+ * @author BaseX Team 2005-20, BSD License
+ * @author Christian Gruen
+ */
+final class Blocks implements Closeable {
+  /** Maximum number of cached blocks. */
+  private static final int CACHED = 8;
+
+  /** Compressed blocks. */
+  private final DataAccess data;
+  /** Directory. */
+  private final DataAccess directory;
+  /** Compressor. */
+  private final Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+  /** Decompressor. */
+  private final Inflater inflater = new Inflater();
+  /** Changed blocks, indexed by block numbers. */
+  private final HashMap<Long, byte[]> dirty = new HashMap<>();
+  /** Cached blocks, indexed by block numbers. */
+  private final LinkedHashMap<Long, byte[]> cache = new LinkedHashMap<Long, byte[]>(
+      CACHED, 0.75f, true) {
+    @Override
+    protected boolean removeEldestEntry(final Map.Entry<Long, byte[]> eldest) {
+      return size() > CACHED;
+    }
+  };
+
+  /** Compressed block. */
+  private byte[] packed = new byte[SIZE];
+  /** Number of decompressed blocks. */
+  private long decoded;
+  /** Time spent for decompressing blocks (ns). */
+  private long time;
+
+  /**
+   * Constructor.
+   * @param file data file
+   * @param dir directory file
+   * @param journal write-ahead log for changes (can be {@code null})
+   * @throws IOException I/O exception
+   */
+  Blocks(final IOFile file, final IOFile dir, final Journal journal) throws IOException {
+    data = new DataAccess(file, journal);
+    directory = new DataAccess(dir, journal);
+  }
+
+  /**
+   * Returns the uncompressed file length.
+   * @return length
+   */
+  synchronized long length() {
+    return directory.length() < HEADER ? 0 : directory.read5(0);
+  }
+
+  /**
+   * Reads the specified block. Called by the buffer manager.
+   * @param buffer buffer to read
+   * @throws IOException I/O exception
+   */
+  synchronized void read(final Buffer buffer) throws IOException {
+    Array.copyToStart(block(buffer.pos >>> POWER), (int) (buffer.pos & SIZE - 1), IO.BLOCKSIZE,
+        buffer.data);
+  }
+
+  /**
+   * Writes the specified block to the uncompressed block and resets the dirty flag.
+   * Called by the buffer manager.
+   * @param buffer buffer to write
+   * @throws IOException I/O exception
+   */
+  synchronized void write(final Buffer buffer) throws IOException {
+    final long b = buffer.pos >>> POWER;
+    final byte[] block = block(b);
+    Array.copyFromStart(buffer.data, IO.BLOCKSIZE, block, (int) (buffer.pos & SIZE - 1));
+    dirty.put(b, block);
+    buffer.dirty = false;
+  }
+
+  /**
+   * Compresses and appends all changed blocks, and updates the directory.
+   * @param length uncompressed file length
+   */
+  synchronized void flush(final long length) {
+    if(length != length()) directory.write5(0, length);
+    final long[] blocks = new long[dirty.size()];
+    int c = 0;
+    for(final long b : dirty.keySet()) blocks[c++] = b;
+    Arrays.sort(blocks);
+    for(final long b : blocks) {
+      // blocks beyond the end of the file will be skipped
+      final long start = b << POWER;
+      if(start >= length) continue;
+      final int len = (int) Math.min(SIZE, length - start);
+      packed = compress(deflater, dirty.get(b), len, packed);
+      final int size = (int) deflater.getBytesWritten();
+      final long pos = data.length();
+      data.cursor(pos);
+      data.writeBytes(packed, 0, size);
+      directory.write5(HEADER + b * ENTRY, pos);
+      directory.write4(size);
+    }
+    dirty.clear();
+    data.flush();
+    directory.flush();
+  }
+
+  @Override
+  public synchronized void close() {
+    data.close();
+    directory.close();
+    deflater.end();
+    inflater.end();
+  }
+
+  /**
+   * Adds information on the compression.
+   * @param tb token builder
+   * @param length uncompressed file length
+   */
+  synchronized void info(final TokenBuilder tb, final long length) {
+    final long size = data.length();
+    tb.add(Performance.format(size)).add(" / ").add(Performance.format(length));
+    if(length != 0) tb.add(" (").addLong(size * 100 / length).add("%)");
+    tb.add(", ").addLong(decoded).add(" x decoded, avg: ");
+    tb.add(Performance.getTime(decoded == 0 ? 0 : time / decoded, 1));
+  }
+
+  /**
+   * Returns the uncompressed block with the specified number.
+   * @param b block number
+   * @return block
+   * @throws IOException I/O exception
+   */
+  private byte[] block(final long b) throws IOException {
+    byte[] block = dirty.get(b);
+    if(block == null) block = cache.get(b);
+    if(block != null) return block;
+
+    block = new byte[SIZE];
+    final long entry = HEADER + b * ENTRY;
+    if(entry + ENTRY <= directory.length()) {
+      final long pos = directory.read5(entry);
+      final int size = directory.read4(entry + 5);
+      if(size != 0 && pos + size <= data.length()) {
+        final long start = System.nanoTime();
+        final byte[] bytes = data.readBytes(pos, size);
+        inflater.reset();
+        inflater.setInput(bytes);
+        try {
+          for(int n = 0; n < SIZE && !inflater.finished();) {
+            final int r = inflater.inflate(block, n, SIZE - n);
+            if(r == 0 && inflater.needsInput()) throw new EOFException("Incomplete block: " + b);
+            n += r;
+          }
+        } catch(final DataFormatException ex) {
+          throw new IOException(ex);
+        }
+        time += System.nanoTime() - start;
+        decoded++;
+      }
+    }
+    cache.put(b, block);
+    return block;
+  }
+}
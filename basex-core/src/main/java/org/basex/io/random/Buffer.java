@@ -15,4 +15,19 @@ final class Buffer {
   long pos = -1;
   /** Dirty flag. */
   boolean dirty;
+
+  /** Owner of the buffer ({@code null} if the buffer is unassigned). */
+  Buffers owner;
+  /** Cache key. */
+  long key;
+  /** Flag for frequently accessed buffers. */
+  boolean frequent;
+  /** Previous buffer in the replacement queue. */
+  Buffer prev;
+  /** Next buffer in the replacement queue, or next unassigned buffer. */
+  Buffer next;
+  /** Previous buffer of the same owner. */
+  Buffer prevOwned;
+  /** Next buffer of the same owner. */
+  Buffer nextOwned;
 }
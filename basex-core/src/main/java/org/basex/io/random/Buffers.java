@@ -1,64 +1,187 @@
 package org.basex.io.random;
 
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.*;
+
+import org.basex.io.*;
+
 /**
- * This class provides a simple, clock-based buffer management.
+ * This class provides the buffer management of a single file.
+ * Buffers are requested from, and shared with, the global {@link PageCache}.
+ * The current buffer is pinned: it will not be evicted before another buffer is chosen.
+ * Values can also be read without changing the current buffer; this way, multiple threads
+ * can read the same file concurrently.
  *
  * @author BaseX Team 2005-20, BSD License
  * @author Christian Gruen
  */
 final class Buffers {
-  /** Number of buffers (must be 1 << n). */
-  private static final int BUFFERS = 1 << 4;
-  /** Buffers. */
-  private final Buffer[] buffer = new Buffer[BUFFERS];
-  /** Current buffer offset. */
-  private int offset;
+  /** Page cache. */
+  private static final PageCache CACHE = PageCache.get();
+
+  /** Reads blocks from disk. */
+  final Reader reader;
+  /** Writes dirty buffers to disk. */
+  final Writer writer;
+  /** Owner id. */
+  private final long id;
+  /** Number of bits that will be discarded from a position to compute the block number. */
+  private final int shift;
+
+  /** Current buffer (can be {@code null}). */
+  volatile Buffer current;
+  /** First buffers of this owner, indexed by cache segment (entries can be {@code null}). */
+  final Buffer[] first = new Buffer[PageCache.SEGMENTS];
 
   /**
    * Constructor.
+   * @param shift number of bits that will be discarded from a position
+   *   ({@code 0} for block numbers, {@link IO#BLOCKPOWER} for file offsets)
+   * @param reader reader for blocks
+   * @param writer writer for dirty buffers
+   */
+  Buffers(final int shift, final Reader reader, final Writer writer) {
+    this.shift = shift;
+    this.reader = reader;
+    this.writer = writer;
+    id = (long) CACHE.id() << 32;
+  }
+
+  /**
+   * Returns the current buffer.
+   * @return current buffer
+   */
+  Buffer current() {
+    return current;
+  }
+
+  /**
+   * Chooses the current buffer for the specified position.
+   * If the block is not found in the cache, it will be read by the {@link #reader}.
+   * @param pos buffer position
+   * @throws IOException I/O exception
+   */
+  void cursor(final long pos) throws IOException {
+    final Buffer buffer = current;
+    if(buffer == null || buffer.pos != pos) CACHE.cursor(this, pos);
+  }
+
+  /**
+   * Reads a big-endian value without changing the current buffer.
+   * @param pos buffer position
+   * @param off offset in the buffer
+   * @param len number of bytes (at most 8; must not exceed the buffer size)
+   * @return value
+   * @throws IOException I/O exception
+   */
+  long read(final long pos, final int off, final int len) throws IOException {
+    return CACHE.read(this, pos, off, len);
+  }
+
+  /**
+   * Copies bytes without changing the current buffer.
+   * @param pos buffer position
+   * @param off offset in the buffer
+   * @param target target array
+   * @param to target offset
+   * @param len number of bytes (must not exceed the buffer size)
+   * @throws IOException I/O exception
+   */
+  void read(final long pos, final int off, final byte[] target, final int to, final int len)
+      throws IOException {
+    CACHE.read(this, pos, off, target, to, len);
+  }
+
+  /**
+   * Writes all dirty buffers of this file.
+   * @throws IOException I/O exception
    */
-  Buffers() {
-    init();
+  void flush() throws IOException {
+    CACHE.flush(this);
   }
 
   /**
-   * Initializes the buffers.
+   * Returns all buffers to the cache. Dirty buffers will be discarded.
    */
   void init() {
-    for(int b = 0; b < BUFFERS; ++b) {
-      buffer[b] = new Buffer();
+    CACHE.release(this);
+  }
+
+  /**
+   * Computes the cache key for the specified position.
+   * @param pos position
+   * @return key
+   */
+  long key(final long pos) {
+    return id | pos >>> shift;
+  }
+
+  /**
+   * Returns the file offset of the specified buffer.
+   * @param buffer buffer
+   * @return file offset
+   */
+  static long offset(final Buffer buffer) {
+    return buffer.pos << IO.BLOCKPOWER >>> buffer.owner.shift;
+  }
+
+  /**
+   * Reads a block into the specified buffer.
+   * @param channel file channel
+   * @param buffer buffer
+   * @param len number of bytes to read
+   * @throws IOException I/O exception
+   */
+  static void read(final FileChannel channel, final Buffer buffer, final int len)
+      throws IOException {
+    final ByteBuffer bb = ByteBuffer.wrap(buffer.data, 0, len);
+    long p = offset(buffer);
+    while(bb.hasRemaining()) {
+      final int r = channel.read(bb, p);
+      if(r < 0) throw new EOFException();
+      p += r;
     }
   }
 
   /**
-   * Returns all buffers.
-   * @return buffers
+   * Writes the specified buffer to disk and resets the dirty flag.
+   * @param channel file channel
+   * @param buffer buffer
+   * @param len number of bytes to write
+   * @throws IOException I/O exception
    */
-  Buffer[] all() {
-    return buffer;
+  static void write(final FileChannel channel, final Buffer buffer, final int len)
+      throws IOException {
+    final ByteBuffer bb = ByteBuffer.wrap(buffer.data, 0, len);
+    long p = offset(buffer);
+    while(bb.hasRemaining()) p += channel.write(bb, p);
+    buffer.dirty = false;
   }
 
   /**
-   * Returns the current buffer.
-   * @return current buffer
+   * Reader for blocks that are not cached yet.
+   * Readers may be called by multiple threads, so positional file access must be used.
    */
-  Buffer current() {
-    return buffer[offset];
+  interface Reader {
+    /**
+     * Reads the block of the specified buffer from disk.
+     * @param buffer buffer
+     * @throws IOException I/O exception
+     */
+    void read(Buffer buffer) throws IOException;
   }
 
   /**
-   * Chooses a buffer and sets the offset.
-   * @param pos buffer position
-   * @return true if cursor has changed
+   * Writer for dirty buffers.
+   * Writers may be called by other threads, so positional file access must be used.
    */
-  boolean cursor(final long pos) {
-    final int o = offset;
-    do {
-      if(buffer[offset].pos == pos) return false;
-      offset = offset + 1 & BUFFERS - 1;
-    } while(offset != o);
-
-    offset = o + 1 & BUFFERS - 1;
-    return true;
+  interface Writer {
+    /**
+     * Writes the specified buffer to disk and resets its dirty flag.
+     * @param buffer buffer
+     * @throws IOException I/O exception
+     */
+    void write(Buffer buffer) throws IOException;
   }
 }
@@ -3,6 +3,7 @@ package org.basex.io.random;
 import java.io.*;
 
 import org.basex.io.*;
+import org.basex.io.out.*;
 import org.basex.util.*;
 
 /**
@@ -13,15 +14,27 @@ import org.basex.util.*;
  */
 public final class DataAccess implements Closeable {
   /** Buffer manager. */
-  private final Buffers buffers = new Buffers();
-  /** Reference to the data input stream. */
+  private final Buffers buffers = new Buffers(IO.BLOCKPOWER, this::readBlock, this::writeBlock);
+  /** Reference to the data input stream ({@code null} if the file is compressed). */
   private final RandomAccessFile raf;
+  /** Compressed blocks ({@code null} if the file is not compressed). */
+  private final Blocks blocks;
   /** File size. */
   private long length;
   /** Changed flag. */
   private boolean changed;
   /** Offset. */
   private int off;
+  /** Flag for concurrent positional reads. */
+  private final boolean concurrent;
+  /** Flag for memory-mapped reads. */
+  private final boolean map;
+  /** Memory-mapped file contents (only assigned if no unflushed changes exist). */
+  private volatile Mapping mapped;
+  /** Write-ahead log ({@code null} if blocks are written directly). */
+  private final Journal journal;
+  /** File name. */
+  private final String name;
 
   /**
    * Constructor, initializing the file reader.
@@ -29,13 +42,92 @@ public final class DataAccess implements Closeable {
    * @throws IOException I/O Exception
    */
   public DataAccess(final IOFile file) throws IOException {
+    this(file, false, false, null);
+  }
+
+  /**
+   * Constructor, initializing the file reader.
+   * @param file the file to be read
+   * @param journal write-ahead log for changes (can be {@code null})
+   * @throws IOException I/O Exception
+   */
+  public DataAccess(final IOFile file, final Journal journal) throws IOException {
+    this(file, false, false, journal);
+  }
+
+  /**
+   * Constructor, initializing the file reader for concurrent positional reads.
+   * Positional reads will not change the cursor, and they will not be synchronized.
+   * If memory-mapping is enabled, they will be served from the mapped file contents
+   * as long as no unflushed changes exist.
+   * @param file the file to be read
+   * @param map memory-map file contents
+   * @throws IOException I/O Exception
+   */
+  public DataAccess(final IOFile file, final boolean map) throws IOException {
+    this(file, true, map, null);
+  }
+
+  /**
+   * Constructor, initializing the file reader for concurrent positional reads.
+   * Blocks will be written to the specified write-ahead log. If a log is specified,
+   * the file contents will not be memory-mapped.
+   * @param file the file to be read
+   * @param map memory-map file contents
+   * @param journal write-ahead log for changes (can be {@code null})
+   * @throws IOException I/O Exception
+   */
+  public DataAccess(final IOFile file, final boolean map, final Journal journal)
+      throws IOException {
+    this(file, true, map && journal == null, journal);
+  }
+
+  /**
+   * Constructor, initializing the reader of a file that is stored in compressed blocks
+   * (see {@link BlockOutput}). Positional reads will not change the cursor, and they will not be
+   * synchronized.
+   * @param file data file with the compressed blocks
+   * @param directory directory file
+   * @param journal write-ahead log for changes (can be {@code null})
+   * @throws IOException I/O Exception
+   */
+  public DataAccess(final IOFile file, final IOFile directory, final Journal journal)
+      throws IOException {
+    concurrent = true;
+    map = false;
+    this.journal = null;
+    name = file.name();
+    blocks = new Blocks(file, directory, journal);
+    raf = null;
+    length = blocks.length();
+    cursor(0);
+  }
+
+  /**
+   * Constructor, initializing the file reader.
+   * @param file the file to be read
+   * @param concurrent concurrent positional reads
+   * @param map memory-map file contents
+   * @param journal write-ahead log for changes (can be {@code null})
+   * @throws IOException I/O Exception
+   */
+  private DataAccess(final IOFile file, final boolean concurrent, final boolean map,
+      final Journal journal) throws IOException {
+    this.concurrent = concurrent;
+    this.map = map;
+    this.journal = journal;
+    name = file.name();
+    blocks = null;
     RandomAccessFile f = null;
     try {
       f = new RandomAccessFile(file.file(), "rw");
       length = f.length();
       raf = f;
+      if(journal != null) journal.register(name, f.getChannel());
       cursor(0);
+      map();
     } catch(final IOException ex) {
+      if(journal != null) journal.unregister(name);
       if(f != null) f.close();
       throw ex;
     }
@@ -46,13 +138,16 @@ public final class DataAccess implements Closeable {
    */
   public synchronized void flush() {
     try {
-      for(final Buffer buffer : buffers.all()) {
-        if(buffer.dirty) writeBlock(buffer);
-      }
-      if(changed) {
-        raf.setLength(length);
+      buffers.flush();
+      if(blocks != null) {
+        blocks.flush(length);
+        changed = false;
+      } else if(changed) {
+        if(journal != null) journal.length(name, length);
+        else raf.setLength(length);
         changed = false;
       }
+      map();
     } catch(final IOException ex) {
       Util.stack(ex);
     }
@@ -61,6 +156,13 @@ public final class DataAccess implements Closeable {
   @Override
   public synchronized void close() {
     flush();
+    buffers.init();
+    mapped = null;
+    if(journal != null) journal.unregister(name);
+    if(blocks != null) {
+      blocks.close();
+      return;
+    }
     try {
       raf.close();
     } catch(final IOException ex) {
@@ -68,6 +170,14 @@ public final class DataAccess implements Closeable {
     }
   }
 
+  /**
+   * Returns information on the compressed blocks.
+   * @param tb token builder
+   */
+  public synchronized void info(final TokenBuilder tb) {
+    if(blocks != null) blocks.info(tb, length);
+  }
+
   /**
    * Returns the current file position.
    * @return position in the file
@@ -97,9 +207,14 @@ public final class DataAccess implements Closeable {
    * @param pos position
    * @return integer value
    */
-  public synchronized byte read1(final long pos) {
-    cursor(pos);
-    return read1();
+  public byte read1(final long pos) {
+    final Mapping m = mapped;
+    if(m != null) return (byte) m.read1(pos);
+    if(concurrent) return (byte) read(pos, 1);
+    synchronized(this) {
+      cursor(pos);
+      return read1();
+    }
   }
 
   /**
@@ -115,9 +230,14 @@ public final class DataAccess implements Closeable {
    * @param pos position
    * @return integer value
    */
-  public synchronized int read4(final long pos) {
-    cursor(pos);
-    return read4();
+  public int read4(final long pos) {
+    final Mapping m = mapped;
+    if(m != null) return m.read4(pos);
+    if(concurrent) return (int) read(pos, 4);
+    synchronized(this) {
+      cursor(pos);
+      return read4();
+    }
   }
 
   /**
@@ -133,9 +253,14 @@ public final class DataAccess implements Closeable {
    * @param pos position
    * @return long value
    */
-  public synchronized long read5(final long pos) {
-    cursor(pos);
-    return read5();
+  public long read5(final long pos) {
+    final Mapping m = mapped;
+    if(m != null) return m.read5(pos);
+    if(concurrent) return read(pos, 5);
+    synchronized(this) {
+      cursor(pos);
+      return read5();
+    }
   }
 
   /**
@@ -151,9 +276,26 @@ public final class DataAccess implements Closeable {
    * @param pos text position
    * @return read num
    */
-  public synchronized int readNum(final long pos) {
-    cursor(pos);
-    return readNum();
+  public int readNum(final long pos) {
+    final Mapping m = mapped;
+    if(m != null) return m.readNum(pos);
+    if(concurrent) {
+      final int value = (int) read(pos, 1);
+      switch(value & 0xC0) {
+      case 0:
+        return value;
+      case 0x40:
+        return (value - 0x40 << 8) + (int) read(pos + 1, 1);
+      case 0x80:
+        return (value - 0x80 << 24) + (int) read(pos + 1, 3);
+      default:
+        return (int) read(pos + 1, 4);
+      }
+    }
+    synchronized(this) {
+      cursor(pos);
+      return readNum();
+    }
   }
 
   /**
@@ -161,9 +303,17 @@ public final class DataAccess implements Closeable {
    * @param pos text position
    * @return text as byte array
    */
-  public synchronized byte[] readToken(final long pos) {
-    cursor(pos);
-    return readToken();
+  public byte[] readToken(final long pos) {
+    final Mapping m = mapped;
+    if(m != null) return m.readToken(pos);
+    if(concurrent) {
+      final int len = readNum(pos);
+      return readBytes(pos + Num.length(len), len);
+    }
+    synchronized(this) {
+      cursor(pos);
+      return readToken();
+    }
   }
 
   /**
@@ -181,9 +331,27 @@ public final class DataAccess implements Closeable {
    * @param len length
    * @return byte array
    */
-  public synchronized byte[] readBytes(final long pos, final int len) {
-    cursor(pos);
-    return readBytes(len);
+  public byte[] readBytes(final long pos, final int len) {
+    final Mapping m = mapped;
+    if(m != null) return m.readBytes(pos, len);
+    if(concurrent) {
+      final byte[] data = new byte[len];
+      try {
+        for(int o = 0; o < len;) {
+          final long p = pos + o;
+          final int off = (int) (p & IO.BLOCKSIZE - 1), l = Math.min(len - o, IO.BLOCKSIZE - off);
+          buffers.read(p - off, off, data, o, l);
+          o += l;
+        }
+      } catch(final IOException ex) {
+        throw Util.notExpected(ex);
+      }
+      return data;
+    }
+    synchronized(this) {
+      cursor(pos);
+      return readBytes(len);
+    }
   }
 
   /**
@@ -214,16 +382,8 @@ public final class DataAccess implements Closeable {
    */
   public void cursor(final long pos) {
     off = (int) (pos & IO.BLOCKSIZE - 1);
-    final long b = pos - off;
-    if(!buffers.cursor(b)) return;
-
-    final Buffer buffer = buffers.current();
     try {
-      if(buffer.dirty) writeBlock(buffer);
-      buffer.pos = b;
-      raf.seek(buffer.pos);
-      if(buffer.pos < raf.length())
-        raf.readFully(buffer.data, 0, (int) Math.min(length - buffer.pos, IO.BLOCKSIZE));
+      buffers.cursor(pos - off);
     } catch(final IOException ex) {
       Util.stack(ex);
     }
@@ -309,6 +469,7 @@ public final class DataAccess implements Closeable {
     final int last = offset + len;
     int o = offset;
 
+    mapped = null;
     while(o < last) {
       final Buffer buffer = buffer();
       final int l = Math.min(last - o, IO.BLOCKSIZE - off);
@@ -342,8 +503,10 @@ public final class DataAccess implements Closeable {
    * @return new offset to store text
    */
   public long free(final long pos, final int size) {
+    mapped = null;
     // old text size (available space)
-    int os = readNum(pos) + (int) (cursor() - pos);
+    final int l = readNum(pos);
+    int os = l + Num.length(l);
 
     // extend available space by subsequent zero-bytes
     cursor(pos + os);
@@ -385,6 +548,33 @@ public final class DataAccess implements Closeable {
 
   // PRIVATE METHODS ==============================================================================
 
+  /**
+   * Maps the file into memory if this was requested.
+   * Must only be called if all buffers have been written to disk.
+   * @throws IOException I/O exception
+   */
+  private void map() throws IOException {
+    if(map) mapped = new Mapping(raf.getChannel(), length);
+  }
+
+  /**
+   * Reads a big-endian value from the specified position without changing the cursor.
+   * @param pos position
+   * @param len number of bytes
+   * @return value
+   */
+  private long read(final long pos, final int len) {
+    final int off = (int) (pos & IO.BLOCKSIZE - 1), l = Math.min(len, IO.BLOCKSIZE - off);
+    final long b = pos - off;
+    try {
+      final long value = buffers.read(b, off, l);
+      if(l == len) return value;
+      return value << (len - l << 3) | buffers.read(b + IO.BLOCKSIZE, 0, len - l);
+    } catch(final IOException ex) {
+      throw Util.notExpected(ex);
+    }
+  }
+
   /**
    * Reads the next byte.
    * @return next byte
@@ -399,6 +589,7 @@ public final class DataAccess implements Closeable {
    * @param value byte to be written
    */
   private void write(final int value) {
+    mapped = null;
     final Buffer buffer = buffer();
     buffer.dirty = true;
     buffer.data[off++] = (byte) value;
@@ -407,15 +598,33 @@ public final class DataAccess implements Closeable {
   }
 
   /**
-   * Writes the specified block to disk.
+   * Reads the specified block from disk. Called by the buffer manager.
+   * @param buffer buffer to read
+   * @throws IOException I/O exception
+   */
+  private void readBlock(final Buffer buffer) throws IOException {
+    if(blocks != null) {
+      blocks.read(buffer);
+      return;
+    }
+    if(journal != null && journal.read(name, buffer)) return;
+    final long b = buffer.pos, l = Math.min(length, raf.length()) - b;
+    if(l > 0) Buffers.read(raf.getChannel(), buffer, (int) Math.min(l, IO.BLOCKSIZE));
+  }
+
+  /**
+   * Writes the specified block to disk. Called by the buffer manager.
    * @param buffer buffer to write
    * @throws IOException I/O exception
    */
   private void writeBlock(final Buffer buffer) throws IOException {
-    final long pos = buffer.pos, len = Math.min(IO.BLOCKSIZE, length - pos);
-    raf.seek(pos);
-    raf.write(buffer.data, 0, (int) len);
-    buffer.dirty = false;
+    if(blocks != null) {
+      blocks.write(buffer);
+      return;
+    }
+    final int len = (int) Math.max(0, Math.min(IO.BLOCKSIZE, length - buffer.pos));
+    if(journal != null) journal.write(name, buffer, len);
+    else Buffers.write(raf.getChannel(), buffer, len);
   }
 
   /**
@@ -0,0 +1,498 @@
+package org.basex.io.random;
+
+import static org.basex.core.Text.*;
+import static org.basex.data.DataText.*;
+
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.*;
+import java.util.*;
+import java.util.zip.*;
+
+import org.basex.core.*;
+import org.basex.data.*;
+import org.basex.io.*;
+import org.basex.io.out.DataOutput;
+import org.basex.util.*;
+
+/**
+ * Write-ahead log of a disk database (see {@link MainOptions#WAL}).
+ *
+ * Blocks of the table, the texts and attribute values and the value indexes, and the
+ * files with the meta data are appended to the log instead of being written to the database
+ * files. A commit record, which contains a checksum of all records of the update, is appended
+ * and forced to disk when an update is flushed. The logged changes are written to the
+ * database files by a checkpoint, which takes place when the log gets too large and when the
+ * database is closed.
+ *
+ * If a database was not closed properly, all committed changes will be restored when it is
+ * opened again ({@link #recover(MetaData)}), and the changes of incomplete updates will be
+ * discarded. As blocks of incomplete updates are never written to the database files, no undo
+ * information needs to be logged.
+ *
+ * @author BaseX Team 2005-20, BSD License
+ * @author Christian Gruen
+ */
+public final class Journal {
+  /** Log size that triggers a checkpoint. */
+  private static final long CHECKPOINT = 1L << 26;
+  /** Record type: block of a database file. */
+  private static final byte PAGE = 1;
+  /** Record type: length of a database file. */
+  private static final byte LENGTH = 2;
+  /** Record type: complete database file. */
+  private static final byte FILE = 3;
+  /** Record type: commit. */
+  private static final byte COMMIT = 4;
+
+  /** Database directory. */
+  private final IOFile dir;
+  /** Log file. */
+  private final IOFile file;
+  /** Checksum of the records of the current update. */
+  private final CRC32 crc = new CRC32();
+
+  /** Positions of the latest logged blocks, indexed by file name and file offset. */
+  private final HashMap<String, HashMap<Long, Entry>> pages = new HashMap<>();
+  /** Latest logged file lengths. */
+  private final HashMap<String, Long> lengths = new HashMap<>();
+  /** Positions of the latest logged files. */
+  private final HashMap<String, Entry> files = new HashMap<>();
+  /** Channels of opened database files. */
+  private final HashMap<String, FileChannel> channels = new HashMap<>();
+
+  /** Log file (will be opened when the first record is written). */
+  private RandomAccessFile log;
+  /** Size of the log. */
+  private long size;
+  /** Indicates if the log contains records that have not been committed yet. */
+  private boolean uncommitted;
+  /** Indicates if the log contains committed records that have not been checkpointed yet. */
+  private boolean committed;
+
+  /** Number of commits. */
+  private long commits;
+  /** Number of checkpoints. */
+  private long checkpoints;
+
+  /**
+   * Constructor.
+   * @param meta meta data
+   */
+  public Journal(final MetaData meta) {
+    dir = meta.dir;
+    file = meta.dbFile(DATAWAL);
+  }
+
+  /**
+   * Restores the committed changes of a database that has not been closed properly.
+   * Must be called before any database file is opened. Nothing will happen if the
+   * database is opened by another process.
+   * @param meta meta data
+   * @throws IOException I/O exception
+   */
+  public static void recover(final MetaData meta) throws IOException {
+    final IOFile wal = meta.dbFile(DATAWAL);
+    if(!wal.exists()) return;
+
+    final IOFile table = meta.dbFile(DATATBL);
+    try(RandomAccessFile tbl = new RandomAccessFile(table.file(), "rw");
+        FileLock lock = tbl.getChannel().tryLock()) {
+      if(lock == null) return;
+      // find end of last committed update, write changes to database files
+      final long end = replay(wal, Long.MAX_VALUE, null, null);
+      if(end > 0) {
+        final HashMap<String, RandomAccessFile> opened = new HashMap<>();
+        opened.put(table.name(), tbl);
+        try {
+          replay(wal, end, meta.dir, opened);
+        } finally {
+          for(final RandomAccessFile raf : opened.values()) {
+            raf.getChannel().force(false);
+            if(raf != tbl) raf.close();
+          }
+        }
+      }
+      if(!wal.delete()) throw new IOException("Could not delete " + wal);
+    }
+  }
+
+  /**
+   * Registers the channel of an opened database file.
+   * @param name file name
+   * @param channel file channel
+   */
+  synchronized void register(final String name, final FileChannel channel) {
+    channels.put(name, channel);
+  }
+
+  /**
+   * Unregisters the channel of a database file that will be closed.
+   * @param name file name
+   */
+  synchronized void unregister(final String name) {
+    channels.remove(name);
+  }
+
+  /**
+   * Reads the latest logged version of a block.
+   * @param name file name
+   * @param buffer buffer
+   * @return {@code true} if the block was found in the log
+   * @throws IOException I/O exception
+   */
+  synchronized boolean read(final String name, final Buffer buffer) throws IOException {
+    final HashMap<Long, Entry> entries = pages.get(name);
+    final Entry entry = entries != null ? entries.get(Buffers.offset(buffer)) : null;
+    if(entry == null) return false;
+    read(entry, buffer.data);
+    return true;
+  }
+
+  /**
+   * Appends a block to the log and resets its dirty flag.
+   * @param name file name
+   * @param buffer buffer
+   * @param len number of bytes to write
+   * @throws IOException I/O exception
+   */
+  synchronized void write(final String name, final Buffer buffer, final int len)
+      throws IOException {
+    final long off = Buffers.offset(buffer);
+    final ByteBuffer header = header(PAGE, name, 12).putLong(off).putInt(len);
+    pages.computeIfAbsent(name, n -> new HashMap<>()).put(off,
+        new Entry(append(header, buffer.data, len), len));
+    buffer.dirty = false;
+  }
+
+  /**
+   * Appends the length of a database file to the log.
+   * @param name file name
+   * @param len file length
+   * @throws IOException I/O exception
+   */
+  synchronized void length(final String name, final long len) throws IOException {
+    append(header(LENGTH, name, 8).putLong(len), null, 0);
+    lengths.put(name, len);
+  }
+
+  /**
+   * Returns an output stream for writing a complete database file.
+   * The file will be appended to the log when the stream is closed.
+   * @param name file name
+   * @return output stream
+   */
+  public DataOutput output(final String name) {
+    return new DataOutput(new ByteArrayOutputStream() {
+      @Override
+      public void close() throws IOException {
+        file(name, toByteArray());
+      }
+    });
+  }
+
+  /**
+   * Commits all logged changes.
+   * @param checkpoint perform a checkpoint if the log gets too large
+   * @throws IOException I/O exception
+   */
+  public synchronized void commit(final boolean checkpoint) throws IOException {
+    if(!uncommitted) return;
+    final long value = crc.getValue();
+    final ByteBuffer record = ByteBuffer.allocate(9).put(COMMIT).putLong(value);
+    write(record.array(), record.position());
+    log.getChannel().force(false);
+    crc.reset();
+    uncommitted = false;
+    committed = true;
+    commits++;
+    if(checkpoint && size > CHECKPOINT) checkpoint();
+  }
+
+  /**
+   * Indicates if all committed changes have been written to the database files.
+   * @return result of check
+   */
+  public synchronized boolean checkpointed() {
+    return !committed;
+  }
+
+  /**
+   * Writes all committed changes to the database files and empties the log.
+   * Nothing will happen if the log contains uncommitted changes.
+   * @throws IOException I/O exception
+   */
+  public synchronized void checkpoint() throws IOException {
+    if(uncommitted || size == 0) return;
+
+    final HashMap<String, RandomAccessFile> opened = new HashMap<>();
+    final HashSet<FileChannel> written = new HashSet<>();
+    try {
+      final byte[] data = new byte[IO.BLOCKSIZE];
+      for(final Map.Entry<String, HashMap<Long, Entry>> page : pages.entrySet()) {
+        final FileChannel fc = channel(page.getKey(), opened);
+        for(final Map.Entry<Long, Entry> entry : page.getValue().entrySet()) {
+          final int len = read(entry.getValue(), data);
+          write(fc, ByteBuffer.wrap(data, 0, len), entry.getKey());
+        }
+        written.add(fc);
+      }
+      for(final Map.Entry<String, Long> length : lengths.entrySet()) {
+        final FileChannel fc = channel(length.getKey(), opened);
+        fc.truncate(length.getValue());
+        written.add(fc);
+      }
+      for(final Map.Entry<String, Entry> entry : files.entrySet()) {
+        final Entry e = entry.getValue();
+        final byte[] bytes = new byte[e.len];
+        read(e, bytes);
+        final FileChannel fc = channel(entry.getKey(), opened);
+        fc.truncate(0);
+        write(fc, ByteBuffer.wrap(bytes), 0);
+        written.add(fc);
+      }
+      for(final FileChannel fc : written) fc.force(false);
+    } finally {
+      for(final RandomAccessFile raf : opened.values()) raf.close();
+    }
+
+    // empty log
+    log.setLength(0);
+    log.getChannel().force(false);
+    size = 0;
+    pages.clear();
+    lengths.clear();
+    files.clear();
+    committed = false;
+    checkpoints++;
+  }
+
+  /**
+   * Commits all changes, writes them to the database files and deletes the log.
+   * Must be called after all database files have been closed.
+   * @throws IOException I/O exception
+   */
+  public synchronized void close() throws IOException {
+    if(log == null) return;
+    commit(false);
+    checkpoint();
+    log.close();
+    log = null;
+    if(!file.delete()) throw new IOException("Could not delete " + file);
+  }
+
+  /**
+   * Returns information on the log.
+   * @return info string
+   */
+  public synchronized byte[] info() {
+    final TokenBuilder tb = new TokenBuilder();
+    tb.add(WRITE_AHEAD_LOG).add(NL);
+    tb.add(LI_SIZE).add(Performance.format(size)).add(NL);
+    tb.add(LI_COMMITS).addLong(commits).add(NL);
+    tb.add(LI_CHECKPOINTS).addLong(checkpoints).add(NL);
+    return tb.finish();
+  }
+
+  // PRIVATE METHODS ==============================================================================
+
+  /**
+   * Appends a complete database file to the log.
+   * @param name file name
+   * @param bytes file contents
+   * @throws IOException I/O exception
+   */
+  private synchronized void file(final String name, final byte[] bytes) throws IOException {
+    final ByteBuffer header = header(FILE, name, 4).putInt(bytes.length);
+    files.put(name, new Entry(append(header, bytes, bytes.length), bytes.length));
+  }
+
+  /**
+   * Creates a record header.
+   * @param type record type
+   * @param name file name
+   * @param len length of the remaining header fields
+   * @return header
+   */
+  private static ByteBuffer header(final byte type, final String name, final int len) {
+    final byte[] nm = Token.token(name);
+    return ByteBuffer.allocate(2 + nm.length + len).put(type).put((byte) nm.length).put(nm);
+  }
+
+  /**
+   * Appends a record.
+   * @param header record header
+   * @param data record data (can be {@code null})
+   * @param len length of the record data
+   * @return log position of the record data
+   * @throws IOException I/O exception
+   */
+  private long append(final ByteBuffer header, final byte[] data, final int len)
+      throws IOException {
+    final byte[] hd = header.array();
+    crc.update(hd, 0, header.position());
+    write(hd, header.position());
+    final long pos = size;
+    if(len > 0) {
+      crc.update(data, 0, len);
+      write(data, len);
+    }
+    uncommitted = true;
+    return pos;
+  }
+
+  /**
+   * Writes bytes to the end of the log.
+   * @param data bytes
+   * @param len number of bytes
+   * @throws IOException I/O exception
+   */
+  private void write(final byte[] data, final int len) throws IOException {
+    if(log == null) {
+      log = new RandomAccessFile(file.file(), "rw");
+      size = log.length();
+    }
+    write(log.getChannel(), ByteBuffer.wrap(data, 0, len), size);
+    size += len;
+  }
+
+  /**
+   * Reads logged data.
+   * @param entry log entry
+   * @param data target array
+   * @return number of read bytes
+   * @throws IOException I/O exception
+   */
+  private int read(final Entry entry, final byte[] data) throws IOException {
+    final ByteBuffer bb = ByteBuffer.wrap(data, 0, entry.len);
+    final FileChannel fc = log.getChannel();
+    long p = entry.pos;
+    while(bb.hasRemaining()) {
+      final int r = fc.read(bb, p);
+      if(r < 0) throw new EOFException();
+      p += r;
+    }
+    return entry.len;
+  }
+
+  /**
+   * Returns the channel of a database file.
+   * @param name file name
+   * @param opened files that have been opened by the checkpoint
+   * @return channel
+   * @throws IOException I/O exception
+   */
+  private FileChannel channel(final String name, final HashMap<String, RandomAccessFile> opened)
+      throws IOException {
+    final FileChannel fc = channels.get(name);
+    if(fc != null) return fc;
+    RandomAccessFile raf = opened.get(name);
+    if(raf == null) {
+      raf = new RandomAccessFile(new IOFile(dir, name).file(), "rw");
+      opened.put(name, raf);
+    }
+    return raf.getChannel();
+  }
+
+  /**
+   * Writes bytes to a channel.
+   * @param fc file channel
+   * @param bb byte buffer
+   * @param pos file position
+   * @throws IOException I/O exception
+   */
+  private static void write(final FileChannel fc, final ByteBuffer bb, final long pos)
+      throws IOException {
+    long p = pos;
+    while(bb.hasRemaining()) p += fc.write(bb, p);
+  }
+
+  /**
+   * Replays the log. Records will only be applied if a database directory is specified.
+   * @param wal log file
+   * @param end end of the last committed update, or {@link Long#MAX_VALUE} to find it
+   * @param dir database directory (can be {@code null})
+   * @param opened opened database files (can be {@code null})
+   * @return end of the last committed update
+   * @throws IOException I/O exception
+   */
+  private static long replay(final IOFile wal, final long end, final IOFile dir,
+      final HashMap<String, RandomAccessFile> opened) throws IOException {
+
+    final CRC32 crc = new CRC32();
+    final long max = Math.min(end, wal.length());
+    long pos = 0, committed = 0;
+    try(DataInputStream in = new DataInputStream(new BufferedInputStream(wal.inputStream()))) {
+      while(pos < max) {
+        final int type = in.read();
+        if(type == COMMIT) {
+          if(in.readLong() != crc.getValue()) break;
+          crc.reset();
+          pos += 9;
+          committed = pos;
+          continue;
+        }
+        if(type != PAGE && type != LENGTH && type != FILE) break;
+
+        // read header
+        final int nl = in.read();
+        if(nl < 0) break;
+        final byte[] nm = new byte[nl];
+        in.readFully(nm);
+        final long off = type == PAGE ? in.readLong() : 0;
+        final long len = type == LENGTH ? in.readLong() : in.readInt();
+        final int hl = 2 + nl + (type == PAGE ? 12 : type == LENGTH ? 8 : 4);
+        final int dl = type == LENGTH ? 0 : (int) len;
+        if(dl < 0 || pos + hl + dl > max) break;
+
+        final ByteBuffer header = ByteBuffer.allocate(hl).put((byte) type).put((byte) nl).put(nm);
+        if(type == PAGE) header.putLong(off).putInt(dl);
+        else if(type == LENGTH) header.putLong(len);
+        else header.putInt(dl);
+        crc.update(header.array(), 0, hl);
+        final byte[] data = new byte[dl];
+        in.readFully(data);
+        crc.update(data, 0, dl);
+        pos += hl + dl;
+
+        if(dir != null) {
+          final String name = Token.string(nm);
+          RandomAccessFile raf = opened.get(name);
+          if(raf == null) {
+            raf = new RandomAccessFile(new IOFile(dir, name).file(), "rw");
+            opened.put(name, raf);
+          }
+          if(type == LENGTH) {
+            raf.setLength(len);
+          } else {
+            if(type == FILE) raf.setLength(0);
+            raf.seek(off);
+            raf.write(data);
+          }
+        }
+      }
+    } catch(final EOFException ex) {
+      // incomplete record
+      Util.debug(ex);
+    }
+    return committed;
+  }
+
+  /** Position and length of logged data. */
+  private static final class Entry {
+    /** Log position. */
+    final long pos;
+    /** Number of bytes. */
+    final int len;
+
+    /**
+     * Constructor.
+     * @param pos log position
+     * @param len number of bytes
+     */
+    Entry(final long pos, final int len) {
+      this.pos = pos;
+      this.len = len;
+    }
+  }
+}
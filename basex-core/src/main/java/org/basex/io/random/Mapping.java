@@ -0,0 +1,156 @@
+package org.basex.io.random;
+
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.*;
+import java.nio.channels.FileChannel.*;
+
+import org.basex.util.*;
+
+/**
+ * Read-only, memory-mapped view on a file. Files that exceed the maximum size of a
+ * {@link MappedByteBuffer} are mapped in chunks. As all reads are absolute,
+ * instances can be accessed by multiple threads without synchronization.
+ *
+ * @author BaseX Team 2005-20, BSD License
+ * @author Christian Gruen
+ */
+final class Mapping {
+  /** Number of bits of a chunk size. */
+  private static final int CHUNKPOWER = 30;
+  /** Chunk size (1 GB). */
+  private static final int CHUNKSIZE = 1 << CHUNKPOWER;
+
+  /** Mapped chunks. */
+  private final MappedByteBuffer[] chunks;
+
+  /**
+   * Constructor.
+   * @param channel file channel
+   * @param length number of bytes to be mapped
+   * @throws IOException I/O exception
+   */
+  Mapping(final FileChannel channel, final long length) throws IOException {
+    final int cl = (int) (length + CHUNKSIZE - 1 >>> CHUNKPOWER);
+    chunks = new MappedByteBuffer[cl];
+    for(int c = 0; c < cl; c++) {
+      final long pos = (long) c << CHUNKPOWER;
+      chunks[c] = channel.map(MapMode.READ_ONLY, pos, Math.min(CHUNKSIZE, length - pos));
+    }
+  }
+
+  /**
+   * Reads a byte value.
+   * @param pos position
+   * @return integer value
+   */
+  int read1(final long pos) {
+    return chunk(pos).get(offset(pos)) & 0xFF;
+  }
+
+  /**
+   * Reads a short value.
+   * @param pos position
+   * @return integer value
+   */
+  int read2(final long pos) {
+    return inside(pos, 2) ? chunk(pos).getShort(offset(pos)) & 0xFFFF :
+      (read1(pos) << 8) + read1(pos + 1);
+  }
+
+  /**
+   * Reads an integer value.
+   * @param pos position
+   * @return integer value
+   */
+  int read4(final long pos) {
+    return inside(pos, 4) ? chunk(pos).getInt(offset(pos)) :
+      (read2(pos) << 16) + read2(pos + 2);
+  }
+
+  /**
+   * Reads a 5-byte value.
+   * @param pos position
+   * @return long value
+   */
+  long read5(final long pos) {
+    return ((long) read1(pos) << 32) + (read4(pos + 1) & 0xFFFFFFFFL);
+  }
+
+  /**
+   * Reads a {@link Num} value.
+   * @param pos position
+   * @return integer value
+   */
+  int readNum(final long pos) {
+    final int value = read1(pos);
+    switch(value & 0xC0) {
+      case 0:
+        return value;
+      case 0x40:
+        return (value - 0x40 << 8) + read1(pos + 1);
+      case 0x80:
+        return (value - 0x80 << 24) + (read1(pos + 1) << 16) + read2(pos + 2);
+      default:
+        return read4(pos + 1);
+    }
+  }
+
+  /**
+   * Reads a token (compressed length, followed by the bytes).
+   * @param pos position
+   * @return token
+   */
+  byte[] readToken(final long pos) {
+    final int len = readNum(pos);
+    return readBytes(pos + Num.length(len), len);
+  }
+
+  /**
+   * Reads a number of bytes.
+   * @param pos position
+   * @param len number of bytes
+   * @return byte array
+   */
+  byte[] readBytes(final long pos, final int len) {
+    final byte[] data = new byte[len];
+    int o = 0;
+    while(o < len) {
+      final long p = pos + o;
+      final ByteBuffer bb = chunk(p).duplicate();
+      final int off = offset(p), l = Math.min(len - o, CHUNKSIZE - off);
+      ((java.nio.Buffer) bb).position(off);
+      bb.get(data, o, l);
+      o += l;
+    }
+    return data;
+  }
+
+  /**
+   * Returns the chunk for the specified position.
+   * @param pos position
+   * @return chunk
+   */
+  private MappedByteBuffer chunk(final long pos) {
+    return chunks[(int) (pos >>> CHUNKPOWER)];
+  }
+
+  /**
+   * Returns the offset of the specified position in its chunk.
+   * @param pos position
+   * @return offset
+   */
+  private static int offset(final long pos) {
+    return (int) pos & CHUNKSIZE - 1;
+  }
+
+  /**
+   * Checks if the specified number of bytes can be read from a single chunk.
+   * @param pos position
+   * @param len number of bytes
+   * @return result of check
+   */
+  private static boolean inside(final long pos, final int len) {
+    return offset(pos) + len <= CHUNKSIZE;
+  }
+}
@@ -0,0 +1,647 @@
+package org.basex.io.random;
+
+import static org.basex.core.Text.*;
+
+import java.io.*;
+import java.util.concurrent.locks.*;
+
+import org.basex.io.*;
+import org.basex.util.*;
+
+/**
+ * This class provides a process-wide cache for the disk blocks of all opened table and data
+ * files. Its size is adjusted via {@link org.basex.core.StaticOptions#PAGECACHE}.
+ *
+ * The replacement strategy is based on 2Q: blocks that are read for the first time are added
+ * to a FIFO queue. If a block is requested again after it has been evicted from this queue,
+ * it will be added to an LRU queue for frequently accessed blocks. As a result, sequential
+ * scans will not replace the hot blocks of other queries and databases.
+ *
+ * The cache is divided into segments, each guarded by its own lock, and blocks are assigned
+ * to segments by their hash values. Threads that read different blocks will rarely block
+ * each other.
+ *
+ * @author BaseX Team 2005-20, BSD License
+ * @author Christian Gruen
+ */
+public final class PageCache {
+  /** Maximum number of segments (power of two). */
+  static final int SEGMENTS = Math.min(1 << 6,
+      Integer.highestOneBit(Runtime.getRuntime().availableProcessors() * 2 - 1) << 1);
+  /** Minimum number of cached blocks per segment. */
+  private static final int MIN = 1 << 6;
+  /** Marker for recently evicted blocks. */
+  private static final Buffer GHOST = new Buffer();
+  /** Singleton instance. */
+  private static final PageCache INSTANCE = new PageCache();
+
+  /** Segments (number is a power of two). */
+  private volatile Segment[] segments;
+  /** Maximum number of buffers. */
+  private int capacity;
+  /** Last assigned owner id. */
+  private int id;
+
+  /**
+   * Private constructor.
+   */
+  private PageCache() {
+    size(32);
+  }
+
+  /**
+   * Returns the singleton instance.
+   * @return instance
+   */
+  public static PageCache get() {
+    return INSTANCE;
+  }
+
+  /**
+   * Assigns a new cache size. The number of segments depends on the cache size.
+   * Cached buffers will be moved to the new segments; if the cache gets smaller,
+   * surplus buffers will be evicted with the next requests.
+   * @param mb cache size in megabytes
+   */
+  public synchronized void size(final int mb) {
+    capacity = (int) Math.max(MIN, Math.min(Integer.MAX_VALUE >>> 2,
+        ((long) mb << 20) / IO.BLOCKSIZE));
+    int count = 1;
+    while(count < SEGMENTS && capacity / (count << 1) >= MIN) count <<= 1;
+
+    final Segment[] segs = new Segment[count];
+    for(int s = 0; s < count; s++) segs[s] = new Segment(s, capacity / count);
+    final Segment[] old = segments;
+    if(old == null) {
+      segments = segs;
+    } else {
+      for(final Segment s : old) s.lock();
+      try {
+        for(final Segment s : old) s.clear();
+        for(final Segment s : old) s.move(segs);
+        segments = segs;
+      } finally {
+        for(final Segment s : old) s.unlock();
+      }
+    }
+  }
+
+  /**
+   * Returns information on the cache.
+   * @return info string
+   */
+  public byte[] info() {
+    final Segment[] segs = segments;
+    long buffers = 0, hits = 0, misses = 0, evictions = 0;
+    for(final Segment s : segs) {
+      s.lock();
+      try {
+        buffers += s.buffers;
+        hits += s.hits;
+        misses += s.misses;
+        evictions += s.evictions;
+      } finally {
+        s.unlock();
+      }
+    }
+
+    final long requests = hits + misses;
+    final TokenBuilder tb = new TokenBuilder();
+    tb.add(PAGE_CACHE).add(NL);
+    tb.add(LI_SIZE).add(Performance.format(buffers * IO.BLOCKSIZE)).add(" / ").
+      add(Performance.format((long) capacity * IO.BLOCKSIZE)).add(NL);
+    tb.add(LI_HITS).addLong(hits);
+    if(requests != 0) tb.add(" (").addInt((int) (hits * 100 / requests)).add("%)");
+    tb.add(NL);
+    tb.add(LI_MISSES).addLong(misses).add(NL);
+    tb.add(LI_EVICTIONS).addLong(evictions).add(NL);
+    return tb.finish();
+  }
+
+  /**
+   * Returns a new owner id.
+   * @return id
+   */
+  synchronized int id() {
+    // 0 is reserved for empty hash slots
+    if(++id == 0) ++id;
+    return id;
+  }
+
+  /**
+   * Pins the buffer of the specified block as current buffer of the owner.
+   * If the block is not cached yet, it will be read by the owner.
+   * @param owner owner
+   * @param pos block position
+   * @throws IOException I/O exception
+   */
+  void cursor(final Buffers owner, final long pos) throws IOException {
+    final long key = owner.key(pos);
+    final Segment s = lock(key);
+    try {
+      owner.current = s.fetch(owner, pos, key);
+    } finally {
+      s.unlock();
+    }
+  }
+
+  /**
+   * Reads a big-endian value from a block without changing the current buffer of the owner.
+   * @param owner owner
+   * @param pos block position
+   * @param off offset in the block
+   * @param len number of bytes (at most 8)
+   * @return value
+   * @throws IOException I/O exception
+   */
+  long read(final Buffers owner, final long pos, final int off, final int len)
+      throws IOException {
+    final long key = owner.key(pos);
+    final Segment s = lock(key);
+    try {
+      final byte[] data = s.fetch(owner, pos, key).data;
+      long v = 0;
+      for(int o = off, l = off + len; o < l; o++) v = v << 8 | data[o] & 0xFF;
+      return v;
+    } finally {
+      s.unlock();
+    }
+  }
+
+  /**
+   * Copies bytes from a block without changing the current buffer of the owner.
+   * @param owner owner
+   * @param pos block position
+   * @param off offset in the block
+   * @param target target array
+   * @param to target offset
+   * @param len number of bytes
+   * @throws IOException I/O exception
+   */
+  void read(final Buffers owner, final long pos, final int off, final byte[] target,
+      final int to, final int len) throws IOException {
+    final long key = owner.key(pos);
+    final Segment s = lock(key);
+    try {
+      Array.copy(s.fetch(owner, pos, key).data, off, len, target, to);
+    } finally {
+      s.unlock();
+    }
+  }
+
+  /**
+   * Writes all dirty buffers of the specified owner.
+   * @param owner owner
+   * @throws IOException I/O exception
+   */
+  void flush(final Buffers owner) throws IOException {
+    Segment[] segs;
+    do {
+      segs = segments;
+      for(final Segment s : segs) {
+        s.lock();
+        try {
+          if(!s.retired) s.flush(owner);
+        } finally {
+          s.unlock();
+        }
+      }
+    } while(segs != segments);
+  }
+
+  /**
+   * Releases all buffers of the specified owner. Dirty buffers will be discarded.
+   * @param owner owner
+   */
+  void release(final Buffers owner) {
+    Segment[] segs;
+    do {
+      segs = segments;
+      for(final Segment s : segs) {
+        s.lock();
+        try {
+          if(!s.retired) s.release(owner);
+        } finally {
+          s.unlock();
+        }
+      }
+    } while(segs != segments);
+    owner.current = null;
+  }
+
+  // PRIVATE METHODS ==============================================================================
+
+  /**
+   * Locks and returns the segment responsible for the specified key.
+   * @param key key
+   * @return locked segment
+   */
+  private Segment lock(final long key) {
+    while(true) {
+      final Segment[] segs = segments;
+      final Segment s = segs[hash(key) >>> 26 & segs.length - 1];
+      s.lock();
+      if(!s.retired) return s;
+      // cache has been resized in the meantime
+      s.unlock();
+    }
+  }
+
+  /**
+   * Computes a hash value.
+   * @param key key
+   * @return hash value
+   */
+  private static int hash(final long key) {
+    final long h = key * 0x9E3779B97F4A7C15L;
+    return (int) (h ^ h >>> 32);
+  }
+
+  /**
+   * Cache segment. All fields of the segment, and all buffers assigned to it,
+   * must only be accessed by the thread that holds the lock.
+   */
+  private static final class Segment extends ReentrantLock {
+    /** Serial version UID. */
+    private static final long serialVersionUID = 1L;
+    /** Index of the segment. */
+    private final int index;
+    /** Blocks that have been accessed once (FIFO). */
+    private final Queue recent = new Queue();
+    /** Frequently accessed blocks (LRU). */
+    private final Queue frequent = new Queue();
+    /** Unassigned buffers. */
+    private Buffer free;
+    /** Indicates if the segment has been replaced. */
+    private boolean retired;
+
+    /** Hash keys ({@code 0}: empty slot). */
+    private long[] keys;
+    /** Hash values (buffers or ghost markers). */
+    private Buffer[] values;
+    /** Number of hash entries. */
+    private int entries;
+    /** Keys of recently evicted blocks. */
+    private final long[] ghosts;
+    /** Current ghost offset. */
+    private int ghost;
+
+    /** Maximum number of buffers. */
+    private final int capacity;
+    /** Number of allocated buffers. */
+    private int buffers;
+
+    /** Number of cache hits. */
+    private long hits;
+    /** Number of cache misses. */
+    private long misses;
+    /** Number of evicted blocks. */
+    private long evictions;
+
+    /**
+     * Constructor.
+     * @param index index of the segment
+     * @param capacity maximum number of buffers
+     */
+    Segment(final int index, final int capacity) {
+      this.index = index;
+      this.capacity = capacity;
+      ghosts = new long[Math.max(1, capacity >>> 1)];
+      int cap = 1 << 4;
+      while(cap < capacity + ghosts.length << 1) cap <<= 1;
+      keys = new long[cap];
+      values = new Buffer[cap];
+    }
+
+    /**
+     * Returns the buffer of a block. If the block is not cached yet, a buffer will be assigned,
+     * and the block will be read by the owner.
+     * @param owner owner
+     * @param pos block position
+     * @param key key
+     * @return buffer
+     * @throws IOException I/O exception
+     */
+    Buffer fetch(final Buffers owner, final long pos, final long key) throws IOException {
+      final int s = slot(key);
+      Buffer buffer = values[s];
+      if(buffer != null && buffer != GHOST) {
+        if(buffer.frequent) {
+          frequent.remove(buffer);
+          frequent.add(buffer);
+        }
+        hits++;
+        return buffer;
+      }
+
+      final boolean again = buffer == GHOST;
+      buffer = reclaim();
+      buffer.owner = owner;
+      buffer.pos = pos;
+      buffer.key = key;
+      buffer.frequent = again;
+      add(buffer);
+      try {
+        owner.reader.read(buffer);
+      } catch(final IOException ex) {
+        // discard incomplete block
+        unlink(buffer);
+        remove(key);
+        buffer.next = free;
+        free = buffer;
+        throw ex;
+      }
+      misses++;
+      return buffer;
+    }
+
+    /**
+     * Writes all dirty buffers of the specified owner.
+     * @param owner owner
+     * @throws IOException I/O exception
+     */
+    void flush(final Buffers owner) throws IOException {
+      for(Buffer b = owner.first[index]; b != null; b = b.nextOwned) {
+        if(b.dirty) owner.writer.write(b);
+      }
+    }
+
+    /**
+     * Releases all buffers of the specified owner. Dirty buffers will be discarded.
+     * @param owner owner
+     */
+    void release(final Buffers owner) {
+      Buffer b = owner.first[index];
+      while(b != null) {
+        final Buffer next = b.nextOwned;
+        unlink(b);
+        remove(b.key);
+        b.next = free;
+        free = b;
+        b = next;
+      }
+    }
+
+    /**
+     * Retires this segment and detaches its buffers from their owners.
+     */
+    void clear() {
+      retired = true;
+      for(final Queue queue : new Queue[] { recent, frequent }) {
+        for(Buffer b = queue.head; b != null; b = b.next) b.owner.first[index] = null;
+      }
+    }
+
+    /**
+     * Moves all assigned buffers to the specified segments.
+     * @param segs target segments
+     */
+    void move(final Segment[] segs) {
+      for(final Queue queue : new Queue[] { recent, frequent }) {
+        Buffer b = queue.head;
+        while(b != null) {
+          final Buffer next = b.next;
+          b.prevOwned = null;
+          b.nextOwned = null;
+          final Segment s = segs[hash(b.key) >>> 26 & segs.length - 1];
+          s.add(b);
+          s.buffers++;
+          b = next;
+        }
+      }
+      final Segment s = segs[0];
+      s.hits += hits;
+      s.misses += misses;
+      s.evictions += evictions;
+    }
+
+    /**
+     * Adds an assigned buffer to a queue, to the buffers of its owner, and to the hash table.
+     * @param buffer buffer
+     */
+    private void add(final Buffer buffer) {
+      (buffer.frequent ? frequent : recent).add(buffer);
+      final Buffer[] first = buffer.owner.first;
+      final Buffer head = first[index];
+      buffer.nextOwned = head;
+      if(head != null) head.prevOwned = buffer;
+      first[index] = buffer;
+      put(buffer.key, buffer);
+    }
+
+    /**
+     * Returns an unassigned buffer. Allocates a new buffer or evicts an existing one.
+     * @return buffer
+     * @throws IOException I/O exception
+     */
+    private Buffer reclaim() throws IOException {
+      // discard surplus buffers after the cache size has been reduced
+      while(buffers > capacity) {
+        if(free != null) {
+          free = free.next;
+        } else {
+          final Buffer victim = victim();
+          if(victim == null) break;
+          evict(victim);
+        }
+        buffers--;
+      }
+
+      Buffer buffer = free;
+      if(buffer != null) {
+        free = buffer.next;
+        buffer.next = null;
+      } else {
+        buffer = buffers < capacity ? null : victim();
+        if(buffer != null) {
+          evict(buffer);
+        } else {
+          // all buffers are pinned, or cache is not full yet
+          buffer = new Buffer();
+          buffers++;
+        }
+      }
+      return buffer;
+    }
+
+    /**
+     * Chooses a buffer that can be evicted.
+     * @return buffer or {@code null}
+     */
+    private Buffer victim() {
+      Buffer victim = null;
+      if(recent.size > capacity >>> 2 || frequent.size == 0) victim = recent.victim();
+      if(victim == null) victim = frequent.victim();
+      if(victim == null) victim = recent.victim();
+      return victim;
+    }
+
+    /**
+     * Evicts the specified buffer. Writes it to disk if it is dirty.
+     * @param buffer buffer
+     * @throws IOException I/O exception
+     */
+    private void evict(final Buffer buffer) throws IOException {
+      if(buffer.dirty) buffer.owner.writer.write(buffer);
+      final long key = buffer.key;
+      unlink(buffer);
+      // remember keys of blocks that have been accessed only once
+      if(buffer.frequent) {
+        remove(key);
+      } else {
+        final long old = ghosts[ghost];
+        if(old != 0 && values[slot(old)] == GHOST) remove(old);
+        ghosts[ghost] = key;
+        ghost = (ghost + 1) % ghosts.length;
+        put(key, GHOST);
+      }
+      evictions++;
+    }
+
+    /**
+     * Removes a buffer from its queue and from its owner, and resets it.
+     * @param buffer buffer
+     */
+    private void unlink(final Buffer buffer) {
+      (buffer.frequent ? frequent : recent).remove(buffer);
+      final Buffers owner = buffer.owner;
+      final Buffer prev = buffer.prevOwned, next = buffer.nextOwned;
+      if(prev == null) owner.first[index] = next;
+      else prev.nextOwned = next;
+      if(next != null) next.prevOwned = prev;
+      if(owner.current == buffer) owner.current = null;
+
+      buffer.prevOwned = null;
+      buffer.nextOwned = null;
+      buffer.owner = null;
+      buffer.pos = -1;
+      buffer.dirty = false;
+    }
+
+    /**
+     * Returns the hash slot of the specified key.
+     * @param key key
+     * @return slot (empty, or containing the key)
+     */
+    private int slot(final long key) {
+      final long[] ks = keys;
+      final int mask = ks.length - 1;
+      int s = hash(key) & mask;
+      while(ks[s] != 0 && ks[s] != key) s = s + 1 & mask;
+      return s;
+    }
+
+    /**
+     * Stores a key and a value.
+     * @param key key
+     * @param value value
+     */
+    private void put(final long key, final Buffer value) {
+      int s = slot(key);
+      if(keys[s] == 0) {
+        if(entries + 1 << 1 > keys.length) {
+          rehash(keys.length << 1);
+          s = slot(key);
+        }
+        keys[s] = key;
+        entries++;
+      }
+      values[s] = value;
+    }
+
+    /**
+     * Removes a key.
+     * @param key key
+     */
+    private void remove(final long key) {
+      final long[] ks = keys;
+      final Buffer[] vs = values;
+      final int mask = ks.length - 1;
+      int s = slot(key);
+      if(ks[s] == 0) return;
+
+      // shift subsequent entries backwards
+      int n = s;
+      while(true) {
+        n = n + 1 & mask;
+        final long k = ks[n];
+        if(k == 0) break;
+        final int h = hash(k) & mask;
+        if(s <= n ? s < h && h <= n : s < h || h <= n) continue;
+        ks[s] = k;
+        vs[s] = vs[n];
+        s = n;
+      }
+      ks[s] = 0;
+      vs[s] = null;
+      entries--;
+    }
+
+    /**
+     * Rebuilds the hash table.
+     * @param cap new capacity (power of two)
+     */
+    private void rehash(final int cap) {
+      final long[] ks = keys;
+      final Buffer[] vs = values;
+      keys = new long[cap];
+      values = new Buffer[cap];
+      entries = 0;
+      final int kl = ks.length;
+      for(int k = 0; k < kl; k++) {
+        if(ks[k] != 0) put(ks[k], vs[k]);
+      }
+    }
+  }
+
+  /**
+   * Doubly linked replacement queue.
+   */
+  private static final class Queue {
+    /** Head (oldest entry). */
+    private Buffer head;
+    /** Tail (newest entry). */
+    private Buffer tail;
+    /** Number of entries. */
+    private int size;
+
+    /**
+     * Adds a buffer to the tail of the queue.
+     * @param buffer buffer
+     */
+    void add(final Buffer buffer) {
+      buffer.prev = tail;
+      buffer.next = null;
+      if(tail == null) head = buffer;
+      else tail.next = buffer;
+      tail = buffer;
+      size++;
+    }
+
+    /**
+     * Removes a buffer from the queue.
+     * @param buffer buffer
+     */
+    void remove(final Buffer buffer) {
+      final Buffer prev = buffer.prev, next = buffer.next;
+      if(prev == null) head = next;
+      else prev.next = next;
+      if(next == null) tail = prev;
+      else next.prev = prev;
+      buffer.prev = null;
+      buffer.next = null;
+      size--;
+    }
+
+    /**
+     * Returns the oldest buffer that is not pinned.
+     * @return buffer or {@code null}
+     */
+    Buffer victim() {
+      for(Buffer b = head; b != null; b = b.next) {
+        if(b.owner.current != b) return b;
+      }
+      return null;
+    }
+  }
+}
@@ -15,6 +15,8 @@ import org.basex.util.*;
 
 /**
  * This class stores the table on disk and reads it page-wise.
+ * Read operations have no side effects: they can be performed by multiple threads in parallel,
+ * as long as no updates take place.
  *
  * @author BaseX Team 2005-20, BSD License
  * @author Christian Gruen
@@ -22,13 +24,19 @@ import org.basex.util.*;
  */
 public final class TableDiskAccess extends TableAccess {
   /** Buffer manager. */
-  private final Buffers buffers = new Buffers();
+  private final Buffers buffers = new Buffers(0, this::read, this::write);
   /** File storing all pages. */
   private final RandomAccessFile file;
   /** Bitmap storing free (=0) and used (=1) pages. */
   private BitArray usedPages;
   /** File lock. */
   private FileLock lock;
+  /** Memory-mapped file contents (only assigned if no unflushed changes exist). */
+  private volatile Mapping mapped;
+  /** Write-ahead log ({@code null} if pages are written directly). */
+  private final Journal journal;
+  /** File name. */
+  private final String name;
 
   /** First pre values (ascending order); will be initialized with the first update. */
   private int[] fPreIndex;
@@ -53,6 +61,19 @@ public final class TableDiskAccess extends TableAccess {
    * @throws IOException I/O exception
    */
   public TableDiskAccess(final MetaData meta, final boolean write) throws IOException {
+    this(meta, write, true);
+  }
+
+  /**
+   * Constructor.
+   * @param meta meta data
+   * @param write write lock
+   * @param locking lock file (no lock will be applied to the tables of snapshots, as the file is
+   *   already locked by the opened database)
+   * @throws IOException I/O exception
+   */
+  public TableDiskAccess(final MetaData meta, final boolean write, final boolean locking)
+      throws IOException {
     super(meta);
 
     // read meta and index data
@@ -75,8 +96,13 @@ public final class TableDiskAccess extends TableAccess {
     }
 
     // initialize data file
-    file = new RandomAccessFile(meta.dbFile(DATATBL).file(), "rw");
-    if(!lock(write)) throw new BaseXException(Text.DB_PINNED_X, meta.name);
+    final IOFile tbl = meta.dbFile(DATATBL);
+    file = new RandomAccessFile(tbl.file(), "rw");
+    if(locking && !lock(write)) throw new BaseXException(Text.DB_PINNED_X, meta.name);
+    name = tbl.name();
+    journal = meta.journal;
+    if(journal != null) journal.register(name, file.getChannel());
+    map();
   }
 
   /**
@@ -99,12 +125,11 @@ public final class TableDiskAccess extends TableAccess {
 
   @Override
   public synchronized void flush(final boolean all) throws IOException {
-    for(final Buffer buffer : buffers.all()) {
-      write(buffer);
-    }
+    buffers.flush();
+    map();
     if(!dirty || !all) return;
 
-    try(DataOutput out = new DataOutput(meta.dbFile(DATATBL + 'i'))) {
+    try(DataOutput out = meta.output(DATATBL + 'i')) {
       final int p = pages;
       boolean regular = true;
 
@@ -136,6 +161,9 @@ public final class TableDiskAccess extends TableAccess {
   @Override
   public synchronized void close() throws IOException {
     flush(true);
+    buffers.init();
+    mapped = null;
+    if(journal != null) journal.unregister(name);
     file.close();
   }
 
@@ -154,37 +182,32 @@ public final class TableDiskAccess extends TableAccess {
   }
 
   @Override
-  public synchronized int read1(final int pre, final int offset) {
-    final int o = offset + cursor(pre);
-    final byte[] data = buffers.current().data;
-    return data[o] & 0xFF;
+  public int read1(final int pre, final int offset) {
+    final Mapping m = mapped;
+    return m != null ? m.read1(position(pre) + offset) : (int) read(pre, offset, 1);
   }
 
   @Override
-  public synchronized int read2(final int pre, final int offset) {
-    final int o = offset + cursor(pre);
-    final byte[] data = buffers.current().data;
-    return ((data[o] & 0xFF) << 8) + (data[o + 1] & 0xFF);
+  public int read2(final int pre, final int offset) {
+    final Mapping m = mapped;
+    return m != null ? m.read2(position(pre) + offset) : (int) read(pre, offset, 2);
   }
 
   @Override
-  public synchronized int read4(final int pre, final int offset) {
-    final int o = offset + cursor(pre);
-    final byte[] data = buffers.current().data;
-    return ((data[o] & 0xFF) << 24) + ((data[o + 1] & 0xFF) << 16) +
-      ((data[o + 2] & 0xFF) << 8) + (data[o + 3] & 0xFF);
+  public int read4(final int pre, final int offset) {
+    final Mapping m = mapped;
+    return m != null ? m.read4(position(pre) + offset) : (int) read(pre, offset, 4);
   }
 
   @Override
-  public synchronized long read5(final int pre, final int offset) {
-    final int o = offset + cursor(pre);
-    final byte[] data = buffers.current().data;
-    return ((long) (data[o] & 0xFF) << 32) + ((long) (data[o + 1] & 0xFF) << 24) +
-      ((data[o + 2] & 0xFF) << 16) + ((data[o + 3] & 0xFF) << 8) + (data[o + 4] & 0xFF);
+  public long read5(final int pre, final int offset) {
+    final Mapping m = mapped;
+    return m != null ? m.read5(position(pre) + offset) : read(pre, offset, 5);
   }
 
   @Override
   public void write1(final int pre, final int offset, final int value) {
+    mapped = null;
     final int o = offset + cursor(pre);
     final Buffer buffer = buffers.current();
     buffer.data[o] = (byte) value;
@@ -193,6 +216,7 @@ public final class TableDiskAccess extends TableAccess {
 
   @Override
   public void write2(final int pre, final int offset, final int value) {
+    mapped = null;
     final int o = offset + cursor(pre);
     final Buffer buffer = buffers.current();
     final byte[] data = buffer.data;
@@ -203,6 +227,7 @@ public final class TableDiskAccess extends TableAccess {
 
   @Override
   public void write4(final int pre, final int offset, final int value) {
+    mapped = null;
     final int o = offset + cursor(pre);
     final Buffer buffer = buffers.current();
     final byte[] data = buffer.data;
@@ -215,6 +240,7 @@ public final class TableDiskAccess extends TableAccess {
 
   @Override
   public void write5(final int pre, final int offset, final long value) {
+    mapped = null;
     final int o = offset + cursor(pre);
     final Buffer buffer = buffers.current();
     final byte[] data = buffer.data;
@@ -427,6 +453,7 @@ public final class TableDiskAccess extends TableAccess {
 
   @Override
   protected void dirty() {
+    mapped = null;
     // initialize data structures required for performing updates
     if(fPreIndex == null) {
       fPreIndex = new int[pages];
@@ -452,6 +479,53 @@ public final class TableDiskAccess extends TableAccess {
 
   // PRIVATE METHODS ==============================================================================
 
+  /**
+   * Maps the table file into memory if this is requested by the database options.
+   * Must only be called if all buffers have been written to disk.
+   * Pages are not mapped if they are written to a write-ahead log.
+   * @throws IOException I/O exception
+   */
+  private void map() throws IOException {
+    if(meta.mmap && journal == null) mapped = new Mapping(file.getChannel(), file.length());
+  }
+
+  /**
+   * Reads a value from the entry for the specified pre value.
+   * In contrast to the write operations, the page pointers will not be changed.
+   * @param pre pre value
+   * @param offset offset in the entry
+   * @param len number of bytes
+   * @return value
+   */
+  private long read(final int pre, final int offset, final int len) {
+    final long pos = position(pre);
+    try {
+      return buffers.read(pos >>> IO.BLOCKPOWER, (int) (pos & IO.BLOCKSIZE - 1) + offset, len);
+    } catch(final IOException ex) {
+      throw Util.notExpected(ex);
+    }
+  }
+
+  /**
+   * Returns the file position of the entry for the specified pre value.
+   * In contrast to {@link #cursor(int)}, this function has no side effects.
+   * @param pre pre value
+   * @return file position
+   */
+  private long position(final int pre) {
+    // regular page mapping may be removed by a concurrent flush
+    final int[] fpres = fPreIndex, pis = pageIndex;
+    if(fpres == null || pis == null) return (long) pre << IO.NODEPOWER;
+
+    int l = 0, h = used - 1;
+    while(l < h) {
+      final int m = l + h + 1 >>> 1;
+      if(fpres[m] <= pre) l = m;
+      else h = m - 1;
+    }
+    return ((long) pis[l] << IO.BLOCKPOWER) + (pre - fpres[l] << IO.NODEPOWER);
+  }
+
   /**
    * Searches for the page containing the entry for the specified pre value.
    * Reads the page and returns its offset inside the page.
@@ -516,34 +590,36 @@ public final class TableDiskAccess extends TableAccess {
    * @param pre page to fetch
    */
   private void read(final int pre) {
-    if(!buffers.cursor(pre)) return;
-
-    final Buffer buffer = buffers.current();
     try {
-      write(buffer);
-      buffer.pos = pre;
-      if(pre >= pages) {
-        pages = pre + 1;
-      } else {
-        file.seek(buffer.pos * IO.BLOCKSIZE);
-        file.readFully(buffer.data);
-      }
+      buffers.cursor(pre);
     } catch(final IOException ex) {
       Util.stack(ex);
     }
   }
 
+  /**
+   * Reads the specified buffer from disk. New pages will be added to the table.
+   * Called by the buffer manager.
+   * @param buffer buffer to read
+   * @throws IOException I/O exception
+   */
+  private void read(final Buffer buffer) throws IOException {
+    if(buffer.pos >= pages) {
+      pages = (int) buffer.pos + 1;
+    } else if(journal == null || !journal.read(name, buffer)) {
+      Buffers.read(file.getChannel(), buffer, IO.BLOCKSIZE);
+    }
+  }
+
   /**
    * Writes the specified buffer to disk and resets the dirty flag.
+   * Called by the buffer manager.
    * @param buffer buffer to write
    * @throws IOException I/O exception
    */
   private void write(final Buffer buffer) throws IOException {
-    if(!buffer.dirty) return;
-
-    file.seek(buffer.pos * IO.BLOCKSIZE);
-    file.write(buffer.data);
-    buffer.dirty = false;
+    if(journal != null) journal.write(name, buffer, IO.BLOCKSIZE);
+    else Buffers.write(file.getChannel(), buffer, IO.BLOCKSIZE);
   }
 
   /**
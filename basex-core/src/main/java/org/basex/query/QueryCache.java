@@ -0,0 +1,233 @@
+package org.basex.query;
+
+import static org.basex.core.Text.*;
+
+import java.util.*;
+
+import org.basex.core.*;
+import org.basex.core.locks.*;
+import org.basex.query.value.*;
+import org.basex.query.value.array.*;
+import org.basex.query.value.item.*;
+import org.basex.query.value.map.*;
+import org.basex.query.value.node.*;
+import org.basex.util.*;
+
+/**
+ * This class caches the results of read-only queries. Its size is adjusted via
+ * {@link StaticOptions#QUERYCACHE}.
+ *
+ * Results are indexed by a key that consists of the query string, the external bindings and the
+ * local options. Each entry stores the versions of the read locks of the query
+ * (see {@link Locking#version(String)}). As versions change whenever a job with write locks has
+ * been completed, the results of updated databases will never be returned.
+ *
+ * Results with nodes are not cached: database nodes would lose their identity if they were
+ * copied, and the size of node trees cannot be estimated without traversing them. The size of an
+ * entry includes the members of arrays and the entries of maps. If the maximum number of cached
+ * items is exceeded, the least recently used entries are evicted.
+ *
+ * @author BaseX Team 2005-20, BSD License
+ * @author Christian Gruen
+ */
+public final class QueryCache {
+  /** Cached entries, in access order. */
+  private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+  /** Static options. */
+  private final StaticOptions soptions;
+
+  /** Number of cached items. */
+  private long items;
+  /** Number of cache hits. */
+  private long hits;
+  /** Number of cache misses. */
+  private long misses;
+  /** Number of evicted entries. */
+  private long evictions;
+
+  /**
+   * Constructor.
+   * @param soptions static options
+   */
+  public QueryCache(final StaticOptions soptions) {
+    this.soptions = soptions;
+  }
+
+  /**
+   * Returns the maximum number of cached items.
+   * @return number of items ({@code 0} if the cache is disabled)
+   */
+  public int capacity() {
+    return Math.max(0, soptions.get(StaticOptions.QUERYCACHE));
+  }
+
+  /**
+   * Returns a cached result.
+   * @param key key
+   * @param locks locks of the current job
+   * @param locking locking instance
+   * @return result, or {@code null} if no up-to-date result exists
+   */
+  synchronized Value get(final String key, final Locks locks, final Locking locking) {
+    final Entry entry = entries.get(key);
+    if(entry != null) {
+      if(entry.valid(locks, locking)) {
+        hits++;
+        return entry.value;
+      }
+      remove(key);
+    }
+    misses++;
+    return null;
+  }
+
+  /**
+   * Caches a result. The result will be ignored if it contains nodes or function items, or if it
+   * exceeds the maximum number of items.
+   * @param key key
+   * @param value result
+   * @param locks locks of the current job
+   * @param locking locking instance
+   * @param qc query context
+   */
+  void put(final String key, final Value value, final Locks locks, final Locking locking,
+      final QueryContext qc) {
+
+    final int capacity = capacity();
+    final long size = size(value, capacity, qc);
+    if(size == -1) return;
+    final Entry entry = new Entry(value, size, locks, locking);
+
+    synchronized(this) {
+      remove(key);
+      entries.put(key, entry);
+      items += size;
+      // evict least recently used entries
+      final Iterator<Map.Entry<String, Entry>> iter = entries.entrySet().iterator();
+      while(items > capacity && iter.hasNext()) {
+        items -= iter.next().getValue().size;
+        iter.remove();
+        evictions++;
+      }
+    }
+  }
+
+  /**
+   * Removes all entries.
+   */
+  public synchronized void clear() {
+    entries.clear();
+    items = 0;
+  }
+
+  /**
+   * Returns information on the cache.
+   * @return info string
+   */
+  public synchronized byte[] info() {
+    final long requests = hits + misses;
+    final TokenBuilder tb = new TokenBuilder();
+    tb.add(QUERY_CACHE).add(NL);
+    tb.add(LI_ENTRIES).addInt(entries.size()).add(NL);
+    tb.add(LI_SIZE).addLong(items).add(" / ").addInt(capacity()).add(NL);
+    tb.add(LI_HITS).addLong(hits);
+    if(requests != 0) tb.add(" (").addInt((int) (hits * 100 / requests)).add("%)");
+    tb.add(NL);
+    tb.add(LI_MISSES).addLong(misses).add(NL);
+    tb.add(LI_EVICTIONS).addLong(evictions).add(NL);
+    return tb.finish();
+  }
+
+  /**
+   * Removes an entry.
+   * @param key key
+   */
+  private void remove(final String key) {
+    final Entry entry = entries.remove(key);
+    if(entry != null) items -= entry.size;
+  }
+
+  /**
+   * Computes the number of items of a value, including the members of arrays and the entries
+   * of maps.
+   * @param value value
+   * @param max maximum number of items
+   * @param qc query context
+   * @return number of items, or {@code -1} if the value contains nodes or function items,
+   *   or if it exceeds the maximum number of items
+   */
+  private static long size(final Value value, final long max, final QueryContext qc) {
+    long size = 0;
+    for(final Item item : value) {
+      if(item instanceof ANode || item.materialize(qc, false) == null) return -1;
+      long s = 1;
+      if(item instanceof XQArray) {
+        for(final Value member : ((XQArray) item).members()) {
+          final long m = size(member, max - size - s, qc);
+          if(m == -1) return -1;
+          s += m;
+        }
+      } else if(item instanceof XQMap) {
+        final XQMap map = (XQMap) item;
+        final ValueBuilder vb = new ValueBuilder(qc);
+        map.values(vb);
+        final long m = size(vb.value(), max - size - s, qc);
+        if(m == -1) return -1;
+        s += map.mapSize() + m;
+      }
+      size += s;
+      if(size > max) return -1;
+    }
+    return size;
+  }
+
+  /** Cache entry. */
+  private static final class Entry {
+    /** Result. */
+    private final Value value;
+    /** Number of items. */
+    private final long size;
+    /** Read locks. */
+    private final String[] strings;
+    /** Versions of the read locks. */
+    private final long[] versions;
+
+    /**
+     * Constructor.
+     * @param value result
+     * @param size number of items
+     * @param locks locks of the job that created the result
+     * @param locking locking instance
+     */
+    private Entry(final Value value, final long size, final Locks locks, final Locking locking) {
+      this.value = value;
+      this.size = size;
+      final LockList reads = locks.reads;
+      final int rs = reads.size();
+      strings = new String[rs];
+      versions = new long[rs];
+      for(int r = 0; r < rs; r++) {
+        strings[r] = reads.get(r);
+        versions[r] = locking.version(strings[r]);
+      }
+    }
+
+    /**
+     * Checks if the entry is up-to-date and can be returned to the specified job.
+     * @param locks locks of the current job
+     * @param locking locking instance
+     * @return result of check
+     */
+    private boolean valid(final Locks locks, final Locking locking) {
+      final LockList reads = locks.reads;
+      final int rs = reads.size();
+      if(rs != strings.length) return false;
+      for(int r = 0; r < rs; r++) {
+        if(!strings[r].equals(reads.get(r)) || versions[r] != locking.version(strings[r])) {
+          return false;
+        }
+      }
+      return true;
+    }
+  }
+}
@@ -330,7 +330,9 @@ public final class QueryContext extends Job implements Closeable {
    */
   public Iter iter() throws QueryException {
     compile();
-    return updating ? update().iter() : root.iter(this);
+    if(updating) return update().iter();
+    final String key = cacheKey();
+    return key != null ? cachedIter(key) : root.iter(this);
   }
 
   /**
@@ -340,7 +342,9 @@ public final class QueryContext extends Job implements Closeable {
    */
   public Value value() throws QueryException {
     compile();
-    return updating ? update() : root.value(this);
+    if(updating) return update();
+    final String key = cacheKey();
+    return key != null ? cached(key) : root.value(this);
   }
 
   /**
@@ -376,6 +380,11 @@ public final class QueryContext extends Job implements Closeable {
     }
   }
 
+  @Override
+  public boolean snapshots() {
+    return true;
+  }
+
   /**
    * Assigns an external property.
    * @param key key
@@ -663,6 +672,100 @@ public final class QueryContext extends Job implements Closeable {
 
   // PRIVATE METHODS ==============================================================================
 
+  /**
+   * Returns the key for caching the result of the query (see {@link QueryCache}).
+   * @return key, or {@code null} if the result cannot be cached
+   * @throws QueryException query exception
+   */
+  private String cacheKey() throws QueryException {
+    if(parent != null || ctxItem != null || info.query == null ||
+        context.cache.capacity() == 0 || root.expr.has(Flag.NDT)) return null;
+
+    // read locks must have been acquired, and no database must be read from a snapshot
+    final Locks locks = jc().locks;
+    if(locks.wait == -1 || locks.reads.global() || locks.writes.locking() || locks.pinned())
+      return null;
+    // context value: all documents of the opened database (which is included in the read locks)
+    final DBNodes nodes = context.current();
+    if(nodes != null && nodes.discardDocs() != null) return null;
+
+    final TokenBuilder tb = new TokenBuilder().add(info.query).add(0);
+    tb.add(root.sc.baseURI().string()).add(0).add(context.user().name()).add(0);
+    tb.add(context.options.toString());
+    for(final QNm name : bindings) {
+      tb.add(0).add(name.id());
+      for(final Item item : bindings.get(name)) {
+        // only atomic values are supported
+        if(!item.type.instanceOf(AtomType.AAT)) return null;
+        tb.add(1).add(item.type.toString()).add(1).add(item.string(null));
+      }
+    }
+    return tb.toString();
+  }
+
+  /**
+   * Returns a cached result, or evaluates the query and caches the result.
+   * @param key key
+   * @return result
+   * @throws QueryException query exception
+   */
+  private Value cached(final String key) throws QueryException {
+    final Value cached = context.cache.get(key, jc().locks, context.locking);
+    if(cached != null) return cached;
+
+    final Value value = root.value(this);
+    cache(key, value);
+    return value;
+  }
+
+  /**
+   * Returns an iterator for a cached result, or an iterator that evaluates the query lazily.
+   * The result will only be cached if it has been completely iterated, and if it does not
+   * exceed the capacity of the cache.
+   * @param key key
+   * @return result iterator
+   * @throws QueryException query exception
+   */
+  private Iter cachedIter(final String key) throws QueryException {
+    final QueryCache cache = context.cache;
+    final Value cached = cache.get(key, jc().locks, context.locking);
+    if(cached != null) return cached.iter();
+
+    final Iter iter = root.iter(this);
+    final int capacity = cache.capacity();
+    return new Iter() {
+      ItemList items = new ItemList();
+
+      @Override
+      public Item next() throws QueryException {
+        final Item item = iter.next();
+        if(items != null) {
+          if(item == null) {
+            cache(key, items.value());
+            items = null;
+          } else if(items.size() < capacity) {
+            items.add(item);
+          } else {
+            items = null;
+          }
+        }
+        return item;
+      }
+    };
+  }
+
+  /**
+   * Caches the result of the query.
+   * @param key key
+   * @param value result
+   */
+  private void cache(final String key, final Value value) {
+    // skip results that depend on the current time, on temporary or on external resources
+    if(dateTime == null && resources.persistent()) {
+      context.cache.put(key, value, jc().locks, context.locking, this);
+    }
+  }
+
   /**
    * Returns the result of an updating expression.
    * @return result iterator
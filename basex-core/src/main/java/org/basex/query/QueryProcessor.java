@@ -256,6 +256,11 @@ public final class QueryProcessor extends Job implements Closeable {
     qc.addLocks();
   }
 
+  @Override
+  public boolean snapshots() {
+    return qc.snapshots();
+  }
+
   /**
    * Returns the number of performed updates after query execution, or {@code 0}.
    * @return number of updates
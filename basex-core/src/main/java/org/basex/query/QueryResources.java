@@ -53,6 +53,8 @@ public final class QueryResources {
   private final Map<Class<? extends QueryResource>, QueryResource> external = new HashMap<>();
   /** Input references. */
   private final ArrayList<InputStream> inputs = new ArrayList<>(1);
+  /** Indicates if resources have been read from files or URIs. */
+  private boolean files;
 
   /**
    * Constructor.
@@ -108,6 +110,19 @@ public final class QueryResources {
     inputs.clear();
   }
 
+  /**
+   * Checks if all opened databases are persistent, and if no resources have been read from files
+   * or URIs.
+   * @return result of check
+   */
+  synchronized boolean persistent() {
+    if(files) return false;
+    for(final Data data : datas) {
+      if(data.inMemory()) return false;
+    }
+    return true;
+  }
+
   /**
    * Returns the globally opened database.
    * @return database or {@code null} if no database is globally opened
@@ -176,7 +191,7 @@ public final class QueryResources {
     // open and register database
     if(!ctx.perm(Perm.READ, name)) throw BASEX_PERMISSION_X_X.get(ii, Perm.READ, name);
     try {
-      return addData(Open.open(name, ctx, ctx.options));
+      return open(name);
     } catch(final IOException ex) {
       throw DB_OPEN2_X.get(ii, ex);
     }
@@ -283,6 +298,13 @@ public final class QueryResources {
     }
   }
 
+  /**
+   * Registers that a resource has been read from a file or URI.
+   */
+  public synchronized void file() {
+    files = true;
+  }
+
   /**
    * Returns the document path of a textual resource and its encoding. Only required for test APIs.
    * @param uri resource uri
@@ -402,7 +424,7 @@ public final class QueryResources {
     // try to open existing database
     if(withdb && dbName != null) {
       try {
-        return addData(Open.open(dbName, ctx, ctx.options));
+        return open(dbName);
       } catch(final IOException ex) {
         Util.debug(ex);
       }
@@ -463,6 +485,21 @@ public final class QueryResources {
     return data;
   }
 
+  /**
+   * Opens and registers a database.
+   * A snapshot will be returned if the database is currently updated (see
+   * {@link org.basex.core.locks.Locking}).
+   * @param name name of database
+   * @return data reference
+   * @throws IOException I/O exception
+   */
+  private Data open(final String name) throws IOException {
+    final Context ctx = qc.context;
+    final Data snapshot = qc.jc().locks.snapshot(name);
+    return addData(snapshot != null && ctx.perm(Perm.READ, name) ? snapshot :
+      Open.open(name, ctx, ctx.options));
+  }
+
   /**
    * Adds a collection to the global collection list.
    * @param coll documents of collection
@@ -393,6 +393,9 @@ public interface QueryText {
   /** Query Info. */ String INF = "inf";
   /** Query Info. */ String TCL = "tailCall";
   /** Query Info. */ String ENTRIES = "entries";
+  /** Query Info. */ String AGGREGATE = "aggregate";
+  /** Query Info. */ String COLUMNS = "columns";
+  /** Query Info. */ String POSTINGS = "postings";
   /** Query Info. */ String PROMOTE = "promote";
   /** Query Info. */ String DATABASE = "database";
   /** Query Info. */ String ITERATIVE = "iterative";
@@ -431,6 +434,8 @@ public interface QueryText {
   /** Optimization info. */ String OPTCHILD_X = "convert to child steps: %";
   /** Optimization info. */ String OPTUNROLL_X = "unroll: %";
   /** Optimization info. */ String OPTOPEN_X = "open database \"%\"";
+  /** Optimization info. */ String OPTAGGR_X = "aggregate grouped values: %";
+  /** Optimization info. */ String OPTSTATS_X = "compute result via statistics: %";
 
   // MISCELLANEOUS ================================================================================
 
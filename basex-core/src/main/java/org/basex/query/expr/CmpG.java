@@ -7,6 +7,7 @@ import org.basex.index.*;
 import org.basex.query.*;
 import org.basex.query.CompileContext.*;
 import org.basex.query.expr.CmpV.*;
+import org.basex.query.expr.path.*;
 import org.basex.query.func.*;
 import org.basex.query.func.fn.*;
 import org.basex.query.iter.*;
@@ -172,6 +173,7 @@ public class CmpG extends Cmp {
     if(expr == this) expr = CmpIR.get(this, false, cc);
     if(expr == this) expr = CmpR.get(this, cc);
     if(expr == this) expr = CmpSR.get(this, cc);
+    if(expr == this) expr = CmpTR.get(this, cc);
 
     if(expr == this) {
       // determine types, choose best implementation
@@ -374,6 +376,28 @@ public class CmpG extends Cmp {
     return ii.create(exprs[1], ii.type(expr1, tokenize ? IndexType.TOKEN : null), false, info);
   }
 
+  /**
+   * Returns the attribute name and the string of an equality comparison, if an attribute of the
+   * context node is compared with a single string. The comparison can then be answered by a
+   * composite index (see {@link IndexInfo#composite()}).
+   * @return attribute name and string, or {@code null}
+   * @throws QueryException query exception
+   */
+  public final byte[][] attribute() throws QueryException {
+    if(op != OpG.EQ || coll != null || !(exprs[0] instanceof AxisPath) ||
+        !(exprs[1] instanceof Item)) return null;
+
+    final AxisPath path = (AxisPath) exprs[0];
+    if(path.root != null || path.steps.length != 1 || !(path.steps[0] instanceof Step)) return null;
+    final Step step = (Step) path.steps[0];
+    if(step.axis != Axis.ATTRIBUTE || step.exprs.length != 0 || !(step.test instanceof NameTest))
+      return null;
+    final NameTest test = (NameTest) step.test;
+    final Item item = (Item) exprs[1];
+    return test.part == NamePart.LOCAL && item.type.isStringOrUntyped() ?
+      new byte[][] { test.local, item.string(info) } : null;
+  }
+
   @Override
   public CmpG copy(final CompileContext cc, final IntObjMap<Var> vm) {
     final CmpG cmp = new CmpG(exprs[0].copy(cc, vm), exprs[1].copy(cc, vm), op, coll, sc, info);
@@ -9,6 +9,7 @@ import org.basex.index.*;
 import org.basex.index.name.*;
 import org.basex.index.query.*;
 import org.basex.index.stats.*;
+import org.basex.index.value.*;
 import org.basex.query.*;
 import org.basex.query.CompileContext.*;
 import org.basex.query.expr.CmpV.*;
@@ -204,14 +205,17 @@ public final class CmpR extends Single {
     ii.costs = ii.costs(data, nr);
     if(ii.costs == null) return false;
 
-    // skip if numbers are negative, doubles, or of different string length
-    final int mnl = min >= 0 && (long) min == min ? token(min).length : -1;
-    final int mxl = max >= 0 && (long) max == max ? token(max).length : -1;
-    if(mnl != mxl || mnl == -1) return false;
+    // skip if numbers are negative, doubles, or of different string length,
+    // unless the B+-tree of a numeric index can be used
+    if(!numeric(data, type)) {
+      final int mnl = min >= 0 && (long) min == min ? token(min).length : -1;
+      final int mxl = max >= 0 && (long) max == max ? token(max).length : -1;
+      if(mnl != mxl || mnl == -1) return false;
 
-    // don't use index if min/max values are infinite
-    if(min == NEGATIVE_INFINITY && max == POSITIVE_INFINITY ||
-        token((int) nr.min).length != token((int) nr.max).length) return false;
+      // don't use index if min/max values are infinite
+      if(min == NEGATIVE_INFINITY && max == POSITIVE_INFINITY ||
+          token((int) nr.min).length != token((int) nr.max).length) return false;
+    }
 
     final TokenBuilder tb = new TokenBuilder();
     tb.add('[').add(min).add(',').add(max).add(']');
@@ -219,6 +223,18 @@ public final class CmpR extends Single {
     return true;
   }
 
+  /**
+   * Checks if the numeric values of the specified index are indexed
+   * ({@link org.basex.core.MainOptions#NUMINDEX}).
+   * @param data data reference
+   * @param type index type
+   * @return result of check
+   */
+  private static boolean numeric(final Data data, final IndexType type) {
+    final Index index = data.index(type);
+    return index instanceof DiskValues && ((DiskValues) index).numeric();
+  }
+
   /**
    * Retrieves the statistics key for the element/attribute name.
    * @param ii index info
@@ -226,6 +242,18 @@ public final class CmpR extends Single {
    * @return key, or {@code null} if statistics are not available
    */
   private Stats key(final IndexInfo ii, final IndexType type) {
+    final Stats stats = stats(expr, ii, type);
+    return stats == null || StatsType.isNumeric(stats.type) ? stats : null;
+  }
+
+  /**
+   * Retrieves the statistics of the element/attribute name of the specified expression.
+   * @param expr expression to be compared
+   * @param ii index info
+   * @param type index type
+   * @return statistics, or {@code null} if statistics are not available
+   */
+  static Stats stats(final Expr expr, final IndexInfo ii, final IndexType type) {
     // statistics are not up-to-date
     final Data data = ii.db.data();
     if(data == null || !data.meta.uptodate || !data.nspaces.isEmpty() ||
@@ -248,8 +276,7 @@ public final class CmpR extends Single {
     }
 
     final Names names = type == IndexType.TEXT ? data.elemNames : data.attrNames;
-    final Stats stats = names.stats(names.id(test.qname.local()));
-    return stats == null || StatsType.isNumeric(stats.type) ? stats : null;
+    return names.stats(names.id(test.qname.local()));
   }
 
   @Override
@@ -0,0 +1,248 @@
+package org.basex.query.expr;
+
+import static org.basex.query.QueryError.*;
+import static org.basex.query.QueryText.*;
+
+import java.util.*;
+
+import org.basex.data.*;
+import org.basex.index.*;
+import org.basex.index.query.*;
+import org.basex.index.stats.*;
+import org.basex.query.*;
+import org.basex.query.CompileContext.*;
+import org.basex.query.expr.index.*;
+import org.basex.query.iter.*;
+import org.basex.query.util.*;
+import org.basex.query.util.index.*;
+import org.basex.query.value.*;
+import org.basex.query.value.item.*;
+import org.basex.query.value.seq.*;
+import org.basex.query.value.type.*;
+import org.basex.query.var.*;
+import org.basex.util.*;
+import org.basex.util.hash.*;
+
+/**
+ * Date, dateTime and time range expression.
+ *
+ * @author BaseX Team 2005-20, BSD License
+ * @author Christian Gruen
+ */
+public final class CmpTR extends Single {
+  /** Minimum (can be {@code null} if {@link #max} is assigned). */
+  private final ADate min;
+  /** Include minimum value. */
+  private final boolean mni;
+  /** Maximum (can be {@code null} if {@link #min} is assigned). */
+  private final ADate max;
+  /** Include maximum value. */
+  private final boolean mxi;
+
+  /** Flag for atomic evaluation. */
+  private boolean single;
+
+  /**
+   * Constructor.
+   * @param expr (compiled) expression
+   * @param min minimum value (can be {@code null} if {@code max} is assigned)
+   * @param mni include minimum value
+   * @param max maximum value (can be {@code null} if {@code min} is assigned)
+   * @param mxi include maximum value
+   * @param info input info
+   */
+  private CmpTR(final Expr expr, final ADate min, final boolean mni, final ADate max,
+      final boolean mxi, final InputInfo info) {
+
+    super(info, expr, SeqType.BLN_O);
+    this.min = min;
+    this.mni = mni;
+    this.max = max;
+    this.mxi = mxi;
+  }
+
+  @Override
+  public Expr compile(final CompileContext cc) throws QueryException {
+    return super.compile(cc).optimize(cc);
+  }
+
+  @Override
+  public Expr optimize(final CompileContext cc) throws QueryException {
+    expr = expr.simplifyFor(Simplify.ATOM, cc);
+
+    final SeqType st = expr.seqType();
+    single = st.zeroOrOne() && !st.mayBeArray();
+
+    return expr instanceof Value ? cc.preEval(this) : this;
+  }
+
+  /**
+   * Tries to convert the specified expression into a range expression.
+   * @param cmp expression to be converted
+   * @param cc compilation context
+   * @return new or original expression
+   * @throws QueryException query exception
+   */
+  static Expr get(final CmpG cmp, final CompileContext cc) throws QueryException {
+    final Expr cmp1 = cmp.exprs[0], cmp2 = cmp.exprs[1];
+    if(cmp1.has(Flag.NDT) || !(cmp2 instanceof ADate)) return cmp;
+
+    // values to be compared must be untyped or of the same type
+    final ADate d = (ADate) cmp2;
+    final Type type1 = cmp1.seqType().type, type2 = d.type;
+    if(type2 != AtomType.DAT && type2 != AtomType.DTM && type2 != AtomType.TIM ||
+        !type1.isUntyped() && type1 != type2) return cmp;
+
+    ParseExpr expr = null;
+    switch(cmp.op.opV) {
+      case GE: expr = new CmpTR(cmp1, d,    true,  null, true,  cmp.info); break;
+      case GT: expr = new CmpTR(cmp1, d,    false, null, true,  cmp.info); break;
+      case LE: expr = new CmpTR(cmp1, null, true,  d,    true,  cmp.info); break;
+      case LT: expr = new CmpTR(cmp1, null, true,  d,    false, cmp.info); break;
+      default:
+    }
+    return expr != null ? expr.optimize(cc) : cmp;
+  }
+
+  @Override
+  public Bln item(final QueryContext qc, final InputInfo ii) throws QueryException {
+    // atomic evaluation of arguments (faster)
+    if(single) {
+      final Item item = expr.item(qc, info);
+      return Bln.get(item != Empty.VALUE && eval(item));
+    }
+
+    // iterative evaluation
+    final Iter iter = expr.atomIter(qc, info);
+    for(Item item; (item = qc.next(iter)) != null;) {
+      if(eval(item)) return Bln.TRUE;
+    }
+    return Bln.FALSE;
+  }
+
+  /**
+   * Evaluates the range for the specified item.
+   * @param item item to be evaluated
+   * @return result of check
+   * @throws QueryException query exception
+   */
+  private boolean eval(final Item item) throws QueryException {
+    final ADate bound = min != null ? min : max;
+    if(!item.type.isUntyped() && item.type != bound.type) throw diffError(item, bound, info);
+    final int mn = min == null ? -1 : min.diff(item, null, info);
+    final int mx = max == null ?  1 : max.diff(item, null, info);
+    return (mni ? mn <= 0 : mn < 0) && (mxi ? mx >= 0 : mx > 0);
+  }
+
+  @Override
+  public Expr mergeEbv(final Expr ex, final boolean or, final CompileContext cc)
+      throws QueryException {
+    if(or || !(ex instanceof CmpTR)) return null;
+
+    // skip intersection if expressions to be compared or types are different
+    final CmpTR cmp = (CmpTR) ex;
+    if(!expr.equals(cmp.expr) || type() != cmp.type()) return null;
+
+    // find common minimum and maximum value
+    ADate mn = min;
+    boolean mi = mni;
+    if(mn == null || cmp.min != null && mn.diff(cmp.min, null, info) <= 0) {
+      mi = mn == null || cmp.min.diff(mn, null, info) != 0 ? cmp.mni : mni && cmp.mni;
+      mn = cmp.min;
+    }
+    ADate mx = max;
+    boolean xi = mxi;
+    if(mx == null || cmp.max != null && mx.diff(cmp.max, null, info) >= 0) {
+      xi = mx == null || cmp.max.diff(mx, null, info) != 0 ? cmp.mxi : mxi && cmp.mxi;
+      mx = cmp.max;
+    }
+
+    // remove comparisons that will never yield results
+    if(mn != null && mx != null) {
+      final int d = mn.diff(mx, null, info);
+      if(d > 0 || d == 0 && !(mi && xi)) return Bln.FALSE;
+    }
+    return new CmpTR(expr, mn, mi, mx, xi, info).optimize(cc);
+  }
+
+  /**
+   * Returns the type of the compared values.
+   * @return type
+   */
+  private Type type() {
+    return (min != null ? min : max).type;
+  }
+
+  @Override
+  public boolean indexAccessible(final IndexInfo ii) throws QueryException {
+    // accept only location path, string and equality expressions
+    final Data data = ii.db.data();
+    // sequential main memory scan is usually faster than range index access
+    if(data == null || data.inMemory()) return false;
+
+    final IndexType type = ii.type(expr, null);
+    if(type == null) return false;
+
+    // all values of the element or attribute must be of the compared type
+    final Stats stats = CmpR.stats(expr, ii, type);
+    if(stats == null) return false;
+    final Type tp = type();
+    final byte st = tp == AtomType.DAT ? StatsType.DATE :
+      tp == AtomType.DTM ? StatsType.DATETIME : StatsType.TIME;
+    if(stats.type != st) return false;
+
+    // create range access
+    final TemporalRange tr = new TemporalRange(type, min, mni, max, mxi);
+    ii.costs = ii.costs(data, tr);
+    if(ii.costs == null) return false;
+
+    final TokenBuilder tb = new TokenBuilder();
+    tb.add(mni ? '[' : '(').add(min != null ? min.string(info) : Token.EMPTY).add(',');
+    tb.add(max != null ? max.string(info) : Token.EMPTY).add(mxi ? ']' : ')');
+    ii.create(new TemporalRangeAccess(info, tr, ii.db), true,
+        Util.info(OPTINDEX_X_X, type + " " + tp + " range", tb), info);
+    return true;
+  }
+
+  @Override
+  public Expr copy(final CompileContext cc, final IntObjMap<Var> vm) {
+    final CmpTR cmp = new CmpTR(expr.copy(cc, vm), min, mni, max, mxi, info);
+    cmp.single = single;
+    return cmp;
+  }
+
+  @Override
+  public int hashCode() {
+    final int h = (min != null ? min.hash(null) : 0) * 31 + (max != null ? max.hash(null) : 0);
+    return (h << 2) + (mni ? 2 : 0) + (mxi ? 1 : 0);
+  }
+
+  @Override
+  public boolean equals(final Object obj) {
+    if(this == obj) return true;
+    if(!(obj instanceof CmpTR)) return false;
+    final CmpTR c = (CmpTR) obj;
+    return Objects.equals(min, c.min) && mni == c.mni && Objects.equals(max, c.max) &&
+        mxi == c.mxi && super.equals(obj);
+  }
+
+  @Override
+  public String description() {
+    return "temporal range comparison";
+  }
+
+  @Override
+  public void plan(final QueryPlan plan) {
+    plan.add(plan.create(this, MIN, min, MAX, max, INCLUDE_MIN, mni, INCLUDE_MAX, mxi,
+        SINGLE, single), expr);
+  }
+
+  @Override
+  public String toString() {
+    final TokenBuilder tb = new TokenBuilder().add(PAREN1);
+    if(min != null) tb.add(expr).add(mni ? " >= " : " > ").add(min);
+    if(min != null && max != null) tb.add(' ').add(AND).add(' ');
+    if(max != null) tb.add(expr).add(mxi ? " <= " : " < ").add(max);
+    return tb.add(PAREN2).toString();
+  }
+}
@@ -71,10 +71,11 @@ public final class FTAnd extends FTExpr {
         for(int i = 0; i < il; ++i) {
           if(nodes[i] == null) return null;
 
-          final int d = nodes[0].pre() - nodes[i].pre();
-          if(d != 0) {
-            if(d < 0) i = 0;
-            nodes[i] = iters[i].next();
+          // skip nodes with smaller pre values
+          final int p0 = nodes[0].pre(), pi = nodes[i].pre();
+          if(p0 != pi) {
+            if(p0 < pi) nodes[0] = iters[0].advance(pi);
+            else nodes[i] = iters[i].advance(p0);
             i = -1;
           }
         }
@@ -148,6 +148,20 @@ public final class FTWords extends FTExpr {
 
       @Override
       public FTNode next() throws QueryException {
+        return init() && ftiter.more() ? node() : null;
+      }
+
+      @Override
+      public FTNode advance(final int pre) throws QueryException {
+        return init() && ftiter.advance(pre) ? node() : null;
+      }
+
+      /**
+       * Creates the index iterator.
+       * @return {@code false} if no results will be returned
+       * @throws QueryException query exception
+       */
+      private boolean init() throws QueryException {
         if(ftiter == null) {
           final FTTokenizer ftt = FTWords.this.get(qc);
           final FTLexer lexer = new FTLexer(ftOpt).
@@ -158,7 +172,7 @@ public final class FTWords extends FTExpr {
           // loop through unique tokens
           for(final byte[] input : unique(inputs != null ? inputs : inputs(qc))) {
             lexer.init(input);
-            if(!lexer.hasNext()) return null;
+            if(!lexer.hasNext()) return false;
 
             int d = 0;
             FTIndexIterator ii = null;
@@ -187,7 +201,7 @@ public final class FTWords extends FTExpr {
                 length = len;
                 ftiter = ii;
               } else if(mode == FTMode.ALL || mode == FTMode.ALL_WORDS) {
-                if(ii.size() == 0) return null;
+                if(ii.size() == 0) return false;
                 length += len;
                 ftiter = FTIndexIterator.intersect(ftiter, ii, 0);
               } else {
@@ -198,8 +212,15 @@ public final class FTWords extends FTExpr {
             }
           }
         }
-        return ftiter == null || !ftiter.more() ? null :
-          new FTNode(ftiter.matches(), data, ftiter.pre(), length, ftiter.size());
+        return ftiter != null;
+      }
+
+      /**
+       * Returns the current node.
+       * @return node
+       */
+      private FTNode node() {
+        return new FTNode(ftiter.matches(), data, ftiter.pre(), length, ftiter.size());
       }
     };
   }
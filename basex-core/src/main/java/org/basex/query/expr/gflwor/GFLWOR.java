@@ -8,6 +8,7 @@ import org.basex.query.*;
 import org.basex.query.expr.*;
 import org.basex.query.expr.List;
 import org.basex.query.expr.path.*;
+import org.basex.query.func.*;
 import org.basex.query.func.Function;
 import org.basex.query.iter.*;
 import org.basex.query.util.*;
@@ -107,7 +108,7 @@ public final class GFLWOR extends ParseExpr {
     // apply all optimizations in a row until nothing changes anymore
     while(flattenReturn(cc) | flattenFor(cc) | unnestFLWR(cc) | forToLet(cc) | inlineLets(cc) |
         slideLetsOut(cc) | unusedVars(cc) | cleanDeadVars() | optimizeWhere(cc) | optimizePos(cc) |
-        unnestLets(cc) | mergeReturn(cc) | ifToWhere(cc));
+        unnestLets(cc) | mergeReturn(cc) | ifToWhere(cc) | aggregate(cc));
 
     mergeWheres();
 
@@ -812,6 +813,121 @@ public final class GFLWOR extends ParseExpr {
     return false;
   }
 
+  /**
+   * Aggregates the values of non-grouping variables that are only consumed by
+   * aggregate functions.
+   * @param cc compilation context
+   * @return change flag
+   * @throws QueryException query exception
+   */
+  private boolean aggregate(final CompileContext cc) throws QueryException {
+    boolean changed = false;
+    final int cs = clauses.size();
+    for(int c = 0; c < cs; c++) {
+      if(!(clauses.get(c) instanceof GroupBy)) continue;
+      GroupBy group = (GroupBy) clauses.get(c);
+      for(final Var var : group.vars()) {
+        // collect function calls on the variable
+        final ArrayList<StandardFunc> calls = new ArrayList<>();
+        boolean agg = aggregates(rtrn, group, var, calls);
+        for(int n = c + 1; agg && n < cs; n++) {
+          final Clause clause = clauses.get(n);
+          if(clause instanceof ForLet) {
+            agg = aggregates(((ForLet) clause).expr, group, var, calls);
+          } else if(clause instanceof Where) {
+            agg = aggregates(((Where) clause).expr, group, var, calls);
+          } else if(clause instanceof OrderBy) {
+            for(final OrderKey key : ((OrderBy) clause).keys) {
+              agg = agg && aggregates(key, group, var, calls);
+            }
+          } else {
+            agg = clause.count(var) == VarUsage.NEVER;
+          }
+        }
+        if(!agg || calls.isEmpty()) continue;
+
+        // bind the results of each function to a new variable
+        final HashMap<FuncDefinition, Var> vars = new HashMap<>();
+        final IdentityHashMap<Expr, Expr> refs = new IdentityHashMap<>();
+        for(final StandardFunc call : calls) {
+          Var result = vars.get(call.definition);
+          if(result == null) {
+            cc.info(QueryText.OPTAGGR_X, call);
+            result = cc.vs().addNew(var.name, null, false, cc.qc, info);
+            result.refineType(call.seqType(), cc);
+            group = group.aggregate(var, call, result, cc);
+            vars.put(call.definition, result);
+          }
+          refs.put(call, new VarRef(call.info, result).optimize(cc));
+        }
+        rtrn = replace(rtrn, refs);
+        for(int n = c + 1; n < cs; n++) {
+          final Clause clause = clauses.get(n);
+          if(clause instanceof ForLet) {
+            final ForLet fl = (ForLet) clause;
+            fl.expr = replace(fl.expr, refs);
+          } else if(clause instanceof Where) {
+            final Where where = (Where) clause;
+            where.expr = replace(where.expr, refs);
+          } else if(clause instanceof OrderBy) {
+            for(final OrderKey key : ((OrderBy) clause).keys) replace(key, refs);
+          }
+        }
+        clauses.set(c, group);
+        changed = true;
+      }
+    }
+    return changed;
+  }
+
+  /**
+   * Collects the aggregate function calls on a non-grouping variable.
+   * @param expr expression
+   * @param group group by clause
+   * @param var variable
+   * @param calls function calls (will be extended)
+   * @return {@code false} if the variable is referenced by other expressions
+   */
+  private static boolean aggregates(final Expr expr, final GroupBy group, final Var var,
+      final ArrayList<StandardFunc> calls) {
+    if(expr instanceof StandardFunc) {
+      final StandardFunc func = (StandardFunc) expr;
+      final Expr arg = func.exprs.length == 1 ? func.exprs[0] : null;
+      if(arg instanceof VarRef && ((VarRef) arg).var.is(var) && group.aggregatable(var, func)) {
+        calls.add(func);
+        return true;
+      }
+    }
+    if(expr instanceof Arr) {
+      for(final Expr ex : ((Arr) expr).exprs) {
+        if(!aggregates(ex, group, var, calls)) return false;
+      }
+      return true;
+    }
+    if(expr instanceof Single) return aggregates(((Single) expr).expr, group, var, calls);
+    return expr.count(var) == VarUsage.NEVER;
+  }
+
+  /**
+   * Replaces the specified expressions.
+   * @param expr expression
+   * @param refs expressions to be replaced, and their replacements
+   * @return original or replaced expression
+   */
+  private static Expr replace(final Expr expr, final IdentityHashMap<Expr, Expr> refs) {
+    final Expr ref = refs.get(expr);
+    if(ref != null) return ref;
+    if(expr instanceof Arr) {
+      final Expr[] exprs = ((Arr) expr).exprs;
+      final int el = exprs.length;
+      for(int e = 0; e < el; e++) exprs[e] = replace(exprs[e], refs);
+    } else if(expr instanceof Single) {
+      final Single single = (Single) expr;
+      single.expr = replace(single.expr, refs);
+    }
+    return expr;
+  }
+
   /**
    * Merges consecutive {@code where} clauses.
    */
@@ -841,6 +957,26 @@ public final class GFLWOR extends ParseExpr {
     }
   }
 
+  /**
+   * Limits the number of tuples returned by a trailing {@code order by} clause.
+   * Called if only the first results of this expression will be requested.
+   * @param max maximum number of results
+   */
+  public void limit(final long max) {
+    // each tuple must yield exactly one result
+    if(!rtrn.seqType().one()) return;
+    final Iterator<Clause> iter = clauses.descendingIterator();
+    while(iter.hasNext()) {
+      final Clause clause = iter.next();
+      if(clause instanceof OrderBy) {
+        ((OrderBy) clause).limit(max);
+        return;
+      }
+      // skip clauses that do not change the number of tuples
+      if(!(clause instanceof Let || clause instanceof Count)) return;
+    }
+  }
+
   @Override
   public boolean vacuous() {
     return rtrn.vacuous();
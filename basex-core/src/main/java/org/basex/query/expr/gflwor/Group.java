@@ -12,8 +12,12 @@ import org.basex.query.value.item.*;
 final class Group {
   /** Grouping key, may contain {@code null} values. */
   final Item[] key;
-  /** Non-grouping variables. */
+  /** Non-grouping variables (buffered values of aggregated variables). */
   final ValueBuilder[] ngv;
+  /** Number of items of aggregated variables ({@code null} if no variable is aggregated). */
+  final long[] sizes;
+  /** Number of tuples added since the buffered values have been aggregated. */
+  int buffered;
   /** Overflow list. */
   Group next;
 
@@ -21,9 +25,11 @@ final class Group {
    * Constructor.
    * @param k grouping key
    * @param ng non-grouping variables
+   * @param s number of items of aggregated variables (can be {@code null})
    */
-  Group(final Item[] k, final ValueBuilder[] ng) {
+  Group(final Item[] k, final ValueBuilder[] ng, final long[] s) {
     key = k;
     ngv = ng;
+    sizes = s;
   }
 }
@@ -2,14 +2,15 @@ package org.basex.query.expr.gflwor;
 
 import static org.basex.query.QueryText.*;
 
-import java.util.*;
-
+import org.basex.core.*;
 import org.basex.query.*;
 import org.basex.query.expr.*;
+import org.basex.query.func.*;
 import org.basex.query.util.*;
 import org.basex.query.util.collation.*;
 import org.basex.query.value.*;
 import org.basex.query.value.item.*;
+import org.basex.query.value.node.*;
 import org.basex.query.value.seq.*;
 import org.basex.query.value.type.*;
 import org.basex.query.var.*;
@@ -29,6 +30,8 @@ public final class GroupBy extends Clause {
   private Expr[] preExpr;
   /** Non-grouping variables. */
   private Var[] post;
+  /** Aggregate functions of non-grouping variables ({@code null} entries: no aggregation). */
+  private StandardFunc[] aggr;
   /** Number of non-occluded grouping variables. */
   private final int nonOcc;
 
@@ -46,6 +49,7 @@ public final class GroupBy extends Clause {
     this.specs = specs;
     this.post = post;
     preExpr = Array.copy(pre, new Expr[pre.length]);
+    aggr = new StandardFunc[post.length];
     int n = 0;
     for(final GroupSpec spec : specs) {
       if(!spec.occluded) n++;
@@ -58,15 +62,17 @@ public final class GroupBy extends Clause {
    * @param specs grouping specs
    * @param pre pre-grouping expressions
    * @param post post-grouping variables
+   * @param aggr aggregate functions of post-grouping variables
    * @param nonOcc number of non-occluded grouping variables
    * @param info input info
    */
-  private GroupBy(final GroupSpec[] specs, final Expr[] pre, final Var[] post, final int nonOcc,
-      final InputInfo info) {
+  private GroupBy(final GroupSpec[] specs, final Expr[] pre, final Var[] post,
+      final StandardFunc[] aggr, final int nonOcc, final InputInfo info) {
     super(info, SeqType.ITEM_ZM, vars(specs, post));
     this.specs = specs;
     preExpr = pre;
     this.post = post;
+    this.aggr = aggr;
     this.nonOcc = nonOcc;
   }
 
@@ -88,18 +94,13 @@ public final class GroupBy extends Clause {
   Eval eval(final Eval sub) {
     return new Eval() {
       /** Groups to iterate over. */
-      private Group[] groups;
-      /** Current position. */
-      private int pos;
+      private TupleGroups groups;
 
       @Override
       public boolean next(final QueryContext qc) throws QueryException {
         if(groups == null) groups = init(qc);
-        if(pos == groups.length) return false;
-
-        final Group curr = groups[pos];
-        // be nice to the garbage collector
-        groups[pos++] = null;
+        final Group curr = groups.next(qc);
+        if(curr == null) return false;
 
         int p = 0;
         for(final GroupSpec spec : specs) {
@@ -109,99 +110,92 @@ public final class GroupBy extends Clause {
           }
         }
         final int pl = post.length;
-        for(int i = 0; i < pl; i++) qc.set(post[i], curr.ngv[i].value());
+        for(int i = 0; i < pl; i++) qc.set(post[i], groups.value(curr, i, qc));
         return true;
       }
 
       /**
        * Builds up the groups.
        * @param qc query context
+       * @return groups
        * @throws QueryException query exception
        */
-      private Group[] init(final QueryContext qc) throws QueryException {
-        final ArrayList<Group> grps = new ArrayList<>();
-        final IntObjMap<Group> map = new IntObjMap<>();
+      private TupleGroups init(final QueryContext qc) throws QueryException {
         final Collation[] colls = new Collation[nonOcc];
         int c = 0;
         for(final GroupSpec spec : specs) {
           if(!spec.occluded) colls[c++] = spec.coll;
         }
+        final TupleGroups tg = new TupleGroups(colls, aggr,
+            qc.context.options.get(MainOptions.GROUPLIMIT), info);
 
+        final int pl = preExpr.length;
         while(sub.next(qc)) {
           final Item[] key = new Item[nonOcc];
-          int p = 0, hash = 1;
+          int p = 0;
           for(final GroupSpec spec : specs) {
             final Item atom = spec.atomItem(qc, info);
-            if(!spec.occluded) {
-              key[p++] = atom;
-              // If the values are compared using a special collation, we let them collide
-              // here and let the comparison do all the work later.
-              // This enables other non-collation specs to avoid the collision.
-              hash = 31 * hash + (atom == Empty.VALUE || spec.coll != null ? 0 : atom.hash(info));
-            }
+            if(!spec.occluded) key[p++] = atom;
             qc.set(spec.var, atom);
           }
-
-          // find the group for this key
-          final Group fst;
-          Group grp = null;
-          // no collations, so we can use hashing
-          for(Group g = fst = map.get(hash); g != null; g = g.next) {
-            if(eq(key, g.key, colls)) {
-              grp = g;
-              break;
-            }
-          }
-
-          final int pl = preExpr.length;
-          if(grp == null) {
-            // new group, add it to the list
-            final ValueBuilder[] ngs = new ValueBuilder[pl];
-            final int nl = ngs.length;
-            for(int n = 0; n < nl; n++) ngs[n] = new ValueBuilder(qc);
-            grp = new Group(key, ngs);
-            grps.add(grp);
-
-            // insert the group into the hash table
-            if(fst == null) {
-              map.put(hash, grp);
-            } else {
-              final Group nxt = fst.next;
-              fst.next = grp;
-              grp.next = nxt;
-            }
-          }
-
-          // add values of non-grouping variables to the group
-          for(int g = 0; g < pl; g++) {
-            grp.ngv[g].add(preExpr[g].value(qc));
-          }
+          // values of non-grouping variables
+          final Value[] values = new Value[pl];
+          for(int g = 0; g < pl; g++) values[g] = preExpr[g].value(qc);
+          tg.add(key, values, qc);
         }
-
-        // we're finished, copy the array so the list can be garbage-collected
-        return grps.toArray(new Group[0]);
+        tg.finish();
+        return tg;
       }
     };
   }
 
   /**
-   * Checks two keys for equality.
-   * @param its1 first keys
-   * @param its2 second keys
-   * @param coll collations
-   * @return {@code true} if the compare as equal, {@code false} otherwise
+   * Checks if the values of a non-grouping variable can be aggregated by the specified function.
+   * @param var variable
+   * @param func function
+   * @return result of check
+   */
+  boolean aggregatable(final Var var, final StandardFunc func) {
+    final int p = index(var);
+    if(p == -1 || aggr[p] != null || func.exprs.length != 1) return false;
+    if(Function.COUNT.is(func)) return true;
+    // values are aggregated before the result is requested: only accept values that cannot
+    // raise errors (other values may never be aggregated, or errors may be caught).
+    // sums of integers and decimals may overflow, comparisons of numbers will never fail
+    final Type type = preExpr[p].seqType().type;
+    if(Function.MIN.is(func) || Function.MAX.is(func)) return type.instanceOf(AtomType.NUM);
+    return (Function.SUM.is(func) || Function.AVG.is(func)) &&
+        (type.instanceOf(AtomType.DBL) || type.instanceOf(AtomType.FLT));
+  }
+
+  /**
+   * Creates a new clause in which the values of a non-grouping variable are additionally
+   * aggregated and bound to a new variable.
+   * @param var non-grouping variable
+   * @param func aggregate function
+   * @param agg variable for the aggregated value
+   * @param cc compilation context
+   * @return new clause
    * @throws QueryException query exception
    */
-  private boolean eq(final Item[] its1, final Item[] its2, final Collation[] coll)
-      throws QueryException {
+  GroupBy aggregate(final Var var, final StandardFunc func, final Var agg,
+      final CompileContext cc) throws QueryException {
+    final Expr pre = preExpr[index(var)].copy(cc, new IntObjMap<>());
+    return new GroupBy(specs, Array.add(preExpr, pre), Array.add(post, agg),
+        Array.add(aggr, func), nonOcc, info).optimize(cc);
+  }
 
-    final int il = its1.length;
-    for(int i = 0; i < il; i++) {
-      final Item item1 = its1[i], item2 = its2[i];
-      if(item1 == Empty.VALUE ^ item2 == Empty.VALUE ||
-         item1 != Empty.VALUE && !item1.equiv(item2, coll[i], info)) return false;
+  /**
+   * Returns the index of a non-grouping variable.
+   * @param var variable
+   * @return index or {@code -1}
+   */
+  private int index(final Var var) {
+    final int pl = post.length;
+    for(int p = 0; p < pl; p++) {
+      if(post[p].is(var)) return p;
     }
-    return true;
+    return -1;
   }
 
   @Override
@@ -223,6 +217,8 @@ public final class GroupBy extends Clause {
   public GroupBy optimize(final CompileContext cc) throws QueryException {
     final int pl = preExpr.length;
     for(int p = 0; p < pl; p++) {
+      // types of aggregated values are assigned when the clause is created
+      if(aggr[p] != null) continue;
       final SeqType st = preExpr[p].seqType();
       post[p].refineType(st.with(st.occ.union(Occ.ONE_MORE)), cc);
     }
@@ -265,7 +261,7 @@ public final class GroupBy extends Clause {
     for(int p = 0; p < pl; p++) ps[p] = cc.copy(post[p], vm);
 
     // done
-    return new GroupBy(Arr.copyAll(cc, vm, specs), pEx, ps, nonOcc, info);
+    return new GroupBy(Arr.copyAll(cc, vm, specs), pEx, ps, aggr.clone(), nonOcc, info);
   }
 
   @Override
@@ -287,6 +283,7 @@ public final class GroupBy extends Clause {
     for(int p = 0; p < post.length; p++) {
       if(!used.get(post[p].id)) {
         preExpr = Array.remove(preExpr, p);
+        aggr = Array.remove(aggr, p);
         post = Array.remove(post, p--);
       }
     }
@@ -328,7 +325,15 @@ public final class GroupBy extends Clause {
 
   @Override
   public void plan(final QueryPlan plan) {
-    plan.add(plan.create(this), specs);
+    final FElem elem = plan.create(this);
+    final int pl = post.length;
+    for(int p = 0; p < pl; p++) {
+      if(aggr[p] == null) continue;
+      final FElem agg = plan.create(AGGREGATE, post[p]);
+      plan.addAttribute(agg, OP, Token.string(aggr[p].definition.local()));
+      plan.addElement(elem, agg);
+    }
+    plan.add(elem, specs);
   }
 
   @Override
@@ -337,7 +342,9 @@ public final class GroupBy extends Clause {
     final int pl = post.length;
     for(int p = 0; p < pl; p++) {
       sb.append(LET).append(" (: post-group :) ").append(post[p]);
-      sb.append(' ').append(ASSIGN).append(' ').append(preExpr[p]).append(' ');
+      sb.append(' ').append(ASSIGN).append(' ');
+      if(aggr[p] != null) sb.append(Token.string(aggr[p].definition.local())).append('(');
+      sb.append(preExpr[p]).append(aggr[p] != null ? ") " : " ");
     }
     sb.append(GROUP).append(' ').append(BY);
     final int sl = specs.length;
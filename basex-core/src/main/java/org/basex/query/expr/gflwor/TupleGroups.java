@@ -0,0 +1,360 @@
+package org.basex.query.expr.gflwor;
+
+import static org.basex.query.QueryError.*;
+
+import java.io.*;
+import java.util.*;
+
+import org.basex.io.*;
+import org.basex.io.in.DataInput;
+import org.basex.io.out.DataOutput;
+import org.basex.query.*;
+import org.basex.query.expr.*;
+import org.basex.query.func.*;
+import org.basex.query.util.*;
+import org.basex.query.util.collation.*;
+import org.basex.query.value.*;
+import org.basex.query.value.item.*;
+import org.basex.query.value.seq.*;
+import org.basex.util.*;
+import org.basex.util.hash.*;
+
+/**
+ * Groups the tuples of a {@code group by} clause. Each tuple consists of the grouping keys and
+ * the values of the non-grouping variables.
+ *
+ * If a non-grouping variable is only consumed by {@code count}, if its numeric values are only
+ * consumed by {@code min} or {@code max}, or if its floating-point values are only consumed by
+ * {@code sum} or {@code avg}, its values are aggregated while the tuples are added: the buffered
+ * values of a group are regularly replaced with their intermediate result.
+ *
+ * If the number of groups exceeds {@link org.basex.core.MainOptions#GROUPLIMIT}, the tuples of
+ * all further groups are distributed to partitions by the hash values of their keys, and written
+ * to temporary files (see {@link SpillFiles}). The partitions are grouped one by one after the
+ * groups in main memory have been returned. As a consequence, the groups will not necessarily
+ * be returned in the order of their first occurrence.
+ *
+ * @author BaseX Team 2005-20, BSD License
+ * @author Christian Gruen
+ */
+final class TupleGroups {
+  /** Number of hash bits used for partitioning. */
+  private static final int BITS = 4;
+  /** Number of partitions. */
+  private static final int PARTITIONS = 1 << BITS;
+  /** Number of tuples after which the buffered values of a group are aggregated. */
+  private static final int BUFFER = 64;
+
+  /** Collations of the grouping keys ({@code null} entries: default collation). */
+  private final Collation[] colls;
+  /** Aggregate functions of the non-grouping variables ({@code null} entries: no aggregation). */
+  private final StandardFunc[] aggr;
+  /** Indicates if values of at least one variable are aggregated. */
+  private final boolean aggregated;
+  /** Maximum number of groups in main memory. */
+  private final int limit;
+  /** Partitioning depth. */
+  private final int depth;
+  /** Input info. */
+  private final InputInfo info;
+
+  /** Hash table with the groups in main memory. */
+  private final IntObjMap<Group> map = new IntObjMap<>();
+  /** Groups in the order of their first occurrence. */
+  private final ArrayList<Group> groups = new ArrayList<>();
+  /** Current position in the groups. */
+  private int pos;
+
+  /** Temporary files (assigned if partitions have been written). */
+  private SpillFiles spill;
+  /** Written partitions (assigned if partitions have been written). */
+  private Partition[] partitions;
+  /** Index of the next partition. */
+  private int part;
+  /** Groups of the current partition. */
+  private TupleGroups current;
+
+  /**
+   * Constructor.
+   * @param colls collations of the grouping keys
+   * @param aggr aggregate functions of the non-grouping variables
+   * @param limit maximum number of groups in main memory ({@code 0}: no limit)
+   * @param info input info
+   */
+  TupleGroups(final Collation[] colls, final StandardFunc[] aggr, final int limit,
+      final InputInfo info) {
+    this(colls, aggr, limit > 0 ? limit : Integer.MAX_VALUE, 0, info);
+  }
+
+  /**
+   * Constructor.
+   * @param colls collations of the grouping keys
+   * @param aggr aggregate functions of the non-grouping variables
+   * @param limit maximum number of groups in main memory
+   * @param depth partitioning depth
+   * @param info input info
+   */
+  private TupleGroups(final Collation[] colls, final StandardFunc[] aggr, final int limit,
+      final int depth, final InputInfo info) {
+    this.colls = colls;
+    this.aggr = aggr;
+    // partitions of the last level will be grouped in main memory
+    this.limit = depth < 32 / BITS ? limit : Integer.MAX_VALUE;
+    this.depth = depth;
+    this.info = info;
+    boolean agg = false;
+    for(final StandardFunc func : aggr) agg |= func != null;
+    aggregated = agg;
+  }
+
+  /**
+   * Adds a tuple.
+   * @param key grouping keys
+   * @param values values of the non-grouping variables
+   * @param qc query context
+   * @throws QueryException query exception
+   */
+  void add(final Item[] key, final Value[] values, final QueryContext qc) throws QueryException {
+    // find the group for this key
+    final int hash = hash(key);
+    final Group fst = map.get(hash);
+    Group group = null;
+    for(Group g = fst; g != null; g = g.next) {
+      if(eq(key, g.key)) {
+        group = g;
+        break;
+      }
+    }
+
+    final int vl = values.length;
+    if(group == null) {
+      if(groups.size() == limit) {
+        write(key, values, hash, qc);
+        return;
+      }
+      // new group, add it to the list
+      final ValueBuilder[] ngv = new ValueBuilder[vl];
+      for(int v = 0; v < vl; v++) {
+        if(!Function.COUNT.is(aggr[v])) ngv[v] = new ValueBuilder(qc);
+      }
+      group = new Group(key, ngv, aggregated ? new long[vl] : null);
+      groups.add(group);
+
+      // insert the group into the hash table
+      if(fst == null) {
+        map.put(hash, group);
+      } else {
+        final Group nxt = fst.next;
+        fst.next = group;
+        group.next = nxt;
+      }
+    }
+
+    // add values of non-grouping variables to the group
+    for(int v = 0; v < vl; v++) {
+      final Value value = values[v];
+      if(aggr[v] != null) group.sizes[v] += value.size();
+      if(group.ngv[v] != null) group.ngv[v].add(value);
+    }
+    // replace buffered values with intermediate results
+    if(aggregated && ++group.buffered == BUFFER) {
+      for(int v = 0; v < vl; v++) {
+        final StandardFunc func = aggr[v];
+        if(func == null || group.ngv[v] == null) continue;
+        // skip empty buffers (the sum of an empty sequence is an integer)
+        final Value value = group.ngv[v].value();
+        if(!value.isEmpty()) group.ngv[v] = new ValueBuilder(qc).add(aggregate(func, value, qc));
+      }
+      group.buffered = 0;
+    }
+  }
+
+  /**
+   * Finishes the addition of tuples. Must be called before the groups are requested.
+   * @throws QueryException query exception
+   */
+  void finish() throws QueryException {
+    map.clear();
+    if(partitions == null) return;
+    try {
+      for(final Partition partition : partitions) {
+        if(partition != null) partition.out.close();
+      }
+    } catch(final IOException ex) {
+      throw IOERR_X.get(info, ex);
+    }
+  }
+
+  /**
+   * Returns the next group.
+   * @param qc query context
+   * @return group or {@code null}
+   * @throws QueryException query exception
+   */
+  Group next(final QueryContext qc) throws QueryException {
+    if(pos < groups.size()) {
+      // free the space occupied by the group
+      return groups.set(pos++, null);
+    }
+    while(partitions != null) {
+      if(current != null) {
+        final Group group = current.next(qc);
+        if(group != null) return group;
+        current = null;
+      }
+      if(part == PARTITIONS) {
+        partitions = null;
+      } else {
+        final Partition partition = partitions[part];
+        partitions[part++] = null;
+        if(partition != null) current = partition.read(qc);
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Returns the value of a non-grouping variable of the specified group.
+   * @param group group
+   * @param v index of the variable
+   * @param qc query context
+   * @return value
+   * @throws QueryException query exception
+   */
+  Value value(final Group group, final int v, final QueryContext qc) throws QueryException {
+    final StandardFunc func = aggr[v];
+    if(func == null) return group.ngv[v].value();
+
+    final long size = group.sizes[v];
+    if(Function.COUNT.is(func)) return Int.get(size);
+    final Item item = aggregate(func, group.ngv[v].value(), qc);
+    return Function.AVG.is(func) && size != 0 ? Calc.DIV.eval(item, Int.get(size), info) : item;
+  }
+
+  /**
+   * Aggregates values. Averages are computed by summing up the values.
+   * @param func aggregate function
+   * @param value value
+   * @param qc query context
+   * @return result
+   * @throws QueryException query exception
+   */
+  private Item aggregate(final StandardFunc func, final Value value, final QueryContext qc)
+      throws QueryException {
+    final boolean avg = Function.AVG.is(func);
+    if(avg && value.isEmpty()) return Empty.VALUE;
+    final FuncDefinition fd = avg ? Function.SUM.definition() : func.definition;
+    return fd.get(func.sc, info, value).item(qc, info);
+  }
+
+  /**
+   * Computes the hash value of grouping keys.
+   * @param key grouping keys
+   * @return hash value
+   * @throws QueryException query exception
+   */
+  private int hash(final Item[] key) throws QueryException {
+    int hash = 1;
+    final int kl = key.length;
+    for(int k = 0; k < kl; k++) {
+      // If the values are compared using a special collation, we let them collide
+      // here and let the comparison do all the work later.
+      // This enables other non-collation specs to avoid the collision.
+      final Item item = key[k];
+      hash = 31 * hash + (item == Empty.VALUE || colls[k] != null ? 0 : item.hash(info));
+    }
+    return hash;
+  }
+
+  /**
+   * Checks two keys for equality.
+   * @param its1 first keys
+   * @param its2 second keys
+   * @return {@code true} if the compare as equal, {@code false} otherwise
+   * @throws QueryException query exception
+   */
+  private boolean eq(final Item[] its1, final Item[] its2) throws QueryException {
+    final int il = its1.length;
+    for(int i = 0; i < il; i++) {
+      final Item item1 = its1[i], item2 = its2[i];
+      if(item1 == Empty.VALUE ^ item2 == Empty.VALUE ||
+         item1 != Empty.VALUE && !item1.equiv(item2, colls[i], info)) return false;
+    }
+    return true;
+  }
+
+  /**
+   * Writes a tuple to its partition.
+   * @param key grouping keys
+   * @param values values of the non-grouping variables
+   * @param hash hash value of the keys
+   * @param qc query context
+   * @throws QueryException query exception
+   */
+  private void write(final Item[] key, final Value[] values, final int hash,
+      final QueryContext qc) throws QueryException {
+
+    if(partitions == null) {
+      spill = qc.resources.index(SpillFiles.class);
+      partitions = new Partition[PARTITIONS];
+    }
+    // choose different bits of the scrambled hash value on each level
+    final int p = hash * 0x9E3779B9 >>> 32 - BITS * (depth + 1) & PARTITIONS - 1;
+    try {
+      if(partitions[p] == null) partitions[p] = new Partition(spill.create());
+      final Partition partition = partitions[p];
+      for(final Item item : key) spill.write(partition.out, item);
+      for(final Value value : values) spill.write(partition.out, value);
+      partition.size++;
+    } catch(final IOException ex) {
+      throw IOERR_X.get(info, ex);
+    }
+  }
+
+  /** Partition with tuples that have been written to disk. */
+  private final class Partition {
+    /** Temporary file. */
+    private final IOFile file;
+    /** Output stream. */
+    private final DataOutput out;
+    /** Number of tuples. */
+    private int size;
+
+    /**
+     * Constructor.
+     * @param file temporary file
+     * @throws IOException I/O exception
+     */
+    private Partition(final IOFile file) throws IOException {
+      this.file = file;
+      out = new DataOutput(file);
+    }
+
+    /**
+     * Reads and groups the tuples of this partition.
+     * @param qc query context
+     * @return groups
+     * @throws QueryException query exception
+     */
+    private TupleGroups read(final QueryContext qc) throws QueryException {
+      qc.checkStop();
+      final TupleGroups tg = new TupleGroups(colls, aggr, limit, depth + 1, info);
+      final int kl = colls.length, vl = aggr.length;
+      try(DataInput in = new DataInput(file)) {
+        for(int s = 0; s < size; s++) {
+          final Item[] key = new Item[kl];
+          for(int k = 0; k < kl; k++) key[k] = (Item) spill.read(in);
+          final Value[] values = new Value[vl];
+          for(int v = 0; v < vl; v++) values[v] = spill.read(in);
+          tg.add(key, values, qc);
+        }
+      } catch(final IOException ex) {
+        throw IOERR_X.get(info, ex);
+      } finally {
+        spill.delete(file);
+      }
+      tg.finish();
+      return tg;
+    }
+  }
+}
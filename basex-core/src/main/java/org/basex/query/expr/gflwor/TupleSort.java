@@ -0,0 +1,352 @@
+package org.basex.query.expr.gflwor;
+
+import static org.basex.query.QueryError.*;
+
+import java.io.*;
+import java.util.*;
+
+import org.basex.io.*;
+import org.basex.io.in.DataInput;
+import org.basex.io.out.DataOutput;
+import org.basex.query.*;
+import org.basex.query.util.*;
+import org.basex.query.value.*;
+import org.basex.query.value.item.*;
+import org.basex.query.value.seq.*;
+import org.basex.util.*;
+
+/**
+ * Sorts the tuples of an {@code order by} clause. Each tuple contains the sort keys, followed by
+ * the values of the variables.
+ *
+ * If the number of tuples exceeds {@link org.basex.core.MainOptions#SORTLIMIT}, the tuples will
+ * be sorted in runs, which are written to temporary files (see {@link SpillFiles}).
+ * The runs are merged while the sorted tuples are requested.
+ *
+ * If only the first tuples will be requested, and if twice their number fits into main memory,
+ * at most that many tuples will be cached: whenever the buffer is full, it is sorted and truncated.
+ * Subsequent tuples are discarded if they are not smaller than the last retained tuple.
+ *
+ * Cached tuples are sorted by their normalized keys if possible (see {@link SortKeys}).
+ *
+ * @author BaseX Team 2005-20, BSD License
+ * @author Christian Gruen
+ */
+final class TupleSort {
+  /** Sort keys. */
+  private final OrderKey[] keys;
+  /** Maximum number of tuples in main memory. */
+  private final int limit;
+  /** Maximum number of tuples to be returned ({@code 0}: no limit). */
+  private final int max;
+  /** Input info. */
+  private final InputInfo info;
+
+  /** Cached tuples. */
+  private Value[][] tuples = new Value[Array.INITIAL_CAPACITY][];
+  /** Number of cached tuples. */
+  private int size;
+  /** Number of values per tuple. */
+  private int width;
+  /** Current position in the cached tuples. */
+  private int pos;
+  /** Indicates if the cached tuples have been truncated. */
+  private boolean truncated;
+
+  /** Temporary files (assigned if runs have been written). */
+  private SpillFiles spill;
+  /** Written runs. */
+  private final ArrayList<Run> runs = new ArrayList<>();
+  /** Heap with the runs that will be merged (ordered by their current tuples). */
+  private Run[] heap;
+  /** Number of runs in the heap. */
+  private int heapSize;
+
+  /**
+   * Constructor.
+   * @param keys sort keys
+   * @param limit maximum number of tuples in main memory ({@code 0}: no limit)
+   * @param max maximum number of tuples to be returned
+   * @param info input info
+   */
+  TupleSort(final OrderKey[] keys, final int limit, final long max, final InputInfo info) {
+    this.keys = keys;
+    this.limit = limit > 0 ? limit : Integer.MAX_VALUE;
+    this.max = max <= this.limit >>> 1 ? (int) max : 0;
+    this.info = info;
+  }
+
+  /**
+   * Adds a tuple.
+   * @param tuple tuple
+   * @param qc query context
+   * @throws QueryException query exception
+   */
+  void add(final Value[] tuple, final QueryContext qc) throws QueryException {
+    if(max != 0) {
+      // skip tuple if it will not be returned
+      if(truncated && compare(tuple, tuples[max - 1]) >= 0) return;
+      if(size == max << 1) truncate(qc);
+    } else if(size == limit) {
+      sort(qc);
+      write(qc);
+    }
+    if(size == tuples.length) tuples = Arrays.copyOf(tuples, Array.newCapacity(size));
+    tuples[size++] = tuple;
+    width = tuple.length;
+  }
+
+  /**
+   * Sorts the tuples. Must be called before the tuples are requested.
+   * @param qc query context
+   * @throws QueryException query exception
+   */
+  void finish(final QueryContext qc) throws QueryException {
+    if(max != 0) {
+      truncate(qc);
+      return;
+    }
+    sort(qc);
+    if(runs.isEmpty()) return;
+
+    // merge written runs with the cached tuples
+    runs.add(new Run(runs.size()));
+    heap = new Run[runs.size()];
+    for(final Run run : runs) {
+      run.open(qc);
+      if(run.next()) heap[heapSize++] = run;
+    }
+    for(int h = heapSize >>> 1; --h >= 0;) down(h);
+  }
+
+  /**
+   * Returns the next tuple.
+   * @return tuple or {@code null}
+   * @throws QueryException query exception
+   */
+  Value[] next() throws QueryException {
+    if(heap == null) {
+      if(pos == size) return null;
+      final Value[] tuple = tuples[pos];
+      // free the space occupied by the tuple
+      tuples[pos++] = null;
+      return tuple;
+    }
+    if(heapSize == 0) return null;
+    final Run run = heap[0];
+    final Value[] tuple = run.tuple;
+    if(!run.next()) heap[0] = heap[--heapSize];
+    if(heapSize > 1) down(0);
+    return tuple;
+  }
+
+  /**
+   * Sorts the cached tuples.
+   * @param qc query context
+   * @throws QueryException query exception
+   */
+  private void sort(final QueryContext qc) throws QueryException {
+    qc.checkStop();
+    if(size < 2) return;
+
+    // sort positions of normalized keys
+    final SortKeys sk = new SortKeys(size);
+    boolean normalized = true;
+    final int kl = keys.length;
+    for(int k = 0; normalized && k < kl; k++) {
+      final OrderKey key = keys[k];
+      final int c = k;
+      normalized = sk.add(t -> (Item) tuples[t][c], key.coll, key.desc, key.least, key.info);
+    }
+    if(normalized) {
+      final int[] order = sk.order(qc);
+      final Value[][] sorted = new Value[size][];
+      for(int o = 0; o < size; o++) sorted[o] = tuples[order[o]];
+      System.arraycopy(sorted, 0, tuples, 0, size);
+      return;
+    }
+
+    // compare original keys
+    try {
+      Arrays.sort(tuples, 0, size, (a, b) -> {
+        try {
+          return compare(a, b);
+        } catch(final QueryException ex) {
+          throw new QueryRTException(ex);
+        }
+      });
+    } catch(final QueryRTException ex) {
+      throw ex.getCause();
+    }
+  }
+
+  /**
+   * Sorts the cached tuples and discards tuples that will not be returned.
+   * As the sort is stable, and as the tuples are cached in the order of their arrival,
+   * later tuples with equal keys will be discarded first.
+   * @param qc query context
+   * @throws QueryException query exception
+   */
+  private void truncate(final QueryContext qc) throws QueryException {
+    sort(qc);
+    for(int t = max; t < size; t++) tuples[t] = null;
+    size = Math.min(size, max);
+    truncated = true;
+  }
+
+  /**
+   * Writes the cached tuples to a new run.
+   * @param qc query context
+   * @throws QueryException query exception
+   */
+  private void write(final QueryContext qc) throws QueryException {
+    if(spill == null) spill = qc.resources.index(SpillFiles.class);
+    try {
+      final IOFile file = spill.create();
+      try(DataOutput out = new DataOutput(file)) {
+        for(int t = 0; t < size; t++) {
+          for(final Value value : tuples[t]) spill.write(out, value);
+          tuples[t] = null;
+        }
+      }
+      runs.add(new Run(file, size, runs.size()));
+      size = 0;
+    } catch(final IOException ex) {
+      throw IOERR_X.get(info, ex);
+    }
+  }
+
+  /**
+   * Moves a run down the heap.
+   * @param h heap position
+   * @throws QueryException query exception
+   */
+  private void down(final int h) throws QueryException {
+    final Run run = heap[h];
+    int p = h;
+    while(true) {
+      int c = (p << 1) + 1;
+      if(c >= heapSize) break;
+      if(c + 1 < heapSize && compare(heap[c + 1], heap[c]) < 0) c++;
+      if(compare(run, heap[c]) <= 0) break;
+      heap[p] = heap[c];
+      p = c;
+    }
+    heap[p] = run;
+  }
+
+  /**
+   * Compares the current tuples of two runs. Tuples of earlier runs are sorted first.
+   * @param a first run
+   * @param b second run
+   * @return result of comparison
+   * @throws QueryException query exception
+   */
+  private int compare(final Run a, final Run b) throws QueryException {
+    final int c = compare(a.tuple, b.tuple);
+    return c != 0 ? c : a.index - b.index;
+  }
+
+  /**
+   * Compares the sort keys of two tuples.
+   * @param a first tuple
+   * @param b second tuple
+   * @return result of comparison
+   * @throws QueryException query exception
+   */
+  private int compare(final Value[] a, final Value[] b) throws QueryException {
+    final int kl = keys.length;
+    for(int k = 0; k < kl; k++) {
+      final OrderKey key = keys[k];
+      Item m = (Item) a[k], n = (Item) b[k];
+      if(m == Dbl.NAN || m == Flt.NAN) m = Empty.VALUE;
+      if(n == Dbl.NAN || n == Flt.NAN) n = Empty.VALUE;
+      if(m != Empty.VALUE && n != Empty.VALUE && !m.comparable(n))
+        throw typeError(n, m.type, key.info);
+
+      final int c = m == Empty.VALUE
+          ? n == Empty.VALUE ? 0                 : key.least ? -1 : 1
+          : n == Empty.VALUE ? key.least ? 1 : -1 : m.diff(n, key.coll, key.info);
+      if(c != 0) return key.desc ? -c : c;
+    }
+    return 0;
+  }
+
+  /** Sorted run. */
+  private final class Run {
+    /** Index of the run. */
+    private final int index;
+    /** Temporary file ({@code null} for the cached tuples). */
+    private final IOFile file;
+    /** Number of remaining tuples in the file. */
+    private int remaining;
+    /** Input stream. */
+    private DataInput in;
+    /** Current tuple. */
+    private Value[] tuple;
+
+    /**
+     * Constructor for a written run.
+     * @param file temporary file
+     * @param size number of tuples
+     * @param index index of the run
+     */
+    private Run(final IOFile file, final int size, final int index) {
+      this.file = file;
+      this.index = index;
+      remaining = size;
+    }
+
+    /**
+     * Constructor for the cached tuples.
+     * @param index index of the run
+     */
+    private Run(final int index) {
+      this(null, 0, index);
+    }
+
+    /**
+     * Opens the run.
+     * @param qc query context
+     * @throws QueryException query exception
+     */
+    private void open(final QueryContext qc) throws QueryException {
+      if(file == null) return;
+      try {
+        in = new DataInput(file);
+        // stream will be closed after query execution if the tuples are not completely consumed
+        qc.resources.add(in);
+      } catch(final IOException ex) {
+        throw IOERR_X.get(info, ex);
+      }
+    }
+
+    /**
+     * Reads the next tuple.
+     * @return {@code false} if the run is exhausted
+     * @throws QueryException query exception
+     */
+    private boolean next() throws QueryException {
+      if(file == null) {
+        tuple = pos < size ? tuples[pos] : null;
+        if(tuple == null) return false;
+        tuples[pos++] = null;
+        return true;
+      }
+      try {
+        if(remaining == 0) {
+          in.close();
+          spill.delete(file);
+          tuple = null;
+          return false;
+        }
+        remaining--;
+        tuple = new Value[width];
+        for(int w = 0; w < width; w++) tuple[w] = spill.read(in);
+        return true;
+      } catch(final IOException ex) {
+        throw IOERR_X.get(info, ex);
+      }
+    }
+  }
+}
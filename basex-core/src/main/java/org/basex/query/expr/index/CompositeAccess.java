@@ -0,0 +1,106 @@
+package org.basex.query.expr.index;
+
+import static org.basex.query.QueryText.*;
+
+import org.basex.data.*;
+import org.basex.index.*;
+import org.basex.index.query.*;
+import org.basex.query.*;
+import org.basex.query.expr.*;
+import org.basex.query.expr.path.*;
+import org.basex.query.func.*;
+import org.basex.query.iter.*;
+import org.basex.query.util.*;
+import org.basex.query.value.*;
+import org.basex.query.value.node.*;
+import org.basex.query.value.seq.*;
+import org.basex.query.value.type.*;
+import org.basex.query.var.*;
+import org.basex.util.*;
+import org.basex.util.hash.*;
+import org.basex.util.list.*;
+
+/**
+ * This index class retrieves elements from the composite index of the attribute index.
+ *
+ * @author BaseX Team 2005-20, BSD License
+ * @author Christian Gruen
+ */
+public final class CompositeAccess extends IndexAccess {
+  /** Composite key. */
+  private final CompositeKey key;
+  /** Name test of the elements. */
+  private final NameTest test;
+  /** Attribute comparisons that are answered by the index. */
+  private final Expr[] cmps;
+
+  /**
+   * Constructor.
+   * @param info input info
+   * @param key composite key
+   * @param test name test of the elements
+   * @param cmps attribute comparisons that are answered by the index
+   * @param db index database
+   */
+  public CompositeAccess(final InputInfo info, final CompositeKey key, final NameTest test,
+      final Expr[] cmps, final IndexDb db) {
+    super(db, info, SeqType.ELM_ZM);
+    this.key = key;
+    this.test = test;
+    this.cmps = cmps;
+  }
+
+  @Override
+  public Iter iter(final QueryContext qc) throws QueryException {
+    final Data data = db.data(qc, IndexType.ATTRIBUTE);
+
+    return new DBNodeIter(data) {
+      final IndexIterator ii = data.iter(key);
+
+      @Override
+      public DBNode next() {
+        return ii.more() ? new DBNode(data, ii.pre(), Data.ELEM) : null;
+      }
+    };
+  }
+
+  @Override
+  public Value value(final QueryContext qc) throws QueryException {
+    final Data data = db.data(qc, IndexType.ATTRIBUTE);
+
+    final IndexIterator ii = data.iter(key);
+    final IntList list = new IntList();
+    while(ii.more()) list.add(ii.pre());
+    return DBNodeSeq.get(list.finish(), data, this);
+  }
+
+  @Override
+  public Expr copy(final CompileContext cc, final IntObjMap<Var> vm) {
+    return copyType(new CompositeAccess(info, key, test, Arr.copyAll(cc, vm, cmps),
+        db.copy(cc, vm)));
+  }
+
+  @Override
+  public int hashCode() {
+    return key.hashCode();
+  }
+
+  @Override
+  public boolean equals(final Object obj) {
+    return obj instanceof CompositeAccess && key.equals(((CompositeAccess) obj).key) &&
+        super.equals(obj);
+  }
+
+  @Override
+  public void plan(final QueryPlan plan) {
+    plan.add(plan.create(this, INDEX, IndexType.ATTRIBUTE, NAME, test), db, cmps);
+  }
+
+  @Override
+  public String toString() {
+    final TokenBuilder tb = new TokenBuilder();
+    tb.add(Function._DB_OPEN.args(db).substring(1)).add("/descendant::").add(test);
+    for(final Expr cmp : cmps) tb.add('[').add(cmp).add(']');
+    return tb.toString();
+  }
+}
@@ -0,0 +1,97 @@
+package org.basex.query.expr.index;
+
+import static org.basex.query.QueryText.*;
+
+import org.basex.data.*;
+import org.basex.index.*;
+import org.basex.index.query.*;
+import org.basex.query.*;
+import org.basex.query.expr.*;
+import org.basex.query.func.*;
+import org.basex.query.iter.*;
+import org.basex.query.value.*;
+import org.basex.query.value.node.*;
+import org.basex.query.value.seq.*;
+import org.basex.query.var.*;
+import org.basex.util.*;
+import org.basex.util.hash.*;
+import org.basex.util.list.*;
+
+/**
+ * This index class retrieves date, dateTime and time ranges from a value index.
+ *
+ * @author BaseX Team 2005-20, BSD License
+ * @author Christian Gruen
+ */
+public final class TemporalRangeAccess extends IndexAccess {
+  /** Index token. */
+  private final TemporalRange index;
+
+  /**
+   * Constructor.
+   * @param info input info
+   * @param index index token
+   * @param db index database
+   */
+  public TemporalRangeAccess(final InputInfo info, final TemporalRange index, final IndexDb db) {
+    super(db, info, index.type());
+    this.index = index;
+  }
+
+  @Override
+  public Iter iter(final QueryContext qc) throws QueryException {
+    final IndexType type = index.type();
+    final Data data = db.data(qc, type);
+
+    return new DBNodeIter(data) {
+      final byte kind = type == IndexType.TEXT ? Data.TEXT : Data.ATTR;
+      final IndexIterator ii = data.iter(index);
+
+      @Override
+      public DBNode next() {
+        return ii.more() ? new DBNode(data, ii.pre(), kind) : null;
+      }
+    };
+  }
+
+  @Override
+  public Value value(final QueryContext qc) throws QueryException {
+    final IndexType it = index.type();
+    final Data data = db.data(qc, it);
+
+    final IndexIterator ii = data.iter(index);
+    final IntList list = new IntList();
+    while(ii.more()) list.add(ii.pre());
+    return DBNodeSeq.get(list.finish(), data, this);
+  }
+
+  @Override
+  public Expr copy(final CompileContext cc, final IntObjMap<Var> vm) {
+    return new TemporalRangeAccess(info, index, db.copy(cc, vm));
+  }
+
+  @Override
+  public int hashCode() {
+    return index.hashCode();
+  }
+
+  @Override
+  public boolean equals(final Object obj) {
+    return obj instanceof TemporalRangeAccess &&
+        index.equals(((TemporalRangeAccess) obj).index) && super.equals(obj);
+  }
+
+  @Override
+  public void plan(final QueryPlan plan) {
+    plan.add(plan.create(this, INDEX, index.type(), MIN, index.min, MAX, index.max,
+        INCLUDE_MIN, index.mni, INCLUDE_MAX, index.mxi), db);
+  }
+
+  @Override
+  public String toString() {
+    final Function func = index.type() == IndexType.TEXT ? Function._DB_TEXT_RANGE :
+      Function._DB_ATTRIBUTE_RANGE;
+    return func.args(db, index.min != null ? index.min : Empty.VALUE,
+        index.max != null ? index.max : Empty.VALUE).substring(1);
+  }
+}
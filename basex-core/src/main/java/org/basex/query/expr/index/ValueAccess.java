@@ -87,14 +87,7 @@ public final class ValueAccess extends IndexAccess {
   @Override
   public Iter iter(final QueryContext qc) throws QueryException {
     // cache distinct search terms
-    final TokenSet cache;
-    if(tokens == null) {
-      cache = new TokenSet();
-      final Iter ir = expr.iter(qc);
-      for(Item item; (item = qc.next(ir)) != null;) cache.add(toToken(item));
-    } else {
-      cache = tokens;
-    }
+    final TokenSet cache = terms(qc);
 
     // no search terms: return empty iterator
     final int c = cache.size();
@@ -120,6 +113,83 @@ public final class ValueAccess extends IndexAccess {
     return iter(qc).value(qc, this);
   }
 
+  /**
+   * Returns the index type.
+   * @return index type
+   */
+  public IndexType type() {
+    return type;
+  }
+
+  /**
+   * Returns the name test for the parent elements of the index results.
+   * @return name test (can be {@code null})
+   */
+  public NameTest test() {
+    return test;
+  }
+
+  /**
+   * Returns the database of the index results.
+   * @param qc query context
+   * @return data reference
+   * @throws QueryException query exception
+   */
+  public Data data(final QueryContext qc) throws QueryException {
+    return db.data(qc, type);
+  }
+
+  /**
+   * Returns index iterators for the distinct search terms. Called by aggregate functions that
+   * evaluate the results without creating nodes.
+   * @param data data reference (see {@link #data(QueryContext)})
+   * @param qc query context
+   * @return iterators over the pre values of the text or attribute nodes (in ascending order,
+   *   and disjoint, ignoring the parent test), or {@code null} if the results cannot be retrieved
+   *   from the index
+   * @throws QueryException query exception
+   */
+  public IndexIterator[] postings(final Data data, final QueryContext qc) throws QueryException {
+    if(type != IndexType.TEXT && type != IndexType.ATTRIBUTE) return null;
+
+    final TokenSet cache = terms(qc);
+    final IndexIterator[] iters = new IndexIterator[cache.size()];
+    int i = 0;
+    for(final byte[] token : cache) {
+      if(!index(token, data)) return null;
+      iters[i++] = data.iter(new StringToken(type, token));
+    }
+    return iters;
+  }
+
+  /**
+   * Returns the distinct search terms.
+   * @param qc query context
+   * @return search terms
+   * @throws QueryException query exception
+   */
+  private TokenSet terms(final QueryContext qc) throws QueryException {
+    if(tokens != null) return tokens;
+    final TokenSet cache = new TokenSet();
+    final Iter ir = expr.iter(qc);
+    for(Item item; (item = qc.next(ir)) != null;) cache.add(toToken(item));
+    return cache;
+  }
+
+  /**
+   * Checks if the index is available and if it may contain the specified term.
+   * @param term search term
+   * @param data data reference
+   * @return result of check
+   */
+  private boolean index(final byte[] term, final Data data) {
+    final int tl = term.length;
+    return data.meta.index(type) && (
+      !(type == IndexType.TEXT || type == IndexType.ATTRIBUTE) ||
+      tl > 0 && tl <= data.meta.maxlen
+    );
+  }
+
   /**
    * Returns an index iterator.
    * @param term search term
@@ -136,10 +206,7 @@ public final class ValueAccess extends IndexAccess {
 
     // check if index is available and if it may contain the requested term
     // otherwise, use sequential scan
-    final boolean index = data.meta.index(type) && (
-        !(type == IndexType.TEXT || type == IndexType.ATTRIBUTE) ||
-        tl > 0 && tl <= data.meta.maxlen
-    );
+    final boolean index = index(term, data);
 
     final IndexIterator ii = index ? data.iter(new StringToken(type, term)) : scan(term, data);
     final int kind = type == IndexType.TEXT ? Data.TEXT : Data.ATTR;
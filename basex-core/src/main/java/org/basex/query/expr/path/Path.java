@@ -8,6 +8,7 @@ import java.util.function.*;
 import org.basex.core.locks.*;
 import org.basex.data.*;
 import org.basex.index.path.*;
+import org.basex.index.stats.*;
 import org.basex.query.*;
 import org.basex.query.CompileContext.*;
 import org.basex.query.expr.*;
@@ -330,6 +331,68 @@ public abstract class Path extends ParseExpr {
     return nodes;
   }
 
+  /**
+   * Returns the columns with the numeric values of the nodes that will result from this path.
+   * Called by the query optimizer.
+   * @return columns or {@code null} if the values are not available in columns
+   */
+  public final ArrayList<Column> columns() {
+    final ArrayList<PathNode> nodes = pathNodes(root);
+    if(nodes == null || !data.meta.columns) return null;
+
+    final ArrayList<Column> columns = new ArrayList<>();
+    for(final PathNode node : nodes) {
+      final PathNode pn = valueNode(node);
+      if(pn == null) return null;
+      final Column column = data.paths.column(pn);
+      if(column == null) return null;
+      columns.add(column);
+    }
+    return columns;
+  }
+
+  /**
+   * Returns the smallest and largest numeric value of the nodes that will result from this path.
+   * Called by the query optimizer.
+   * @return minimum and maximum, or {@code null} if the values cannot be retrieved from the
+   *   statistics of the path index
+   */
+  public final double[] range() {
+    // path must yield the nodes of all documents
+    final ArrayList<PathNode> nodes = pathNodes(root);
+    if(nodes == null || nodes.isEmpty() || data.meta.ndocs != root.size()) return null;
+
+    double min = Double.POSITIVE_INFINITY, max = Double.NEGATIVE_INFINITY;
+    for(final PathNode node : nodes) {
+      final PathNode pn = valueNode(node);
+      if(pn == null) return null;
+      // empty values are not analyzed: attributes are only accepted if all values are known
+      final Stats stats = pn.stats;
+      if(pn.kind == Data.ATTR && (stats.values == null || stats.values.contains(Token.EMPTY)) ||
+          !StatsType.isNumeric(stats.type)) return null;
+      min = Math.min(min, stats.min);
+      max = Math.max(max, stats.max);
+    }
+    return new double[] { min, max };
+  }
+
+  /**
+   * Returns the path node that contains the values of the specified node.
+   * @param node path node
+   * @return text or attribute node, or {@code null} if the values are not available
+   */
+  private static PathNode valueNode(final PathNode node) {
+    if(node.kind == Data.TEXT || node.kind == Data.ATTR) return node;
+    if(node.kind != Data.ELEM || !node.stats.isLeaf()) return null;
+
+    // string value of element must equal the value of its single text node
+    PathNode pn = null;
+    for(final PathNode child : node.children) {
+      if(child.kind == Data.TEXT) pn = child;
+    }
+    return pn != null && pn.stats.count == node.stats.count ? pn : null;
+  }
+
   /**
    * Checks if the specified axis steps can be evaluated iteratively.
    * @param root root expression (can be {@code null})
@@ -631,9 +694,12 @@ public abstract class Path extends ParseExpr {
    * 5. A[B/text() = '...']  : IA('...')/parent::B/parent::A
    * 6. A[B/C = '...']       : IA('...', C)/parent::B/parent::A
    * 7. A[@a = '...']        : IA('...', @a)/parent::A
-   * 8. @a[. = '...']        : IA('...', @a)</pre>
+   * 8. @a[. = '...']        : IA('...', @a)
+   * 9. A[@a = '...'][@b = '...']: CA('...', '...', A)</pre>
    *
    * Queries of type 1, 3, 5 will not yield any results if the string to be compared is empty.
+   * Queries of type 9 will be rewritten to {@link CompositeAccess} instances if a composite index
+   * has been declared for the element and its attributes.
    *
    * @param cc compilation context
    * @param rt compile time root (can be {@code null})
@@ -664,10 +730,10 @@ public abstract class Path extends ParseExpr {
           new IndexStaticDb(data, info) :
           new IndexDynDb(root == null ? new ContextValue(info) : root, info);
 
-        // choose cheapest index access
-        for(int e = 0; e < el; e++) {
+        // choose cheapest index access (composite index: multiple predicates)
+        for(int e = -1; e < el; e++) {
           final IndexInfo ii = new IndexInfo(db, cc, step);
-          if(!step.exprs[e].indexAccessible(ii)) continue;
+          if(!(e == -1 ? ii.composite() : step.exprs[e].indexAccessible(ii))) continue;
 
           if(ii.costs.results() == 0) {
             // no results...
@@ -735,7 +801,7 @@ public abstract class Path extends ParseExpr {
     final Expr[] preds = index.step.exprs;
     final int pl = preds.length;
     for(int p = 0; p < pl; p++) {
-      if(p != indexPred) newPreds.add(preds[p]);
+      if(index.preds != null ? !index.preds.contains(p) : p != indexPred) newPreds.add(preds[p]);
     }
 
     // add predicates to end of path
@@ -345,7 +345,9 @@ public abstract class StandardFunc extends Arr {
    * @throws QueryException query exception
    */
   protected final IO checkPath(final int i, final QueryContext qc) throws QueryException {
-    return checkPath(toToken(exprs[i], qc));
+    final IO io = checkPath(toToken(exprs[i], qc));
+    qc.resources.file();
+    return io;
   }
 
   /**
@@ -604,7 +606,15 @@ public abstract class StandardFunc extends Arr {
 
   @Override
   public final void plan(final QueryPlan plan) {
-    plan.add(plan.create(this, NAME, definition.id()), exprs);
+    plan.add(plan.create(this, NAME, definition.id(), AGGREGATE, aggregate()), exprs);
+  }
+
+  /**
+   * Returns the strategy for aggregating the input values, which will be shown in the query plan.
+   * @return strategy, or {@code null} if the values are processed one by one
+   */
+  protected String aggregate() {
+    return null;
   }
 
   @Override
@@ -0,0 +1,104 @@
+package org.basex.query.func.fn;
+
+import java.util.*;
+
+import org.basex.data.*;
+import org.basex.index.path.*;
+import org.basex.query.*;
+import org.basex.query.expr.*;
+import org.basex.query.expr.path.*;
+import org.basex.query.iter.*;
+import org.basex.query.value.item.*;
+import org.basex.query.value.node.*;
+import org.basex.util.list.*;
+
+/**
+ * Numeric values of a path, which are retrieved from the columns of a database
+ * ({@link org.basex.core.MainOptions#COLUMNS}).
+ *
+ * @author BaseX Team 2005-20, BSD License
+ * @author Christian Gruen
+ */
+final class ColumnValues {
+  /** Path. */
+  private final AxisPath path;
+  /** Columns. */
+  private final ArrayList<Column> columns;
+
+  /**
+   * Constructor.
+   * @param path path
+   * @param columns columns
+   */
+  private ColumnValues(final AxisPath path, final ArrayList<Column> columns) {
+    this.path = path;
+    this.columns = columns;
+  }
+
+  /**
+   * Returns a column reference for the specified expression.
+   * @param expr expression
+   * @return column values or {@code null} if no columns are available
+   */
+  static ColumnValues get(final Expr expr) {
+    if(!(expr instanceof AxisPath)) return null;
+    final AxisPath path = (AxisPath) expr;
+    final ArrayList<Column> columns = path.columns();
+    return columns != null ? new ColumnValues(path, columns) : null;
+  }
+
+  /**
+   * Returns the values of the resulting nodes in document order.
+   * @param qc query context
+   * @return values, or {@code null} if the root of the path does not yield ordered documents
+   *   of the indexed database
+   * @throws QueryException query exception
+   */
+  double[] values(final QueryContext qc) throws QueryException {
+    final Data data = path.data();
+    if(data == null || !data.meta.uptodate) return null;
+
+    final DoubleList list = new DoubleList();
+    final Iter iter = path.root.iter(qc);
+    int next = 0;
+    for(Item item; (item = qc.next(iter)) != null;) {
+      if(!(item instanceof DBNode)) return null;
+      final DBNode node = (DBNode) item;
+      final int pre = node.pre();
+      if(node.data() != data || node.kind() != Data.DOC || pre < next) return null;
+      next = pre + data.size(pre, Data.DOC);
+      add(pre, next, list);
+    }
+    return list.finish();
+  }
+
+  /**
+   * Adds the values of the specified document to the list.
+   * @param start pre value of the document
+   * @param end pre value after the document
+   * @param list value list
+   */
+  private void add(final int start, final int end, final DoubleList list) {
+    final int cs = columns.size();
+    final int[] pos = new int[cs], ends = new int[cs];
+    for(int c = 0; c < cs; c++) {
+      final Column column = columns.get(c);
+      pos[c] = column.index(start);
+      ends[c] = column.index(end);
+    }
+    // merge values of all columns in document order
+    while(true) {
+      int min = -1, pre = Integer.MAX_VALUE;
+      for(int c = 0; c < cs; c++) {
+        if(pos[c] == ends[c]) continue;
+        final int p = columns.get(c).pre(pos[c]);
+        if(p < pre) {
+          pre = p;
+          min = c;
+        }
+      }
+      if(min == -1) break;
+      list.add(columns.get(min).value(pos[min]++));
+    }
+  }
+}
@@ -27,9 +27,12 @@ public class FnAvg extends FnSum {
       final Item item = singleton((SingletonSeq) expr);
       if(item != null) return item;
     }
+    final Item item = aggregate(true, qc);
+    if(item != null) return item;
+
     final Iter iter = expr.atomIter(qc, info);
-    final Item item = iter.next();
-    return item == null ? Empty.VALUE : sum(iter, item, true, qc);
+    final Item first = iter.next();
+    return first == null ? Empty.VALUE : sum(iter, first, true, qc);
   }
 
   @Override
@@ -47,6 +50,8 @@ public class FnAvg extends FnSum {
     final SeqType st = expr.seqType();
     if(!st.mayBeArray()) exprType.assign(Calc.DIV.type(st.type, st.type));
 
+    columns = ColumnValues.get(expr);
+    postings = IndexPostings.get(expr, true);
     return this;
   }
 
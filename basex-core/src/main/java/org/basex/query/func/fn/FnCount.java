@@ -1,5 +1,7 @@
 package org.basex.query.func.fn;
 
+import static org.basex.query.QueryText.*;
+
 import org.basex.query.*;
 import org.basex.query.expr.*;
 import org.basex.query.func.*;
@@ -16,12 +18,21 @@ import org.basex.util.*;
  * @author Christian Gruen
  */
 public final class FnCount extends StandardFunc {
+  /** Nodes that are counted via index postings (can be {@code null}). */
+  private IndexPostings postings;
+
   @Override
   public Int item(final QueryContext qc, final InputInfo ii) throws QueryException {
     // if possible, retrieve single item
     final Expr expr = exprs[0];
     if(expr.seqType().zeroOrOne()) return expr.item(qc, info) == Empty.VALUE ? Int.ZERO : Int.ONE;
 
+    // index access: count index results without creating nodes
+    if(postings != null) {
+      final long size = postings.count(qc);
+      if(size != -1) return Int.get(size);
+    }
+
     // iterative access: if the iterator size is unknown, iterate through all results
     final Iter iter = expr.iter(qc);
     long size = iter.size();
@@ -52,6 +63,12 @@ public final class FnCount extends StandardFunc {
     }
 
     exprs[0] = expr;
+    postings = IndexPostings.get(expr, false);
     return this;
   }
+
+  @Override
+  protected String aggregate() {
+    return postings != null ? POSTINGS : null;
+  }
 }
@@ -20,6 +20,6 @@ public final class FnMax extends FnMin {
 
   @Override
   protected Expr opt(final CompileContext cc) {
-    return opt(OpV.LT);
+    return opt(OpV.LT, cc);
   }
 }
@@ -1,14 +1,17 @@
 package org.basex.query.func.fn;
 
 import static org.basex.query.QueryError.*;
+import static org.basex.query.QueryText.*;
 import static org.basex.query.value.type.AtomType.*;
 
 import org.basex.query.*;
 import org.basex.query.CompileContext.*;
 import org.basex.query.expr.*;
 import org.basex.query.expr.CmpV.*;
+import org.basex.query.expr.path.*;
 import org.basex.query.func.*;
 import org.basex.query.iter.*;
+import org.basex.query.util.*;
 import org.basex.query.util.collation.*;
 import org.basex.query.value.*;
 import org.basex.query.value.item.*;
@@ -23,6 +26,9 @@ import org.basex.util.*;
  * @author Christian Gruen
  */
 public class FnMin extends StandardFunc {
+  /** Values stored in database columns (can be {@code null}). */
+  private ColumnValues columns;
+
   @Override
   public Item item(final QueryContext qc, final InputInfo ii) throws QueryException {
     return minmax(OpV.GT, qc);
@@ -45,6 +51,15 @@ public class FnMin extends StandardFunc {
       final Value value = expr.value(qc);
       return value.isEmpty() ? Empty.VALUE : value.itemAt(cmp == OpV.GT ? 0 : value.size() - 1);
     }
+    final double[] values = columns != null ? columns.values(qc) : null;
+    if(values != null) {
+      if(values.length == 0) return Empty.VALUE;
+      double value = values[0];
+      for(final double v : values) {
+        if(cmp == OpV.GT ? value > v : value < v) value = v;
+      }
+      return Dbl.get(value);
+    }
 
     final Iter iter = expr.atomIter(qc, info);
     item1 = iter.next();
@@ -135,15 +150,16 @@ public class FnMin extends StandardFunc {
 
   @Override
   protected Expr opt(final CompileContext cc) {
-    return opt(OpV.GT);
+    return opt(OpV.GT, cc);
   }
 
   /**
    * Optimizes a minimum or maximum item.
    * @param cmp comparator
+   * @param cc compilation context
    * @return optimized or original item
    */
-  final Expr opt(final OpV cmp) {
+  final Expr opt(final OpV cmp, final CompileContext cc) {
     Expr expr = optFirst();
     if(expr != this) return expr;
 
@@ -160,6 +176,22 @@ public class FnMin extends StandardFunc {
       final Item item = value(cmp);
       if(item != null) return item;
     }
+    if(exprs.length < 2) {
+      // retrieve result from the statistics of the path index
+      if(expr instanceof Path && !expr.has(Flag.NDT)) {
+        final double[] range = ((Path) expr).range();
+        if(range != null) {
+          cc.info(OPTSTATS_X, this);
+          return Dbl.get(range[cmp == OpV.GT ? 0 : 1]);
+        }
+      }
+      columns = ColumnValues.get(expr);
+    }
     return this;
   }
+
+  @Override
+  protected final String aggregate() {
+    return columns != null ? COLUMNS : null;
+  }
 }
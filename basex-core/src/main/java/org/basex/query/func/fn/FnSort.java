@@ -8,6 +8,7 @@ import org.basex.query.*;
 import org.basex.query.expr.*;
 import org.basex.query.func.*;
 import org.basex.query.iter.*;
+import org.basex.query.util.*;
 import org.basex.query.util.collation.*;
 import org.basex.query.util.list.*;
 import org.basex.query.value.*;
@@ -56,7 +57,7 @@ public final class FnSort extends StandardFunc {
       values.add((key == null ? item : key.invokeValue(qc, info, item)).atomValue(qc, info));
     }
 
-    final Integer[] order = sort(values, this, coll, qc);
+    final int[] order = sort(values, this, coll, qc);
     return new BasicIter<Item>(size) {
       @Override
       public Item get(final long i) {
@@ -74,10 +75,19 @@ public final class FnSort extends StandardFunc {
    * @return item order
    * @throws QueryException query exception
    */
-  public static Integer[] sort(final ValueList values, final StandardFunc sf, final Collation coll,
+  public static int[] sort(final ValueList values, final StandardFunc sf, final Collation coll,
       final QueryContext qc) throws QueryException {
 
+    // single items: sort positions of normalized keys
     final int al = values.size();
+    boolean single = true;
+    for(int a = 0; single && a < al; a++) single = values.get(a).size() == 1;
+    if(single) {
+      final SortKeys sk = new SortKeys(al);
+      if(sk.add(a -> values.get(a).itemAt(0), coll, false, true, sf.info)) return sk.order(qc);
+    }
+
+    // compare original values
     final Integer[] order = new Integer[al];
     for(int o = 0; o < al; o++) order[o] = o;
     try {
@@ -105,7 +115,9 @@ public final class FnSort extends StandardFunc {
     } catch(final QueryRTException ex) {
       throw ex.getCause();
     }
-    return order;
+    final int[] positions = new int[al];
+    for(int a = 0; a < al; a++) positions[a] = order[a];
+    return positions;
   }
 
   @Override
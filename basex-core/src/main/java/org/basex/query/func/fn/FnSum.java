@@ -1,6 +1,7 @@
 package org.basex.query.func.fn;
 
 import static org.basex.query.QueryError.*;
+import static org.basex.query.QueryText.*;
 import static org.basex.query.value.type.AtomType.*;
 
 import java.math.*;
@@ -23,6 +24,11 @@ import org.basex.util.*;
  * @author Christian Gruen
  */
 public class FnSum extends StandardFunc {
+  /** Values stored in database columns (can be {@code null}). */
+  ColumnValues columns;
+  /** Nodes that are summed up via index postings (can be {@code null}). */
+  IndexPostings postings;
+
   @Override
   public Item item(final QueryContext qc, final InputInfo ii) throws QueryException {
     final Expr expr = exprs[0];
@@ -34,9 +40,14 @@ public class FnSum extends StandardFunc {
         final Item item = singleton((SingletonSeq) expr);
         if(item != null) return item;
       }
-      final Iter iter = exprs[0].atomIter(qc, info);
-      final Item item = iter.next();
-      if(item != null) return sum(iter, item, false, qc);
+      final Item item = aggregate(false, qc);
+      if(item != null) {
+        if(item != Empty.VALUE) return item;
+      } else {
+        final Iter iter = exprs[0].atomIter(qc, info);
+        final Item first = iter.next();
+        if(first != null) return sum(iter, first, false, qc);
+      }
     }
 
     // return default item
@@ -75,9 +86,16 @@ public class FnSum extends StandardFunc {
       // if input may be empty: consider default argument in static type
       exprType.assign(Calc.PLUS.type(st1.type, st2.type), st2.oneOrMore() ? Occ.ONE : Occ.ZERO_ONE);
     }
+    columns = ColumnValues.get(expr1);
+    postings = IndexPostings.get(expr1, true);
     return this;
   }
 
+  @Override
+  protected final String aggregate() {
+    return columns != null ? COLUMNS : postings != null ? POSTINGS : null;
+  }
+
   /**
    * Compute result from range value.
    * @param value sequence
@@ -120,6 +138,25 @@ public class FnSum extends StandardFunc {
     return item.type.isNumber() ? Calc.MULT.eval(item, Int.get(seq.size()), info) : null;
   }
 
+  /**
+   * Sums up values that are stored in database columns, or that are retrieved via index postings.
+   * @param avg calculate average
+   * @param qc query context
+   * @return result, {@link Empty#VALUE} if no values exist,
+   *   or {@code null} if neither the columns nor the index can be used
+   * @throws QueryException query exception
+   */
+  final Item aggregate(final boolean avg, final QueryContext qc) throws QueryException {
+    final double[] values = columns != null ? columns.values(qc) : null;
+    if(values == null) return postings != null ? postings.sum(avg, qc, info) : null;
+
+    final int vl = values.length;
+    if(vl == 0) return Empty.VALUE;
+    double sum = values[0];
+    for(int v = 1; v < vl; v++) sum += values[v];
+    return Dbl.get(avg ? sum / vl : sum);
+  }
+
   /**
    * Sums up the specified item(s).
    * @param iter iterator
@@ -0,0 +1,263 @@
+package org.basex.query.func.fn;
+
+import java.util.*;
+
+import org.basex.data.*;
+import org.basex.index.*;
+import org.basex.index.query.*;
+import org.basex.query.*;
+import org.basex.query.expr.*;
+import org.basex.query.expr.index.*;
+import org.basex.query.expr.path.*;
+import org.basex.query.value.item.*;
+import org.basex.query.value.node.*;
+import org.basex.query.value.seq.*;
+import org.basex.util.*;
+import org.basex.util.hash.*;
+
+/**
+ * Nodes of a path that starts with an index access, which are counted or summed up via the
+ * pre values of the index results ({@link ValueAccess#postings}). No node instances are created:
+ * the index results are filtered by self steps, followed by optional parent steps and an
+ * optional attribute step, and values are read from the database table.
+ *
+ * @author BaseX Team 2005-20, BSD License
+ * @author Christian Gruen
+ */
+final class IndexPostings {
+  /** Index access. */
+  private final ValueAccess access;
+  /** Node kind of the index results. */
+  private final int kind;
+  /** Tests of the self steps. */
+  private final Test[] tests;
+  /** Tests of the parent steps. */
+  private final Test[] parents;
+  /** Test of the attribute step (can be {@code null}). */
+  private final Test attribute;
+
+  /**
+   * Constructor.
+   * @param access index access
+   * @param tests tests of the self steps
+   * @param parents tests of the parent steps
+   * @param attribute test of the attribute step (can be {@code null})
+   */
+  private IndexPostings(final ValueAccess access, final Test[] tests, final Test[] parents,
+      final Test attribute) {
+    this.access = access;
+    this.tests = tests;
+    this.parents = parents;
+    this.attribute = attribute;
+    kind = access.type() == IndexType.TEXT ? Data.TEXT : Data.ATTR;
+  }
+
+  /**
+   * Returns an instance for the specified expression.
+   * @param expr expression
+   * @param values values of the nodes will be requested
+   * @return instance or {@code null} if the expression cannot be evaluated via index postings
+   */
+  static IndexPostings get(final Expr expr, final boolean values) {
+    final Expr root = expr instanceof Path ? ((Path) expr).root : expr;
+    if(!(root instanceof ValueAccess)) return null;
+    final ValueAccess access = (ValueAccess) root;
+    final IndexType type = access.type();
+    if(type != IndexType.TEXT && type != IndexType.ATTRIBUTE) return null;
+
+    // the parent test of the index access is treated as parent step
+    final ArrayList<Test> tests = new ArrayList<>(), parents = new ArrayList<>();
+    if(access.test() != null) parents.add(access.test());
+    Test attribute = null;
+    for(final Expr step : expr instanceof Path ? ((Path) expr).steps : new Expr[0]) {
+      if(!(step instanceof Step) || attribute != null) return null;
+      final Step st = (Step) step;
+      if(st.exprs.length != 0) return null;
+      if(st.axis == Axis.SELF && parents.isEmpty()) {
+        tests.add(st.test);
+      } else if(st.axis == Axis.PARENT) {
+        parents.add(st.test);
+      } else if(st.axis == Axis.ATTRIBUTE && !parents.isEmpty()) {
+        attribute = st.test;
+      } else {
+        return null;
+      }
+    }
+    // values of elements are not retrieved, and only the parents of attributes are
+    // guaranteed to be returned in document order
+    final int ps = parents.size();
+    if(values && ps != 0 && (attribute == null || ps > 1 || type == IndexType.TEXT)) return null;
+    return new IndexPostings(access, tests.toArray(new Test[0]), parents.toArray(new Test[0]),
+        attribute);
+  }
+
+  /**
+   * Counts the resulting nodes.
+   * @param qc query context
+   * @return number of nodes, or {@code -1} if the index cannot be used
+   * @throws QueryException query exception
+   */
+  long count(final QueryContext qc) throws QueryException {
+    final Data data = access.data(qc);
+    final IndexIterator[] iters = access.postings(data, qc);
+    if(iters == null) return -1;
+
+    long size = 0;
+    if(tests.length == 0 && parents.length == 0) {
+      // no filters: return number of index results
+      for(final IndexIterator iter : iters) size += iter.size();
+    } else {
+      final Results results = new Results(data, iters);
+      while(results.next(qc) != -1) size++;
+    }
+    return size;
+  }
+
+  /**
+   * Sums up the values of the resulting nodes.
+   * @param avg calculate average
+   * @param qc query context
+   * @param info input info
+   * @return result, {@link Empty#VALUE} if no values exist, or {@code null} if the index
+   *   cannot be used
+   * @throws QueryException query exception
+   */
+  Item sum(final boolean avg, final QueryContext qc, final InputInfo info)
+      throws QueryException {
+    final Data data = access.data(qc);
+    final IndexIterator[] iters = access.postings(data, qc);
+    if(iters == null) return null;
+
+    // values are added in document order (results may differ if the order is changed)
+    final Results results = new Results(data, iters);
+    final boolean text = kind == Data.TEXT && attribute == null;
+    double sum = 0;
+    long c = 0;
+    for(int pre; (pre = results.next(qc)) != -1;) {
+      final double d = Dbl.parse(data.text(pre, text), info);
+      sum = c++ == 0 ? d : sum + d;
+    }
+    return c == 0 ? Empty.VALUE : Dbl.get(avg ? sum / c : sum);
+  }
+
+  /** Pre values of the resulting nodes. */
+  private final class Results {
+    /** Data reference. */
+    private final Data data;
+    /** Index iterators. */
+    private final IndexIterator[] iters;
+    /** Current pre values of the iterators ({@code -1}: exhausted). */
+    private final int[] pres;
+    /** Node instances for testing nodes (indexed by node kind). */
+    private final DBNode[] nodes = new DBNode[Data.ATTR + 1];
+    /** Visited parents (assigned if required). */
+    private final IntSet[] visited;
+    /** Last parent of an attribute. */
+    private int last = -1;
+    /** Next attribute of the current parent. */
+    private int next;
+    /** Pre value after the last attribute of the current parent. */
+    private int end;
+    /** Number of processed index results. */
+    private int count;
+
+    /**
+     * Constructor.
+     * @param data data reference
+     * @param iters index iterators
+     */
+    private Results(final Data data, final IndexIterator[] iters) {
+      this.data = data;
+      this.iters = iters;
+      final int il = iters.length;
+      pres = new int[il];
+      for(int i = 0; i < il; i++) pres[i] = iters[i].more() ? iters[i].pre() : -1;
+      for(int k = Data.DOC; k <= Data.ATTR; k++) nodes[k] = new DBNode(data, 0, k);
+      visited = new IntSet[parents.length];
+    }
+
+    /**
+     * Returns the pre value of the next resulting node.
+     * @param qc query context
+     * @return pre value or {@code -1}
+     * @throws QueryException query exception
+     */
+    int next(final QueryContext qc) throws QueryException {
+      while(true) {
+        // return matching attributes of the current parent
+        while(next < end) {
+          final DBNode att = nodes[Data.ATTR];
+          att.pre(next++);
+          if(attribute.matches(att)) return next - 1;
+        }
+
+        // choose smallest pre value of all iterators
+        int i = -1, pre = Integer.MAX_VALUE;
+        final int il = pres.length;
+        for(int p = 0; p < il; p++) {
+          if(pres[p] != -1 && pres[p] < pre) {
+            pre = pres[p];
+            i = p;
+          }
+        }
+        if(i == -1) return -1;
+        pres[i] = iters[i].more() ? iters[i].pre() : -1;
+        if((++count & 0xFFFF) == 0) qc.checkStop();
+
+        final DBNode node = nodes[kind];
+        node.pre(pre);
+        if(!matches(node)) continue;
+
+        final int par = parent(pre);
+        if(par == -1) continue;
+        if(attribute == null) return par;
+        next = par + 1;
+        end = par + data.attSize(par, data.kind(par));
+      }
+    }
+
+    /**
+     * Checks if the tests of all self steps match the specified node.
+     * @param node node
+     * @return result of check
+     */
+    private boolean matches(final DBNode node) {
+      for(final Test test : tests) {
+        if(!test.matches(node)) return false;
+      }
+      return true;
+    }
+
+    /**
+     * Returns the ancestor of an index result that is addressed by the parent steps.
+     * Ancestors that have already been returned are skipped.
+     * @param pre pre value of the index result
+     * @return pre value of the ancestor, or {@code -1} if it does not match or has been returned
+     */
+    private int parent(final int pre) {
+      int p = pre, k = kind;
+      final int pl = parents.length;
+      for(int l = 0; l < pl; l++) {
+        final int par = data.parent(p, k);
+        if(par == -1) return -1;
+        final int pk = k == Data.ATTR ? Data.ELEM : data.kind(par);
+        if(k == Data.ATTR) {
+          // attributes of the same parent are adjacent
+          if(par == last) return -1;
+          last = par;
+        } else if(p != par + data.attSize(par, pk) ||
+            p + data.size(p, k) != par + data.size(par, pk)) {
+          // parents with more than one child may be reached several times
+          if(visited[l] == null) visited[l] = new IntSet();
+          if(!visited[l].add(par)) return -1;
+        }
+        final DBNode node = nodes[pk];
+        node.pre(par);
+        if(!parents[l].matches(node)) return -1;
+        p = par;
+        k = pk;
+      }
+      return p;
+    }
+  }
+}
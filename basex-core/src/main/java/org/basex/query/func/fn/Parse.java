@@ -64,6 +64,7 @@ public abstract class Parse extends StandardFunc {
         if(rp.length > 1) enc = rp[1];
       }
 
+      qc.resources.file();
       try(InputStream is = io.inputStream(); TextInput ti = new TextInput(io)) {
         ti.encoding(enc).validate(true);
         if(!check) return Str.get(ti.content());
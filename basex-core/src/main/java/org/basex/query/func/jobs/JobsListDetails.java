@@ -31,7 +31,7 @@ public final class JobsListDetails extends StandardFunc {
     final ValueBuilder vb = new ValueBuilder(qc);
 
     final byte[][] atts = {
-      ID, TYPE, STATE, USER, DURATION, START, END, INTERVAL, READS, WRITES, TIME
+      ID, TYPE, STATE, USER, DURATION, PROGRESS, START, END, INTERVAL, READS, WRITES, WAITED, TIME
     };
     for(final byte[] key : ids) {
       final TokenList entry = JobsList.entry(key, jobs, max);
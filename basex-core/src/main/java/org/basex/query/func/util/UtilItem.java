@@ -2,6 +2,7 @@ package org.basex.query.func.util;
 
 import org.basex.query.*;
 import org.basex.query.expr.*;
+import org.basex.query.expr.gflwor.*;
 import org.basex.query.func.*;
 import org.basex.query.func.file.*;
 import org.basex.query.iter.*;
@@ -72,6 +73,8 @@ public final class UtilItem extends StandardFunc {
         return cc.function(Function._UTIL_ITEM, info, args(expr)[0], Int.get(p + 2));
       if(Function._FILE_READ_TEXT_LINES.is(expr))
         return FileReadTextLines.opt(this, p, 1, cc);
+      // limit number of sorted tuples
+      if(expr instanceof GFLWOR) ((GFLWOR) expr).limit(p + 1);
     }
 
     if(Function._UTIL_INIT.is(expr))
@@ -75,6 +75,15 @@ public final class DBOptimize extends DBUpdate {
     options.assignIfAbsent(MainOptions.SPLITSIZE, meta.splitsize);
     options.assignIfAbsent(MainOptions.UPDINDEX, meta.updindex);
     options.assignIfAbsent(MainOptions.AUTOOPTIMIZE, meta.autooptimize);
+    options.assignIfAbsent(MainOptions.MMAP, meta.mmap);
+    options.assignIfAbsent(MainOptions.WAL, meta.wal);
+    // storage format will only be changed if the database is rebuilt
+    options.assignIfAbsent(MainOptions.BLOCKCOMPRESS, meta.blockcompress);
+    options.assignIfAbsent(MainOptions.COLUMNS, meta.columns);
+    options.assignIfAbsent(MainOptions.NUMINDEX, meta.numindex);
+    options.assignIfAbsent(MainOptions.DATEINDEX, meta.dateindex);
+    options.assignIfAbsent(MainOptions.BLOOMFILTER, meta.bloomfilter);
+    options.assignIfAbsent(MainOptions.COMPOSITEINDEX, meta.compositeindex);
     options.assignTo(opts);
 
     // adopt options to database meta data
@@ -85,7 +94,15 @@ public final class DBOptimize extends DBUpdate {
 
     meta.updindex = opts.get(MainOptions.UPDINDEX);
     meta.autooptimize = opts.get(MainOptions.AUTOOPTIMIZE);
+    meta.mmap = opts.get(MainOptions.MMAP);
+    meta.wal = opts.get(MainOptions.WAL);
+    meta.columns = opts.get(MainOptions.COLUMNS);
+    meta.numindex = opts.get(MainOptions.NUMINDEX);
+    meta.dateindex = opts.get(MainOptions.DATEINDEX);
+    meta.bloomfilter = opts.get(MainOptions.BLOOMFILTER);
+    meta.compositeindex = opts.get(MainOptions.COMPOSITEINDEX);
     meta.splitsize = opts.get(MainOptions.SPLITSIZE);
+    meta.indexthreads = opts.get(MainOptions.INDEXTHREADS);
 
     // check if other indexing options have changed
     final int maxcats = opts.get(MainOptions.MAXCATS);
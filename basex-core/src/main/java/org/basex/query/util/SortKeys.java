@@ -0,0 +1,287 @@
+package org.basex.query.util;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.*;
+
+import org.basex.query.*;
+import org.basex.query.util.collation.*;
+import org.basex.query.value.item.*;
+import org.basex.query.value.seq.*;
+import org.basex.util.*;
+
+/**
+ * Normalized sort keys. If all keys of a column are integers, doubles, floats or strings, they
+ * are extracted to a primitive array (strings will be replaced by collation keys), and the
+ * comparison of two keys is cheap and cannot fail.
+ *
+ * The entries are sorted with a stable merge sort. Large inputs are sorted in parallel.
+ *
+ * @author BaseX Team 2005-20, BSD License
+ * @author Christian Gruen
+ */
+public final class SortKeys {
+  /** Minimum number of entries for sorting in parallel. */
+  private static final int PARALLEL = 1 << 16;
+  /** Maximum number of entries for sorting by insertion. */
+  private static final int INSERTION = 16;
+  /** Largest integer that can be represented as double without loss of precision. */
+  private static final long MAX_DOUBLE = 1L << 53;
+
+  /** Key columns. */
+  private final ArrayList<Column> columns = new ArrayList<>();
+  /** Number of entries. */
+  private final int size;
+
+  /**
+   * Constructor.
+   * @param size number of entries
+   */
+  public SortKeys(final int size) {
+    this.size = size;
+  }
+
+  /**
+   * Adds a key column.
+   * @param keys function that returns the key of an entry ({@link Empty#VALUE} for empty keys)
+   * @param coll collation ({@code null} for default collation)
+   * @param desc descending order
+   * @param least empty keys are sorted first (NaN is treated as empty key)
+   * @param info input info
+   * @return {@code false} if the keys cannot be normalized
+   * @throws QueryException query exception
+   */
+  public boolean add(final IntFunction<Item> keys, final Collation coll, final boolean desc,
+      final boolean least, final InputInfo info) throws QueryException {
+
+    // determine type of the keys
+    boolean longs = false, doubles = false, floats = false, tokens = false;
+    for(int s = 0; s < size; s++) {
+      final Item item = keys.apply(s);
+      if(item == Empty.VALUE) continue;
+      if(item instanceof Int) {
+        longs = true;
+      } else if(item instanceof Dbl) {
+        doubles = true;
+      } else if(item instanceof Flt) {
+        floats = true;
+      } else if(item instanceof AStr || item instanceof Atm) {
+        tokens = true;
+      } else {
+        return false;
+      }
+    }
+    // integers and doubles can be mixed
+    if(floats && (longs || doubles || tokens) || tokens && (longs || doubles)) return false;
+
+    final Column column;
+    final BitArray empty = new BitArray(size, false);
+    if(tokens) {
+      final byte[][] values = new byte[size][];
+      for(int s = 0; s < size; s++) {
+        final Item item = keys.apply(s);
+        if(item == Empty.VALUE) {
+          empty.set(s);
+        } else {
+          final byte[] token = item.string(info);
+          values[s] = coll == null ? token : coll.key(token);
+          if(values[s] == null) return false;
+        }
+      }
+      column = new Column(empty, desc, least) {
+        @Override
+        int diff(final int a, final int b) {
+          return Token.diff(values[a], values[b]);
+        }
+      };
+    } else if(doubles || floats) {
+      final double[] values = new double[size];
+      for(int s = 0; s < size; s++) {
+        final Item item = keys.apply(s);
+        if(item == Empty.VALUE) {
+          empty.set(s);
+        } else if(item instanceof Int) {
+          final long l = item.itr(info);
+          if(l < -MAX_DOUBLE || l > MAX_DOUBLE) return false;
+          values[s] = l;
+        } else {
+          values[s] = item.dbl(info);
+          if(Double.isNaN(values[s])) empty.set(s);
+        }
+      }
+      column = new Column(empty, desc, least) {
+        @Override
+        int diff(final int a, final int b) {
+          // -0 and 0 are equal
+          final double d1 = values[a], d2 = values[b];
+          return d1 < d2 ? -1 : d1 > d2 ? 1 : 0;
+        }
+      };
+    } else {
+      final long[] values = new long[size];
+      for(int s = 0; s < size; s++) {
+        final Item item = keys.apply(s);
+        if(item == Empty.VALUE) {
+          empty.set(s);
+        } else {
+          values[s] = item.itr(info);
+        }
+      }
+      column = new Column(empty, desc, least) {
+        @Override
+        int diff(final int a, final int b) {
+          return Long.compare(values[a], values[b]);
+        }
+      };
+    }
+    columns.add(column);
+    return true;
+  }
+
+  /**
+   * Returns the order of the entries. Entries with equal keys retain their original order.
+   * @param qc query context
+   * @return positions of the sorted entries
+   * @throws QueryException query exception
+   */
+  public int[] order(final QueryContext qc) throws QueryException {
+    final int[] order = new int[size];
+    for(int s = 0; s < size; s++) order[s] = s;
+
+    qc.checkStop();
+    final boolean parallel = size >= PARALLEL && ForkJoinPool.getCommonPoolParallelism() > 1;
+    final Sort sort = new Sort(order, order.clone(), 0, size, parallel);
+    if(parallel) sort.invoke();
+    else sort.compute();
+    qc.checkStop();
+    return order;
+  }
+
+  /**
+   * Compares two entries.
+   * @param a first entry
+   * @param b second entry
+   * @return result of comparison
+   */
+  private int compare(final int a, final int b) {
+    for(final Column column : columns) {
+      final int c = column.compare(a, b);
+      if(c != 0) return c;
+    }
+    return 0;
+  }
+
+  /** Key column. */
+  private abstract static class Column {
+    /** Empty keys. */
+    private final BitArray empty;
+    /** Descending order. */
+    private final boolean desc;
+    /** Empty keys are sorted first. */
+    private final boolean least;
+
+    /**
+     * Constructor.
+     * @param empty empty keys
+     * @param desc descending order
+     * @param least empty keys are sorted first
+     */
+    Column(final BitArray empty, final boolean desc, final boolean least) {
+      this.empty = empty;
+      this.desc = desc;
+      this.least = least;
+    }
+
+    /**
+     * Compares the keys of two entries.
+     * @param a first entry
+     * @param b second entry
+     * @return result of comparison
+     */
+    final int compare(final int a, final int b) {
+      final boolean ea = empty.get(a), eb = empty.get(b);
+      final int c = ea ? eb ? 0 : least ? -1 : 1 : eb ? least ? 1 : -1 : diff(a, b);
+      return desc ? -c : c;
+    }
+
+    /**
+     * Compares two non-empty keys.
+     * @param a first entry
+     * @param b second entry
+     * @return result of comparison
+     */
+    abstract int diff(int a, int b);
+  }
+
+  /**
+   * Merge sort of a range of entries. The target and source arrays contain the same entries;
+   * the source array is used as temporary buffer.
+   */
+  private final class Sort extends RecursiveAction {
+    /** Serial version UID. */
+    private static final long serialVersionUID = 1L;
+    /** Target array. */
+    private final int[] target;
+    /** Source array. */
+    private final int[] source;
+    /** Start of the range (inclusive). */
+    private final int start;
+    /** End of the range (exclusive). */
+    private final int end;
+    /** Sort in parallel. */
+    private final boolean parallel;
+
+    /**
+     * Constructor.
+     * @param target target array
+     * @param source source array
+     * @param start start of the range
+     * @param end end of the range
+     * @param parallel sort in parallel
+     */
+    private Sort(final int[] target, final int[] source, final int start, final int end,
+        final boolean parallel) {
+      this.target = target;
+      this.source = source;
+      this.start = start;
+      this.end = end;
+      this.parallel = parallel;
+    }
+
+    @Override
+    protected void compute() {
+      final int length = end - start;
+      if(length <= INSERTION) {
+        for(int i = start + 1; i < end; i++) {
+          final int t = target[i];
+          int j = i;
+          for(; j > start && compare(target[j - 1], t) > 0; j--) target[j] = target[j - 1];
+          target[j] = t;
+        }
+        return;
+      }
+
+      // sort both halves of the source array
+      final int mid = start + end >>> 1;
+      final boolean par = parallel && length >= PARALLEL;
+      final Sort left = new Sort(source, target, start, mid, par);
+      final Sort right = new Sort(source, target, mid, end, par);
+      if(par) {
+        invokeAll(left, right);
+      } else {
+        left.compute();
+        right.compute();
+      }
+
+      // merge halves into the target array (earlier entries are chosen first)
+      if(compare(source[mid - 1], source[mid]) <= 0) {
+        System.arraycopy(source, start, target, start, length);
+      } else {
+        for(int i = start, l = start, r = mid; i < end; i++) {
+          target[i] = r == end || l < mid && compare(source[l], source[r]) <= 0 ?
+            source[l++] : source[r++];
+        }
+      }
+    }
+  }
+}
@@ -0,0 +1,198 @@
+package org.basex.query.util;
+
+import java.io.*;
+import java.math.*;
+import java.util.*;
+
+import org.basex.data.*;
+import org.basex.io.*;
+import org.basex.io.in.DataInput;
+import org.basex.io.out.DataOutput;
+import org.basex.query.*;
+import org.basex.query.value.*;
+import org.basex.query.value.item.*;
+import org.basex.query.value.node.*;
+import org.basex.query.value.seq.*;
+import org.basex.query.value.type.*;
+import org.basex.util.*;
+
+/**
+ * Temporary files for evaluating expressions whose intermediate results exceed the available
+ * main memory. Files that have not been deleted yet will be deleted after query execution.
+ *
+ * Single atomic items of common types and database nodes are written to disk.
+ * All other values (sequences, function items, constructed nodes, etc.) remain in main memory:
+ * only references are written, and the values are released once they have been read.
+ *
+ * @author BaseX Team 2005-20, BSD License
+ * @author Christian Gruen
+ */
+public final class SpillFiles implements QueryResource {
+  /** Value tag: reference to a value in main memory. */
+  private static final int REF = 0;
+  /** Value tag: empty sequence. */
+  private static final int EMPTY = 1;
+  /** Value tag: database node. */
+  private static final int NODE = 2;
+  /** Value tag: string. */
+  private static final int STR = 3;
+  /** Value tag: untyped atomic value. */
+  private static final int ATM = 4;
+  /** Value tag: integer. */
+  private static final int ITR = 5;
+  /** Value tag: double. */
+  private static final int DBL = 6;
+  /** Value tag: float. */
+  private static final int FLT = 7;
+  /** Value tag: decimal. */
+  private static final int DEC = 8;
+  /** Value tag: boolean. */
+  private static final int BLN = 9;
+
+  /** Temporary files. */
+  private final ArrayList<IOFile> files = new ArrayList<>();
+  /** Databases of the written nodes. */
+  private final ArrayList<Data> datas = new ArrayList<>();
+  /** Values that remain in main memory. */
+  private final ArrayList<Value> values = new ArrayList<>();
+
+  /**
+   * Creates a new temporary file.
+   * @return file
+   * @throws IOException I/O exception
+   */
+  public synchronized IOFile create() throws IOException {
+    final IOFile file = new IOFile(File.createTempFile(Prop.PROJECT_NAME + '-', IO.TMPSUFFIX,
+        new File(Prop.TEMPDIR)));
+    files.add(file);
+    return file;
+  }
+
+  /**
+   * Deletes a temporary file.
+   * @param file file
+   */
+  public synchronized void delete(final IOFile file) {
+    files.remove(file);
+    file.delete();
+  }
+
+  /**
+   * Writes a value.
+   * @param out output stream
+   * @param value value
+   * @throws IOException I/O exception
+   * @throws QueryException query exception
+   */
+  public void write(final DataOutput out, final Value value)
+      throws IOException, QueryException {
+
+    if(value.isEmpty()) {
+      out.write1(EMPTY);
+    } else if(!(value instanceof Item) || !write(out, (Item) value)) {
+      out.write1(REF);
+      synchronized(this) {
+        out.writeNum(values.size());
+        values.add(value);
+      }
+    }
+  }
+
+  /**
+   * Reads a value.
+   * @param in input stream
+   * @return value
+   * @throws IOException I/O exception
+   */
+  public Value read(final DataInput in) throws IOException {
+    final int tag = in.read();
+    switch(tag) {
+      case REF:
+        synchronized(this) {
+          // release value: each value is read once
+          return values.set(in.readNum(), null);
+        }
+      case EMPTY:
+        return Empty.VALUE;
+      case NODE:
+        final Data data;
+        synchronized(this) {
+          data = datas.get(in.readNum());
+        }
+        return new DBNode(data, in.readNum());
+      case STR:
+        return Str.get(in.readToken());
+      case ATM:
+        return new Atm(in.readToken());
+      case ITR:
+        return Int.get(in.read8());
+      case DBL:
+        return Dbl.get(Double.longBitsToDouble(in.read8()));
+      case FLT:
+        return Flt.get(Float.intBitsToFloat((int) in.read8()));
+      case DEC:
+        return Dec.get(new BigDecimal(Token.string(in.readToken())));
+      case BLN:
+        return Bln.get(in.readBool());
+      default:
+        throw new IOException("Unknown value tag: " + tag);
+    }
+  }
+
+  @Override
+  public synchronized void close() {
+    for(final IOFile file : files) file.delete();
+    files.clear();
+    datas.clear();
+    values.clear();
+  }
+
+  /**
+   * Writes a single item.
+   * @param out output stream
+   * @param item item
+   * @return {@code false} if the item must be kept in main memory
+   * @throws IOException I/O exception
+   * @throws QueryException query exception
+   */
+  private boolean write(final DataOutput out, final Item item)
+      throws IOException, QueryException {
+
+    final Type type = item.type;
+    if(type == AtomType.STR || type == AtomType.ATM) {
+      out.write1(type == AtomType.STR ? STR : ATM);
+      out.writeToken(item.string(null));
+    } else if(type == AtomType.ITR) {
+      out.write1(ITR);
+      out.write8(item.itr(null));
+    } else if(type == AtomType.DBL) {
+      out.write1(DBL);
+      out.write8(Double.doubleToRawLongBits(item.dbl(null)));
+    } else if(type == AtomType.FLT) {
+      out.write1(FLT);
+      out.write8(Float.floatToRawIntBits(item.flt(null)));
+    } else if(type == AtomType.DEC) {
+      out.write1(DEC);
+      out.writeToken(Token.token(item.dec(null).toString()));
+    } else if(type == AtomType.BLN) {
+      out.write1(BLN);
+      out.writeBool(item.bool(null));
+    } else if(item.getClass() == DBNode.class && item.score() == 0) {
+      final Data data = item.data();
+      int d;
+      synchronized(this) {
+        d = datas.indexOf(data);
+        if(d == -1) {
+          d = datas.size();
+          datas.add(data);
+        }
+      }
+      out.write1(NODE);
+      out.writeNum(d);
+      out.writeNum(((DBNode) item).pre());
+    } else {
+      return false;
+    }
+    return true;
+  }
+}
@@ -32,6 +32,12 @@ final class BaseXCollation extends Collation {
     return collator.compare(string(string), string(compare));
   }
 
+  @Override
+  public byte[] key(final byte[] string) {
+    return collator instanceof Collator ?
+      ((Collator) collator).getCollationKey(string(string)).toByteArray() : null;
+  }
+
   @Override
   protected int indexOf(final String string, final String contains, final Mode mode,
       final InputInfo ii) throws QueryException {
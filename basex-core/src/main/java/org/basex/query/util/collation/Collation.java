@@ -214,6 +214,16 @@ public abstract class Collation {
    */
   public abstract int compare(byte[] string, byte[] compare);
 
+  /**
+   * Returns a binary sort key for the specified string. The keys of two strings can be compared
+   * byte by byte (unsigned) instead of comparing the strings.
+   * @param string string
+   * @return key, or {@code null} if the collation provides no keys
+   */
+  public byte[] key(final byte[] string) {
+    return null;
+  }
+
   /**
    * Returns the start or end position of the specified substring.
    * @param string string
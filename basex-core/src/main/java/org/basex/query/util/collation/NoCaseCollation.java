@@ -22,6 +22,21 @@ final class NoCaseCollation extends Collation {
     return tl - cl;
   }
 
+  @Override
+  public byte[] key(final byte[] string) {
+    // two bytes per character, consistent with the comparison of characters
+    final String str = string(string);
+    final int sl = str.length();
+    final byte[] key = new byte[sl << 1];
+    for(int s = 0; s < sl; s++) {
+      final char ch = str.charAt(s);
+      final int c = ch >= 'a' && ch <= 'z' ? ch - 0x20 : ch;
+      key[s << 1] = (byte) (c >>> 8);
+      key[(s << 1) + 1] = (byte) c;
+    }
+    return key;
+  }
+
   @Override
   protected int indexOf(final String string, final String sub, final Mode mode,
       final InputInfo ii) {
@@ -25,6 +25,12 @@ final class UCACollation extends Collation {
   private static final Method CEI_SET_OFFSET = Reflect.method(CEI, "setOffset", int.class);
   /** Method. */
   private static final Method CEI_NEXT = Reflect.method(CEI, "next");
+  /** Method. */
+  private static final Method RBC_GCK =
+      Reflect.method(UCAOptions.RBC, "getCollationKey", String.class);
+  /** Method. */
+  private static final Method CK_TBA =
+      Reflect.method(Reflect.find("com.ibm.icu.text.CollationKey"), "toByteArray");
 
   /** Collator. */
   private final Comparator<Object> collator;
@@ -42,6 +48,11 @@ final class UCACollation extends Collation {
     return collator.compare(string(string), string(compare));
   }
 
+  @Override
+  public byte[] key(final byte[] string) {
+    return (byte[]) Reflect.invoke(CK_TBA, Reflect.invoke(RBC_GCK, collator, string(string)));
+  }
+
   @Override
   protected int indexOf(final String string, final String contains, final Mode mode,
       final InputInfo ii) {
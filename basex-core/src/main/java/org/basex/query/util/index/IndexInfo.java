@@ -18,6 +18,7 @@ import org.basex.query.value.item.*;
 import org.basex.query.value.type.*;
 import org.basex.util.*;
 import org.basex.util.hash.*;
+import org.basex.util.list.*;
 
 /**
  * This class contains methods for storing information on new index expressions.
@@ -41,6 +42,8 @@ public final class IndexInfo {
   public Expr expr;
   /** Costs of index access ({@code null}) if no index access is possible). */
   public IndexCosts costs;
+  /** Positions of the predicates that are answered by a composite index access. */
+  public IntList preds;
   /** Indicates if the last step addresses a text node. */
   boolean text;
 
@@ -190,6 +193,71 @@ public final class IndexInfo {
     return true;
   }
 
+  /**
+   * Tries to rewrite equality comparisons on attributes of the step for composite index access
+   * (see {@link MainOptions#COMPOSITEINDEX}). A declaration is chosen if comparisons exist for
+   * the leading attributes. If not all attributes are compared, a prefix scan is performed.
+   * @return success flag
+   * @throws QueryException query exception
+   */
+  public boolean composite() throws QueryException {
+    // skip rewriting if database is unknown or out-dated, or if namespaces occur
+    final Data data = db.data();
+    if(data == null || data.inMemory() || !data.meta.uptodate || !data.meta.attrindex ||
+        !data.nspaces.isEmpty() || !(step.test instanceof NameTest)) return false;
+    final NameTest nt = (NameTest) step.test;
+    if(nt.type != NodeType.ELM || nt.part != NamePart.LOCAL) return false;
+    final CompositeNames names = new CompositeNames(data.meta.compositeindex);
+    if(names.isEmpty()) return false;
+
+    // collect comparisons of attributes with strings
+    final TokenObjMap<byte[]> values = new TokenObjMap<>();
+    final TokenIntMap positions = new TokenIntMap();
+    final Expr[] exprs = step.exprs;
+    final int el = exprs.length;
+    for(int e = 0; e < el; e++) {
+      final byte[][] cmp = exprs[e] instanceof CmpG ? ((CmpG) exprs[e]).attribute() : null;
+      if(cmp == null || values.contains(cmp[0])) continue;
+      values.put(cmp[0], cmp[1]);
+      positions.put(cmp[0], e);
+    }
+
+    // choose declaration with the largest number of leading attributes
+    int decl = -1, count = 0;
+    final int ns = names.size();
+    for(int n = 0; n < ns; n++) {
+      if(!Token.eq(names.element(n), nt.local)) continue;
+      int c = 0;
+      for(final byte[] name : names.attributes(n)) {
+        if(!values.contains(name)) break;
+        c++;
+      }
+      if(c > count) {
+        decl = n;
+        count = c;
+      }
+    }
+    if(count == 0) return false;
+
+    final byte[][] attributes = names.attributes(decl);
+    final byte[][] vals = new byte[count][];
+    final Expr[] cmps = new Expr[count];
+    preds = new IntList(count);
+    for(int c = 0; c < count; c++) {
+      final int p = positions.get(attributes[c]);
+      vals[c] = values.get(attributes[c]);
+      cmps[c] = exprs[p];
+      preds.add(p);
+    }
+    final CompositeKey key = new CompositeKey(names, decl, vals);
+    costs = costs(data, key);
+    if(costs == null) return false;
+
+    expr = new CompositeAccess(step.info, key, nt, cmps, db);
+    optInfo = Util.info(OPTINDEX_X_X, "composite", expr);
+    return true;
+  }
+
   /**
    * Creates an index expression with an inverted axis path.
    * @param root new root expression
@@ -26,6 +26,8 @@ public abstract class ADate extends ADateDur {
   static final long MIN_YEAR = -MAX_YEAR;
   /** Constant for counting negative years (divisible by 400). */
   private static final long ADD_NEG = (MAX_YEAR / 400 + 1) * 400;
+  /** Day count of 1970-01-01. */
+  private static final BigDecimal EPOCH = days(1970 + ADD_NEG, 0, 0);
 
   /** Pattern for two digits. */
   static final String DD = "(\\d{2})";
@@ -409,17 +411,46 @@ public abstract class ADate extends ADateDur {
       tz == Short.MAX_VALUE ? Integer.MIN_VALUE : tz);
   }
 
+  /**
+   * Returns the number of seconds since 1970-01-01T00:00:00Z.
+   * Values without timezone are normalized with the implicit timezone.
+   * Called by the index structures.
+   * @return seconds
+   */
+  public final double epochSeconds() {
+    return seconds().add(days().subtract(EPOCH).multiply(DAYSECONDS)).doubleValue();
+  }
+
+  /**
+   * Parses a date, dateTime or time value. Called by the index structures.
+   * @param value value
+   * @return date item, or {@code null} if the value cannot be parsed
+   */
+  public static ADate get(final byte[] value) {
+    try {
+      return Token.contains(value, 'T') ? new Dtm(value, null) :
+        Token.contains(value, ':') ? new Tim(value, null) : new Dat(value, null);
+    } catch(final QueryException ex) {
+      return null;
+    }
+  }
+
+  /**
+   * Returns the offset of the implicit timezone.
+   * @return offset in minutes
+   */
+  public static int implicitZone() {
+    // [CG] could be eliminated (XQuery, DateTime)
+    final long n = System.currentTimeMillis();
+    return Calendar.getInstance().getTimeZone().getOffset(n) / 60000;
+  }
+
   /**
    * Returns the date in seconds.
    * @return seconds
    */
   final BigDecimal seconds() {
-    int z = tz;
-    if(z == Short.MAX_VALUE) {
-      // [CG] could be eliminated (XQuery, DateTime)
-      final long n = System.currentTimeMillis();
-      z = Calendar.getInstance().getTimeZone().getOffset(n) / 60000;
-    }
+    final int z = tz == Short.MAX_VALUE ? implicitZone() : tz;
     return (sec == null ? BigDecimal.ZERO : sec).add(
         BigDecimal.valueOf(Math.max(0, hou) * 3600L + Math.max(0, min) * 60L - z * 60L));
   }
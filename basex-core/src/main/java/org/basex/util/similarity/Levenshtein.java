@@ -24,6 +24,19 @@ public final class Levenshtein {
   /** Matrix for calculating Levenshtein distance. */
   private int[][] matrix;
 
+  /** Dictionary scan: normalized codepoints of the search token. */
+  private int[] cps;
+  /** Dictionary scan: last token. */
+  private byte[] last = EMPTY;
+  /** Dictionary scan: number of computed rows. */
+  private int rows;
+  /** Dictionary scan: byte offsets of the computed rows. */
+  private final int[] offsets = new int[MAX + 2];
+  /** Dictionary scan: normalized codepoints of the computed rows. */
+  private final int[] chars = new int[MAX + 1];
+  /** Dictionary scan: minimum distances of the computed rows. */
+  private final int[] mins = new int[MAX + 1];
+
   /**
    * Constructor.
    */
@@ -89,6 +102,66 @@ public final class Levenshtein {
     return Math.abs(slen - tlen) <= k && ls(token, tlen, sub, slen, k);
   }
 
+  /**
+   * Checks if a token of a sorted dictionary is similar to the search token.
+   * Tokens must be supplied in ascending order: the rows of the distance matrix that belong
+   * to the prefix shared with the previously checked token will be reused. As the minimum
+   * distance of a row never decreases, the shortest prefix can be determined whose distance
+   * exceeds the number of allowed errors. All dictionary tokens starting with this prefix
+   * can be skipped by the caller.
+   * @param token dictionary token
+   * @param sub search token (must not change until {@link #reset()} is called)
+   * @param err number of allowed errors; dynamic calculation if value is 0
+   * @return {@code -1} if the tokens are similar, otherwise the byte length of the shortest
+   *   prefix that cannot be extended to a similar token, or {@code 0}
+   */
+  public int prefix(final byte[] token, final byte[] sub, final int err) {
+    final int sl = sub.length, tl = token.length;
+    int slen = 0, tlen = 0;
+    for(int s = 0; s < sl; s += cl(sub, s)) ++slen;
+    for(int t = 0; t < tl; t += cl(token, t)) ++tlen;
+    if(tlen == 0 || err == 0 && slen < 4 || tlen > MAX || slen > MAX) {
+      return similar(token, sub, err) ? -1 : 0;
+    }
+
+    final int k = err == 0 ? Math.max(1, slen >> 2) : err;
+    if(cps == null) cps = cps(sub, slen);
+    final int[][] mx = matrix();
+
+    // skip rows of the common prefix
+    final byte[] lst = last;
+    final int ll = Math.min(tl, lst.length);
+    int l = 0;
+    while(l < ll && lst[l] == token[l]) l++;
+    int r = 0;
+    while(r < rows && offsets[r + 1] <= l) {
+      if(mins[r] > k) return offsets[r + 1];
+      r++;
+    }
+
+    // compute remaining rows
+    last = token;
+    for(int t = offsets[r]; t < tl; t += cl(token, t), r++) {
+      final int e = noDiacritics(lc(cp(token, t)));
+      final int d = row(mx, r, e, r == 0 ? -1 : chars[r - 1], cps, slen);
+      chars[r] = e;
+      mins[r] = d;
+      offsets[r + 1] = t + cl(token, t);
+      rows = r + 1;
+      if(d > k) return offsets[r + 1];
+    }
+    return Math.abs(slen - tlen) <= k && mx[tlen][slen] <= k ? -1 : 0;
+  }
+
+  /**
+   * Resets the state of a dictionary scan (see {@link #prefix(byte[], byte[], int)}).
+   */
+  public void reset() {
+    cps = null;
+    last = EMPTY;
+    rows = 0;
+  }
+
   /**
    * Calculates a Levenshtein distance.
    * @param tk token to be compared
@@ -99,6 +172,45 @@ public final class Levenshtein {
    * @return true if the arrays are similar
    */
   private boolean ls(final byte[] tk, final int tl, final byte[] sb, final int sl, final int k) {
+    final int[][] mx = matrix();
+    final int[] sc = cps(sb, sl);
+    for(int t = 0, r = 0, e2 = -1; r < tl; t += cl(tk, t), r++) {
+      final int e = noDiacritics(lc(cp(tk, t)));
+      if(row(mx, r, e, e2, sc, sl) > k) return false;
+      e2 = e;
+    }
+    return mx[tl][sl] <= k;
+  }
+
+  /**
+   * Computes a row of the distance matrix.
+   * @param mx matrix
+   * @param r row offset
+   * @param e normalized codepoint of the row
+   * @param e2 normalized codepoint of the previous row ({@code -1} for the first row)
+   * @param sc normalized codepoints of the sub token
+   * @param sl number of codepoints
+   * @return minimum distance of the row
+   */
+  private static int row(final int[][] mx, final int r, final int e, final int e2,
+      final int[] sc, final int sl) {
+    int d = Integer.MAX_VALUE;
+    for(int s = 0; s < sl; s++) {
+      final int f = sc[s];
+      int c = m(mx[r][s + 1] + 1, mx[r + 1][s] + 1, mx[r][s] + (e == f ? 0 : 1));
+      // transposition of two adjacent characters
+      if(s > 0 && e == sc[s - 1] && f == e2) c = Math.min(c, mx[r - 1][s - 1] + 1);
+      mx[r + 1][s + 1] = c;
+      d = Math.min(d, c);
+    }
+    return d;
+  }
+
+  /**
+   * Returns the distance matrix.
+   * @return matrix
+   */
+  private int[][] matrix() {
     int[][] mx = matrix;
     if(mx == null) {
       mx = new int[MAX + 2][MAX + 2];
@@ -109,23 +221,21 @@ public final class Levenshtein {
       }
       matrix = mx;
     }
+    return mx;
+  }
 
-    int e2 = -1, f2 = -1;
-    for(int t = 0; t < tl; t += cl(tk, t)) {
-      final int e = noDiacritics(lc(cp(tk, t)));
-      int d = Integer.MAX_VALUE;
-      for(int s = 0; s < sl; s += cl(sb, s)) {
-        final int f = noDiacritics(lc(cp(sb, s)));
-        int c = m(mx[t][s + 1] + 1, mx[t + 1][s] + 1, mx[t][s] + (e == f ? 0 : 1));
-        if(e == f2 && f == e2) c = mx[t][s];
-        mx[t + 1][s + 1] = c;
-        d = Math.min(d, c);
-        f2 = f;
-      }
-      if(d > k) return false;
-      e2 = e;
+  /**
+   * Returns the normalized codepoints of a token.
+   * @param token token
+   * @param size number of codepoints
+   * @return codepoints
+   */
+  private static int[] cps(final byte[] token, final int size) {
+    final int[] list = new int[size];
+    for(int t = 0, c = 0; c < size; t += cl(token, t), c++) {
+      list[c] = noDiacritics(lc(cp(token, t)));
     }
-    return mx[tl][sl] <= k;
+    return list;
   }
 
   /**
@@ -3,6 +3,7 @@ package org.basex.build;
 import static org.junit.jupiter.api.Assertions.*;
 
 import org.basex.*;
+import org.basex.core.*;
 import org.basex.core.cmd.*;
 import org.basex.io.*;
 import org.basex.util.*;
@@ -129,6 +130,52 @@ public final class CreateTest extends SandboxTest {
     }
   }
 
+  /**
+   * CREATE DB {DB} {INPUT[]}, using multiple threads for parsing.
+   */
+  @Test public void createParallel() {
+    final IOFile dir = new IOFile(sandbox(), "parallel");
+    dir.md();
+    for(int i = 0; i < 100; i++) {
+      write(new IOFile(dir, "doc" + i + IO.XMLSUFFIX), "<doc n='" + i + "'>" +
+          "<a>" + i * i + "</a><?pi " + i + "?><!--c--></doc>");
+    }
+    final String query = "for $doc in db:open('" + NAME + "') "
+        + "return db:path($doc) || ':' || serialize($doc)";
+
+    for(final String input : new String[] { FOLDER, dir.path() }) {
+      execute(new CreateDB(NAME, input));
+      final String expected = query(query);
+      try {
+        set(MainOptions.PARSETHREADS, 4);
+        final CreateDB cmd = new CreateDB(NAME, input);
+        execute(cmd);
+        assertTrue(cmd.info().contains("Parsed: "), cmd.info());
+        assertEquals(expected, query(query));
+      } finally {
+        set(MainOptions.PARSETHREADS, 1);
+      }
+    }
+
+    // corrupt files
+    write(new IOFile(dir, "doc50" + IO.XMLSUFFIX), "<x");
+    try {
+      set(MainOptions.PARSETHREADS, 4);
+      try {
+        new CreateDB(NAME, dir.path()).execute(context);
+        fail("Broken file was added to the database.");
+      } catch(final BaseXException ignored) { }
+
+      set(MainOptions.SKIPCORRUPT, true);
+      execute(new CreateDB(NAME, dir.path()));
+      query("count(db:open('" + NAME + "'))", 99);
+      query("db:open('" + NAME + "', 'doc51.xml')/doc/a/string()", 2601);
+    } finally {
+      set(MainOptions.SKIPCORRUPT, false);
+      set(MainOptions.PARSETHREADS, 1);
+    }
+  }
+
   /**
    * Returns the name of the database.
    * @return database name
@@ -382,10 +382,12 @@ public class CommandTest extends SandboxTest {
   @Test public final void optimize() {
     no(new Optimize());
     no(new OptimizeAll());
+    no(new OptimizeAll(true));
     ok(new CreateDB(NAME, FILE));
     ok(new Optimize());
     ok(new Optimize());
     ok(new OptimizeAll());
+    ok(new OptimizeAll(true));
   }
 
   /** Command test. */
@@ -49,4 +49,28 @@ public final class LocalConcurrencyTest extends SandboxTest {
       execute(new DropUser("user"));
     }
   }
+
+  /** Test for optimizing a database that is concurrently read. */
+  @Test public void optimizeOnline() throws Exception {
+    final String query = "count(db:open('" + NAME + "')//a)";
+    execute(new CreateDB(NAME, "<x/>"));
+    query("for $i in 1 to 2000 return insert node <a>{ $i }</a> into db:open('" + NAME + "')/x");
+
+    // database is read while it is rebuilt
+    final String[] result = new String[1];
+    final Thread reader = new Thread(() -> {
+      try(Session session = new LocalSession(context)) {
+        result[0] = session.execute(new XQuery("prof:sleep(500), " + query));
+      } catch(final Exception ex) {
+        result[0] = ex.toString();
+      }
+    });
+    reader.start();
+    Performance.sleep(100);
+    execute(new OptimizeAll(true));
+    reader.join();
+    assertEquals("2000", result[0]);
+    assertEquals("2000", query(query));
+    execute(new DropDB(NAME));
+  }
 }
@@ -99,6 +99,7 @@ public final class XMLCommandTest extends SandboxTest {
     ok("<optimize/>");
 
     ok("<optimize-all/>");
+    ok("<optimize-all online='true'/>");
 
     ok("<password/>");
     ok("<password>X</password>");
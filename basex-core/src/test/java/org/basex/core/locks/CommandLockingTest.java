@@ -94,6 +94,7 @@ public final class CommandLockingTest extends SandboxTest {
     ckDBs(new Open(NAME), false, NAME_CTX);
     ckDBs(new Optimize(), true, CTX_LIST);
     ckDBs(new OptimizeAll(), true, CTX_LIST);
+    ckDBs(new OptimizeAll(true), false, CTX_LIST);
     ckDBs(new Password(NAME), true, USER_LIST);
     ckDBs(new Rename(FILE, FILE), true, CTX_LIST);
     ckDBs(new Replace(FILE, FILE), true, CTX_LIST);
@@ -7,6 +7,7 @@ import java.util.concurrent.*;
 
 import org.basex.*;
 import org.basex.core.*;
+import org.basex.util.*;
 import org.junit.jupiter.api.*;
 
 /**
@@ -529,6 +530,33 @@ public final class LockingTest extends SandboxTest {
       "Looks like thread is stuck in a deadlock.");
   }
 
+  /**
+   * Records wait times for acquiring locks.
+   * @throws InterruptedException Got interrupted.
+   */
+  @RepeatedTest(REPEAT)
+  public void waitTimesTest() throws InterruptedException {
+    final CountDownLatch sync = new CountDownLatch(1), test = new CountDownLatch(1);
+    final LockTester th1 = new LockTester(null, NONE, new String[] { "0" }, sync);
+    final LockTester th2 = new LockTester(sync, NONE, new String[] { "0" }, test);
+
+    th1.start();
+    th2.start();
+    assertTrue(sync.await(WAIT, TimeUnit.MILLISECONDS), "Thread 1 should acquire lock.");
+    // start timing when thread 2 is blocked while acquiring its lock
+    assertTrue(th2.acquiring.await(WAIT, TimeUnit.MILLISECONDS), "Thread 2 should be started.");
+    while(th2.getState() == Thread.State.RUNNABLE) Thread.yield();
+    Thread.sleep(HOLD_TIME);
+    th1.release();
+    assertTrue(test.await(WAIT, TimeUnit.MILLISECONDS), "Thread 2 should acquire lock.");
+    th2.release();
+
+    assertTrue(th2.locks.wait >= HOLD_TIME * 1000000L, "Wait time was not recorded.");
+    final String info = Token.string(locking.info());
+    assertTrue(info.contains("0: 2 x"), info);
+    assertTrue(info.contains("(queue): 2 x"), info);
+  }
+
   /**
    * Default implementation for setting locks and latches.
    */
@@ -537,6 +565,8 @@ public final class LockingTest extends SandboxTest {
     private final CountDownLatch await;
     /** Latch to count down after locking. */
     private final CountDownLatch countDown;
+    /** Latch to count down before locking. */
+    private final CountDownLatch acquiring = new CountDownLatch(1);
     /** Array of objects to put read locks onto (can be {@code null}). */
     private final Locks locks = new Locks();
     /** Flag indicating to release locks after being notified. */
@@ -580,6 +610,7 @@ public final class LockingTest extends SandboxTest {
 
       // fetch lock if objects are set
       try {
+        acquiring.countDown();
         locking.acquire(locks);
 
         // we hold the lock, count down
@@ -0,0 +1,104 @@
+package org.basex.data;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.basex.*;
+import org.basex.core.*;
+import org.basex.core.cmd.*;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for texts and attribute values stored in compressed blocks
+ * ({@link MainOptions#BLOCKCOMPRESS}).
+ *
+ * @author BaseX Team 2005-20, BSD License
+ * @author Christian Gruen
+ */
+public final class BlockCompressTest extends SandboxTest {
+  /** Query for creating a document with long texts and attribute values. */
+  private static final String DOC = "<a>{ for $i in 1 to 5000 return <b n='{ $i }' s='{"
+      + " string-join(1 to $i mod 50, '-') }'>{ string-join(1 to $i mod 100) }</b> }</a>";
+
+  /**
+   * Drops the test database.
+   */
+  @AfterEach public void drop() {
+    set(MainOptions.BLOCKCOMPRESS, false);
+    set(MainOptions.WAL, false);
+    execute(new DropDB(NAME));
+  }
+
+  /**
+   * Creates, updates and reopens a database with compressed blocks.
+   */
+  @Test public void update() {
+    set(MainOptions.BLOCKCOMPRESS, true);
+    create();
+    assertTrue(context.data().meta.dbFile(DataText.DATATXT + 'd').exists());
+    check();
+  }
+
+  /**
+   * Updates a database with compressed blocks and write-ahead logging.
+   */
+  @Test public void journal() {
+    set(MainOptions.BLOCKCOMPRESS, true);
+    set(MainOptions.WAL, true);
+    create();
+    check();
+  }
+
+  /**
+   * Changes the storage format when the database is optimized.
+   */
+  @Test public void optimize() {
+    create();
+    assertFalse(context.data().meta.blockcompress);
+    set(MainOptions.BLOCKCOMPRESS, true);
+    // existing database keeps its format
+    execute(new Close());
+    execute(new Open(NAME));
+    assertFalse(context.data().meta.blockcompress);
+
+    execute(new OptimizeAll());
+    assertTrue(context.data().meta.blockcompress);
+    query("string-length(//b[@n = 1234])", 59);
+    query("//b[@n = 4999]/@s/string()", "1-2-3-4-5-6-7-8-9-10-11-12-13-14-15-16-17-18-19-20-21-"
+        + "22-23-24-25-26-27-28-29-30-31-32-33-34-35-36-37-38-39-40-41-42-43-44-45-46-47-48-49");
+    assertTrue(execute(new InfoStorage()).contains(Text.BLOCK_COMPRESSION));
+  }
+
+  /**
+   * Creates the test database.
+   */
+  private static void create() {
+    execute(new CreateDB(NAME, query(DOC)));
+  }
+
+  /**
+   * Queries and updates the test database.
+   */
+  private static void check() {
+    assertTrue(context.data().meta.blockcompress);
+    query("count(//b)", 5000);
+    query("string-length(//b[@n = 1234])", 59);
+    query("string-length(//b[@n = 4999]/@s)", 137);
+
+    query("for $b in //b[@n mod 10 = 0] return replace value of node $b with "
+        + "string-join(($b/@n, 1 to 100))");
+    query("insert node <c>{ string-join(1 to 10000) }</c> into /a");
+    query("delete node //b[@n > 4000]");
+    query("string-length(//b[@n = 1230])", 196);
+    query("string-length(/a/c)", 38894);
+
+    execute(new Close());
+    execute(new Open(NAME));
+    query("count(//b)", 4000);
+    query("string-length(//b[@n = 1230])", 196);
+    query("string-length(//b[@n = 1234])", 59);
+    query("string-length(//b[@n = 3999]/@s)", 137);
+    query("string-length(/a/c)", 38894);
+    assertTrue(execute(new InfoStorage()).contains(Text.BLOCK_COMPRESSION));
+  }
+}
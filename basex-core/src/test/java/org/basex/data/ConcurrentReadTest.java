@@ -0,0 +1,105 @@
+package org.basex.data;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.*;
+import java.util.List;
+import java.util.concurrent.*;
+
+import org.basex.*;
+import org.basex.api.client.*;
+import org.basex.core.*;
+import org.basex.core.cmd.*;
+import org.basex.io.random.*;
+import org.basex.util.*;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Concurrent read access to a disk database.
+ *
+ * @author BaseX Team 2005-20, BSD License
+ * @author Christian Gruen
+ */
+public final class ConcurrentReadTest extends SandboxTest {
+  /** Number of elements. */
+  private static final int SIZE = 50000;
+  /** Path query. */
+  private static final String QUERY =
+      "sum(db:open('" + NAME + "')//b[c = 'x']/@n ! xs:integer(.))";
+  /** Expected result. */
+  private static final String RESULT = Long.toString((long) SIZE / 3 * (SIZE / 3 + 1) * 3 / 2);
+
+  /**
+   * Creates the test database.
+   */
+  @BeforeAll public static void create() {
+    final TokenBuilder tb = new TokenBuilder().add("<a>");
+    for(int i = 1; i <= SIZE; i++) {
+      tb.add("<b n='").addInt(i).add("'><c>").add(i % 3 == 0 ? "x" : "y").add("</c></b>");
+    }
+    execute(new CreateDB(NAME, tb.add("</a>").toString()));
+    execute(new Close());
+  }
+
+  /**
+   * Drops the test database.
+   */
+  @AfterAll public static void drop() {
+    execute(new DropDB(NAME));
+  }
+
+  /**
+   * Runs path queries in parallel, with a page cache that is smaller than the database.
+   */
+  @Test public void parallel() {
+    PageCache.get().size(1);
+    try {
+      for(final String result : run(8, 4)) assertEquals(RESULT, result);
+    } finally {
+      PageCache.get().size(context.soptions.get(StaticOptions.PAGECACHE));
+    }
+  }
+
+  /**
+   * Benchmark: measures the throughput of path queries for an increasing number of threads.
+   */
+  @Test @Disabled("Benchmark; run manually on a multi-core machine")
+  public void scaling() {
+    final int runs = 64;
+    run(4, 4);
+    for(int threads = 1; threads <= 16; threads <<= 1) {
+      final Performance perf = new Performance();
+      run(threads, runs);
+      Util.outln("% threads, % queries: %", threads, runs, perf);
+    }
+  }
+
+  /**
+   * Runs the path query.
+   * @param threads number of threads
+   * @param runs total number of queries
+   * @return results
+   */
+  private static List<String> run(final int threads, final int runs) {
+    final ExecutorService pool = Executors.newFixedThreadPool(threads);
+    try {
+      final List<Future<String>> futures = new ArrayList<>(runs);
+      for(int r = 0; r < runs; r++) {
+        futures.add(pool.submit(() -> {
+          try(Session session = new LocalSession(context)) {
+            return session.execute(new XQuery(QUERY));
+          }
+        }));
+      }
+      final List<String> results = new ArrayList<>(runs);
+      for(final Future<String> future : futures) results.add(future.get());
+      return results;
+    } catch(final Exception ex) {
+      Util.stack(ex);
+      throw new AssertionError(ex);
+    } finally {
+      pool.shutdown();
+    }
+  }
+}
@@ -83,11 +83,14 @@ public abstract class DataUpdateTest extends SandboxTest {
   /**
    * Reloads the database.
    * @param mainmem main memory flag
+   * @return reloaded data reference
    */
-  void reload(final boolean mainmem) {
-    if(mainmem) return;
-    execute(new Close());
-    execute(new Open(NAME));
+  Data reload(final boolean mainmem) {
+    if(!mainmem) {
+      execute(new Close());
+      execute(new Open(NAME));
+    }
+    return context.data();
   }
 
   /**
@@ -6,6 +6,7 @@ import org.basex.*;
 import org.basex.core.*;
 import org.basex.core.cmd.*;
 import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.ValueSource;
 
@@ -23,6 +24,7 @@ public final class IndexTest extends SandboxTest {
   @AfterEach public void after() {
     execute(new DropDB(NAME));
     set(MainOptions.TOKENINDEX, false);
+    set(MainOptions.FTINDEX, false);
     set(MainOptions.UPDINDEX, false);
     set(MainOptions.AUTOOPTIMIZE, false);
     set(MainOptions.MAINMEM, false);
@@ -200,6 +202,63 @@ public final class IndexTest extends SandboxTest {
     execute(new Delete("A"));
   }
 
+  /**
+   * Test.
+   */
+  @Test public void updindexFulltext() {
+    set(MainOptions.UPDINDEX, true);
+    set(MainOptions.FTINDEX, true);
+    execute(new CreateDB(NAME, "<x><a>A B</a><a>B C</a></x>"));
+    final String search = "db:open('" + NAME + "')//a[text() contains text ";
+    query(search + "'B']/string()", "A B\nB C");
+
+    query(_DB_REPLACE.args(NAME, NAME + ".xml", " <x><a>A B</a><a>B D</a><b>E</b></x>"));
+    query(_DB_INFO.args(NAME) + "//ftindex/text()", true);
+    query(search + "'B']/string()", "A B\nB D");
+    query(search + "'C']/string()", "");
+    query(search + "'D']/string()", "B D");
+    query(search + "'D.*' using wildcards]/string()", "B D");
+    query(search + "'F' using fuzzy]/string()", "");
+    query(_FT_SEARCH.args(NAME, "E") + "/string()", "E");
+
+    // rename element, delete and insert texts
+    query("rename node db:open('" + NAME + "')//b as 'c'");
+    query(_FT_SEARCH.args(NAME, "E") + "/string()", "E");
+    query("delete node db:open('" + NAME + "')//a[1]/text()");
+    query(search + "'A']/string()", "");
+    query("insert node <a>A E</a> into db:open('" + NAME + "')/x");
+    query(search + "'A']/string()", "A E");
+    query(search + "'A E' all words]/string()", "A E");
+    query("count(" + _FT_SEARCH.args(NAME, "E") + ")", 2);
+
+    // changes are persistent
+    execute(new Close());
+    query(search + "'A']/string()", "A E");
+    query(search + "'B']/string()", "B D");
+  }
+
+  /**
+   * Test.
+   */
+  @Test public void updindexFulltextMerge() {
+    set(MainOptions.UPDINDEX, true);
+    set(MainOptions.FTINDEX, true);
+    execute(new CreateDB(NAME, "<x/>"));
+    final String insert = "for $i in 1 to 5000 return insert node <a>t{ $i } common</a> into ";
+    query(insert + "db:open('" + NAME + "')/x");
+    query("count(" + _FT_SEARCH.args(NAME, "common") + ")", 5000);
+    query("delete node db:open('" + NAME + "')//a[position() mod 2 = 0]");
+    query("count(" + _FT_SEARCH.args(NAME, "common") + ")", 2500);
+    query(_FT_SEARCH.args(NAME, "t4999") + "/string()", "t4999 common");
+    query(_FT_SEARCH.args(NAME, "t5000") + "/string()", "");
+    query(_DB_INFO.args(NAME) + "//ftindex/text()", true);
+
+    execute(new Close());
+    query(insert + "db:open('" + NAME + "')/x");
+    query("count(" + _FT_SEARCH.args(NAME, "common") + ")", 7500);
+    query("count(" + _FT_SEARCH.args(NAME, "t5000") + ")", 1);
+  }
+
   /**
    * Test.
    * @param mainmem main memory flag.
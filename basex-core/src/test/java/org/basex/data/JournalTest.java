@@ -0,0 +1,143 @@
+package org.basex.data;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.*;
+import java.util.concurrent.*;
+
+import org.basex.*;
+import org.basex.api.client.*;
+import org.basex.core.*;
+import org.basex.core.cmd.*;
+import org.basex.io.*;
+import org.basex.util.*;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for logging updates in a write-ahead log ({@link MainOptions#WAL}).
+ *
+ * @author BaseX Team 2005-20, BSD License
+ * @author Christian Gruen
+ */
+public final class JournalTest extends SandboxTest {
+  /** Name of the database copy. */
+  private static final String COPY = NAME + "Copy";
+
+  /**
+   * Creates the test database.
+   */
+  @BeforeEach public void create() {
+    set(MainOptions.WAL, true);
+    set(MainOptions.UPDINDEX, true);
+    execute(new CreateDB(NAME, "<a/>"));
+  }
+
+  /**
+   * Drops the test databases.
+   */
+  @AfterEach public void drop() {
+    set(MainOptions.UPDINDEX, false);
+    set(MainOptions.WAL, false);
+    execute(new DropDB(NAME));
+    execute(new DropDB(COPY));
+  }
+
+  /**
+   * Updates and reads a database with multiple table pages and long texts.
+   */
+  @Test public void pages() {
+    query("replace node /a with <a>{ for $i in 1 to 5000 return <b n='{ $i }'>{"
+        + " string-join(1 to $i mod 100) }</b> }</a>");
+    assertTrue(wal(NAME).exists());
+    assertFalse(context.data().meta.updateFile().exists());
+    query("count(//b)", 5000);
+    query("for $b in //b[@n = 1234] return string-length($b)", 59);
+    query("delete node //b[@n > 100]");
+    query("sum(//b/@n)", 5050);
+    query("count(//b[text() = '123'])", 1);
+
+    execute(new Close());
+    assertFalse(wal(NAME).exists());
+    execute(new Open(NAME));
+    assertTrue(context.data().meta.wal);
+    query("count(//b)", 100);
+    query("sum(//b/@n)", 5050);
+    query("count(//b[text() = '123'])", 1);
+  }
+
+  /**
+   * Restores committed updates of a database that has not been closed.
+   * @throws IOException I/O exception
+   */
+  @Test public void recover() throws IOException {
+    query("insert node <b>{ string-join(1 to 1000) }</b> into /a");
+    query("insert node (<c/>, <f>x</f>) into /a");
+    query("rename node /a/c as 'd'");
+
+    // copy files of the opened database, append incomplete record to the log
+    copy();
+    try(RandomAccessFile raf = new RandomAccessFile(wal(COPY).file(), "rw")) {
+      raf.seek(raf.length());
+      raf.write(new byte[] { 1, 3, 'x' });
+    }
+
+    execute(new Open(COPY));
+    assertFalse(wal(COPY).exists());
+    query("string-length(/a/b)", 2893);
+    query("count(/a/d)", 1);
+    query("count(/a/c)", 0);
+    query("count(//f[text() = 'x'])", 1);
+    query("insert node <e/> into /a");
+    execute(new Close());
+    execute(new Open(COPY));
+    query("count(/a/*)", 4);
+  }
+
+  /**
+   * Reads the last committed state of a database while it is updated.
+   * @throws Exception exception
+   */
+  @Test public void snapshot() throws Exception {
+    execute(new Close());
+    final String db = "db:open('" + NAME + "')";
+    final ExecutorService pool = Executors.newSingleThreadExecutor();
+    try {
+      final Future<String> writer = pool.submit(() -> {
+        try(Session session = new LocalSession(context)) {
+          return session.execute(new XQuery("if(empty(prof:sleep(1000))) then "
+              + "insert node <b/> into " + db + "/a else ()"));
+        }
+      });
+      Performance.sleep(200);
+      // reader will not wait for the completion of the update
+      final Performance perf = new Performance();
+      query("count(" + db + "//b)", 0);
+      assertTrue(perf.ns() < 600000000L);
+      assertFalse(writer.isDone());
+      writer.get();
+    } finally {
+      pool.shutdown();
+    }
+    query("count(" + db + "//b)", 1);
+  }
+
+  /**
+   * Copies the files of the test database.
+   * @throws IOException I/O exception
+   */
+  private static void copy() throws IOException {
+    final IOFile source = context.soptions.dbPath(NAME), target = context.soptions.dbPath(COPY);
+    target.md();
+    for(final IOFile file : source.children()) file.copyTo(new IOFile(target, file.name()));
+  }
+
+  /**
+   * Returns the log file of the specified database.
+   * @param db name of database
+   * @return log file
+   */
+  private static IOFile wal(final String db) {
+    return new MetaData(db, context.options, context.soptions).dbFile(DataText.DATAWAL);
+  }
+}
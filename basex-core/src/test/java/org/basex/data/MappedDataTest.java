@@ -0,0 +1,55 @@
+package org.basex.data;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.basex.core.*;
+import org.basex.core.cmd.*;
+import org.basex.util.*;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test updates and reads when using memory-mapped disk storage ({@link MainOptions#MMAP}).
+ *
+ * @author BaseX Team 2005-20, BSD License
+ * @author Christian Gruen
+ */
+public final class MappedDataTest extends MemDataTest {
+  /** Test database name. */
+  private final String dbName = Util.className(MappedDataTest.class);
+
+  @Override
+  @BeforeEach public void setUp() {
+    set(MainOptions.MMAP, true);
+    execute(new CreateDB(dbName, XMLSTR));
+  }
+
+  /**
+   * Clean up method; executed after each test; drops the database.
+   */
+  @AfterEach public void cleanUp() {
+    execute(new DropDB(dbName));
+    set(MainOptions.MMAP, false);
+  }
+
+  /**
+   * Updates and reads a database with multiple table pages and long texts.
+   */
+  @Test public void pages() {
+    query("replace node /a with <a>{ for $i in 1 to 5000 return <b n='{ $i }'>{"
+        + " string-join(1 to $i mod 100) }</b> }</a>");
+    query("count(//b)", 5000);
+    query("for $b in //b[@n = 1234] return string-length($b)", 59);
+    execute(new Close());
+    execute(new Open(dbName));
+    assertTrue(context.data().meta.mmap);
+    query("delete node //b[@n > 100]");
+    query("sum(//b/@n)", 5050);
+    query("insert node <c>{ string-join(1 to 1000) }</c> into /a");
+    query("string-length(/a/c)", 2893);
+    execute(new Close());
+    execute(new Open(dbName));
+    query("count(//b)", 100);
+    query("string-length(/a/c)", 2893);
+  }
+}
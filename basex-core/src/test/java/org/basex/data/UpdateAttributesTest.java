@@ -24,7 +24,7 @@ public final class UpdateAttributesTest extends DataUpdateTest {
   @ValueSource(booleans = {true, false})
   public void updateAttribute(final boolean mainmem) throws IOException {
     setUp(mainmem);
-    final Data data = context.data();
+    Data data = context.data();
     data.startUpdate(context.options);
     data.update(7, Data.ATTR, T_NAME, Token.EMPTY);
     data.update(7, Data.ATTR, T_JUNIT);
@@ -32,7 +32,7 @@ public final class UpdateAttributesTest extends DataUpdateTest {
     assertEquals(size, data.meta.size);
     assertArraysEquals(T_NAME, data.name(7, Data.ATTR));
     assertArraysEquals(T_JUNIT, data.text(7, false));
-    reload(mainmem);
+    data = reload(mainmem);
     assertEquals(size, data.meta.size);
     assertArraysEquals(T_NAME, data.name(7, Data.ATTR));
     assertArraysEquals(T_JUNIT, data.text(7, false));
@@ -47,14 +47,14 @@ public final class UpdateAttributesTest extends DataUpdateTest {
   @ValueSource(booleans = {true, false})
   public void updateAttribute2(final boolean mainmem) throws IOException {
     setUp(mainmem);
-    final Data data = context.data();
+    Data data = context.data();
     data.startUpdate(context.options);
     data.update(8, Data.ATTR, T_NAME, Token.EMPTY);
     data.update(8, Data.ATTR, T_JUNIT);
     data.finishUpdate(context.options);
     assertEquals(size, data.meta.size);
     assertArraysEquals(T_JUNIT, data.text(8, false));
-    reload(mainmem);
+    data = reload(mainmem);
     assertEquals(size, data.meta.size);
     assertArraysEquals(T_JUNIT, data.text(8, false));
   }
@@ -68,7 +68,7 @@ public final class UpdateAttributesTest extends DataUpdateTest {
   @ValueSource(booleans = {true, false})
   public void addAttribute(final boolean mainmem) throws IOException {
     setUp(mainmem);
-    final Data data = context.data();
+    Data data = context.data();
     final long nextid = data.meta.lastid;
 
     final MemData md = new MemData(context.options);
@@ -87,7 +87,7 @@ public final class UpdateAttributesTest extends DataUpdateTest {
     assertEquals(nextid + 1, data.meta.lastid);
     assertArraysEquals(T_FOO, data.name(9, Data.ATTR));
     assertArraysEquals(T_JUNIT, data.text(9, false));
-    reload(mainmem);
+    data = reload(mainmem);
     assertEquals(size + 1, data.meta.size);
     assertEquals(size + 1, data.size(0, Data.DOC));
     assertEquals(Data.ATTR, data.kind(9));
@@ -23,7 +23,7 @@ public final class UpdateDeleteTest extends DataUpdateTest {
   @ValueSource(booleans = {true, false})
   public void simpleNodeDelete(final boolean mainmem) throws IOException {
     setUp(mainmem);
-    final Data data = context.data();
+    Data data = context.data();
     final int oldDocSize = data.size(0, Data.DOC);
     final int oldRootSize = data.size(1, Data.ELEM);
     final int oldParSize = data.size(2, Data.ELEM);
@@ -36,7 +36,7 @@ public final class UpdateDeleteTest extends DataUpdateTest {
     assertEquals(oldRootSize - 1, data.size(1, Data.ELEM));
     assertEquals(oldParSize - 1, data.size(2, Data.ELEM));
     assertEquals(1, data.parent(3, Data.ELEM));
-    reload(mainmem);
+    data = reload(mainmem);
     assertEquals(size - 1, data.meta.size);
     assertArraysEquals(T_PARENTNODE, data.name(3, Data.ELEM));
     assertEquals(oldDocSize - 1, data.size(0, Data.DOC));
@@ -54,7 +54,7 @@ public final class UpdateDeleteTest extends DataUpdateTest {
   @ValueSource(booleans = {true, false})
   public void cascadingDelete(final boolean mainmem) throws IOException {
     setUp(mainmem);
-    final Data data = context.data();
+    Data data = context.data();
     final int oldDocSize = data.size(0, Data.DOC);
     final int oldRootSize = data.size(1, Data.ELEM);
     data.startUpdate(context.options);
@@ -65,7 +65,7 @@ public final class UpdateDeleteTest extends DataUpdateTest {
     assertEquals(oldDocSize - 2, data.size(0, Data.DOC));
     assertEquals(oldRootSize - 2, data.size(1, Data.ELEM));
     assertEquals(1, data.parent(2, Data.ELEM));
-    reload(mainmem);
+    data = reload(mainmem);
     assertEquals(size - 2, data.meta.size);
     assertArraysEquals(T_PARENTNODE, data.name(2, Data.ELEM));
     assertEquals(oldDocSize - 2, data.size(0, Data.DOC));
@@ -82,7 +82,7 @@ public final class UpdateDeleteTest extends DataUpdateTest {
   @ValueSource(booleans = {true, false})
   public void cascadingDelete2(final boolean mainmem) throws IOException {
     setUp(mainmem);
-    final Data data = context.data();
+    Data data = context.data();
     final int oldDocSize = data.size(0, Data.DOC);
     final int oldRootSize = data.size(1, Data.ELEM);
     final int oldParentSize = data.size(4, Data.ELEM);
@@ -95,7 +95,7 @@ public final class UpdateDeleteTest extends DataUpdateTest {
     assertEquals(oldRootSize - 5, data.size(1, Data.ELEM));
     assertEquals(oldParentSize - 5, data.size(4, Data.ELEM));
     assertEquals(2, data.parent(3, Data.ELEM));
-    reload(mainmem);
+    data = reload(mainmem);
     assertEquals(size - 5, data.meta.size);
     assertArraysEquals(T_B, data.name(6, Data.ELEM));
     assertEquals(oldDocSize - 5, data.size(0, Data.DOC));
@@ -113,7 +113,7 @@ public final class UpdateDeleteTest extends DataUpdateTest {
   @ValueSource(booleans = {true, false})
   public void deleteAttribute(final boolean mainmem) throws IOException {
     setUp(mainmem);
-    final Data data = context.data();
+    Data data = context.data();
     final int oldRootSize = data.size(1, Data.ELEM);
     final int oldParentSize = data.size(6, Data.ELEM);
     data.startUpdate(context.options);
@@ -126,7 +126,7 @@ public final class UpdateDeleteTest extends DataUpdateTest {
     assertEquals(oldParentSize - 1, data.size(6, Data.ELEM));
     assertEquals(6, data.parent(7, Data.ATTR));
     assertEquals(4, data.size(6, Data.ELEM));
-    reload(mainmem);
+    data = reload(mainmem);
     assertEquals(size - 1, data.meta.size);
     assertArraysEquals(T_CONTEXTNODE, data.name(6, Data.ELEM));
     assertArraysEquals(T_ID, data.name(7, Data.ATTR));
@@ -146,12 +146,12 @@ public final class UpdateDeleteTest extends DataUpdateTest {
   @ValueSource(booleans = {true, false})
   public void deleteText(final boolean mainmem) throws IOException {
     setUp(mainmem);
-    final Data data = context.data();
+    Data data = context.data();
     data.startUpdate(context.options);
     data.delete(10);
     data.finishUpdate(context.options);
     assertEquals(size - 1, data.meta.size);
-    reload(mainmem);
+    data = reload(mainmem);
     assertEquals(size - 1, data.meta.size);
   }
 }
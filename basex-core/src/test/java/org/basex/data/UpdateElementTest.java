@@ -24,7 +24,7 @@ public final class UpdateElementTest extends DataUpdateTest {
   @ValueSource(booleans = {true, false})
   public void insertElementAsOnly1(final boolean mainmem) throws IOException {
     setUp(mainmem);
-    final Data data = context.data();
+    Data data = context.data();
     final long nextid = data.meta.lastid;
     insertElement(3, 0, T_JUNIT, Data.ELEM);
     assertEquals(size + 1, data.meta.size);
@@ -35,7 +35,7 @@ public final class UpdateElementTest extends DataUpdateTest {
     assertEquals(5, data.parent(6, Data.ELEM));
     assertEquals(nextid + 1, data.meta.lastid);
     assertArraysEquals(T_JUNIT, data.name(4, Data.ELEM));
-    reload(mainmem);
+    data = reload(mainmem);
     assertEquals(size + 1, data.meta.size);
     assertEquals(3, data.parent(4, Data.ELEM));
     assertEquals(Data.ATTR, data.kind(9));
@@ -54,7 +54,7 @@ public final class UpdateElementTest extends DataUpdateTest {
   @ValueSource(booleans = {true, false})
   public void insertElementAsOnly2(final boolean mainmem) throws IOException {
     setUp(mainmem);
-    final Data data = context.data();
+    Data data = context.data();
     final long nextid = data.meta.lastid;
     insertElement(3, 1, T_JUNIT, Data.ELEM);
     assertEquals(size + 1, data.meta.size);
@@ -65,7 +65,7 @@ public final class UpdateElementTest extends DataUpdateTest {
     assertEquals(5, data.parent(6, Data.ELEM));
     assertEquals(nextid + 1, data.meta.lastid);
     assertArraysEquals(T_JUNIT, data.name(4, Data.ELEM));
-    reload(mainmem);
+    data = reload(mainmem);
     assertEquals(size + 1, data.meta.size);
     assertEquals(3, data.parent(4, Data.ELEM));
     assertEquals(Data.ATTR, data.kind(9));
@@ -84,7 +84,7 @@ public final class UpdateElementTest extends DataUpdateTest {
   @ValueSource(booleans = {true, false})
   public void insertElementAsOnly3(final boolean mainmem) throws IOException {
     setUp(mainmem);
-    final Data data = context.data();
+    Data data = context.data();
     final long nextid = data.meta.lastid;
     insertElement(3, 2, T_JUNIT, Data.ELEM);
     assertEquals(size + 1, data.meta.size);
@@ -95,7 +95,7 @@ public final class UpdateElementTest extends DataUpdateTest {
     assertEquals(5, data.parent(6, Data.ELEM));
     assertEquals(nextid + 1, data.meta.lastid);
     assertArraysEquals(T_JUNIT, data.name(4, Data.ELEM));
-    reload(mainmem);
+    data = reload(mainmem);
     assertEquals(size + 1, data.meta.size);
     assertEquals(3, data.parent(4, Data.ELEM));
     assertEquals(Data.ATTR, data.kind(9));
@@ -114,7 +114,7 @@ public final class UpdateElementTest extends DataUpdateTest {
   @ValueSource(booleans = {true, false})
   public void insertElementAfterAttsAsFirst(final boolean mainmem) throws IOException {
     setUp(mainmem);
-    final Data data = context.data();
+    Data data = context.data();
     final long nextid = data.meta.lastid;
     insertElement(6, 1, T_JUNIT, Data.ELEM);
     assertEquals(size + 1, data.meta.size);
@@ -124,7 +124,7 @@ public final class UpdateElementTest extends DataUpdateTest {
     assertEquals(6, data.parent(10, Data.ELEM));
     assertEquals(4, data.parent(12, Data.ELEM));
     assertEquals(nextid + 1, data.meta.lastid);
-    reload(mainmem);
+    data = reload(mainmem);
     assertEquals(size + 1, data.meta.size);
     assertEquals(Data.ELEM, data.kind(9));
     assertEquals(6, data.parent(9, Data.ELEM));
@@ -143,7 +143,7 @@ public final class UpdateElementTest extends DataUpdateTest {
   @ValueSource(booleans = {true, false})
   public void insertElementAfterAttsAsSecond(final boolean mainmem) throws IOException {
     setUp(mainmem);
-    final Data data = context.data();
+    Data data = context.data();
     final long nextid = data.meta.lastid;
     insertElement(6, 2, T_JUNIT, Data.ELEM);
     assertEquals(size + 1, data.meta.size);
@@ -153,7 +153,7 @@ public final class UpdateElementTest extends DataUpdateTest {
     assertEquals(6, data.parent(9, Data.ELEM));
     assertEquals(4, data.parent(12, Data.ELEM));
     assertEquals(nextid + 1, data.meta.lastid);
-    reload(mainmem);
+    data = reload(mainmem);
     assertEquals(size + 1, data.meta.size);
     assertEquals(Data.ELEM, data.kind(9));
     assertArraysEquals(T_JUNIT, data.name(11, Data.ELEM));
@@ -172,7 +172,7 @@ public final class UpdateElementTest extends DataUpdateTest {
   @ValueSource(booleans = {true, false})
   public void insertElementAfterAttsAsLast(final boolean mainmem) throws IOException {
     setUp(mainmem);
-    final Data data = context.data();
+    Data data = context.data();
     final long nextid = data.meta.lastid;
     insertElement(6, 0, T_JUNIT, Data.ELEM);
     assertEquals(size + 1, data.meta.size);
@@ -182,7 +182,7 @@ public final class UpdateElementTest extends DataUpdateTest {
     assertEquals(6, data.parent(9, Data.ELEM));
     assertEquals(4, data.parent(12, Data.ELEM));
     assertEquals(nextid + 1, data.meta.lastid);
-    reload(mainmem);
+    data = reload(mainmem);
     assertEquals(size + 1, data.meta.size);
     assertEquals(Data.ELEM, data.kind(9));
     assertArraysEquals(T_JUNIT, data.name(11, Data.ELEM));
@@ -201,13 +201,13 @@ public final class UpdateElementTest extends DataUpdateTest {
   @ValueSource(booleans = {true, false})
   public void updateElementName(final boolean mainmem) throws IOException {
     setUp(mainmem);
-    final Data data = context.data();
+    Data data = context.data();
     data.startUpdate(context.options);
     data.update(6, Data.ELEM, T_JUNIT, Token.EMPTY);
     data.finishUpdate(context.options);
     assertEquals(Data.ELEM, data.kind(6));
     assertArraysEquals(T_JUNIT, data.name(6, Data.ELEM));
-    reload(mainmem);
+    data = reload(mainmem);
     assertEquals(Data.ELEM, data.kind(6));
     assertArraysEquals(T_JUNIT, data.name(6, Data.ELEM));
   }
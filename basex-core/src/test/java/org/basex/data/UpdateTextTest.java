@@ -23,7 +23,7 @@ public final class UpdateTextTest extends DataUpdateTest {
   @ValueSource(booleans = {true, false})
   public void insertTextAsOnly1(final boolean mainmem) throws IOException {
     setUp(mainmem);
-    final Data data = context.data();
+    Data data = context.data();
     final int nextid = data.meta.lastid;
     insertText(3, 0, T_JUNIT, Data.TEXT);
     assertEquals(size + 1, data.meta.size);
@@ -34,7 +34,7 @@ public final class UpdateTextTest extends DataUpdateTest {
     assertEquals(5, data.parent(6, Data.ELEM));
     assertEquals(nextid + 1, data.meta.lastid);
     assertArraysEquals(T_JUNIT, data.atom(4));
-    reload(mainmem);
+    data = reload(mainmem);
     assertEquals(size + 1, data.meta.size);
     assertEquals(3, data.parent(4, Data.TEXT));
     assertEquals(Data.ATTR, data.kind(9));
@@ -54,7 +54,7 @@ public final class UpdateTextTest extends DataUpdateTest {
   @ValueSource(booleans = {true, false})
   public void insertTextAsOnly2(final boolean mainmem) throws IOException {
     setUp(mainmem);
-    final Data data = context.data();
+    Data data = context.data();
     final int nextid = data.meta.lastid;
     insertText(3, 1, T_JUNIT, Data.TEXT);
     assertEquals(size + 1, data.meta.size);
@@ -65,7 +65,7 @@ public final class UpdateTextTest extends DataUpdateTest {
     assertEquals(5, data.parent(6, Data.ELEM));
     assertEquals(nextid + 1, data.meta.lastid);
     assertArraysEquals(T_JUNIT, data.atom(4));
-    reload(mainmem);
+    data = reload(mainmem);
     assertEquals(size + 1, data.meta.size);
     assertEquals(3, data.parent(4, Data.TEXT));
     assertEquals(Data.ATTR, data.kind(9));
@@ -85,7 +85,7 @@ public final class UpdateTextTest extends DataUpdateTest {
   @ValueSource(booleans = {true, false})
   public void insertTextAsOnly3(final boolean mainmem) throws IOException {
     setUp(mainmem);
-    final Data data = context.data();
+    Data data = context.data();
     final int nextid = data.meta.lastid;
     insertText(3, 2, T_JUNIT, Data.TEXT);
     assertEquals(size + 1, data.meta.size);
@@ -96,7 +96,7 @@ public final class UpdateTextTest extends DataUpdateTest {
     assertEquals(5, data.parent(6, Data.ELEM));
     assertEquals(nextid + 1, data.meta.lastid);
     assertArraysEquals(T_JUNIT, data.atom(4));
-    reload(mainmem);
+    data = reload(mainmem);
     assertEquals(size + 1, data.meta.size);
     assertEquals(3, data.parent(4, Data.TEXT));
     assertEquals(Data.ATTR, data.kind(9));
@@ -116,7 +116,7 @@ public final class UpdateTextTest extends DataUpdateTest {
   @ValueSource(booleans = {true, false})
   public void insertTextAfterAttsAsFirst(final boolean mainmem) throws IOException {
     setUp(mainmem);
-    final Data data = context.data();
+    Data data = context.data();
     final int nextid = data.meta.lastid;
     insertText(6, 1, T_JUNIT, Data.TEXT);
     assertEquals(size + 1, data.meta.size);
@@ -126,7 +126,7 @@ public final class UpdateTextTest extends DataUpdateTest {
     assertEquals(6, data.parent(10, Data.ELEM));
     assertEquals(4, data.parent(12, Data.ELEM));
     assertEquals(nextid + 1, data.meta.lastid);
-    reload(mainmem);
+    data = reload(mainmem);
     assertEquals(size + 1, data.meta.size);
     assertEquals(Data.TEXT, data.kind(9));
     assertEquals(6, data.parent(9, Data.TEXT));
@@ -145,7 +145,7 @@ public final class UpdateTextTest extends DataUpdateTest {
   @ValueSource(booleans = {true, false})
   public void insertTextAfterAttsAsSecond(final boolean mainmem) throws IOException {
     setUp(mainmem);
-    final Data data = context.data();
+    Data data = context.data();
     final int nextid = data.meta.lastid;
     insertText(6, 2, T_JUNIT, Data.TEXT);
     assertEquals(size + 1, data.meta.size);
@@ -156,7 +156,7 @@ public final class UpdateTextTest extends DataUpdateTest {
     assertEquals(4, data.parent(12, Data.ELEM));
     assertEquals(nextid + 1, data.meta.lastid);
 
-    reload(mainmem);
+    data = reload(mainmem);
     assertEquals(size + 1, data.meta.size);
     assertEquals(Data.ELEM, data.kind(9));
     assertArraysEquals(T_JUNIT, data.atom(11));
@@ -175,7 +175,7 @@ public final class UpdateTextTest extends DataUpdateTest {
   @ValueSource(booleans = {true, false})
   public void insertTextAfterAttsAsLast(final boolean mainmem) throws IOException {
     setUp(mainmem);
-    final Data data = context.data();
+    Data data = context.data();
     final int nextid = data.meta.lastid;
     insertText(6, 0, T_JUNIT, Data.TEXT);
     assertEquals(size + 1, data.meta.size);
@@ -185,7 +185,7 @@ public final class UpdateTextTest extends DataUpdateTest {
     assertEquals(6, data.parent(9, Data.ELEM));
     assertEquals(4, data.parent(12, Data.ELEM));
     assertEquals(nextid + 1, data.meta.lastid);
-    reload(mainmem);
+    data = reload(mainmem);
     assertEquals(size + 1, data.meta.size);
     assertEquals(Data.ELEM, data.kind(9));
     assertArraysEquals(T_JUNIT, data.atom(11));
@@ -237,13 +237,13 @@ public final class UpdateTextTest extends DataUpdateTest {
   @ValueSource(booleans = {true, false})
   public void updateText(final boolean mainmem) throws IOException {
     setUp(mainmem);
-    final Data data = context.data();
+    Data data = context.data();
     data.startUpdate(context.options);
     data.update(10, Data.TEXT, T_JUNIT);
     data.finishUpdate(context.options);
     assertEquals(Data.TEXT, data.kind(10));
     assertArraysEquals(T_JUNIT, data.text(10, true));
-    reload(mainmem);
+    data = reload(mainmem);
     assertEquals(Data.TEXT, data.kind(10));
     assertArraysEquals(T_JUNIT, data.text(10, true));
   }
@@ -0,0 +1,109 @@
+package org.basex.data;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.concurrent.*;
+
+import org.basex.*;
+import org.basex.api.client.*;
+import org.basex.core.*;
+import org.basex.core.cmd.*;
+import org.basex.util.*;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for flushing updates in the background ({@link MainOptions#FLUSHDELAY}).
+ *
+ * @author BaseX Team 2005-20, BSD License
+ * @author Christian Gruen
+ */
+public final class WriteBehindTest extends SandboxTest {
+  /** Flush delay (ms). */
+  private static final int DELAY = 50;
+
+  /**
+   * Creates the test database.
+   */
+  @BeforeEach public void create() {
+    execute(new CreateDB(NAME, "<a/>"));
+    set(MainOptions.FLUSHDELAY, DELAY);
+  }
+
+  /**
+   * Drops the test database.
+   */
+  @AfterEach public void drop() {
+    set(MainOptions.FLUSHDELAY, 0);
+    execute(new DropDB(NAME));
+  }
+
+  /**
+   * Flushes a single update in the background.
+   */
+  @Test public void single() {
+    query("insert node <b/> into /a");
+    assertTrue(updating());
+    await();
+    assertFalse(updating());
+    query("count(//b)", 1);
+
+    // changes are written when the database is closed
+    query("insert node <b/> into /a");
+    assertTrue(updating());
+    execute(new Close());
+    assertFalse(updating());
+    execute(new Open(NAME));
+    query("count(//b)", 2);
+  }
+
+  /**
+   * Runs concurrent updates that share flushes.
+   */
+  @Test public void group() {
+    final int updates = 50;
+    final ExecutorService pool = Executors.newFixedThreadPool(8);
+    try {
+      final Future<?>[] futures = new Future<?>[updates];
+      for(int u = 0; u < updates; u++) {
+        final int n = u;
+        futures[u] = pool.submit(() -> {
+          try(Session session = new LocalSession(context)) {
+            session.execute(new XQuery("insert node <b n='" + n + "'/> into db:open('" + NAME +
+                "')/a"));
+          }
+          return null;
+        });
+      }
+      for(final Future<?> future : futures) future.get();
+    } catch(final Exception ex) {
+      Util.stack(ex);
+      fail(ex.toString());
+    } finally {
+      pool.shutdown();
+    }
+    await();
+    query("count(db:open('" + NAME + "')//b)", updates);
+    assertTrue(Token.string(Flusher.get().info()).contains(Text.LI_BATCHES));
+
+    execute(new Close());
+    execute(new Open(NAME));
+    query("count(//b)", updates);
+  }
+
+  /**
+   * Checks if the updating file of the test database exists.
+   * @return result of check
+   */
+  private static boolean updating() {
+    return new MetaData(NAME, context.options, context.soptions).updateFile().exists();
+  }
+
+  /**
+   * Waits until all pending changes have been flushed.
+   */
+  private static void await() {
+    for(int i = 0; i < 100 && updating(); i++) Performance.sleep(DELAY);
+    assertFalse(updating());
+  }
+}
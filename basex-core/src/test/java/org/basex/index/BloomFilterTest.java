@@ -0,0 +1,86 @@
+package org.basex.index;
+
+import static org.basex.query.func.Function.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.basex.*;
+import org.basex.core.*;
+import org.basex.core.cmd.*;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for the Bloom filters of the value indexes ({@link MainOptions#BLOOMFILTER}).
+ *
+ * @author BaseX Team 2005-20, BSD License
+ * @author Christian Gruen
+ */
+public final class BloomFilterTest extends SandboxTest {
+  /** Test document. */
+  private static final String DOC = "<x>{ for $i in 1 to 1000 return <a b='{ $i }' c='t{ $i } u'>"
+      + "{ $i }</a> }</x>";
+
+  /** Resets the options. */
+  @AfterEach public void tearDown() {
+    set(MainOptions.BLOOMFILTER, false);
+    set(MainOptions.TOKENINDEX, false);
+    set(MainOptions.UPDINDEX, false);
+    execute(new DropDB(NAME));
+  }
+
+  /** Lookups of existing and missing keys. */
+  @Test public void filter() {
+    set(MainOptions.BLOOMFILTER, true);
+    set(MainOptions.TOKENINDEX, true);
+    execute(new CreateDB(NAME, query(DOC)));
+    check();
+
+    final String info = execute(new InfoIndex("TEXT"));
+    assertTrue(info.contains(Text.LI_BLOOM_FILTER), info);
+    assertFalse(info.contains(" 0 skipped"), info);
+    query(_DB_PROPERTY.args(NAME, "bloomfilter"), true);
+
+    // drop filters
+    set(MainOptions.BLOOMFILTER, false);
+    execute(new Optimize());
+    assertFalse(execute(new InfoIndex("TEXT")).contains(Text.LI_BLOOM_FILTER));
+    check();
+    query(_DB_OPTIMIZE.args(NAME, false, " map { 'bloomfilter': true() }"));
+    assertTrue(execute(new InfoIndex("ATTRIBUTE")).contains(Text.LI_BLOOM_FILTER));
+    check();
+  }
+
+  /** Incremental updates. */
+  @Test public void updates() {
+    set(MainOptions.BLOOMFILTER, true);
+    set(MainOptions.TOKENINDEX, true);
+    set(MainOptions.UPDINDEX, true);
+    execute(new CreateDB(NAME, query(DOC)));
+    check();
+
+    query("insert node <a b='new' c='new v'>new</a> into db:open('" + NAME + "')/x");
+    query(_DB_TEXT.args(NAME, "new") + "/string()", "new");
+    query(_DB_ATTRIBUTE.args(NAME, "new") + "/string()", "new");
+    query("count(" + _DB_TOKEN.args(NAME, "new") + ")", 2);
+
+    // changes are persistent
+    execute(new Close());
+    query(_DB_TEXT.args(NAME, "new") + "/string()", "new");
+    query(_DB_ATTRIBUTE.args(NAME, "new") + "/string()", "new");
+    query("count(" + _DB_TOKEN.args(NAME, "new") + ")", 2);
+    check();
+  }
+
+  /**
+   * Looks up existing and missing keys.
+   */
+  private static void check() {
+    for(int i = 1; i <= 2000; i += 97) {
+      final int count = i <= 1000 ? 1 : 0;
+      query("count(" + _DB_TEXT.args(NAME, Integer.toString(i)) + ")", count);
+      query("count(" + _DB_ATTRIBUTE.args(NAME, Integer.toString(i)) + ")", count);
+      query("count(" + _DB_TOKEN.args(NAME, "t" + i) + ")", count);
+    }
+    query("count(" + _DB_TOKEN.args(NAME, "u") + ")", 1000);
+  }
+}
@@ -0,0 +1,94 @@
+package org.basex.index;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.basex.*;
+import org.basex.core.*;
+import org.basex.core.cmd.*;
+import org.basex.data.*;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for columns with numeric values ({@link MainOptions#COLUMNS}).
+ *
+ * @author BaseX Team 2005-20, BSD License
+ * @author Christian Gruen
+ */
+public final class ColumnsTest extends SandboxTest {
+  /** Test document. */
+  private static final String DOC = "<orders>{ for $i in 1 to 1000 return <order amount='{"
+      + " $i * 1.5 }'><item><price>{ $i mod 7 }</price></item><text>x{ $i }</text></order> }"
+      + "</orders>";
+  /** Database reference. */
+  private static final String DB = "db:open('" + NAME + "')";
+
+  /**
+   * Creates the test database.
+   */
+  @BeforeEach public void create() {
+    set(MainOptions.COLUMNS, true);
+    execute(new CreateDB(NAME, query(DOC)));
+  }
+
+  /**
+   * Drops the test database.
+   */
+  @AfterEach public void drop() {
+    set(MainOptions.COLUMNS, false);
+    execute(new DropDB(NAME));
+  }
+
+  /**
+   * Aggregates values that are stored in columns.
+   */
+  @Test public void aggregate() {
+    assertTrue(context.data().meta.dbFile(DataText.DATACOL).exists());
+    check();
+  }
+
+  /**
+   * Values of multiple documents.
+   */
+  @Test public void documents() {
+    execute(new Add("doc2.xml", "<orders><order amount='1000'/><order amount='-1'/></orders>"));
+    execute(new Optimize());
+    query("sum(" + DB + "//@amount)", 751749);
+    query("sum(db:open('" + NAME + "', 'doc2.xml')//@amount)", 999);
+    query("min(" + DB + "//order/@amount)", -1);
+    query("max(db:open('" + NAME + "', '" + NAME + ".xml')//order/@amount)", 1500);
+    query("count(" + DB + "//@amount)", 1002);
+  }
+
+  /**
+   * Invalidates and rebuilds columns.
+   */
+  @Test public void update() {
+    query("insert node <order amount='-10.5'/> into " + DB + "/orders");
+    query("sum(" + DB + "//@amount)", 750739.5);
+    query("min(" + DB + "//@amount)", -10.5);
+    execute(new Optimize());
+    query("sum(" + DB + "//@amount)", 750739.5);
+    query("min(" + DB + "//@amount)", -10.5);
+
+    // drop columns
+    set(MainOptions.COLUMNS, false);
+    execute(new Optimize());
+    assertFalse(context.data().meta.dbFile(DataText.DATACOL).exists());
+    query("sum(" + DB + "//@amount)", 750739.5);
+  }
+
+  /**
+   * Checks the aggregated values.
+   */
+  private static void check() {
+    query("sum(" + DB + "//@amount)", 750750);
+    query("avg(" + DB + "//order/@amount)", 750.75);
+    query("min(" + DB + "//@amount)", 1.5);
+    query("max(" + DB + "/orders/order/@amount)", 1500);
+    query("sum(" + DB + "//price)", 3003);
+    query("avg(" + DB + "//item/price/text())", 3.003);
+    query("max(" + DB + "//price)", 6);
+    query("sum(" + DB + "//nothing, 'x')", "x");
+  }
+}
@@ -0,0 +1,97 @@
+package org.basex.index;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.basex.*;
+import org.basex.core.*;
+import org.basex.core.cmd.*;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for building index structures in parallel.
+ *
+ * @author BaseX Team 2005-20, BSD License
+ * @author Christian Gruen
+ */
+public final class IndexThreadsTest extends SandboxTest {
+  /** Number of elements. */
+  private static final int SIZE = 60000;
+  /** Queries. */
+  private static final String[] QUERIES = {
+    "db:node-pre(db:text('" + NAME + "', 'w7 common'))",
+    "db:node-pre(db:attribute('" + NAME + "', '42'))",
+    "db:node-pre(db:token('" + NAME + "', 'u5'))",
+    "db:node-pre(ft:search('" + NAME + "', 'w7'))",
+    "count(ft:search('" + NAME + "', 'common'))",
+    "db:node-pre(ft:search('" + NAME + "', 'w7 common', map { 'mode': 'phrase' }))",
+    "db:node-pre(db:open('" + NAME + "')//a[text() contains text 'w1.*' using wildcards])",
+  };
+
+  /** Resets the options. */
+  @AfterEach public void tearDown() {
+    set(MainOptions.INDEXTHREADS, 1);
+    set(MainOptions.SPLITSIZE, 0);
+    set(MainOptions.TOKENINDEX, false);
+    set(MainOptions.FTINDEX, false);
+    set(MainOptions.UPDINDEX, false);
+    execute(new DropDB(NAME));
+  }
+
+  /** Compares the results of indexes that have been built with different numbers of threads. */
+  @Test public void parallel() {
+    set(MainOptions.TOKENINDEX, true);
+    set(MainOptions.FTINDEX, true);
+    final String[] expected = results(1, 0, false);
+    assertArrayEquals(expected, results(4, 0, false));
+    assertArrayEquals(expected, results(4, 1, false));
+    assertArrayEquals(expected, results(3, 1, true));
+
+    // rebuild database in parallel
+    set(MainOptions.INDEXTHREADS, 4);
+    execute(new OptimizeAll());
+    assertArrayEquals(expected, results());
+  }
+
+  /** Builds an empty index in parallel. */
+  @Test public void empty() {
+    set(MainOptions.INDEXTHREADS, 4);
+    set(MainOptions.FTINDEX, true);
+    execute(new CreateDB(NAME, "<x/>"));
+    query("count(db:text('" + NAME + "', 'x'))", 0);
+    query("count(ft:search('" + NAME + "', 'x'))", 0);
+  }
+
+  /**
+   * Creates a database and returns the results of the queries.
+   * @param threads number of threads
+   * @param splitsize split size
+   * @param updindex incremental indexing
+   * @return results
+   */
+  private static String[] results(final int threads, final int splitsize,
+      final boolean updindex) {
+
+    set(MainOptions.INDEXTHREADS, threads);
+    set(MainOptions.SPLITSIZE, splitsize);
+    set(MainOptions.UPDINDEX, updindex);
+    final StringBuilder sb = new StringBuilder("<x>");
+    for(int i = 0; i < SIZE; i++) {
+      sb.append("<a b='").append(i % 100).append("' c='t").append(i % 7).append(" u");
+      sb.append(i % 11).append("'>w").append(i % 50).append(" common</a>");
+    }
+    execute(new CreateDB(NAME, sb.append("</x>").toString()));
+    return results();
+  }
+
+  /**
+   * Returns the results of the queries.
+   * @return results
+   */
+  private static String[] results() {
+    final int ql = QUERIES.length;
+    final String[] results = new String[ql];
+    for(int q = 0; q < ql; q++) results[q] = query(QUERIES[q]);
+    return results;
+  }
+}
@@ -0,0 +1,104 @@
+package org.basex.io.random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.*;
+
+import org.basex.*;
+import org.basex.core.*;
+import org.basex.io.*;
+import org.basex.util.*;
+import org.junit.jupiter.api.*;
+
+/**
+ * Tests for class {@link PageCache}.
+ *
+ * @author BaseX Team 2005-20, BSD License
+ * @author Christian Gruen
+ */
+public final class PageCacheTest extends SandboxTest {
+  /** Number of files. */
+  private static final int FILES = 4;
+  /** Number of blocks per file (exceeds minimum cache size). */
+  private static final int BLOCKS = 100;
+
+  /**
+   * Shrinks the cache.
+   */
+  @BeforeEach public void init() {
+    PageCache.get().size(0);
+  }
+
+  /**
+   * Restores the default cache size.
+   */
+  @AfterEach public void reset() {
+    PageCache.get().size(context.soptions.get(StaticOptions.PAGECACHE));
+  }
+
+  /**
+   * Writes and reads blocks of several files that share the cache.
+   */
+  @Test public void shared() {
+    final IOFile[] files = new IOFile[FILES];
+    final DataAccess[] das = new DataAccess[FILES];
+    for(int f = 0; f < FILES; f++) {
+      files[f] = new IOFile(sandbox(), "cache" + f + IO.BASEXSUFFIX);
+      files[f].delete();
+    }
+    try {
+      for(int f = 0; f < FILES; f++) das[f] = new DataAccess(files[f]);
+      // interleaved writes: dirty blocks will be evicted by other files
+      for(int b = 0; b < BLOCKS; b++) {
+        for(int f = 0; f < FILES; f++) das[f].write4((long) b * IO.BLOCKSIZE, b * FILES + f);
+      }
+      for(int b = 0; b < BLOCKS; b++) {
+        for(int f = 0; f < FILES; f++) {
+          assertEquals(b * FILES + f, das[f].read4((long) b * IO.BLOCKSIZE));
+        }
+      }
+      for(final DataAccess da : das) da.close();
+
+      // reopen files and check persisted values
+      for(int f = 0; f < FILES; f++) das[f] = new DataAccess(files[f]);
+      for(int b = BLOCKS - 1; b >= 0; b--) {
+        for(int f = 0; f < FILES; f++) {
+          assertEquals(b * FILES + f, das[f].read4((long) b * IO.BLOCKSIZE));
+        }
+      }
+      assertTrue(Token.string(PageCache.get().info()).contains(Text.LI_EVICTIONS));
+    } catch(final Exception ex) {
+      Util.stack(ex);
+      fail(ex.toString());
+    } finally {
+      for(final DataAccess da : das) {
+        if(da != null) da.close();
+      }
+      for(final IOFile file : files) file.delete();
+    }
+  }
+
+  /**
+   * Checks that frequently accessed blocks survive a sequential scan.
+   * @throws IOException I/O exception
+   */
+  @Test public void scan() throws IOException {
+    // count the blocks that are read by this owner (the cache is shared by other tests)
+    final int[] reads = { 0 };
+    final Buffers buffers = new Buffers(0, buffer -> reads[0]++, buffer -> { });
+    try {
+      // access hot block, evict it, access it again: block is now marked as frequent
+      buffers.read(0, 0, 1);
+      for(int b = 100; b < 170; b++) buffers.read(b, 0, 1);
+      buffers.read(0, 0, 1);
+
+      // scan remaining blocks: hot block must still be cached
+      for(int b = 200; b < 1000; b++) buffers.read(b, 0, 1);
+      final int count = reads[0];
+      buffers.read(0, 0, 1);
+      assertEquals(count, reads[0]);
+    } finally {
+      buffers.init();
+    }
+  }
+}
@@ -0,0 +1,181 @@
+package org.basex.query;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.basex.*;
+import org.basex.core.*;
+import org.basex.core.cmd.*;
+import org.basex.io.*;
+import org.basex.util.*;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for the query result cache ({@link StaticOptions#QUERYCACHE}).
+ *
+ * @author BaseX Team 2005-20, BSD License
+ * @author Christian Gruen
+ */
+public final class QueryCacheTest extends SandboxTest {
+  /** Query on the test database. */
+  private static final String QUERY = "db:open('" + NAME + "')//a[@b = 'x']";
+
+  /**
+   * Enables the cache and creates the test database.
+   */
+  @BeforeEach public void init() {
+    context.soptions.set(StaticOptions.QUERYCACHE, 4);
+    context.cache.clear();
+    execute(new CreateDB(NAME, "<x><a b='x'>1</a><a b='y'>2</a></x>"));
+  }
+
+  /**
+   * Disables the cache and drops the test database.
+   */
+  @AfterEach public void reset() {
+    context.soptions.set(StaticOptions.QUERYCACHE, 0);
+    context.cache.clear();
+    execute(new DropDB(NAME));
+  }
+
+  /**
+   * Returns cached results.
+   */
+  @Test public void hits() {
+    final long hits = count(Text.LI_HITS);
+    query(QUERY + "/string()", 1);
+    query(QUERY + "/string()", 1);
+    assertEquals(hits + 1, count(Text.LI_HITS));
+
+    // the database will be closed and reopened
+    execute(new Close());
+    query(QUERY + "/string()", 1);
+    assertEquals(hits + 2, count(Text.LI_HITS));
+    query("map { 1: 2 }", "map {\n1: 2\n}");
+    query("map { 1: 2 }", "map {\n1: 2\n}");
+    assertEquals(hits + 3, count(Text.LI_HITS));
+  }
+
+  /**
+   * Skips results with nodes.
+   */
+  @Test public void nodes() {
+    final long hits = count(Text.LI_HITS);
+    query(QUERY, "<a b=\"x\">1</a>");
+    query(QUERY, "<a b=\"x\">1</a>");
+    query("[ " + QUERY + " ]", "[<a b=\"x\">1</a>]");
+    query("[ " + QUERY + " ]", "[<a b=\"x\">1</a>]");
+    query("<a/>", "<a/>");
+    query("<a/>", "<a/>");
+    assertEquals(hits, count(Text.LI_HITS));
+    // database nodes keep their identity
+    query("declare variable $a := " + QUERY + "; $a is " + QUERY, true);
+    query("db:node-pre(" + QUERY + ")", 2);
+    query("db:node-pre(" + QUERY + ")", 2);
+    assertEquals(hits + 1, count(Text.LI_HITS));
+  }
+
+  /**
+   * Ignores results of updated databases.
+   */
+  @Test public void updates() {
+    query(QUERY + "/text()", 1);
+    query("replace value of node " + QUERY + "/text() with 3");
+    query(QUERY + "/text()", 3);
+    execute(new Add("doc.xml", "<a b='x'>4</a>"));
+    query(QUERY + "/text()", "3\n4");
+    execute(new DropDB(NAME));
+    execute(new CreateDB(NAME, "<a b='x'>5</a>"));
+    query(QUERY + "/text()", 5);
+  }
+
+  /**
+   * Distinguishes external bindings.
+   */
+  @Test public void bindings() {
+    final String query = "declare variable $v external; " + QUERY + "[. = $v] ! string()";
+    final long hits = count(Text.LI_HITS);
+    assertEquals("1", execute(new XQuery(query).bind("v", "1")));
+    assertEquals("", execute(new XQuery(query).bind("v", "2")));
+    assertEquals("1", execute(new XQuery(query).bind("v", "1")));
+    assertEquals("", execute(new XQuery(query).bind("v", "2")));
+    assertEquals(hits + 2, count(Text.LI_HITS));
+  }
+
+  /**
+   * Skips non-deterministic queries.
+   */
+  @Test public void nondeterministic() {
+    final long hits = count(Text.LI_HITS), misses = count(Text.LI_MISSES);
+    query("random:uuid() = random:uuid()", false);
+    query("random:uuid() = random:uuid()", false);
+    query("current-dateTime() instance of xs:dateTime", true);
+    query("current-dateTime() instance of xs:dateTime", true);
+    assertEquals(hits, count(Text.LI_HITS));
+    assertEquals(misses + 2, count(Text.LI_MISSES));
+  }
+
+  /**
+   * Skips queries that read resources from files.
+   */
+  @Test public void files() {
+    final IOFile file = new IOFile(sandbox(), "input.json");
+    final String text = "unparsed-text('" + file.path() + "')";
+    final String lines = "unparsed-text-lines('" + file.path() + "')";
+    final String json = "json-doc('" + file.path() + "')";
+    final long hits = count(Text.LI_HITS);
+    write(file, "1");
+    query(text, 1);
+    query(lines, 1);
+    query(json, 1);
+    write(file, "2");
+    query(text, 2);
+    query(lines, 2);
+    query(json, 2);
+    assertEquals(hits, count(Text.LI_HITS));
+  }
+
+  /**
+   * Evicts least recently used results.
+   */
+  @Test public void evictions() {
+    final long evictions = count(Text.LI_EVICTIONS);
+    query("1 to 2", "1\n2");
+    query("3 to 4", "3\n4");
+    query("1 to 2", "1\n2");
+    query("5 to 6", "5\n6");
+    assertEquals(evictions + 1, count(Text.LI_EVICTIONS));
+
+    // least recently used entry has been evicted
+    final long hits = count(Text.LI_HITS);
+    query("1 to 2", "1\n2");
+    assertEquals(hits + 1, count(Text.LI_HITS));
+    query("3 to 4", "3\n4");
+    assertEquals(hits + 1, count(Text.LI_HITS));
+    // results that exceed the cache size are not cached
+    query("1 to 5", "1\n2\n3\n4\n5");
+    query("1 to 5", "1\n2\n3\n4\n5");
+    assertEquals(hits + 1, count(Text.LI_HITS));
+    // members of arrays are counted
+    query("array { 1 to 4 }", "[1, 2, 3, 4]");
+    query("array { 1 to 4 }", "[1, 2, 3, 4]");
+    assertEquals(hits + 1, count(Text.LI_HITS));
+    query("array { 1 to 3 }", "[1, 2, 3]");
+    query("array { 1 to 3 }", "[1, 2, 3]");
+    assertEquals(hits + 2, count(Text.LI_HITS));
+  }
+
+  /**
+   * Returns a counter from the cache info.
+   * @param label label of the counter
+   * @return value
+   */
+  private static long count(final String label) {
+    for(final String line : Token.string(context.cache.info()).split(Prop.NL)) {
+      if(line.startsWith(label)) {
+        return Long.parseLong(line.substring(label.length()).replaceAll(" .*", ""));
+      }
+    }
+    throw new AssertionError(label + " not found");
+  }
+}
@@ -9,6 +9,7 @@ import org.basex.core.cmd.*;
 import org.basex.query.func.fn.*;
 import org.basex.query.value.*;
 import org.basex.query.value.item.*;
+import org.basex.query.value.node.*;
 import org.basex.query.value.seq.*;
 import org.basex.util.*;
 import org.basex.util.list.*;
@@ -36,7 +37,7 @@ public abstract class QueryTest extends SandboxTest {
 
       final boolean correct = qu.length == 3;
       final String query = qu[correct ? 2 : 1].toString();
-      final Value cmp = correct ? (Value) qu[1] : null;
+      final Value cmp = correct ? nodes((Value) qu[1]) : null;
 
       try {
         final Value value = run(query);
@@ -66,6 +67,19 @@ public abstract class QueryTest extends SandboxTest {
     if(fail != 0) fail(fail + " Errors. [E] = expected, [F] = found:\n" + sb.toString().trim());
   }
 
+  /**
+   * Binds expected database nodes to the currently opened database, which may have been
+   * recreated after the nodes were created.
+   * @param value expected value
+   * @return value
+   */
+  private static Value nodes(final Value value) {
+    if(value instanceof DBNode) return new DBNode(context.data(), ((DBNode) value).pre());
+    if(value instanceof DBNodeSeq) return DBNodeSeq.get(((DBNodeSeq) value).pres(),
+        context.data(), null);
+    return value;
+  }
+
   /**
    * Returns property details.
    * @return details
@@ -1487,4 +1487,36 @@ public final class RewritingsTest extends QueryPlanTest {
     check("let $s as xs:string* := distinct-values(<_>x</_> ! string()) return $s", "x",
         root(DISTINCT_VALUES));
   }
+
+  /** Order by, limited number of sorted tuples. */
+  @Test public void orderByLimit() {
+    final String flwor = "for $i in 1 to 100 order by -$i return $i";
+    check("(" + flwor + ")[position() <= 3]", "100\n99\n98", "//OrderBy/@max = 3");
+    check("subsequence(" + flwor + ", 2, 3)", "99\n98\n97", "//OrderBy/@max = 4");
+    check("(" + flwor + ")[5]", 96, "//OrderBy/@max = 5");
+    check("head(" + flwor + ')', 100, "//OrderBy/@max = 1");
+
+    // skip optimization if all tuples are requested, or if results may be empty
+    check("(" + flwor + ")[last()]", 1, "empty(//OrderBy/@max)");
+    check("(for $i in 1 to 100 order by -$i return $i[. < 50])[1]", 49,
+        "empty(//OrderBy/@max)");
+  }
+
+  /** Group by, aggregated values of non-grouping variables. */
+  @Test public void groupByAggregate() {
+    check("for $i in 1 to 10 group by $g := $i mod 2 return count($i)", "5\n5",
+        "//Aggregate/@op = 'count'", "empty(//GroupBy/following-sibling::*//FnCount)");
+    check("for $i in 1 to 10 group by $g := $i mod 2 order by sum($i) "
+        + "return avg($i) * max($i) - min($i)", "44\n58",
+        "count(//Aggregate) = 4",
+        "empty(//GroupBy/following-sibling::*//*[starts-with(name(), 'Fn')])");
+
+    // skip optimization if variable is referenced by other expressions
+    check("for $i in 1 to 10 group by $g := $i mod 2 return count($i) + $i[1]", "6\n7",
+        "empty(//Aggregate)");
+    check("for $i in 1 to 10 group by $g := $i mod 2 return sum($i, 0)", "25\n30",
+        "empty(//Aggregate)");
+    check("for $i in 1 to 10 group by $g := $i mod 2 return avg([ $i ])", "5\n6",
+        "empty(//Aggregate)");
+  }
 }
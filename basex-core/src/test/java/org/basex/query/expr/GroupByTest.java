@@ -0,0 +1,170 @@
+package org.basex.query.expr;
+
+import static org.basex.query.QueryError.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.lang.management.*;
+
+import org.basex.*;
+import org.basex.core.*;
+import org.basex.core.cmd.*;
+import org.basex.io.*;
+import org.basex.util.*;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for grouping FLWOR tuples in partitions ({@link MainOptions#GROUPLIMIT}), and for
+ * aggregating the values of non-grouping variables.
+ *
+ * @author BaseX Team 2005-20, BSD License
+ * @author Christian Gruen
+ */
+public final class GroupByTest extends SandboxTest {
+  /** Option declaration for grouping in partitions. */
+  private static final String PARTITIONS = "declare option db:grouplimit '10'; ";
+
+  /**
+   * Drops the test database.
+   */
+  @AfterEach public void drop() {
+    execute(new DropDB(NAME));
+  }
+
+  /**
+   * Groups atomic values.
+   */
+  @Test public void atomic() {
+    compare("for $v in 1 to 1000 group by $g := $v mod 97 order by $g return $g");
+    compare("for $v in 1 to 1000 group by $g := $v mod 97 order by $g return sum($v)");
+    compare("for $v in 1 to 1000 group by $g := string($v mod 53), $h := $v mod 2 "
+        + "order by $g, $h return ($g, $h, $v)");
+    compare("for $v in 1 to 1000 let $g := if($v mod 9) then $v mod 31 else () "
+        + "group by $g order by $g return ($g, count($v))");
+    compare("for $v in 1 to 1000 let $g := xs:double($v mod 23) div 3 "
+        + "group by $g order by $g return ($g, $v[last()])");
+    compare("for $v in 1 to 1000 let $g := ('a', 'B', 'b', 'A')[$v mod 4 + 1] || $v mod 29 "
+        + "group by $g collation 'http://basex.org/collation?lang=de;strength=primary' "
+        + "order by lower-case($g) return count($v)");
+    compare("sum(for $v in 1 to 1000 group by $g := $v mod 97 return count($v) * $g)");
+  }
+
+  /**
+   * Groups tuples with nodes and other values.
+   */
+  @Test public void values() {
+    execute(new CreateDB(NAME, "<x>{ (1 to 100) ! <a>{ . mod 9 }</a> }</x>"));
+    compare("for $v in db:open('" + NAME + "')//a group by $g := string($v) "
+        + "order by $g return ($g, $v)");
+    compare("for $i in 1 to 100 let $v := <a>{ $i }</a> group by $g := $i mod 17 "
+        + "order by $g return $v");
+    compare("for $i in 1 to 100 let $m := map { $i: $i } group by $g := $i mod 17 "
+        + "order by $g return $m?*");
+    compare("for $i in 1 to 100 let $f := function() { $i } group by $g := $i mod 17 "
+        + "order by $g return $f ! .()");
+  }
+
+  /**
+   * Stops the evaluation before all groups have been returned.
+   */
+  @Test public void head() {
+    final int files = new IOFile(Prop.TEMPDIR).children().length;
+    query(PARTITIONS + "(for $i in 1 to 100 group by $g := $i mod 50 return $g)[1]", 1);
+    query(PARTITIONS + "(for $i in 1 to 100 group by $g := $i mod 50 return $g)[20] > 0", true);
+    assertEquals(files, new IOFile(Prop.TEMPDIR).children().length);
+  }
+
+  /**
+   * Aggregates the values of non-grouping variables.
+   */
+  @Test public void aggregate() {
+    aggregate("for $v in 1 to 1000 group by $g := $v mod 7 "
+        + "return (count($v), sum($v), avg($v), min($v), max($v))");
+    aggregate("for $i in 1 to 1000 let $v := if($i mod 3) then $i div 7e0 else () "
+        + "group by $g := $i mod 2 return (count($v), sum($v), avg($v), min($v), max($v))");
+    aggregate("for $i in 1 to 1000 let $v := if($i mod 5) then $i else xs:double('NaN') "
+        + "group by $g := $i mod 2 return (sum($v), avg($v), min($v), max($v))");
+    aggregate("for $i in 1 to 1000 let $v := xs:dayTimeDuration('PT' || $i || 'S') "
+        + "group by $g := $i mod 3 return (sum($v), avg($v), min($v), max($v))");
+    aggregate("for $i in 1 to 1000 let $v := if($i mod 100) then () else $i "
+        + "group by $g := $i mod 3 return (sum($v), avg($v), min($v), max($v))");
+    aggregate("for $i in 1 to 1000 let $v := string($i) "
+        + "group by $g := $i mod 3 return (count($v), min($v), max($v))");
+    aggregate("for $i in 1 to 1000 let $v := ($i, $i * 2) "
+        + "group by $g := $i mod 3 return (count($v), sum($v), avg($v))");
+    aggregate("for $i in 1 to 1000 let $v := [ $i, $i * 2 ] "
+        + "group by $g := $i mod 3 return (count($v), sum($v), min($v))");
+    aggregate("for $i in 1 to 1000 let $v := <a>{ $i }</a> "
+        + "group by $g := $i mod 3 return (count($v), sum($v), avg($v), max($v))");
+    aggregate("for $i in 1 to 1000 let $v := $i group by $g := $i mod 3 "
+        + "let $c := count($v) where $c > 1 order by max($v) descending return $c + sum($v)");
+  }
+
+  /**
+   * Incompatible values.
+   */
+  @Test public void error() {
+    error("for $v in (1 to 100, 'a') group by $g := 1 return sum($v)", CMP_X_X_X);
+    error(PARTITIONS + "for $v in (1 to 100, 'a') group by $g := $v return sum($v)",
+        SUM_X_X);
+
+    // errors are only raised if the aggregated values are requested
+    final String query = "for $x in 1 to 100 let $y := if($x = 70) then 'x' else $x "
+        + "group by $k := $x mod 2 order by $k descending ";
+    query(query + "return if($k = 1) then sum($y) else 'skipped'", "2500\nskipped");
+    query(query + "return try { max($y) } catch * { 'error' }", "99\nerror");
+    query(PARTITIONS + query + "return if($k = 1) then sum($y) else 'skipped'", "2500\nskipped");
+    query(PARTITIONS + query + "return try { max($y) } catch * { 'error' }", "99\nerror");
+
+    // sums of integers may overflow
+    final String overflow = "for $x in (1 to 10, 9223372036854775807) group by $k := $x mod 2 "
+        + "return try { if($k = 0) then sum($x) else count($x) } catch * { 'err' }";
+    query(overflow, "6\n30");
+    query(PARTITIONS + overflow, "6\n30");
+  }
+
+  /**
+   * Groups ten million tuples in main memory and in partitions.
+   */
+  @Test @Disabled("Benchmark; run manually with a large heap")
+  public void benchmark() {
+    final String query = "sum(for $i in 1 to 10000000 group by $g := $i mod 1000000 "
+        + "return count($i) + $i[last()])";
+    for(final int limit : new int[] { 0, 100000 }) {
+      set(MainOptions.GROUPLIMIT, limit);
+      Performance.gc(4);
+      for(final MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+        pool.resetPeakUsage();
+      }
+      final Performance perf = new Performance();
+      query(query, 9500010500000L);
+      long peak = 0;
+      for(final MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+        if(pool.getType() == MemoryType.HEAP) peak += pool.getPeakUsage().getUsed();
+      }
+      Util.outln("Limit: %, Time: %, Peak heap: %", limit, perf, Performance.format(peak));
+    }
+    set(MainOptions.GROUPLIMIT, 0);
+  }
+
+  /**
+   * Compares the results of aggregated and materialized values.
+   * @param query query (the non-grouping variable must be named {@code $v}, and the query must
+   *   end with the return clause)
+   */
+  private static void aggregate(final String query) {
+    // values will be materialized if the variable is referenced by other expressions
+    final String materialized = query.replaceFirst("return (.*)$",
+        "return (prof:void(\\$v), $1)");
+    assertEquals(query(materialized), query(query));
+    compare(query);
+  }
+
+  /**
+   * Compares the results of grouping in main memory and in partitions.
+   * @param query query
+   */
+  private static void compare(final String query) {
+    assertEquals(query(query), query(PARTITIONS + query));
+  }
+}
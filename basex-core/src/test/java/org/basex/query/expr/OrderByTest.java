@@ -0,0 +1,174 @@
+package org.basex.query.expr;
+
+import static org.basex.query.QueryError.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.lang.management.*;
+import java.util.*;
+
+import org.basex.*;
+import org.basex.core.*;
+import org.basex.core.cmd.*;
+import org.basex.io.*;
+import org.basex.util.*;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for sorting FLWOR tuples in runs ({@link MainOptions#SORTLIMIT}), and for sorting
+ * a limited number of tuples.
+ *
+ * @author BaseX Team 2005-20, BSD License
+ * @author Christian Gruen
+ */
+public final class OrderByTest extends SandboxTest {
+  /** Option declaration for sorting in runs. */
+  private static final String RUNS = "declare option db:sortlimit '10'; ";
+
+  /**
+   * Drops the test database.
+   */
+  @AfterEach public void drop() {
+    execute(new DropDB(NAME));
+  }
+
+  /**
+   * Sorts atomic values.
+   */
+  @Test public void atomic() {
+    compare("for $i in 1 to 1000 order by $i mod 7, -$i return $i");
+    compare("for $i in 1 to 100 order by $i mod 3 descending return $i");
+    compare("for $i in 1 to 100 order by string($i) return $i");
+    compare("for $i in 1 to 100 let $d := xs:decimal($i) div 3 order by -$d return $d");
+    compare("for $i in 1 to 100 let $d := xs:float($i mod 5) order by $d, $i return $d");
+    compare("for $i in 1 to 100 order by boolean($i mod 2), $i return $i");
+    compare("for $i in 1 to 100 order by xs:untypedAtomic($i mod 4), $i return $i");
+    compare("for $i in 1 to 100 let $d := if($i mod 3) then $i else xs:double('NaN') "
+        + "order by $d empty greatest return $d");
+    compare("for $i in 1 to 100 let $d := if($i mod 3) then $i else () "
+        + "order by $d descending empty least return $i");
+  }
+
+  /**
+   * Sorts tuples with nodes and other values.
+   */
+  @Test public void values() {
+    execute(new CreateDB(NAME, "<x>{ (1 to 100) ! <a>{ . mod 9 }</a> }</x>"));
+    compare("for $a in db:open('" + NAME + "')//a order by $a return $a");
+    compare("for $a in db:open('" + NAME + "')//a order by number($a) descending return $a/..");
+    compare("for $i in 1 to 100 let $a := <a>{ $i }</a> order by $i mod 4 return ($a, $i)");
+    compare("for $i in 1 to 100 let $m := map { $i: $i } order by $i mod 4 return $m?*");
+    compare("for $i in 1 to 100 let $f := function() { $i } order by $i mod 4 return $f()");
+  }
+
+  /**
+   * Stops the evaluation before all tuples have been returned.
+   */
+  @Test public void head() {
+    final int files = new IOFile(Prop.TEMPDIR).children().length;
+    query(RUNS + "(for $i in 1 to 100 order by -$i return $i)[1]", 100);
+    query(RUNS + "(for $i in 1 to 100 order by -$i return $i)[position() < 3]", "100\n99");
+    assertEquals(files, new IOFile(Prop.TEMPDIR).children().length);
+  }
+
+  /**
+   * Returns the first sorted tuples.
+   */
+  @Test public void limit() {
+    limit("for $i in 1 to 1000 order by $i mod 7, -$i return $i");
+    limit("for $i in 1 to 1000 order by $i mod 3 descending return $i");
+    limit("for $i in 1 to 1000 let $d := if($i mod 3) then $i mod 11 else () "
+        + "order by $d empty greatest return $i");
+    limit("for $i in 1 to 100 for $s in ('b', 'A', 'a', 'B') "
+        + "order by $s collation 'http://basex.org/collation?lang=de;strength=primary' "
+        + "return $s || $i");
+    limit("for $i in 1 to 100 let $a := <a>{ $i }</a> order by $i mod 4 let $n := $a "
+        + "return $n");
+  }
+
+  /**
+   * Sorts normalized keys.
+   */
+  @Test public void normalized() {
+    normalized("for $i in 1 to 1000 order by $i mod 7, -$i return $i");
+    normalized("for $i in 1 to 1000 order by $i mod 3 descending return $i");
+    normalized("for $i in 1 to 1000 let $d := if($i mod 5) then $i div 7e0 else xs:double('NaN') "
+        + "order by $d empty greatest return $i");
+    normalized("for $i in 1 to 1000 let $d := if($i mod 5) then $i mod 9 else () "
+        + "order by $d descending empty least return $i");
+    normalized("for $i in 1 to 1000 let $d := if($i mod 2) then $i mod 17 else ($i mod 13) * 1e0 "
+        + "order by $d return $i");
+    normalized("for $i in 1 to 1000 order by xs:float($i mod 11 - 5) descending return $i");
+    normalized("for $i in 1 to 1000 order by string($i) descending return $i");
+    normalized("for $i in 1 to 1000 let $s := if($i mod 2) then xs:untypedAtomic($i mod 5) "
+        + "else string($i mod 7) order by $s return $i");
+    normalized("for $i in 1 to 1000 let $s := ('a', 'B', 'b', 'A')[$i mod 4 + 1] "
+        + "order by $s collation 'http://basex.org/collation?lang=de;strength=primary' return $i");
+  }
+
+  /**
+   * Incomparable sort keys in different runs.
+   */
+  @Test public void error() {
+    error("for $i in (1 to 100, 'a') order by $i return $i", INVTYPE_X_X_X);
+    error(RUNS + "for $i in (1 to 100, 'a') order by $i return $i", INVTYPE_X_X_X);
+  }
+
+  /**
+   * Sorts ten million tuples in main memory and in runs.
+   */
+  @Test @Disabled("Benchmark; run manually with a large heap")
+  public void benchmark() {
+    final String query = "(for $i in 1 to 10000000 order by ($i * 7919) mod 10000019 "
+        + "return $i)[last()]";
+    for(final int limit : new int[] { 0, 1000000 }) {
+      set(MainOptions.SORTLIMIT, limit);
+      Performance.gc(4);
+      for(final MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+        pool.resetPeakUsage();
+      }
+      final Performance perf = new Performance();
+      query(query, 339690);
+      long peak = 0;
+      for(final MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+        if(pool.getType() == MemoryType.HEAP) peak += pool.getPeakUsage().getUsed();
+      }
+      Util.outln("Limit: %, Time: %, Peak heap: %", limit, perf, Performance.format(peak));
+    }
+    set(MainOptions.SORTLIMIT, 0);
+  }
+
+  /**
+   * Compares the first results of sorting all tuples and a limited number of tuples.
+   * @param query query
+   */
+  private static void limit(final String query) {
+    final String[] results = query(query).split("\n");
+    for(final String prefix : new String[] { "", RUNS }) {
+      for(final int k : new int[] { 1, 2, 5, 10, 100 }) {
+        final String expected = String.join("\n", Arrays.copyOf(results, k));
+        assertEquals(expected, query(prefix + "(" + query + ")[position() <= " + k + ']'));
+        assertEquals(expected, query(prefix + "subsequence(" + query + ", 1, " + k + ')'));
+        assertEquals(results[k - 1], query(prefix + "(" + query + ")[" + k + ']'));
+      }
+      assertEquals(results[0], query(prefix + "head(" + query + ')'));
+    }
+  }
+
+  /**
+   * Compares the results of sorting normalized and original keys.
+   * @param query query
+   */
+  private static void normalized(final String query) {
+    // keys cannot be normalized if a decimal key is added
+    assertEquals(query(query.replace("order by ", "order by xs:decimal(0), ")), query(query));
+  }
+
+  /**
+   * Compares the results of sorting in main memory and in runs.
+   * @param query query
+   */
+  private static void compare(final String query) {
+    assertEquals(query(query), query(RUNS + query));
+  }
+}
@@ -3,8 +3,13 @@ package org.basex.query.ft;
 import static org.basex.query.func.Function.*;
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.io.*;
+
 import org.basex.core.*;
 import org.basex.core.cmd.*;
+import org.basex.data.*;
+import org.basex.io.*;
+import org.basex.util.*;
 import org.junit.jupiter.api.Test;
 
 /**
@@ -63,6 +68,71 @@ public final class FTIndexQueryTest extends FTData {
     assertQuery("Mix", "//mix[text() contains text 'A'][1]");
   }
 
+  /**
+   * Tests fuzzy queries on a larger vocabulary.
+   */
+  @Test public void fuzzy() {
+    init("<xml>{ for $i in 1 to 20000 return <a>{ "
+        + "string-join(for $c in string-to-codepoints(string($i * 7919)) "
+        + "return codepoints-to-string(97 + $c mod 10 + ($c mod 3) * 3)) }</a> }"
+        + "<a>databases</a><a>datenbank</a><a>äpfel apfel</a></xml>");
+    for(final String token : new String[] { "database", "databse", "dtaabase", "apfel",
+        "hjkhjk", "ddgggg", "bcdefg", "eeeeeeee" }) {
+      assertQuery("Fuzzy " + token, "//a[text() contains text '" + token + "' "
+          + "using fuzzy] ! string()");
+    }
+  }
+
+  /**
+   * Tests queries on large posting lists, which will be skipped via the skip table.
+   */
+  @Test public void skip() {
+    set(MainOptions.SPLITSIZE, 20000);
+    try {
+      init("<xml>{ for $i in 1 to 20000 return <a>{ "
+          + "'x' || $i mod 7, 'y' || $i mod 13, 'common', 'rare'[$i mod 1000 = 0] }</a> }</xml>");
+    } finally {
+      set(MainOptions.SPLITSIZE, 0);
+    }
+    for(final String query : new String[] {
+      "'rare' ftand 'x3'", "{ 'rare', 'x3' } all words", "'x1 y5'", "'y5 x1'",
+      "'common' ftand 'rare' ftand 'y2'", "'x1' ftor 'rare'", "'rare' ftand ('x1' ftor 'x2')",
+      "{ 'x1 y2', 'rare' } all", "{ 'x1 y2', 'rare' } any", "'x6' ftand 'y12' ftand 'common'",
+      "'rare' ftand 'x5' ftand 'y3'", "'common' ftand ftnot 'rare'"
+    }) {
+      assertQuery("Skip " + query, "//a[text() contains text " + query + "] ! string()");
+      assertQuery("Skip " + query, "count(//a[text() contains text " + query + "])");
+    }
+  }
+
+  /**
+   * Ignores full-text indexes that have been created by older versions.
+   * @throws IOException I/O exception
+   */
+  @Test public void oldIndex() throws IOException {
+    init("<xml><a>A B</a><a>B C</a></xml>");
+    execute(new Close());
+
+    // downgrade the index version of the database (tokens are prefixed with their length)
+    final IOFile inf = MetaData.file(context.soptions.dbPath(NAME + "ix"), DataText.DATAINF);
+    final byte[] bytes = inf.read(), version = Token.token(DataText.IDBSTR + '\3');
+    final int i = Token.indexOf(bytes, Token.concat(version, Token.token(DataText.ISTORAGE)));
+    assertTrue(i != -1);
+    Array.copyFromStart(Token.token("8.6"), 3, bytes, i + version.length);
+    inf.write(bytes);
+
+    final Open open = new Open(NAME + "ix");
+    execute(open);
+    assertTrue(open.info().contains(Text.H_INDEX_FORMAT));
+    assertFalse(context.data().meta.ftindex);
+    assertQuery("Old", "//a[text() contains text 'B'] ! string()");
+
+    // rebuild index
+    execute(new Optimize());
+    assertTrue(context.data().meta.ftindex);
+    assertEquals("2", query("count(" + _FT_SEARCH.args(NAME + "ix", "B") + ")"));
+  }
+
   /**
    * Asserts that a query returns the same result with and without ft index.
    * @param name name of query
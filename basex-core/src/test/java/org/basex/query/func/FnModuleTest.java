@@ -759,6 +759,20 @@ public final class FnModuleTest extends QueryPlanTest {
     query("for $i in (10000, 10001) return " + func.args(func.args(" reverse(1 to $i)")) + "[1]");
     query("for $i in (1, 2) return " + func.args(func.args(" (1, $i)")) + "[1]", "1\n1");
 
+    // normalized keys
+    query(func.args(" (2, 1e0, xs:double('NaN'), -0e0, 0, 1)"), "NaN\n-0\n0\n1\n1\n2");
+    query(func.args(" ('b', 'A', 'a', 'B')",
+        "http://basex.org/collation?lang=en;strength=primary"), "A\na\nb\nB");
+    query(func.args(" ('b', 'A', 'a', 'B')",
+        "http://www.w3.org/2005/xpath-functions/collation/html-ascii-case-insensitive"),
+        "A\na\nb\nB");
+    query("let $s := (1 to 100000) ! (. * 7919 mod 100003) return deep-equal("
+        + func.args(" $s") + ", " + func.args(" $s", " ()", " function($i) { $i, 0 }") + ')',
+        true);
+    query("let $s := (1 to 100000) ! string(. * 7919 mod 100003) return deep-equal("
+        + func.args(" $s") + ", " + func.args(" $s", " ()", " function($i) { $i, '' }") + ')',
+        true);
+
     check(func.args(" ()"), "", empty());
     check(func.args(1), 1, empty(func));
 
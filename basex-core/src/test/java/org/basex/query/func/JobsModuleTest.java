@@ -187,6 +187,7 @@ public final class JobsModuleTest extends SandboxTest {
       query(list + "/@user/string()", UserText.ADMIN);
       query(list + "/@state/string() = ('running', 'queued')", true);
       query(list + "/@duration/string() castable as xs:dayTimeDuration", true);
+      query(list + "/(@state = 'queued' or @waited castable as xs:dayTimeDuration)", true);
     } finally {
       query(_JOBS_STOP.args(id));
     }
@@ -0,0 +1,107 @@
+package org.basex.query.index;
+
+import static org.basex.query.func.Function.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.basex.core.*;
+import org.basex.core.cmd.*;
+import org.basex.query.ast.*;
+import org.basex.query.expr.index.*;
+import org.basex.query.value.item.*;
+import org.basex.util.*;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.Test;
+
+/**
+ * This class tests if attribute comparisons are correctly evaluated with the composite index
+ * ({@link MainOptions#COMPOSITEINDEX}).
+ *
+ * @author BaseX Team 2005-20, BSD License
+ * @author Christian Gruen
+ */
+public final class CompositeIndexTest extends QueryPlanTest {
+  /** Test document: 1200 elements, some without region attribute. */
+  private static final String DOC = "<xml>{ for $i in 1 to 1200 return <item id='{ $i }' "
+      + "type='{ ('a', 'b', 'c', 'd')[$i mod 4 + 1] }' flag='{ $i mod 2 }'>{"
+      + "  if($i mod 10 = 0) then () else attribute region { ('eu', 'us', 'asia')[$i mod 3 + 1] }"
+      + "}</item> }<entry type='a' region='eu'/></xml>";
+  /** Declarations. */
+  private static final String DECLS = "item[@type][@region], item[@flag][@type][@id]";
+  /** Composite access. */
+  private static final String COMPOSITE = Util.className(CompositeAccess.class);
+
+  /**
+   * Creates the test database.
+   */
+  @BeforeEach public void create() {
+    set(MainOptions.COMPOSITEINDEX, DECLS);
+    execute(new CreateDB(NAME, query(DOC)));
+  }
+
+  /**
+   * Drops the test database.
+   */
+  @AfterEach public void drop() {
+    set(MainOptions.COMPOSITEINDEX, "");
+    set(MainOptions.UPDINDEX, false);
+    execute(new DropDB(NAME));
+  }
+
+  /**
+   * Comparisons on all declared attributes.
+   */
+  @Test public void all() {
+    check("count(//item[@type = 'a'][@region = 'eu'])", 80, exists(COMPOSITE));
+    check("count(//item[@region = 'eu'][@type = 'a'])", 80, exists(COMPOSITE));
+    check("count(/xml/item[@region = 'us'][@type = 'b'])", 100, exists(COMPOSITE));
+    check("//item[@flag = '1'][@type = 'b'][@id = '1']/@id/string()", 1, exists(COMPOSITE));
+    check("//item[@flag = '0'][@type = 'b'][@id = '1']", "", empty());
+    check("count(//item[@type = 'a'][@region = 'xx'])", 0, root(Int.class));
+    // remaining predicates
+    check("count(//item[@type = 'a'][@region = 'eu'][@flag = '0'])", 80, exists(COMPOSITE));
+    // cheaper index access
+    check("count(//item[@type = 'a'][@region = 'eu'][@id = '12'])", 1, empty(COMPOSITE));
+  }
+
+  /**
+   * Comparisons on leading attributes.
+   */
+  @Test public void prefix() {
+    check("count(//item[@flag = '1'][@type = 'b'])", 300, exists(COMPOSITE));
+    check("count(//item[@type = 'c'])", 300);
+    check("count(//item[@flag = '0'][@region = 'eu'])", 160);
+    check("count(//item[@type = 'c'][@id = '2'])", 1);
+  }
+
+  /**
+   * Creates and drops the composite index.
+   */
+  @Test public void optimize() {
+    assertTrue(context.data().meta.dbFile("atvc").exists());
+    assertTrue(execute(new InfoIndex("ATTRIBUTE")).contains(DECLS));
+    set(MainOptions.COMPOSITEINDEX, "");
+    execute(new Optimize());
+    assertFalse(context.data().meta.dbFile("atvc").exists());
+    check("count(//item[@type = 'a'][@region = 'eu'])", 80, empty(COMPOSITE));
+
+    query(_DB_OPTIMIZE.args(NAME, false, " map { 'compositeindex': 'item[@region][@type]' }"));
+    query(_DB_PROPERTY.args(NAME, "compositeindex"), "item[@region][@type]");
+    check("count(//item[@type = 'a'][@region = 'eu'])", 80, exists(COMPOSITE));
+    check("count(//item[@flag = '1'][@type = 'b'])", 300, empty(COMPOSITE));
+  }
+
+  /**
+   * Rebuilds the composite index after incremental updates.
+   */
+  @Test public void update() {
+    set(MainOptions.UPDINDEX, true);
+    execute(new CreateDB(NAME, query(DOC)));
+    query("insert node <item type='a' region='eu'/> into /xml");
+    query("delete node //item[@id = '12']");
+    check("count(//item[@type = 'a'][@region = 'eu'])", 80, empty(COMPOSITE));
+    execute(new Optimize());
+    check("count(//item[@type = 'a'][@region = 'eu'])", 80, exists(COMPOSITE));
+    check("count(//item[@flag = '0'][@type = 'a'][@id = '12'])", 0, root(Int.class));
+    check("//item[@flag = '0'][@type = 'a'][@id = '24']/@id/string()", 24, exists(COMPOSITE));
+  }
+}
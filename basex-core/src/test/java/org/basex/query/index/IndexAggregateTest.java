@@ -0,0 +1,128 @@
+package org.basex.query.index;
+
+import static org.basex.query.QueryError.*;
+
+import org.basex.core.*;
+import org.basex.core.cmd.*;
+import org.basex.query.ast.*;
+import org.basex.query.func.fn.*;
+import org.basex.query.value.item.*;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for aggregating nodes via index postings and path statistics.
+ *
+ * @author BaseX Team 2005-20, BSD License
+ * @author Christian Gruen
+ */
+public final class IndexAggregateTest extends QueryPlanTest {
+  /** Test document. */
+  private static final String DOC = "<orders>{ for $i in 1 to 1000 return "
+      + "<order status='{ ('open', 'closed', 'pending')[$i mod 3 + 1] }' amount='{ $i * 1.5 }' "
+      + "prio='{ $i mod 5 }'><total>{ $i mod 10 }</total><note>x<b>{ $i mod 4 }</b>x</note>"
+      + "</order> }</orders>";
+  /** Name of the database without value indexes. */
+  private static final String NOINDEX = NAME + "NoIndex";
+  /** Database reference. */
+  private static final String DB = "db:open('" + NAME + "')";
+  /** Test for index postings in the query plan. */
+  private static final String POSTINGS = exists("*[@aggregate = 'postings']");
+
+  /**
+   * Creates the test databases.
+   */
+  @BeforeEach public void create() {
+    final String doc = query(DOC);
+    execute(new CreateDB(NAME, doc));
+    set(MainOptions.TEXTINDEX, false);
+    set(MainOptions.ATTRINDEX, false);
+    execute(new CreateDB(NOINDEX, doc));
+    set(MainOptions.TEXTINDEX, true);
+    set(MainOptions.ATTRINDEX, true);
+  }
+
+  /**
+   * Drops the test databases.
+   */
+  @AfterEach public void drop() {
+    set(MainOptions.MAINMEM, false);
+    execute(new DropDB(NAME));
+    execute(new DropDB(NOINDEX));
+  }
+
+  /**
+   * Counts nodes via index postings.
+   */
+  @Test public void count() {
+    postings("count(" + DB + "//order[@status = 'open'])", 333);
+    postings("count(" + DB + "//order[@status = ('open', 'closed')])", 667);
+    postings("count(" + DB + "//order[@status = 'open']/@*)", 999);
+    postings("count(" + DB + "//order[total = '5'])", 100);
+    postings("count(" + DB + "//order[note/b = '2'])", 250);
+    postings("count(" + DB + "//*[b = '2'])", 250);
+    // parents with multiple text nodes
+    postings("count(" + DB + "//note[text() = 'x'])", 1000);
+    postings("count(" + DB + "//text()[. = 'x']/..)", 1000);
+  }
+
+  /**
+   * Sums up values via index postings.
+   */
+  @Test public void sum() {
+    postings("sum(" + DB + "//order[@status = 'open']/@amount)", 250249.5);
+    postings("avg(" + DB + "//order[@status = ('open', 'pending')]/@amount)", 750.75);
+    postings("sum(" + DB + "//text()[. = '5'])", 500);
+    query("sum(" + DB + "//order[@status = 'x']/@amount)", 0);
+
+    error("sum(" + DB + "//order[@status = 'open']/@status)", FUNCCAST_X_X);
+  }
+
+  /**
+   * Counts nodes in a main-memory database.
+   */
+  @Test public void mainMemory() {
+    execute(new DropDB(NAME));
+    set(MainOptions.MAINMEM, true);
+    execute(new CreateDB(NAME, query(DOC)));
+    postings("count(" + DB + "//order[@status = 'open'])", 333);
+    postings("sum(" + DB + "//order[@status = 'open']/@amount)", 250249.5);
+  }
+
+  /**
+   * Falls back to the evaluation of nodes if the index is not up-to-date.
+   */
+  @Test public void update() {
+    query("insert node <order status='open' amount='-1'/> into " + DB + "/orders");
+    query("count(" + DB + "//order[@status = 'open'])", 334);
+    query("sum(" + DB + "//order[@status = 'open']/@amount)", 250248.5);
+    query("db:optimize('" + NAME + "')");
+    check("count(" + DB + "//order[@status = 'open'])", 334, POSTINGS);
+  }
+
+  /**
+   * Computes minimum and maximum values via path statistics.
+   */
+  @Test public void minMax() {
+    check("min(" + DB + "//total)", 0, root(Dbl.class));
+    check("max(" + DB + "//order/total/text())", 9, root(Dbl.class));
+    check("max(" + DB + "//@prio)", 4, root(Dbl.class));
+    // more distinct values than categories: values might be empty
+    check("max(" + DB + "//@amount)", 1500, root(FnMax.class));
+    // statistics are outdated
+    query("insert node <order prio='' amount=''/> into " + DB + "/orders");
+    check("max(" + DB + "//order/total)", 9, root(FnMax.class));
+    error("max(" + DB + "//@prio)", FUNCCAST_X_X);
+  }
+
+  /**
+   * Checks if the query is evaluated via index postings, and compares the result with the
+   * result of the database without index.
+   * @param query query
+   * @param expected expected result
+   */
+  private static void postings(final String query, final Object expected) {
+    query(query.replace(DB, "db:open('" + NOINDEX + "')"), expected);
+    check(query, expected, POSTINGS);
+  }
+}
@@ -0,0 +1,94 @@
+package org.basex.query.index;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.basex.core.*;
+import org.basex.core.cmd.*;
+import org.basex.query.ast.*;
+import org.basex.query.expr.index.*;
+import org.basex.util.*;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.Test;
+
+/**
+ * This class tests if numeric range queries are correctly evaluated with the numeric index
+ * ({@link MainOptions#NUMINDEX}).
+ *
+ * @author BaseX Team 2005-20, BSD License
+ * @author Christian Gruen
+ */
+public final class NumericRangeTest extends QueryPlanTest {
+  /** Test document: 50000 elements and attributes with negative and decimal values. */
+  private static final String DOC = "<xml>{ for $i in 1 to 50000 let $v := $i * 0.5 - 1000 "
+      + "return <n v='{ $v }'>{ $v }</n> }</xml>";
+  /** Range access. */
+  private static final String RANGE = Util.className(RangeAccess.class);
+
+  /**
+   * Creates the test database.
+   */
+  @BeforeEach public void create() {
+    set(MainOptions.NUMINDEX, true);
+    execute(new CreateDB(NAME, query(DOC)));
+  }
+
+  /**
+   * Drops the test database.
+   */
+  @AfterEach public void drop() {
+    set(MainOptions.NUMINDEX, false);
+    set(MainOptions.UPDINDEX, false);
+    execute(new DropDB(NAME));
+  }
+
+  /**
+   * Range queries on text nodes.
+   */
+  @Test public void text() {
+    check("count(//n[text() >= -10 and text() <= 10])", 41, exists(RANGE));
+    check("count(//n[text() > -10 and text() < 10])", 39, exists(RANGE));
+    check("count(//n[text() >= 23999.5])", 2, exists(RANGE));
+    check("count(//n[text() < -999])", 1, exists(RANGE));
+    check("count(//n[text() >= 0.25 and text() <= 0.4])", 0);
+    check("sum(//n[text() >= 100 and text() <= 200])", 30150);
+  }
+
+  /**
+   * Range queries on attributes.
+   */
+  @Test public void attribute() {
+    check("count(//n[@v > 100 and @v < 200])", 199, exists(RANGE));
+    check("count(//n[@v >= -999.5 and @v <= -999])", 2, exists(RANGE));
+    check("count(//n[@v >= 1e10])", 0);
+    check("count(//n[@v >= 23000 and @v <= 1e10])", 2001, exists(RANGE));
+  }
+
+  /**
+   * Creates and drops the numeric index.
+   */
+  @Test public void optimize() {
+    assertTrue(context.data().meta.dbFile("txtn").exists());
+    set(MainOptions.NUMINDEX, false);
+    execute(new Optimize());
+    assertFalse(context.data().meta.dbFile("txtn").exists());
+    check("count(//n[text() >= -10 and text() <= 10])", 41);
+
+    set(MainOptions.NUMINDEX, true);
+    execute(new Optimize());
+    assertTrue(context.data().meta.dbFile("atvn").exists());
+    check("count(//n[text() >= -10 and text() <= 10])", 41, exists(RANGE));
+  }
+
+  /**
+   * Rebuilds the numeric index after incremental updates.
+   */
+  @Test public void update() {
+    set(MainOptions.UPDINDEX, true);
+    execute(new CreateDB(NAME, query(DOC)));
+    query("insert node <n v='-5.5'>-5.5</n> into /xml");
+    query("delete node //n[. = '5']");
+    execute(new Optimize());
+    check("count(//n[text() >= -10 and text() <= 10])", 41, exists(RANGE));
+    check("count(//n[@v >= -5.5 and @v <= -5.5])", 2, exists(RANGE));
+  }
+}
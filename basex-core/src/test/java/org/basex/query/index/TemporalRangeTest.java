@@ -0,0 +1,104 @@
+package org.basex.query.index;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.basex.core.*;
+import org.basex.core.cmd.*;
+import org.basex.query.ast.*;
+import org.basex.query.expr.index.*;
+import org.basex.util.*;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.Test;
+
+/**
+ * This class tests if date and dateTime range queries are correctly evaluated with the
+ * temporal index ({@link MainOptions#DATEINDEX}).
+ *
+ * @author BaseX Team 2005-20, BSD License
+ * @author Christian Gruen
+ */
+public final class TemporalRangeTest extends QueryPlanTest {
+  /** Test document: 1000 days, dateTime attributes with different timezones. */
+  private static final String DOC = "<xml>{ for $i in 0 to 999 "
+      + "let $d := xs:date('2000-01-01') + xs:dayTimeDuration('P' || $i || 'D') "
+      + "let $t := adjust-dateTime-to-timezone(dateTime($d, xs:time('12:00:00Z')), "
+      + "xs:dayTimeDuration('PT' || $i mod 5 || 'H')) "
+      + "return <d t='{ $t }'>{ $d }</d> }</xml>";
+  /** Temporal range access. */
+  private static final String RANGE = Util.className(TemporalRangeAccess.class);
+
+  /**
+   * Creates the test database.
+   */
+  @BeforeEach public void create() {
+    set(MainOptions.DATEINDEX, true);
+    execute(new CreateDB(NAME, query(DOC)));
+  }
+
+  /**
+   * Drops the test database.
+   */
+  @AfterEach public void drop() {
+    set(MainOptions.DATEINDEX, false);
+    set(MainOptions.UPDINDEX, false);
+    execute(new DropDB(NAME));
+  }
+
+  /**
+   * Range queries on text nodes.
+   */
+  @Test public void text() {
+    check("count(//d[text() >= xs:date('2001-01-01') and text() < xs:date('2001-02-01')])",
+        31, exists(RANGE));
+    check("count(//d[text() > xs:date('2002-09-25')])", 1, exists(RANGE));
+    check("count(//d[text() <= xs:date('2000-01-01')])", 1, exists(RANGE));
+    check("count(//d[text() < xs:date('1999-01-01')])", 0);
+    check("//d[text() >= xs:date('2000-02-29') and text() <= xs:date('2000-02-29')] ! string()",
+        "2000-02-29", exists(RANGE));
+  }
+
+  /**
+   * Range queries on timezoned attributes.
+   */
+  @Test public void attribute() {
+    check("count(//d[@t >= xs:dateTime('2001-01-01T12:00:00Z') and "
+        + "@t <= xs:dateTime('2001-01-10T12:00:00+00:00')])", 10, exists(RANGE));
+    check("count(//d[@t > xs:dateTime('2001-01-01T13:00:00+01:00') and "
+        + "@t < xs:dateTime('2001-01-10T12:00:00Z')])", 8, exists(RANGE));
+    check("count(//d[@t >= xs:dateTime('2002-09-26T09:00:00-03:00')])", 1, exists(RANGE));
+  }
+
+  /**
+   * Creates and drops the temporal index.
+   */
+  @Test public void optimize() {
+    assertTrue(context.data().meta.dbFile("txtd").exists());
+    set(MainOptions.DATEINDEX, false);
+    execute(new Optimize());
+    assertFalse(context.data().meta.dbFile("txtd").exists());
+    check("count(//d[text() >= xs:date('2001-01-01') and text() < xs:date('2001-02-01')])",
+        31);
+
+    set(MainOptions.DATEINDEX, true);
+    execute(new Optimize());
+    assertTrue(context.data().meta.dbFile("atvd").exists());
+    check("count(//d[text() >= xs:date('2001-01-01') and text() < xs:date('2001-02-01')])",
+        31, exists(RANGE));
+  }
+
+  /**
+   * Rebuilds the temporal index after incremental updates.
+   */
+  @Test public void update() {
+    set(MainOptions.UPDINDEX, true);
+    execute(new CreateDB(NAME, query(DOC)));
+    query("insert node <d t='2001-01-05T12:00:00Z'>2001-01-05</d> into /xml");
+    query("delete node //d[. = '2001-01-10']");
+    execute(new Optimize());
+    check("count(//d[text() >= xs:date('2001-01-01') and text() <= xs:date('2001-01-10')])",
+        10, exists(RANGE));
+    check("count(//d[@t = '2001-01-05T12:00:00Z' or "
+        + "@t >= xs:dateTime('2001-01-05T12:00:00Z') and "
+        + "@t <= xs:dateTime('2001-01-05T12:00:00Z')])", 2);
+  }
+}
@@ -0,0 +1,111 @@
+package org.basex.util;
+
+import static org.basex.util.Token.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.*;
+
+import org.basex.util.hash.*;
+import org.basex.util.list.*;
+import org.basex.util.similarity.*;
+import org.junit.jupiter.api.*;
+
+/**
+ * Levenshtein tests.
+ *
+ * @author BaseX Team 2005-20, BSD License
+ * @author Christian Gruen
+ */
+public final class LevenshteinTest {
+  /** Number of dictionary tokens. */
+  private static final int SIZE = 200000;
+  /** Search tokens. */
+  private static final String[] SEARCH = { "database", "levenstein", "xquery", "abcdefgh",
+    "zzzzz", "äpfelbaum" };
+  /** Sorted dictionary. */
+  private static final TokenList DICT = new TokenList(SIZE);
+
+  /** Initializes the tests. */
+  @BeforeAll public static void init() {
+    final Random rnd = new Random(0);
+    final TokenSet set = new TokenSet();
+    for(final String search : SEARCH) set.add(search);
+    while(set.size() < SIZE) {
+      final TokenBuilder tb = new TokenBuilder();
+      final int len = 4 + rnd.nextInt(8);
+      for(int l = 0; l < len; l++) {
+        // mix in tokens that are similar to the search tokens
+        tb.add(rnd.nextInt(8) == 0 ? 'ä' : 'a' + rnd.nextInt(rnd.nextBoolean() ? 4 : 26));
+      }
+      set.add(tb.finish());
+    }
+    for(final byte[] token : set) DICT.add(token);
+    DICT.sort(true);
+  }
+
+  /** Similarity checks. */
+  @Test public void similar() {
+    final Levenshtein ls = new Levenshtein();
+    assertTrue(ls.similar(token("database"), token("databse")));
+    assertTrue(ls.similar(token("database"), token("datbaase")));
+    assertTrue(ls.similar(token("DATABASE"), token("databaze")));
+    assertTrue(ls.similar(token("äpfel"), token("apfel"), 1));
+    assertFalse(ls.similar(token("database"), token("xyzabase")));
+    assertFalse(ls.similar(token("abc"), token("abd")));
+    assertTrue(ls.similar(token("xquery"), token("query"), 0));
+  }
+
+  /** Compares the results of the dictionary scan with single similarity checks. */
+  @Test public void prefix() {
+    final Levenshtein ls = new Levenshtein(), scan = new Levenshtein();
+    for(final String search : SEARCH) {
+      final byte[] sub = token(search);
+      for(int k = 0; k <= 3; k++) {
+        final TokenList exp = new TokenList(), res = new TokenList();
+        for(final byte[] token : DICT) {
+          if(ls.similar(token, sub, k)) exp.add(token);
+        }
+        scan(scan, sub, k, res);
+        assertEquals(exp.size(), res.size(), search + ", " + k);
+        for(int e = 0; e < exp.size(); e++) assertArrayEquals(exp.get(e), res.get(e));
+      }
+    }
+  }
+
+  /** Performance of single similarity checks. */
+  @Test public void similarPerformance() {
+    final Levenshtein ls = new Levenshtein();
+    for(final String search : SEARCH) {
+      final byte[] sub = token(search);
+      for(final byte[] token : DICT) ls.similar(token, sub, 2);
+    }
+  }
+
+  /** Performance of the dictionary scan. */
+  @Test public void prefixPerformance() {
+    final Levenshtein ls = new Levenshtein();
+    for(final String search : SEARCH) scan(ls, token(search), 2, new TokenList());
+  }
+
+  /**
+   * Scans the dictionary and skips tokens with prefixes that cannot be similar.
+   * @param ls Levenshtein instance
+   * @param sub search token
+   * @param k number of allowed errors
+   * @param result similar tokens
+   */
+  private static void scan(final Levenshtein ls, final byte[] sub, final int k,
+      final TokenList result) {
+    ls.reset();
+    final int size = DICT.size();
+    for(int d = 0; d < size;) {
+      final byte[] token = DICT.get(d++);
+      final int f = ls.prefix(token, sub, k);
+      if(f == -1) result.add(token);
+      if(f > 0 && f < token.length) {
+        final byte[] prefix = Arrays.copyOf(token, f);
+        while(d < size && startsWith(DICT.get(d), prefix)) d++;
+      }
+    }
+  }
+}